@@ -4,6 +4,11 @@ package org.openjproxy.constants;
  * Holds common constants used in both the JDBC driver and the OJP proxy server.
  */
 public class CommonConstants {
+    /**
+     * @deprecated result set blocks are sized by the fetch size or the server target block bytes, no longer by a
+     * fixed number of rows. Kept for compatibility, nothing in the driver or the server reads it.
+     */
+    @Deprecated
     public static final int ROWS_PER_RESULT_SET_DATA_BLOCK = 100;
     public static final int MAX_LOB_DATA_BLOCK_SIZE = 1024;//1KB per block
     public static final int PREPARED_STATEMENT_BINARY_STREAM_INDEX = 1;
@@ -19,10 +24,19 @@ public class CommonConstants {
     public static final String STATEMENT_AUTO_GENERATED_KEYS_KEY = "STATEMENT_AUTO_GENERATED_KEYS_KEY";
     public static final String STATEMENT_COLUMN_INDEXES_KEY = "STATEMENT_COLUMN_INDEXES_KEY";
     public static final String STATEMENT_COLUMN_NAMES_KEY = "STATEMENT_COLUMN_NAMES_KEY";
+    //Indexes of the out parameters the server reads right after executing a callable statement.
+    public static final String CALLABLE_STATEMENT_OUT_PARAMETERS_KEY = "CALLABLE_STATEMENT_OUT_PARAMETERS_KEY";
     public static final String RESULT_SET_ROW_BY_ROW_MODE = "RESULT_SET_ROW_BY_ROW_MODE";
     public static final int DEFAULT_PORT_NUMBER = 1059;
     public static final String OJP_REGEX_PATTERN = "ojp\\[([^\\]]+)\\]";
     public static final String OJP_CLOB_PREFIX = "OJP_CLOB_PREFIX:";
+    //Prefix of the UUID sent in place of a binary value spilled to disk by the server.
+    public static final String OJP_BLOB_PREFIX = "OJP_BLOB_PREFIX:";
+    //SQL state of the error returned when a statement handle is not known by the server, the client sends the SQL instead.
+    public static final String UNKNOWN_STATEMENT_HANDLE_SQL_STATE = "OJ001";
+    //Bits of ConnectionState.nullAttributes flagging a null catalog or schema.
+    public static final int CONNECTION_STATE_NULL_CATALOG = 1;
+    public static final int CONNECTION_STATE_NULL_SCHEMA = 1 << 1;
 
     // Configuration property keys
     public static final String DATASOURCE_NAME_PROPERTY = "ojp.datasource.name";
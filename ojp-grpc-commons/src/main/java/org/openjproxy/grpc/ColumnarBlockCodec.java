@@ -0,0 +1,237 @@
+package org.openjproxy.grpc;
+
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.ColumnEncoding;
+import com.openjproxy.grpc.ColumnMetadata;
+import com.openjproxy.grpc.ColumnValue;
+import com.openjproxy.grpc.ColumnVector;
+import com.openjproxy.grpc.ColumnarBlock;
+import com.openjproxy.grpc.ValueKind;
+import org.openjproxy.grpc.dto.ColumnarRows;
+import org.openjproxy.grpc.dto.OpQueryResult;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes blocks of result set rows into the columnar {@link ColumnarBlock} protobuf message and decodes them into
+ * {@link ColumnarRows}. Columns holding a single numeric type become primitive arrays, string columns with few
+ * distinct values are dictionary encoded and any other column falls back to typed {@link ColumnValue}s.
+ */
+public class ColumnarBlockCodec {
+
+    /**
+     * Maximum number of distinct values for a string column to be dictionary encoded.
+     */
+    public static final int MAX_DICTIONARY_SIZE = 256;
+
+    public static ColumnarBlock encode(String resultSetUUID, List<String> labels, List<Object[]> rows) {
+        return encode(resultSetUUID, labels, null, rows);
+    }
+
+    public static ColumnarBlock encode(String resultSetUUID, List<String> labels, List<ColumnMetadata> columnMetadata,
+                                       List<Object[]> rows) {
+        ColumnarBlock.Builder builder = ColumnarBlock.newBuilder();
+        if (resultSetUUID != null) {
+            builder.setResultSetUUID(resultSetUUID);
+        }
+        if (labels != null) {
+            builder.addAllLabels(labels);
+        }
+        if (columnMetadata != null) {
+            builder.addAllColumnMetadata(columnMetadata);
+        }
+        builder.setRowCount(rows.size());
+        int columnCount = rows.isEmpty() ? 0 : rows.get(0).length;
+        for (int i = 0; i < columnCount; i++) {
+            builder.addColumns(encodeColumn(rows, i));
+        }
+        return builder.build();
+    }
+
+    public static OpQueryResult decode(ColumnarBlock columnarBlock) {
+        int rowCount = columnarBlock.getRowCount();
+        List<ColumnarRows.Column> columns = new ArrayList<>(columnarBlock.getColumnsCount());
+        for (ColumnVector vector : columnarBlock.getColumnsList()) {
+            columns.add(decodeColumn(vector, rowCount));
+        }
+        return OpQueryResult.builder()
+                .resultSetUUID(columnarBlock.getResultSetUUID())
+                .labels(new ArrayList<>(columnarBlock.getLabelsList()))
+                .rows(new ColumnarRows(rowCount, columns))
+                .metadata(ResultSetMetadataCodec.decode(columnarBlock.getColumnMetadataList()))
+                .build();
+    }
+
+    private static ColumnVector encodeColumn(List<Object[]> rows, int columnIdx) {
+        ColumnVector.Builder vector = ColumnVector.newBuilder();
+        int rowCount = rows.size();
+        BitSet nulls = new BitSet(rowCount);
+        Class<?> columnClass = null;
+        boolean singleClass = true;
+        for (int i = 0; i < rowCount; i++) {
+            Object value = rows.get(i)[columnIdx];
+            if (value == null) {
+                nulls.set(i);
+            } else if (columnClass == null) {
+                columnClass = value.getClass();
+            } else if (!columnClass.equals(value.getClass())) {
+                singleClass = false;
+            }
+        }
+        if (!nulls.isEmpty()) {
+            vector.setNullBitmap(ByteString.copyFrom(nulls.toByteArray()));
+        }
+
+        ColumnEncoding encoding = !singleClass || columnClass == null ? ColumnEncoding.CE_VALUES :
+                encodingOf(columnClass);
+        vector.setEncoding(encoding);
+        vector.setKind(kindOf(columnClass));
+        switch (encoding) {
+            case CE_INT64: {
+                for (int i = 0; i < rowCount; i++) {
+                    Object value = rows.get(i)[columnIdx];
+                    vector.addLongValues(value == null ? 0L : ((Number) value).longValue());
+                }
+                break;
+            }
+            case CE_DOUBLE: {
+                for (int i = 0; i < rowCount; i++) {
+                    Object value = rows.get(i)[columnIdx];
+                    vector.addDoubleValues(value == null ? 0d : ((Number) value).doubleValue());
+                }
+                break;
+            }
+            case CE_STRING: {
+                encodeStrings(rows, columnIdx, rowCount - nulls.cardinality(), vector);
+                break;
+            }
+            default: {
+                for (int i = 0; i < rowCount; i++) {
+                    vector.addValues(RowBlockCodec.encodeValue(rows.get(i)[columnIdx]));
+                }
+                break;
+            }
+        }
+        return vector.build();
+    }
+
+    /**
+     * Dictionary encodes the column when it has few distinct values compared to the number of rows, otherwise each
+     * string is sent as is.
+     */
+    private static void encodeStrings(List<Object[]> rows, int columnIdx, int nonNullCount,
+                                      ColumnVector.Builder vector) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        int[] indexes = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            String value = (String) rows.get(i)[columnIdx];
+            if (value == null) {
+                continue;
+            }
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                if (dictionary.size() >= MAX_DICTIONARY_SIZE) {
+                    dictionary = null;
+                    break;
+                }
+                index = dictionary.size();
+                dictionary.put(value, index);
+            }
+            indexes[i] = index;
+        }
+        if (dictionary != null && dictionary.size() * 2 <= nonNullCount) {
+            vector.setEncoding(ColumnEncoding.CE_DICTIONARY);
+            String[] entries = new String[dictionary.size()];
+            dictionary.forEach((value, index) -> entries[index] = value);
+            for (String entry : entries) {
+                vector.addDictionary(entry);
+            }
+            for (int index : indexes) {
+                vector.addDictionaryIndexes(index);
+            }
+        } else {
+            for (Object[] row : rows) {
+                Object value = row[columnIdx];
+                vector.addStringValues(value == null ? "" : (String) value);
+            }
+        }
+    }
+
+    private static ColumnarRows.Column decodeColumn(ColumnVector vector, int rowCount) {
+        ColumnarRows.Column.ColumnBuilder column = ColumnarRows.Column.builder()
+                .encoding(vector.getEncoding())
+                .kind(vector.getKind());
+        if (!vector.getNullBitmap().isEmpty()) {
+            column.nulls(BitSet.valueOf(vector.getNullBitmap().asReadOnlyByteBuffer()));
+        }
+        switch (vector.getEncoding()) {
+            case CE_INT64: {
+                long[] longs = new long[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    longs[i] = vector.getLongValues(i);
+                }
+                column.longs(longs);
+                break;
+            }
+            case CE_DOUBLE: {
+                double[] doubles = new double[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    doubles[i] = vector.getDoubleValues(i);
+                }
+                column.doubles(doubles);
+                break;
+            }
+            case CE_STRING: {
+                column.strings(vector.getStringValuesList().toArray(new String[0]));
+                break;
+            }
+            case CE_DICTIONARY: {
+                int[] indexes = new int[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    indexes[i] = vector.getDictionaryIndexes(i);
+                }
+                column.dictionary(vector.getDictionaryList().toArray(new String[0]));
+                column.dictionaryIndexes(indexes);
+                break;
+            }
+            default: {
+                Object[] values = new Object[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    values[i] = RowBlockCodec.decodeValue(vector.getValues(i));
+                }
+                column.values(values);
+                break;
+            }
+        }
+        return column.build();
+    }
+
+    private static ColumnEncoding encodingOf(Class<?> columnClass) {
+        if (Long.class.equals(columnClass) || Integer.class.equals(columnClass) || Short.class.equals(columnClass)
+                || Byte.class.equals(columnClass)) {
+            return ColumnEncoding.CE_INT64;
+        } else if (Double.class.equals(columnClass) || Float.class.equals(columnClass)) {
+            return ColumnEncoding.CE_DOUBLE;
+        } else if (String.class.equals(columnClass)) {
+            return ColumnEncoding.CE_STRING;
+        }
+        return ColumnEncoding.CE_VALUES;
+    }
+
+    private static ValueKind kindOf(Class<?> columnClass) {
+        if (Integer.class.equals(columnClass)) {
+            return ValueKind.VK_INT;
+        } else if (Short.class.equals(columnClass)) {
+            return ValueKind.VK_SHORT;
+        } else if (Byte.class.equals(columnClass)) {
+            return ValueKind.VK_BYTE;
+        } else if (Float.class.equals(columnClass)) {
+            return ValueKind.VK_FLOAT;
+        }
+        return ValueKind.VK_DEFAULT;
+    }
+}
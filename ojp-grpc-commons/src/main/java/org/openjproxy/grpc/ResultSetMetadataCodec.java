@@ -0,0 +1,80 @@
+package org.openjproxy.grpc;
+
+import com.openjproxy.grpc.ColumnMetadata;
+import org.openjproxy.grpc.dto.LocalResultSetMetaData;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Encodes the {@link ResultSetMetaData} of a result set into {@link ColumnMetadata} protobuf messages, sent with the
+ * first block of rows, and decodes them back into a {@link ResultSetMetaData} answered locally by the driver.
+ */
+public class ResultSetMetadataCodec {
+
+    //Bits of ColumnMetadata.nullAttributes flagging the string attributes returned as null by the database driver.
+    public static final int COLUMN_TYPE_NAME = 1;
+    public static final int COLUMN_LABEL = 1 << 1;
+    public static final int COLUMN_NAME = 1 << 2;
+    public static final int SCHEMA_NAME = 1 << 3;
+    public static final int TABLE_NAME = 1 << 4;
+    public static final int CATALOG_NAME = 1 << 5;
+    public static final int COLUMN_CLASS_NAME = 1 << 6;
+
+    public static List<ColumnMetadata> encode(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        List<ColumnMetadata> columns = new ArrayList<>(columnCount);
+        for (int column = 1; column <= columnCount; column++) {
+            ColumnMetadata.Builder builder = ColumnMetadata.newBuilder()
+                    .setColumnType(metaData.getColumnType(column))
+                    .setColumnDisplaySize(metaData.getColumnDisplaySize(column))
+                    .setPrecision(metaData.getPrecision(column))
+                    .setScale(metaData.getScale(column))
+                    .setNullable(metaData.isNullable(column))
+                    .setAutoIncrement(metaData.isAutoIncrement(column))
+                    .setCaseSensitive(metaData.isCaseSensitive(column))
+                    .setSearchable(metaData.isSearchable(column))
+                    .setCurrency(metaData.isCurrency(column))
+                    .setSigned(metaData.isSigned(column))
+                    .setReadOnly(metaData.isReadOnly(column))
+                    .setWritable(metaData.isWritable(column))
+                    .setDefinitelyWritable(metaData.isDefinitelyWritable(column));
+            int nullAttributes = 0;
+            nullAttributes |= setString(builder::setColumnTypeName, metaData.getColumnTypeName(column), COLUMN_TYPE_NAME);
+            nullAttributes |= setString(builder::setColumnLabel, metaData.getColumnLabel(column), COLUMN_LABEL);
+            nullAttributes |= setString(builder::setColumnName, metaData.getColumnName(column), COLUMN_NAME);
+            nullAttributes |= setString(builder::setSchemaName, metaData.getSchemaName(column), SCHEMA_NAME);
+            nullAttributes |= setString(builder::setTableName, metaData.getTableName(column), TABLE_NAME);
+            nullAttributes |= setString(builder::setCatalogName, metaData.getCatalogName(column), CATALOG_NAME);
+            nullAttributes |= setString(builder::setColumnClassName, metaData.getColumnClassName(column),
+                    COLUMN_CLASS_NAME);
+            builder.setNullAttributes(nullAttributes);
+            columns.add(builder.build());
+        }
+        return columns;
+    }
+
+    private static int setString(Consumer<String> setter, String value, int nullBit) {
+        if (value == null) {
+            return nullBit;
+        }
+        setter.accept(value);
+        return 0;
+    }
+
+    /**
+     * Decodes the columns metadata.
+     *
+     * @param columns metadata of each column
+     * @return the result set metadata or null if no column metadata was sent
+     */
+    public static ResultSetMetaData decode(List<ColumnMetadata> columns) {
+        if (columns == null || columns.isEmpty()) {
+            return null;
+        }
+        return new LocalResultSetMetaData(columns);
+    }
+}
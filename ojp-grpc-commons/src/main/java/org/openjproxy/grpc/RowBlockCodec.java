@@ -0,0 +1,169 @@
+package org.openjproxy.grpc;
+
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.ColumnMetadata;
+import com.openjproxy.grpc.ColumnValue;
+import com.openjproxy.grpc.DecimalValue;
+import com.openjproxy.grpc.Row;
+import com.openjproxy.grpc.RowBlock;
+import com.openjproxy.grpc.TimestampValue;
+import com.openjproxy.grpc.ValueKind;
+import org.openjproxy.grpc.dto.OpQueryResult;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.openjproxy.grpc.SerializationHandler.deserialize;
+import static org.openjproxy.grpc.SerializationHandler.serialize;
+
+/**
+ * Encodes blocks of result set rows into the typed {@link RowBlock} protobuf message and decodes them back into the
+ * same java objects, so the driver behaves exactly as with the java serialized {@link OpQueryResult}.
+ * Values without a typed representation fall back to java serialization on a per cell basis.
+ */
+public class RowBlockCodec {
+
+    private static final ColumnValue NULL_VALUE = ColumnValue.newBuilder().setIsNull(true).build();
+
+    public static RowBlock encode(String resultSetUUID, List<String> labels, List<Object[]> rows) {
+        return encode(resultSetUUID, labels, null, rows);
+    }
+
+    public static RowBlock encode(String resultSetUUID, List<String> labels, List<ColumnMetadata> columnMetadata,
+                                  List<Object[]> rows) {
+        RowBlock.Builder builder = RowBlock.newBuilder();
+        if (resultSetUUID != null) {
+            builder.setResultSetUUID(resultSetUUID);
+        }
+        if (labels != null) {
+            builder.addAllLabels(labels);
+        }
+        if (columnMetadata != null) {
+            builder.addAllColumnMetadata(columnMetadata);
+        }
+        for (Object[] rowValues : rows) {
+            Row.Builder row = Row.newBuilder();
+            for (Object value : rowValues) {
+                row.addValues(encodeValue(value));
+            }
+            builder.addRows(row);
+        }
+        return builder.build();
+    }
+
+    public static OpQueryResult decode(RowBlock rowBlock) {
+        List<Object[]> rows = new ArrayList<>(rowBlock.getRowsCount());
+        for (Row row : rowBlock.getRowsList()) {
+            Object[] rowValues = new Object[row.getValuesCount()];
+            for (int i = 0; i < rowValues.length; i++) {
+                rowValues[i] = decodeValue(row.getValues(i));
+            }
+            rows.add(rowValues);
+        }
+        return OpQueryResult.builder()
+                .resultSetUUID(rowBlock.getResultSetUUID())
+                .labels(new ArrayList<>(rowBlock.getLabelsList()))
+                .rows(rows)
+                .metadata(ResultSetMetadataCodec.decode(rowBlock.getColumnMetadataList()))
+                .build();
+    }
+
+    public static ColumnValue encodeValue(Object value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        ColumnValue.Builder builder = ColumnValue.newBuilder();
+        if (value instanceof String) {
+            builder.setStringValue((String) value);
+        } else if (value instanceof Long) {
+            builder.setInt64Value((Long) value);
+        } else if (value instanceof Integer) {
+            builder.setInt64Value((Integer) value).setKind(ValueKind.VK_INT);
+        } else if (value instanceof Short) {
+            builder.setInt64Value((Short) value).setKind(ValueKind.VK_SHORT);
+        } else if (value instanceof Byte) {
+            builder.setInt64Value((Byte) value).setKind(ValueKind.VK_BYTE);
+        } else if (value instanceof Double) {
+            builder.setDoubleValue((Double) value);
+        } else if (value instanceof Float) {
+            builder.setDoubleValue((Float) value).setKind(ValueKind.VK_FLOAT);
+        } else if (value instanceof Boolean) {
+            builder.setBoolValue((Boolean) value);
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            builder.setDecimalValue(DecimalValue.newBuilder()
+                    .setUnscaledValue(ByteString.copyFrom(decimal.unscaledValue().toByteArray()))
+                    .setScale(decimal.scale()));
+        } else if (value instanceof byte[]) {
+            builder.setBytesValue(ByteString.copyFrom((byte[]) value));
+        } else if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            builder.setTimestampValue(TimestampValue.newBuilder()
+                    .setEpochMillis(timestamp.getTime())
+                    .setNanos(timestamp.getNanos()));
+        } else if (value instanceof Date) {
+            builder.setTimestampValue(TimestampValue.newBuilder().setEpochMillis(((Date) value).getTime()))
+                    .setKind(ValueKind.VK_DATE);
+        } else if (value instanceof Time) {
+            builder.setTimestampValue(TimestampValue.newBuilder().setEpochMillis(((Time) value).getTime()))
+                    .setKind(ValueKind.VK_TIME);
+        } else {
+            builder.setSerializedValue(ByteString.copyFrom(serialize(value)));
+        }
+        return builder.build();
+    }
+
+    public static Object decodeValue(ColumnValue value) {
+        switch (value.getValueCase()) {
+            case STRINGVALUE:
+                return value.getStringValue();
+            case INT64VALUE: {
+                long longValue = value.getInt64Value();
+                switch (value.getKind()) {
+                    case VK_INT:
+                        return (int) longValue;
+                    case VK_SHORT:
+                        return (short) longValue;
+                    case VK_BYTE:
+                        return (byte) longValue;
+                    default:
+                        return longValue;
+                }
+            }
+            case DOUBLEVALUE:
+                return ValueKind.VK_FLOAT.equals(value.getKind()) ? (Object) (float) value.getDoubleValue() :
+                        (Object) value.getDoubleValue();
+            case BOOLVALUE:
+                return value.getBoolValue();
+            case DECIMALVALUE: {
+                DecimalValue decimal = value.getDecimalValue();
+                return new BigDecimal(new BigInteger(decimal.getUnscaledValue().toByteArray()), decimal.getScale());
+            }
+            case BYTESVALUE:
+                return value.getBytesValue().toByteArray();
+            case TIMESTAMPVALUE: {
+                TimestampValue timestampValue = value.getTimestampValue();
+                switch (value.getKind()) {
+                    case VK_DATE:
+                        return new Date(timestampValue.getEpochMillis());
+                    case VK_TIME:
+                        return new Time(timestampValue.getEpochMillis());
+                    default: {
+                        Timestamp timestamp = new Timestamp(timestampValue.getEpochMillis());
+                        timestamp.setNanos(timestampValue.getNanos());
+                        return timestamp;
+                    }
+                }
+            }
+            case SERIALIZEDVALUE:
+                return deserialize(value.getSerializedValue().toByteArray(), Object.class);
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.openjproxy.grpc.dto;
+
+import com.openjproxy.grpc.ColumnEncoding;
+import com.openjproxy.grpc.ValueKind;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Rows of a columnar result block. Each column keeps its values in a primitive array plus a null bitmap so numeric
+ * values can be read without boxing through {@link #getLong(int, int)} and {@link #getDouble(int, int)}.
+ * It still is a {@code List<Object[]>}, rows are materialized on demand for callers that want the row view.
+ */
+public class ColumnarRows extends AbstractList<Object[]> {
+
+    private final int rowCount;
+    private final List<Column> columns;
+
+    public ColumnarRows(int rowCount, List<Column> columns) {
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    @Override
+    public Object[] get(int rowIdx) {
+        if (rowIdx < 0 || rowIdx >= this.rowCount) {
+            throw new IndexOutOfBoundsException("Row " + rowIdx + " out of " + this.rowCount);
+        }
+        Object[] row = new Object[this.columns.size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = this.getValue(rowIdx, i);
+        }
+        return row;
+    }
+
+    @Override
+    public int size() {
+        return this.rowCount;
+    }
+
+    public int getColumnCount() {
+        return this.columns.size();
+    }
+
+    public boolean isNull(int rowIdx, int columnIdx) {
+        return this.columns.get(columnIdx).isNull(rowIdx);
+    }
+
+    /**
+     * @return true if the column values are stored as longs and can be read with {@link #getLong(int, int)}.
+     */
+    public boolean isLongColumn(int columnIdx) {
+        return ColumnEncoding.CE_INT64.equals(this.columns.get(columnIdx).getEncoding());
+    }
+
+    /**
+     * @return true if the column values are stored as doubles and can be read with {@link #getDouble(int, int)}.
+     */
+    public boolean isDoubleColumn(int columnIdx) {
+        return ColumnEncoding.CE_DOUBLE.equals(this.columns.get(columnIdx).getEncoding());
+    }
+
+    public long getLong(int rowIdx, int columnIdx) {
+        return this.columns.get(columnIdx).getLongs()[rowIdx];
+    }
+
+    public double getDouble(int rowIdx, int columnIdx) {
+        return this.columns.get(columnIdx).getDoubles()[rowIdx];
+    }
+
+    /**
+     * Boxed value of a single cell, of the same java type the server read from the database.
+     */
+    public Object getValue(int rowIdx, int columnIdx) {
+        Column column = this.columns.get(columnIdx);
+        if (column.isNull(rowIdx)) {
+            return null;
+        }
+        switch (column.getEncoding()) {
+            case CE_INT64: {
+                long value = column.getLongs()[rowIdx];
+                switch (column.getKind()) {
+                    case VK_INT:
+                        return (int) value;
+                    case VK_SHORT:
+                        return (short) value;
+                    case VK_BYTE:
+                        return (byte) value;
+                    default:
+                        return value;
+                }
+            }
+            case CE_DOUBLE: {
+                double value = column.getDoubles()[rowIdx];
+                return ValueKind.VK_FLOAT.equals(column.getKind()) ? (Object) (float) value : (Object) value;
+            }
+            case CE_STRING:
+                return column.getStrings()[rowIdx];
+            case CE_DICTIONARY:
+                return column.getDictionary()[column.getDictionaryIndexes()[rowIdx]];
+            default:
+                return column.getValues()[rowIdx];
+        }
+    }
+
+    /**
+     * Values of a single column, only the arrays matching the encoding are populated.
+     */
+    @Builder
+    @Getter
+    public static class Column {
+        private final ColumnEncoding encoding;
+        private final ValueKind kind;
+        /**
+         * Rows with null values, null if the column has no nulls.
+         */
+        private final BitSet nulls;
+        private final long[] longs;
+        private final double[] doubles;
+        private final String[] strings;
+        private final String[] dictionary;
+        private final int[] dictionaryIndexes;
+        private final Object[] values;
+
+        public boolean isNull(int rowIdx) {
+            return this.nulls != null && this.nulls.get(rowIdx);
+        }
+    }
+}
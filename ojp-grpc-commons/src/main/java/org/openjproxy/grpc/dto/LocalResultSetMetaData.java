@@ -0,0 +1,154 @@
+package org.openjproxy.grpc.dto;
+
+import com.openjproxy.grpc.ColumnMetadata;
+import org.openjproxy.grpc.ResultSetMetadataCodec;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Read only {@link ResultSetMetaData} backed by the column metadata sent by the server with the first block of a
+ * result set, every getter is answered without a round trip to the server.
+ */
+public class LocalResultSetMetaData implements ResultSetMetaData {
+
+    private final List<ColumnMetadata> columns;
+
+    public LocalResultSetMetaData(List<ColumnMetadata> columns) {
+        this.columns = columns;
+    }
+
+    private ColumnMetadata column(int column) throws SQLException {
+        if (column < 1 || column > this.columns.size()) {
+            throw new SQLException("Invalid column index " + column + ", result set has " + this.columns.size() +
+                    " columns.");
+        }
+        return this.columns.get(column - 1);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columns.size();
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) throws SQLException {
+        return this.column(column).getAutoIncrement();
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) throws SQLException {
+        return this.column(column).getCaseSensitive();
+    }
+
+    @Override
+    public boolean isSearchable(int column) throws SQLException {
+        return this.column(column).getSearchable();
+    }
+
+    @Override
+    public boolean isCurrency(int column) throws SQLException {
+        return this.column(column).getCurrency();
+    }
+
+    @Override
+    public int isNullable(int column) throws SQLException {
+        return this.column(column).getNullable();
+    }
+
+    @Override
+    public boolean isSigned(int column) throws SQLException {
+        return this.column(column).getSigned();
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) throws SQLException {
+        return this.column(column).getColumnDisplaySize();
+    }
+
+    @Override
+    public String getColumnLabel(int column) throws SQLException {
+        ColumnMetadata metadata = this.column(column);
+        return (metadata.getNullAttributes() & ResultSetMetadataCodec.COLUMN_LABEL) != 0 ? null : metadata.getColumnLabel();
+    }
+
+    @Override
+    public String getColumnName(int column) throws SQLException {
+        ColumnMetadata metadata = this.column(column);
+        return (metadata.getNullAttributes() & ResultSetMetadataCodec.COLUMN_NAME) != 0 ? null : metadata.getColumnName();
+    }
+
+    @Override
+    public String getSchemaName(int column) throws SQLException {
+        ColumnMetadata metadata = this.column(column);
+        return (metadata.getNullAttributes() & ResultSetMetadataCodec.SCHEMA_NAME) != 0 ? null : metadata.getSchemaName();
+    }
+
+    @Override
+    public int getPrecision(int column) throws SQLException {
+        return this.column(column).getPrecision();
+    }
+
+    @Override
+    public int getScale(int column) throws SQLException {
+        return this.column(column).getScale();
+    }
+
+    @Override
+    public String getTableName(int column) throws SQLException {
+        ColumnMetadata metadata = this.column(column);
+        return (metadata.getNullAttributes() & ResultSetMetadataCodec.TABLE_NAME) != 0 ? null : metadata.getTableName();
+    }
+
+    @Override
+    public String getCatalogName(int column) throws SQLException {
+        ColumnMetadata metadata = this.column(column);
+        return (metadata.getNullAttributes() & ResultSetMetadataCodec.CATALOG_NAME) != 0 ? null : metadata.getCatalogName();
+    }
+
+    @Override
+    public int getColumnType(int column) throws SQLException {
+        return this.column(column).getColumnType();
+    }
+
+    @Override
+    public String getColumnTypeName(int column) throws SQLException {
+        ColumnMetadata metadata = this.column(column);
+        return (metadata.getNullAttributes() & ResultSetMetadataCodec.COLUMN_TYPE_NAME) != 0 ? null : metadata.getColumnTypeName();
+    }
+
+    @Override
+    public boolean isReadOnly(int column) throws SQLException {
+        return this.column(column).getReadOnly();
+    }
+
+    @Override
+    public boolean isWritable(int column) throws SQLException {
+        return this.column(column).getWritable();
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) throws SQLException {
+        return this.column(column).getDefinitelyWritable();
+    }
+
+    @Override
+    public String getColumnClassName(int column) throws SQLException {
+        ColumnMetadata metadata = this.column(column);
+        return (metadata.getNullAttributes() & ResultSetMetadataCodec.COLUMN_CLASS_NAME) != 0 ? null : metadata.getColumnClassName();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Cannot unwrap to " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Getter;
 
 import java.io.Serializable;
+import java.sql.ResultSetMetaData;
 import java.util.List;
 
 /**
@@ -21,4 +22,9 @@ public class OpQueryResult implements Serializable {
      * List of rows, each row is an array of objects, each array element is a column of the result set.
      */
     List<Object[]> rows;
+    /**
+     * Metadata of the columns returned, only populated in the first block of data returned and only when the block
+     * was decoded from a protobuf row or columnar block. Null if the server did not send it.
+     */
+    transient ResultSetMetaData metadata;
 }
@@ -0,0 +1,86 @@
+package org.openjproxy.grpc;
+
+import com.openjproxy.grpc.ColumnEncoding;
+import com.openjproxy.grpc.ColumnarBlock;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.dto.ColumnarRows;
+import org.openjproxy.grpc.dto.OpQueryResult;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnarBlockCodecTest {
+
+    @Test
+    void shouldEncodeEachColumnWithTheNarrowestLayout() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new Object[]{
+                    i, i % 3 == 0 ? null : (long) i * 1000, i / 2.0d, "status" + (i % 2), "name" + i,
+                    new BigDecimal(i), i % 2 == 0 ? "mixed" : i
+            });
+        }
+
+        ColumnarBlock block = ColumnarBlock.parseFrom(
+                ColumnarBlockCodec.encode("rs-uuid", Arrays.asList("ID", "AMOUNT"), rows).toByteArray());
+
+        assertEquals(10, block.getRowCount());
+        assertEquals(ColumnEncoding.CE_INT64, block.getColumns(0).getEncoding());
+        assertEquals(ColumnEncoding.CE_INT64, block.getColumns(1).getEncoding());
+        assertFalse(block.getColumns(1).getNullBitmap().isEmpty());
+        assertEquals(ColumnEncoding.CE_DOUBLE, block.getColumns(2).getEncoding());
+        assertEquals(ColumnEncoding.CE_DICTIONARY, block.getColumns(3).getEncoding());
+        assertEquals(2, block.getColumns(3).getDictionaryCount());
+        assertEquals(ColumnEncoding.CE_STRING, block.getColumns(4).getEncoding());
+        assertEquals(ColumnEncoding.CE_VALUES, block.getColumns(5).getEncoding());
+        assertEquals(ColumnEncoding.CE_VALUES, block.getColumns(6).getEncoding());
+
+        OpQueryResult result = ColumnarBlockCodec.decode(block);
+        assertEquals("rs-uuid", result.getResultSetUUID());
+        assertInstanceOf(ColumnarRows.class, result.getRows());
+        ColumnarRows columnarRows = (ColumnarRows) result.getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            assertArrayEquals(rows.get(i), columnarRows.get(i));
+        }
+        assertTrue(columnarRows.isLongColumn(1));
+        assertTrue(columnarRows.isNull(0, 1));
+        assertEquals(4000L, columnarRows.getLong(4, 1));
+        assertTrue(columnarRows.isDoubleColumn(2));
+        assertEquals(2.5d, columnarRows.getDouble(5, 2));
+        assertInstanceOf(Integer.class, columnarRows.getValue(3, 0));
+        assertNull(columnarRows.getValue(3, 1));
+    }
+
+    @Test
+    void shouldKeepNullsInStringAndGenericColumns() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{null, new Timestamp(1000L)});
+        rows.add(new Object[]{"a", null});
+        rows.add(new Object[]{"b", new Timestamp(2000L)});
+
+        OpQueryResult result = ColumnarBlockCodec.decode(ColumnarBlockCodec.encode(null, null, rows));
+
+        for (int i = 0; i < rows.size(); i++) {
+            assertArrayEquals(rows.get(i), result.getRows().get(i));
+        }
+    }
+
+    @Test
+    void shouldDecodeEmptyBlocks() {
+        OpQueryResult result = ColumnarBlockCodec.decode(
+                ColumnarBlockCodec.encode("rs-uuid", Arrays.asList("ID"), new ArrayList<>()));
+
+        assertEquals(Arrays.asList("ID"), result.getLabels());
+        assertTrue(result.getRows().isEmpty());
+    }
+}
@@ -0,0 +1,96 @@
+package org.openjproxy.grpc;
+
+import com.openjproxy.grpc.ColumnMetadata;
+import com.openjproxy.grpc.ColumnarBlock;
+import com.openjproxy.grpc.RowBlock;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.dto.OpQueryResult;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResultSetMetadataCodecTest {
+
+    private static final List<ColumnMetadata> COLUMNS = Arrays.asList(
+            ColumnMetadata.newBuilder()
+                    .setColumnType(Types.INTEGER)
+                    .setColumnTypeName("INTEGER")
+                    .setColumnLabel("ID")
+                    .setColumnName("ID")
+                    .setSchemaName("PUBLIC")
+                    .setTableName("USERS")
+                    .setCatalogName("TEST")
+                    .setColumnClassName("java.lang.Integer")
+                    .setColumnDisplaySize(11)
+                    .setPrecision(32)
+                    .setNullable(ResultSetMetaData.columnNoNulls)
+                    .setAutoIncrement(true)
+                    .setSearchable(true)
+                    .setSigned(true)
+                    .build(),
+            ColumnMetadata.newBuilder()
+                    .setColumnType(Types.VARCHAR)
+                    .setColumnTypeName("CHARACTER VARYING")
+                    .setColumnLabel("NAME")
+                    .setColumnDisplaySize(50)
+                    .setPrecision(50)
+                    .setNullable(ResultSetMetaData.columnNullable)
+                    .setCaseSensitive(true)
+                    .setWritable(true)
+                    .setNullAttributes(ResultSetMetadataCodec.COLUMN_NAME | ResultSetMetadataCodec.SCHEMA_NAME |
+                            ResultSetMetadataCodec.TABLE_NAME | ResultSetMetadataCodec.CATALOG_NAME |
+                            ResultSetMetadataCodec.COLUMN_CLASS_NAME)
+                    .build());
+
+    @Test
+    void shouldAnswerMetadataFromTheFirstRowBlock() throws Exception {
+        RowBlock rowBlock = RowBlock.parseFrom(RowBlockCodec.encode("rs-uuid", Arrays.asList("ID", "NAME"), COLUMNS,
+                new ArrayList<>()).toByteArray());
+        ResultSetMetaData metaData = RowBlockCodec.decode(rowBlock).getMetadata();
+
+        assertEquals(2, metaData.getColumnCount());
+        assertEquals(Types.INTEGER, metaData.getColumnType(1));
+        assertEquals("INTEGER", metaData.getColumnTypeName(1));
+        assertEquals("USERS", metaData.getTableName(1));
+        assertEquals("java.lang.Integer", metaData.getColumnClassName(1));
+        assertEquals(ResultSetMetaData.columnNoNulls, metaData.isNullable(1));
+        assertTrue(metaData.isAutoIncrement(1));
+        assertTrue(metaData.isSigned(1));
+        assertFalse(metaData.isCaseSensitive(1));
+
+        assertEquals("NAME", metaData.getColumnLabel(2));
+        assertEquals(50, metaData.getPrecision(2));
+        assertTrue(metaData.isWritable(2));
+        assertNull(metaData.getColumnName(2), "Absent strings are kept as null");
+        assertNull(metaData.getTableName(2));
+        assertThrows(SQLException.class, () -> metaData.getColumnType(3));
+    }
+
+    @Test
+    void shouldAnswerMetadataFromTheFirstColumnarBlock() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1, "one"});
+        ColumnarBlock block = ColumnarBlock.parseFrom(ColumnarBlockCodec.encode("rs-uuid",
+                Arrays.asList("ID", "NAME"), COLUMNS, rows).toByteArray());
+        ResultSetMetaData metaData = ColumnarBlockCodec.decode(block).getMetadata();
+
+        assertEquals(COLUMNS, ResultSetMetadataCodec.encode(metaData));
+    }
+
+    @Test
+    void shouldNotHaveMetadataInFollowingBlocks() {
+        OpQueryResult result = RowBlockCodec.decode(RowBlockCodec.encode("rs-uuid", null, new ArrayList<>()));
+
+        assertNull(result.getMetadata());
+    }
+}
@@ -0,0 +1,65 @@
+package org.openjproxy.grpc;
+
+import com.openjproxy.grpc.RowBlock;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.dto.OpQueryResult;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RowBlockCodecTest {
+
+    @Test
+    void shouldRoundTripTypedValuesKeepingJavaTypes() throws Exception {
+        Timestamp timestamp = Timestamp.valueOf("2024-05-17 10:15:30.123456789");
+        UUID uuid = UUID.randomUUID();
+        Object[] row = new Object[]{
+                "text", 42L, 7, (short) 3, (byte) 1, 1.5d, 2.5f, true,
+                new BigDecimal("-12345678901234567890.0042"), new byte[]{1, 2, 3},
+                timestamp, Date.valueOf("2024-05-17"), Time.valueOf("10:15:30"),
+                uuid, new BigInteger("123456789012345678901234567890"), null
+        };
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row);
+
+        RowBlock rowBlock = RowBlock.parseFrom(
+                RowBlockCodec.encode("rs-uuid", Arrays.asList("A", "B"), rows).toByteArray());
+        OpQueryResult result = RowBlockCodec.decode(rowBlock);
+
+        assertEquals("rs-uuid", result.getResultSetUUID());
+        assertEquals(Arrays.asList("A", "B"), result.getLabels());
+        Object[] decoded = result.getRows().get(0);
+        assertEquals(row.length, decoded.length);
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] instanceof byte[]) {
+                assertArrayEquals((byte[]) row[i], (byte[]) decoded[i]);
+            } else if (row[i] != null) {
+                assertEquals(row[i].getClass(), decoded[i].getClass(), "Column " + i);
+                assertEquals(row[i], decoded[i], "Column " + i);
+            }
+        }
+        assertEquals(timestamp.getNanos(), ((Timestamp) decoded[10]).getNanos());
+        assertNull(decoded[row.length - 1]);
+    }
+
+    @Test
+    void shouldDecodeBlocksWithoutLabels() {
+        List<Object[]> rows = new ArrayList<>();
+        OpQueryResult result = RowBlockCodec.decode(RowBlockCodec.encode("rs-uuid", null, rows));
+
+        assertTrue(result.getLabels().isEmpty());
+        assertTrue(result.getRows().isEmpty());
+    }
+}
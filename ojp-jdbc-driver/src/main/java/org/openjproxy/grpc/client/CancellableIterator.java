@@ -0,0 +1,38 @@
+package org.openjproxy.grpc.client;
+
+import io.grpc.Context;
+
+import java.util.Iterator;
+
+/**
+ * Iterator over the responses of a server streaming call started within a cancellable context, cancelling it stops
+ * the call on the client and on the server when the responses are no longer wanted, such as when a result set is
+ * closed before being fully read. Cancelling a call already completed has no effect.
+ */
+public class CancellableIterator<T> implements Iterator<T> {
+
+    private final Iterator<T> delegate;
+    private final Context.CancellableContext context;
+
+    public CancellableIterator(Iterator<T> delegate, Context.CancellableContext context) {
+        this.delegate = delegate;
+        this.context = context;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.delegate.hasNext();
+    }
+
+    @Override
+    public T next() {
+        return this.delegate.next();
+    }
+
+    /**
+     * Cancels the call, a thread waiting for the next response gets a CANCELLED status.
+     */
+    public void cancel() {
+        this.context.cancel(null);
+    }
+}
@@ -19,17 +19,46 @@ public class GrpcExceptionHandler {
      * @throws SQLException If conversion possible.
      */
     public static StatusRuntimeException handle(StatusRuntimeException sre) throws SQLException {
-        Metadata metadata = Status.trailersFromThrowable(sre);
-        SqlErrorResponse errorResponse = metadata.get(ProtoUtils.keyForProto(SqlErrorResponse.getDefaultInstance()));
+        SqlErrorResponse errorResponse = errorResponse(sre);
         if (errorResponse == null) {
             return sre;
         }
+        throw toSQLException(errorResponse);
+    }
+
+    /**
+     * Converts the SQL error returned by the server into the SQLException it stands for.
+     *
+     * @param errorResponse SQL error returned by the server
+     * @return the SQLException
+     */
+    public static SQLException toSQLException(SqlErrorResponse errorResponse) {
         if (SqlErrorType.SQL_DATA_EXCEPTION.equals(errorResponse.getSqlErrorType())) {
-            throw new SQLDataException(errorResponse.getReason(), errorResponse.getSqlState(),
+            return new SQLDataException(errorResponse.getReason(), errorResponse.getSqlState(),
                     errorResponse.getVendorCode());
         } else {
-            throw new SQLException(errorResponse.getReason(), errorResponse.getSqlState(),
+            return new SQLException(errorResponse.getReason(), errorResponse.getSqlState(),
                     errorResponse.getVendorCode());
         }
     }
+
+    /**
+     * Tells if the exception carries a SQL error with the given SQL state.
+     *
+     * @param sre      StatusRuntimeException
+     * @param sqlState SQL state expected
+     * @return true if SQL metadata with the SQL state is found
+     */
+    public static boolean hasSqlState(StatusRuntimeException sre, String sqlState) {
+        SqlErrorResponse errorResponse = errorResponse(sre);
+        return errorResponse != null && sqlState.equals(errorResponse.getSqlState());
+    }
+
+    private static SqlErrorResponse errorResponse(StatusRuntimeException sre) {
+        Metadata metadata = Status.trailersFromThrowable(sre);
+        if (metadata == null) {
+            return null;
+        }
+        return metadata.get(ProtoUtils.keyForProto(SqlErrorResponse.getDefaultInstance()));
+    }
 }
@@ -1,8 +1,14 @@
 package org.openjproxy.grpc.client;
 
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.BulkLoadChunk;
+import com.openjproxy.grpc.BulkLoadResult;
 import com.openjproxy.grpc.CallResourceRequest;
 import com.openjproxy.grpc.CallResourceResponse;
+import com.openjproxy.grpc.CallResourcesRequest;
+import com.openjproxy.grpc.CallResourcesResponse;
 import com.openjproxy.grpc.ConnectionDetails;
+import com.openjproxy.grpc.DatabaseMetaDataSnapshot;
 import com.openjproxy.grpc.LobDataBlock;
 import com.openjproxy.grpc.LobReference;
 import com.openjproxy.grpc.OpResult;
@@ -32,11 +38,31 @@ public interface StatementService {
     OpResult executeUpdate(SessionInfo sessionInfo, String sql, List<Parameter> params, String statementUUID,
                            Map<String, Object> properties) throws SQLException;
 
+    /**
+     * Executes a prepared statement batch in a single round trip.
+     *
+     * @param parameterSets Java serialized parameters of each row added to the batch
+     * @return result with the update counts of the batch
+     */
+    OpResult executeBatch(SessionInfo sessionInfo, String sql, List<ByteString> parameterSets, String statementUUID,
+                          Map<String, Object> properties) throws SQLException;
+
+    /**
+     * Streams chunks of rows to be loaded into a table, a chunk is only sent when the transport is ready to take it.
+     *
+     * @param chunks chunks of rows, the first one carries the session, table and columns of the load
+     * @return result with the number of rows loaded
+     */
+    BulkLoadResult bulkLoad(Iterator<BulkLoadChunk> chunks) throws SQLException;
+
     Iterator<OpResult> executeQuery(SessionInfo sessionInfo, String sql, List<Parameter> params, String statementUUID,
                                     Map<String, Object> properties) throws SQLException;
 
     Iterator<OpResult> executeQuery(SessionInfo sessionInfo, String sql, List<Parameter> params, Map<String, Object> properties) throws SQLException;
 
+    Iterator<OpResult> executeQuery(SessionInfo sessionInfo, String sql, List<Parameter> params, String statementUUID,
+                                    int fetchSize, Map<String, Object> properties) throws SQLException;
+
     OpResult fetchNextRows(SessionInfo sessionInfo, String resultSetUUID, int size) throws SQLException;
 
     //LOB (Large objects) management.
@@ -56,6 +82,29 @@ public interface StatementService {
 
     CallResourceResponse callResource(CallResourceRequest request) throws SQLException;
 
+    /**
+     * Executes the calls in order in a single round trip.
+     *
+     * @param request The calls, each one runs with the session returned by the previous one
+     * @return the session after the last call and the response of each call
+     */
+    CallResourcesResponse callResources(CallResourcesRequest request) throws SQLException;
+
+    /**
+     * Reads the scalar DatabaseMetaData values of the datasource of the session.
+     */
+    DatabaseMetaDataSnapshot getDatabaseMetaDataSnapshot(SessionInfo sessionInfo) throws SQLException;
+
+    /**
+     * Reads the whole result set of a DatabaseMetaData call, such as getTables, in blocks.
+     */
+    Iterator<OpResult> readMetaDataResultSet(CallResourceRequest request) throws SQLException;
+
+    /**
+     * Tells if the channel to the server is connected, without a round trip.
+     */
+    boolean isChannelReady();
+
     // XA Transaction Operations
     com.openjproxy.grpc.XaResponse xaStart(com.openjproxy.grpc.XaStartRequest request) throws SQLException;
     
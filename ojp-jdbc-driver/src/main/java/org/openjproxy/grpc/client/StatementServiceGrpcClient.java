@@ -2,9 +2,15 @@ package org.openjproxy.grpc.client;
 
 import com.google.common.util.concurrent.SettableFuture;
 import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.BatchRequest;
+import com.openjproxy.grpc.BulkLoadChunk;
+import com.openjproxy.grpc.BulkLoadResult;
 import com.openjproxy.grpc.CallResourceRequest;
 import com.openjproxy.grpc.CallResourceResponse;
+import com.openjproxy.grpc.CallResourcesRequest;
+import com.openjproxy.grpc.CallResourcesResponse;
 import com.openjproxy.grpc.ConnectionDetails;
+import com.openjproxy.grpc.DatabaseMetaDataSnapshot;
 import com.openjproxy.grpc.LobDataBlock;
 import com.openjproxy.grpc.LobReference;
 import com.openjproxy.grpc.OpResult;
@@ -12,11 +18,16 @@ import com.openjproxy.grpc.ReadLobRequest;
 import com.openjproxy.grpc.ResultSetFetchRequest;
 import com.openjproxy.grpc.SessionInfo;
 import com.openjproxy.grpc.SessionTerminationStatus;
+import com.openjproxy.grpc.StatementRegistration;
 import com.openjproxy.grpc.StatementRequest;
 import com.openjproxy.grpc.StatementServiceGrpc;
+import io.grpc.ConnectivityState;
+import io.grpc.Context;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
@@ -24,12 +35,15 @@ import org.openjproxy.constants.CommonConstants;
 import org.openjproxy.grpc.dto.Parameter;
 import org.openjproxy.grpc.GrpcChannelFactory;
 import org.openjproxy.jdbc.Connection;
+import org.openjproxy.jdbc.DriverConfig;
 import org.openjproxy.jdbc.LobGrpcIterator;
 
 import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -46,10 +60,14 @@ public class StatementServiceGrpcClient implements StatementService {
     private static final String DEFAULT_HOST = "localhost";
     private static final String DNS_PREFIX = "dns:///";
     private static final String COLON = ":";
+    private static final int MAX_STATEMENT_HANDLES = 10000;
     private final Pattern pattern = Pattern.compile(CommonConstants.OJP_REGEX_PATTERN);
 
     private StatementServiceGrpc.StatementServiceBlockingStub statemetServiceBlockingStub;
     private StatementServiceGrpc.StatementServiceStub statemetServiceStub;
+    private ManagedChannel channel;
+    //Handles of the SQL registered with the server, client UUID is the same for all connections.
+    private final Map<String, Long> statementHandles = new ConcurrentHashMap<>();
 
     public StatementServiceGrpcClient() {
     }
@@ -81,10 +99,10 @@ public class StatementServiceGrpcClient implements StatementService {
 
             //Once channel is open it remains open and is shared among all requests.
             String target = DNS_PREFIX + host + COLON + port;
-            ManagedChannel channel = GrpcChannelFactory.createChannel(target);
+            this.channel = GrpcChannelFactory.createChannel(target);
 
-            this.statemetServiceBlockingStub = StatementServiceGrpc.newBlockingStub(channel);
-            this.statemetServiceStub = StatementServiceGrpc.newStub(channel);
+            this.statemetServiceBlockingStub = StatementServiceGrpc.newBlockingStub(this.channel);
+            this.statemetServiceStub = StatementServiceGrpc.newStub(this.channel);
         }
     }
 
@@ -103,17 +121,108 @@ public class StatementServiceGrpcClient implements StatementService {
             if (properties != null) {
                 builder.setProperties(ByteString.copyFrom(serialize(properties)));
             }
-            return this.statemetServiceBlockingStub.executeUpdate(builder
+            StatementRequest request = this.withSqlOrHandle(builder
+                    .setSession(sessionInfo)
+                    .setStatementUUID(statementUUID != null ? statementUUID : "")
+                    .setParameters(ByteString.copyFrom(serialize(params))), sql);
+            try {
+                return this.statemetServiceBlockingStub.executeUpdate(request);
+            } catch (StatusRuntimeException e) {
+                if (!this.isUnknownStatementHandle(request, e)) {
+                    throw e;
+                }
+                return this.statemetServiceBlockingStub.executeUpdate(withSql(request, sql));
+            }
+        } catch (StatusRuntimeException e) {
+            throw handle(e);
+        }
+    }
+
+    @Override
+    public OpResult executeBatch(SessionInfo sessionInfo, String sql, List<ByteString> parameterSets,
+                                 String statementUUID, Map<String, Object> properties) throws SQLException {
+        try {
+            BatchRequest.Builder builder = BatchRequest.newBuilder();
+            if (properties != null) {
+                builder.setProperties(ByteString.copyFrom(serialize(properties)));
+            }
+            return this.statemetServiceBlockingStub.executeBatch(builder
                     .setSession(sessionInfo)
                     .setStatementUUID(statementUUID != null ? statementUUID : "")
                     .setSql(sql)
-                    .setParameters(ByteString.copyFrom(serialize(params)))
+                    .addAllParameterSets(parameterSets)
                     .build());
         } catch (StatusRuntimeException e) {
             throw handle(e);
         }
     }
 
+    @Override
+    public BulkLoadResult bulkLoad(Iterator<BulkLoadChunk> chunks) throws SQLException {
+        SettableFuture<BulkLoadResult> sfResult = SettableFuture.create();
+        Object readyLock = new Object();
+        ClientCallStreamObserver<BulkLoadChunk>[] requestStream = new ClientCallStreamObserver[1];
+        this.statemetServiceStub.bulkLoad(new ClientResponseObserver<BulkLoadChunk, BulkLoadResult>() {
+            private BulkLoadResult result;
+
+            @Override
+            public void beforeStart(ClientCallStreamObserver<BulkLoadChunk> stream) {
+                requestStream[0] = stream;
+                stream.setOnReadyHandler(() -> {
+                    synchronized (readyLock) {
+                        readyLock.notifyAll();
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(BulkLoadResult bulkLoadResult) {
+                this.result = bulkLoadResult;
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                sfResult.setException(throwable);
+                synchronized (readyLock) {
+                    readyLock.notifyAll();
+                }
+            }
+
+            @Override
+            public void onCompleted() {
+                sfResult.set(this.result);
+            }
+        });
+        try {
+            while (chunks.hasNext() && !sfResult.isDone()) {
+                synchronized (readyLock) {
+                    while (!requestStream[0].isReady() && !sfResult.isDone()) {
+                        readyLock.wait();
+                    }
+                }
+                if (!sfResult.isDone()) {
+                    requestStream[0].onNext(chunks.next());
+                }
+            }
+            if (!sfResult.isDone()) {
+                requestStream[0].onCompleted();
+            }
+            return sfResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            requestStream[0].cancel("Bulk load interrupted", e);
+            throw new SQLException("Bulk load interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StatusRuntimeException) {
+                throw handle((StatusRuntimeException) e.getCause());
+            }
+            throw new SQLException("Unable to bulk load: " + e.getCause().getMessage(), e.getCause());
+        } catch (RuntimeException e) {
+            requestStream[0].cancel("Bulk load failed", e);
+            throw new SQLException("Unable to bulk load: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public Iterator<OpResult> executeQuery(SessionInfo sessionInfo, String sql, List<Parameter> params,
                                            Map<String, Object> properties) throws SQLException {
@@ -123,19 +232,95 @@ public class StatementServiceGrpcClient implements StatementService {
     @Override
     public Iterator<OpResult> executeQuery(SessionInfo sessionInfo, String sql, List<Parameter> params, String statementUUID,
                                            Map<String, Object> properties) throws SQLException {
+        return this.executeQuery(sessionInfo, sql, params, statementUUID, 0, properties);
+    }
+
+    @Override
+    public Iterator<OpResult> executeQuery(SessionInfo sessionInfo, String sql, List<Parameter> params, String statementUUID,
+                                           int fetchSize, Map<String, Object> properties) throws SQLException {
         try {
             StatementRequest.Builder builder = StatementRequest.newBuilder();
             if (properties != null) {
                 builder.setProperties(ByteString.copyFrom(serialize(properties)));
             }
-            return this.statemetServiceBlockingStub.executeQuery(builder
+            StatementRequest request = this.withSqlOrHandle(builder
                     .setStatementUUID(statementUUID != null ? statementUUID : "")
-                    .setSession(sessionInfo).setSql(sql).setParameters(ByteString.copyFrom(serialize(params))).build());
+                    .setFetchSize(fetchSize)
+                    .setSession(sessionInfo).setParameters(ByteString.copyFrom(serialize(params))), sql);
+            CancellableIterator<OpResult> results = this.startQuery(request);
+            if (request.getStatementHandle() != 0) {
+                try {
+                    //Waits for the first block so an unknown handle is retried before results are handed out.
+                    results.hasNext();
+                } catch (StatusRuntimeException e) {
+                    results.cancel();
+                    if (!this.isUnknownStatementHandle(request, e)) {
+                        throw e;
+                    }
+                    results = this.startQuery(withSql(request, sql));
+                }
+            }
+            return results;
         } catch (StatusRuntimeException e) {
             throw handle(e);
         }
     }
 
+    /**
+     * Starts the query within its own cancellable context, so the result set can stop the call when closed before all
+     * blocks are received.
+     */
+    private CancellableIterator<OpResult> startQuery(StatementRequest request) {
+        Context.CancellableContext context = Context.current().withCancellation();
+        Context previous = context.attach();
+        try {
+            return new CancellableIterator<>(this.statemetServiceBlockingStub.executeQuery(request), context);
+        } finally {
+            context.detach(previous);
+        }
+    }
+
+    /**
+     * Sets the handle of the SQL in the request when the SQL is long enough to be worth registering, the SQL itself
+     * otherwise or if the server does not register it.
+     */
+    private StatementRequest withSqlOrHandle(StatementRequest.Builder builder, String sql) {
+        long handle = 0;
+        int minSqlLength = DriverConfig.get().getStatementHandleMinSqlLength();
+        if (minSqlLength > 0 && sql != null && sql.length() >= minSqlLength) {
+            Long registered = this.statementHandles.get(sql);
+            if (registered == null) {
+                registered = this.statemetServiceBlockingStub.registerStatement(StatementRegistration.newBuilder()
+                        .setSession(builder.getSession())
+                        .setSql(sql)
+                        .build()).getHandle();
+                if (this.statementHandles.size() < MAX_STATEMENT_HANDLES) {
+                    this.statementHandles.put(sql, registered);
+                }
+            }
+            handle = registered;
+        }
+        return handle != 0 ? builder.setStatementHandle(handle).build() : builder.setSql(sql).build();
+    }
+
+    private static StatementRequest withSql(StatementRequest request, String sql) {
+        return request.toBuilder().setStatementHandle(0).setSql(sql).build();
+    }
+
+    /**
+     * Tells if the request failed because the server does not know its statement handle, as after a server restart,
+     * in which case every handle is forgotten as the server lost them all, so the SQL is registered again on next
+     * execution.
+     */
+    private boolean isUnknownStatementHandle(StatementRequest request, StatusRuntimeException e) {
+        if (request.getStatementHandle() == 0 ||
+                !GrpcExceptionHandler.hasSqlState(e, CommonConstants.UNKNOWN_STATEMENT_HANDLE_SQL_STATE)) {
+            return false;
+        }
+        this.statementHandles.clear();
+        return true;
+    }
+
     @Override
     public OpResult fetchNextRows(SessionInfo sessionInfo, String resultSetUUID, int size) throws SQLException {
         try {
@@ -153,101 +338,83 @@ public class StatementServiceGrpcClient implements StatementService {
 
     @Override
     public LobReference createLob(Connection connection, Iterator<LobDataBlock> lobDataBlock) throws SQLException {
+        log.info("Creating new lob");
+        //Indicates that the server acquired a connection to the DB and wrote the first block successfully.
+        SettableFuture<LobReference> sfFirstLobReference = SettableFuture.create();
+        //Indicates that the server has finished writing the last block successfully.
+        SettableFuture<LobReference> sfFinalLobReference = SettableFuture.create();
+        Object readyLock = new Object();
+        ClientCallStreamObserver<LobDataBlock>[] requestStream = new ClientCallStreamObserver[1];
         try {
-            log.info("Creating new lob");
-            //Indicates that the server acquired a connection to the DB and wrote the first block successfully.
-            SettableFuture<LobReference> sfFirstLobReference = SettableFuture.create();
-            //Indicates that the server has finished writing the last block successfully.
-            SettableFuture<LobReference> sfFinalLobReference = SettableFuture.create();
-
-            StreamObserver<LobDataBlock> lobDataBlockStream = this.statemetServiceStub.createLob(
-                    new ServerCallStreamObserver<>() {
-                        private final AtomicBoolean abFirstResponseReceived = new AtomicBoolean(true);
-                        private LobReference lobReference;
-
-                        @Override
-                        public boolean isCancelled() {
-                            return false;
-                        }
-
-                        @Override
-                        public void setOnCancelHandler(Runnable runnable) {
-
-                        }
-
-                        @Override
-                        public void setCompression(String s) {
-
-                        }
-
-                        @Override
-                        public boolean isReady() {
-                            return false;
-                        }
-
-                        @Override
-                        public void setOnReadyHandler(Runnable runnable) {
-
-                        }
-
-                        @Override
-                        public void request(int i) {
-
-                        }
-
-                        @Override
-                        public void setMessageCompression(boolean b) {
-
-                        }
-
-                        @Override
-                        public void disableAutoInboundFlowControl() {
-
-                        }
+            this.statemetServiceStub.createLob(new ClientResponseObserver<LobDataBlock, LobReference>() {
+                private final AtomicBoolean abFirstResponseReceived = new AtomicBoolean(true);
+                private LobReference lobReference;
 
-                        @Override
-                        public void onNext(LobReference lobReference) {
-                            log.debug("Lob reference received");
-                            if (this.abFirstResponseReceived.get()) {
-                                sfFirstLobReference.set(lobReference);
-                                log.debug("First lob reference trigger");
-                            }
-                            this.lobReference = lobReference;
-                            //Update connection session on first confirmation to get the session id if session is new.
-                            connection.setSession(lobReference.getSession());
+                @Override
+                public void beforeStart(ClientCallStreamObserver<LobDataBlock> stream) {
+                    requestStream[0] = stream;
+                    stream.setOnReadyHandler(() -> {
+                        synchronized (readyLock) {
+                            readyLock.notifyAll();
                         }
+                    });
+                }
 
-                        @Override
-                        public void onError(Throwable throwable) {
-                            if (throwable instanceof StatusRuntimeException) {
-                                try {
-                                    StatusRuntimeException sre = (StatusRuntimeException) throwable;
-                                    handle(sre);//To convert to SQLException if possible
-                                    sfFirstLobReference.setException(sre);
-                                    sfFinalLobReference.setException(sre); //When conversion to SQLException not possible
-                                } catch (SQLException e) {
-                                    sfFirstLobReference.setException(e);
-                                    sfFinalLobReference.setException(e);
-                                }
-                            } else {
-                                sfFirstLobReference.setException(throwable);
-                                sfFinalLobReference.setException(throwable);
-                            }
-                        }
+                @Override
+                public void onNext(LobReference lobReference) {
+                    log.debug("Lob reference received");
+                    this.lobReference = lobReference;
+                    //Update connection session on first confirmation to get the session id if session is new, before
+                    // the next blocks are built with it.
+                    connection.setSession(lobReference.getSession());
+                    if (this.abFirstResponseReceived.get()) {
+                        sfFirstLobReference.set(lobReference);
+                        log.debug("First lob reference trigger");
+                    }
+                }
 
-                        @Override
-                        public void onCompleted() {
-                            log.debug("Final lob reference received");
-                            sfFinalLobReference.set(this.lobReference);
-                            log.debug("Final lob reference notified");
+                @Override
+                public void onError(Throwable throwable) {
+                    if (throwable instanceof StatusRuntimeException) {
+                        try {
+                            StatusRuntimeException sre = (StatusRuntimeException) throwable;
+                            handle(sre);//To convert to SQLException if possible
+                            sfFirstLobReference.setException(sre);
+                            sfFinalLobReference.setException(sre); //When conversion to SQLException not possible
+                        } catch (SQLException e) {
+                            sfFirstLobReference.setException(e);
+                            sfFinalLobReference.setException(e);
                         }
+                    } else {
+                        sfFirstLobReference.setException(throwable);
+                        sfFinalLobReference.setException(throwable);
                     }
-            );
+                    synchronized (readyLock) {
+                        readyLock.notifyAll();
+                    }
+                }
+
+                @Override
+                public void onCompleted() {
+                    log.debug("Final lob reference received");
+                    sfFinalLobReference.set(this.lobReference);
+                    log.debug("Final lob reference notified");
+                }
+            });
 
-            //Send all data blocks one by one only after server finished consuming the previous block
+            //Blocks are only read from the caller stream when the transport is ready to send them, so the memory
+            // held stays bounded by a few blocks whatever the size of the LOB.
             boolean firstBlockProcessedSuccessfully = false;
-            while (lobDataBlock.hasNext()) {
-                lobDataBlockStream.onNext(lobDataBlock.next());
+            while (lobDataBlock.hasNext() && !sfFinalLobReference.isDone()) {
+                synchronized (readyLock) {
+                    while (!requestStream[0].isReady() && !sfFinalLobReference.isDone()) {
+                        readyLock.wait();
+                    }
+                }
+                if (sfFinalLobReference.isDone()) {
+                    break;
+                }
+                requestStream[0].onNext(lobDataBlock.next());
                 if (!firstBlockProcessedSuccessfully) {
                     //Wait first block to be processed by the server to avoid sending more data before the server actually acquired a connection and wrote the first block.
                     log.debug("Waiting first lob reference arrival");
@@ -256,15 +423,24 @@ public class StatementServiceGrpcClient implements StatementService {
                     firstBlockProcessedSuccessfully = true;
                 }
             }
-            lobDataBlockStream.onCompleted();
+            if (!sfFinalLobReference.isDone()) {
+                requestStream[0].onCompleted();
+            }
 
             log.debug("Waiting for final lob ref");
             LobReference finalLobRef = sfFinalLobReference.get();
             log.debug("Final lob ref received");
             return finalLobRef;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            requestStream[0].cancel("Lob upload interrupted", e);
+            throw new SQLException("Unable to write LOB: interrupted.", e);
         } catch (StatusRuntimeException e) {
             throw handle(e);
         } catch (Exception e) {
+            if (requestStream[0] != null && !sfFinalLobReference.isDone()) {
+                requestStream[0].cancel("Lob upload failed", e);
+            }
             throw new SQLException("Unable to write LOB: " + e.getMessage(), e);
         }
 
@@ -283,47 +459,14 @@ public class StatementServiceGrpcClient implements StatementService {
 
             final Throwable[] errorReceived = {null};
 
-            this.statemetServiceStub.readLob(readLobRequest, new ServerCallStreamObserver<LobDataBlock>() {
+            this.statemetServiceStub.readLob(readLobRequest, new ClientResponseObserver<ReadLobRequest, LobDataBlock>() {
                 private final AtomicBoolean abFirstResponseReceived = new AtomicBoolean(true);
 
                 @Override
-                public boolean isCancelled() {
-                    return false;
-                }
-
-                @Override
-                public void setOnCancelHandler(Runnable runnable) {
-
-                }
-
-                @Override
-                public void setCompression(String s) {
-
-                }
-
-                @Override
-                public boolean isReady() {
-                    return false;
-                }
-
-                @Override
-                public void setOnReadyHandler(Runnable runnable) {
-
-                }
-
-                @Override
-                public void request(int i) {
-
-                }
-
-                @Override
-                public void setMessageCompression(boolean b) {
-
-                }
-
-                @Override
-                public void disableAutoInboundFlowControl() {
-
+                public void beforeStart(ClientCallStreamObserver<ReadLobRequest> stream) {
+                    //Blocks are requested one at a time as they are read, see LobGrpcIterator.
+                    stream.disableAutoRequestWithInitial(1);
+                    lobGrpcIterator.setCall(stream);
                 }
 
                 @Override
@@ -476,6 +619,42 @@ public class StatementServiceGrpcClient implements StatementService {
         }
     }
 
+    @Override
+    public DatabaseMetaDataSnapshot getDatabaseMetaDataSnapshot(SessionInfo sessionInfo) throws SQLException {
+        try {
+            return this.statemetServiceBlockingStub.getDatabaseMetaDataSnapshot(sessionInfo);
+        } catch (StatusRuntimeException e) {
+            throw handle(e);
+        } catch (Exception e) {
+            throw new SQLException("Unable to read database metadata: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Iterator<OpResult> readMetaDataResultSet(CallResourceRequest request) throws SQLException {
+        try {
+            return this.statemetServiceBlockingStub.readMetaDataResultSet(request);
+        } catch (StatusRuntimeException e) {
+            throw handle(e);
+        }
+    }
+
+    @Override
+    public boolean isChannelReady() {
+        return this.channel != null && ConnectivityState.READY.equals(this.channel.getState(false));
+    }
+
+    @Override
+    public CallResourcesResponse callResources(CallResourcesRequest request) throws SQLException {
+        try {
+            return this.statemetServiceBlockingStub.callResources(request);
+        } catch (StatusRuntimeException e) {
+            throw handle(e);
+        } catch (Exception e) {
+            throw new SQLException("Unable to call resources: " + e.getMessage(), e);
+        }
+    }
+
     // XA Transaction Operations
     @Override
     public com.openjproxy.grpc.XaResponse xaStart(com.openjproxy.grpc.XaStartRequest request) throws SQLException {
@@ -8,7 +8,6 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.openjproxy.grpc.client.StatementService;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,8 +31,12 @@ public class Blob extends Lob implements java.sql.Blob {
             this.haveLobReferenceValidation();
             Iterator<LobDataBlock> dataBlocks = this.statementService.readLob(this.lobReference.get(), pos, length);
             InputStream is = this.lobService.parseReceivedBlocks(dataBlocks);
-            BufferedInputStream bis = new BufferedInputStream(is);
-            return bis.readAllBytes();
+            if (is == null) {
+                return new byte[0];
+            }
+            try (is) {
+                return is.readAllBytes();
+            }
         } catch (SQLException e) {
             throw e;
         } catch (StatusRuntimeException e) {
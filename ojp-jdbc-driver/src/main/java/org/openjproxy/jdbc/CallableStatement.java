@@ -7,14 +7,16 @@ import com.openjproxy.grpc.CallType;
 import com.openjproxy.grpc.ResourceType;
 import com.openjproxy.grpc.TargetCall;
 import io.grpc.StatusRuntimeException;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.openjproxy.constants.CommonConstants;
 import org.openjproxy.grpc.client.GrpcExceptionHandler;
 import org.openjproxy.grpc.client.StatementService;
 
 import java.io.InputStream;
 import java.io.Reader;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.URL;
 import java.sql.Array;
 import java.sql.Blob;
@@ -33,83 +35,144 @@ import java.sql.SQLWarning;
 import java.sql.SQLXML;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static org.openjproxy.grpc.SerializationHandler.deserialize;
 import static org.openjproxy.grpc.SerializationHandler.serialize;
 
 @Slf4j
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class CallableStatement implements java.sql.CallableStatement {
+    //Out parameters of these types are sent by the server with the execution, others are read one by one.
+    private static final Set<Integer> HYDRATED_OUT_PARAMETER_TYPES = Set.of(Types.BIT, Types.BOOLEAN, Types.TINYINT,
+            Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.REAL, Types.FLOAT, Types.DOUBLE, Types.NUMERIC,
+            Types.DECIMAL, Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR,
+            Types.LONGNVARCHAR, Types.DATE, Types.TIME, Types.TIMESTAMP, Types.TIME_WITH_TIMEZONE,
+            Types.TIMESTAMP_WITH_TIMEZONE, Types.BINARY, Types.VARBINARY);
+    //Returned by hydratedValue when the getter has to ask the server.
+    private static final Object NOT_HYDRATED = new Object();
+
     private final org.openjproxy.jdbc.Connection connection;
     private final StatementService statementService;
     private final String remoteCallableStatementUUID;
 
+    //Indexes of the registered out parameters the server reads right after the execution.
+    private final Set<Integer> hydratedOutParameters = new TreeSet<>();
+    //Out parameter values of the last execution, null if the server did not send them.
+    private Map<Integer, Object> outParameterValues;
+    //True if the last getter was answered from the out parameter values, so wasNull is answered locally too.
+    private boolean lastValueHydrated;
+    private boolean lastValueNull;
+
     @Override
     public void registerOutParameter(int parameterIndex, int sqlType) throws SQLException {
         log.debug("registerOutParameter: {}, {}", parameterIndex, sqlType);
         this.callProxy(CallType.CALL_REGISTER, "OutParameter", Void.class, List.of(parameterIndex, sqlType));
+        this.trackOutParameter(parameterIndex, sqlType);
     }
 
     @Override
     public void registerOutParameter(int parameterIndex, int sqlType, int scale) throws SQLException {
         log.debug("registerOutParameter: {}, {}, {}", parameterIndex, sqlType, scale);
         this.callProxy(CallType.CALL_REGISTER, "OutParameter", Void.class, List.of(parameterIndex, sqlType, scale));
+        this.trackOutParameter(parameterIndex, sqlType);
     }
 
     @Override
     public boolean wasNull() throws SQLException {
         log.debug("wasNull called");
+        if (this.lastValueHydrated) {
+            return this.lastValueNull;
+        }
         return this.callProxy(CallType.CALL_WAS, "Null", Boolean.class);
     }
 
     @Override
     public String getString(int parameterIndex) throws SQLException {
         log.debug("getString: {}", parameterIndex);
+        Object value = this.hydratedValue(parameterIndex, String.class);
+        if (value != NOT_HYDRATED) {
+            return (String) value;
+        }
         return this.callProxy(CallType.CALL_GET, "String", String.class, List.of(parameterIndex));
     }
 
     @Override
     public boolean getBoolean(int parameterIndex) throws SQLException {
         log.debug("getBoolean: {}", parameterIndex);
+        Object value = this.hydratedValue(parameterIndex, Boolean.class);
+        if (value != NOT_HYDRATED) {
+            return value != null && (Boolean) value;
+        }
         return this.callProxy(CallType.CALL_GET, "Boolean", Boolean.class, List.of(parameterIndex));
     }
 
     @Override
     public byte getByte(int parameterIndex) throws SQLException {
         log.debug("getByte: {}", parameterIndex);
+        Long value = this.hydratedIntegral(parameterIndex, Byte.MIN_VALUE, Byte.MAX_VALUE);
+        if (value != null) {
+            return (byte) value.longValue();
+        }
         return this.callProxy(CallType.CALL_GET, "Byte", Byte.class, List.of(parameterIndex));
     }
 
     @Override
     public short getShort(int parameterIndex) throws SQLException {
         log.debug("getShort: {}", parameterIndex);
+        Long value = this.hydratedIntegral(parameterIndex, Short.MIN_VALUE, Short.MAX_VALUE);
+        if (value != null) {
+            return (short) value.longValue();
+        }
         return this.callProxy(CallType.CALL_GET, "Short", Short.class, List.of(parameterIndex));
     }
 
     @Override
     public int getInt(int parameterIndex) throws SQLException {
         log.debug("getInt: {}", parameterIndex);
+        Long value = this.hydratedIntegral(parameterIndex, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        if (value != null) {
+            return (int) value.longValue();
+        }
         return this.callProxy(CallType.CALL_GET, "Int", Integer.class, List.of(parameterIndex));
     }
 
     @Override
     public long getLong(int parameterIndex) throws SQLException {
         log.debug("getLong: {}", parameterIndex);
+        Long value = this.hydratedIntegral(parameterIndex, Long.MIN_VALUE, Long.MAX_VALUE);
+        if (value != null) {
+            return value.longValue();
+        }
         return this.callProxy(CallType.CALL_GET, "Long", Long.class, List.of(parameterIndex));
     }
 
     @Override
     public float getFloat(int parameterIndex) throws SQLException {
         log.debug("getFloat: {}", parameterIndex);
+        Object value = this.hydratedValue(parameterIndex, Float.class, Double.class, Byte.class, Short.class,
+                Integer.class, Long.class, BigDecimal.class);
+        if (value != NOT_HYDRATED) {
+            return value == null ? 0 : ((Number) value).floatValue();
+        }
         return this.callProxy(CallType.CALL_GET, "Float", Float.class, List.of(parameterIndex));
     }
 
     @Override
     public double getDouble(int parameterIndex) throws SQLException {
         log.debug("getDouble: {}", parameterIndex);
+        Object value = this.hydratedValue(parameterIndex, Float.class, Double.class, Byte.class, Short.class,
+                Integer.class, Long.class, BigDecimal.class);
+        if (value != NOT_HYDRATED) {
+            return value == null ? 0 : ((Number) value).doubleValue();
+        }
         return this.callProxy(CallType.CALL_GET, "Double", Double.class, List.of(parameterIndex));
     }
 
@@ -122,36 +185,60 @@ public class CallableStatement implements java.sql.CallableStatement {
     @Override
     public byte[] getBytes(int parameterIndex) throws SQLException {
         log.debug("getBytes: {}", parameterIndex);
+        Object value = this.hydratedValue(parameterIndex, byte[].class);
+        if (value != NOT_HYDRATED) {
+            return (byte[]) value;
+        }
         return this.callProxy(CallType.CALL_GET, "Bytes", byte[].class, List.of(parameterIndex));
     }
 
     @Override
     public Date getDate(int parameterIndex) throws SQLException {
         log.debug("getDate: {}", parameterIndex);
+        Object value = this.hydratedValue(parameterIndex, Date.class);
+        if (value != NOT_HYDRATED) {
+            return (Date) value;
+        }
         return this.callProxy(CallType.CALL_GET, "Date", Date.class, List.of(parameterIndex));
     }
 
     @Override
     public Time getTime(int parameterIndex) throws SQLException {
         log.debug("getTime: {}", parameterIndex);
+        Object value = this.hydratedValue(parameterIndex, Time.class);
+        if (value != NOT_HYDRATED) {
+            return (Time) value;
+        }
         return this.callProxy(CallType.CALL_GET, "Time", Time.class, List.of(parameterIndex));
     }
 
     @Override
     public Timestamp getTimestamp(int parameterIndex) throws SQLException {
         log.debug("getTimestamp: {}", parameterIndex);
+        Object value = this.hydratedValue(parameterIndex, Timestamp.class);
+        if (value != NOT_HYDRATED) {
+            return (Timestamp) value;
+        }
         return this.callProxy(CallType.CALL_GET, "Timestamp", Timestamp.class, List.of(parameterIndex));
     }
 
     @Override
     public Object getObject(int parameterIndex) throws SQLException {
         log.debug("getObject: {}", parameterIndex);
+        Object value = this.hydratedValue(parameterIndex, Object.class);
+        if (value != NOT_HYDRATED) {
+            return value;
+        }
         return this.callProxy(CallType.CALL_GET, "Object", Object.class, List.of(parameterIndex));
     }
 
     @Override
     public BigDecimal getBigDecimal(int parameterIndex) throws SQLException {
         log.debug("getBigDecimal: {}", parameterIndex);
+        Object value = this.hydratedValue(parameterIndex, BigDecimal.class);
+        if (value != NOT_HYDRATED) {
+            return (BigDecimal) value;
+        }
         return this.callProxy(CallType.CALL_GET, "BigDecimal", BigDecimal.class, List.of(parameterIndex));
     }
 
@@ -207,6 +294,7 @@ public class CallableStatement implements java.sql.CallableStatement {
     public void registerOutParameter(int parameterIndex, int sqlType, String typeName) throws SQLException {
         log.debug("registerOutParameter: {}, {}, {}", parameterIndex, sqlType, typeName);
         this.callProxy(CallType.CALL_REGISTER, "OutParameter", Void.class, List.of(parameterIndex, sqlType, typeName));
+        this.hydratedOutParameters.remove(parameterIndex);
     }
 
     @Override
@@ -728,6 +816,7 @@ public class CallableStatement implements java.sql.CallableStatement {
     @Override
     public ResultSet executeQuery() throws SQLException {
         log.debug("executeQuery called");
+        this.outParameterValues = null;
         String resultSetUUID = this.callProxy(CallType.CALL_EXECUTE, "Query", String.class);
         return new RemoteProxyResultSet(resultSetUUID, this.statementService, this.connection, null);
     }
@@ -735,7 +824,7 @@ public class CallableStatement implements java.sql.CallableStatement {
     @Override
     public int executeUpdate() throws SQLException {
         log.debug("executeUpdate called");
-        return this.callProxy(CallType.CALL_EXECUTE, "Update", Integer.class);
+        return this.executeProxy("Update", Integer.class);
     }
 
     @Override
@@ -861,7 +950,7 @@ public class CallableStatement implements java.sql.CallableStatement {
     @Override
     public boolean execute() throws SQLException {
         log.debug("execute called");
-        return this.callProxy(CallType.CALL_EXECUTE, "", Boolean.class);
+        return this.executeProxy("", Boolean.class);
     }
 
     @Override
@@ -1335,6 +1424,39 @@ public class CallableStatement implements java.sql.CallableStatement {
 
     private <T> T callProxy(CallType callType, String targetName, Class returnType, List<Object> params) throws SQLException {
         log.debug("callProxy: {}, {}, {}, <params>", callType, targetName, returnType);
+        CallResourceResponse response = this.callResource(callType, targetName, params, null);
+        if (Void.class.equals(returnType)) {
+            return null;
+        }
+        return (T) deserialize(response.getValues().toByteArray(), returnType);
+    }
+
+    /**
+     * Executes the statement asking the server to send the values of the registered out parameters with the
+     * response, so the getters are answered without further round trips.
+     */
+    private <T> T executeProxy(String targetName, Class returnType) throws SQLException {
+        log.debug("executeProxy: {}, {}", targetName, returnType);
+        this.outParameterValues = null;
+        Map<String, Object> properties = null;
+        if (!this.hydratedOutParameters.isEmpty()) {
+            properties = Map.of(CommonConstants.CALLABLE_STATEMENT_OUT_PARAMETERS_KEY,
+                    new ArrayList<>(this.hydratedOutParameters));
+        }
+        CallResourceResponse response = this.callResource(CallType.CALL_EXECUTE, targetName,
+                Constants.EMPTY_OBJECT_LIST, properties);
+        if (!response.getOutParameters().isEmpty()) {
+            this.outParameterValues = deserialize(response.getOutParameters().toByteArray(), Map.class);
+        }
+        return (T) deserialize(response.getValues().toByteArray(), returnType);
+    }
+
+    private CallResourceResponse callResource(CallType callType, String targetName, List<Object> params,
+                                              Map<String, Object> properties) throws SQLException {
+        this.connection.flushDeferredCalls();
+        if (CallType.CALL_GET.equals(callType)) {
+            this.lastValueHydrated = false;
+        }
         CallResourceRequest.Builder reqBuilder = this.newCallBuilder();
         reqBuilder.setTarget(
                 TargetCall.newBuilder()
@@ -1343,15 +1465,79 @@ public class CallableStatement implements java.sql.CallableStatement {
                         .setParams(ByteString.copyFrom(serialize(params)))
                         .build()
         );
+        if (properties != null) {
+            reqBuilder.setProperties(ByteString.copyFrom(serialize(properties)));
+        }
         try {
             CallResourceResponse response = this.statementService.callResource(reqBuilder.build());
             this.connection.setSession(response.getSession());
-            if (Void.class.equals(returnType)) {
-                return null;
-            }
-            return (T) deserialize(response.getValues().toByteArray(), returnType);
+            return response;
         } catch (StatusRuntimeException sre) {
             throw GrpcExceptionHandler.handle(sre);
         }
     }
+
+    private void trackOutParameter(int parameterIndex, int sqlType) {
+        if (HYDRATED_OUT_PARAMETER_TYPES.contains(sqlType)) {
+            this.hydratedOutParameters.add(parameterIndex);
+        } else {
+            this.hydratedOutParameters.remove(parameterIndex);
+        }
+    }
+
+    /**
+     * Value of an out parameter sent by the server with the last execution.
+     *
+     * @param parameterIndex The parameter index
+     * @param types          Classes the getter takes the value as, Object.class takes any value
+     * @return the value, which might be null, or NOT_HYDRATED if the getter has to ask the server
+     */
+    private Object hydratedValue(int parameterIndex, Class<?>... types) {
+        if (this.outParameterValues == null || !this.outParameterValues.containsKey(parameterIndex)) {
+            return NOT_HYDRATED;
+        }
+        Object value = this.outParameterValues.get(parameterIndex);
+        if (value != null && !Arrays.asList(types).contains(Object.class) &&
+                !Arrays.asList(types).contains(value.getClass())) {
+            return NOT_HYDRATED;
+        }
+        this.lastValueHydrated = true;
+        this.lastValueNull = value == null;
+        return value;
+    }
+
+    /**
+     * Value of an integral out parameter sent by the server with the last execution, only if it fits the range of
+     * the getter without losing precision, otherwise the driver of the database decides how it is converted.
+     *
+     * @return the value, 0 if null, or null if the getter has to ask the server
+     */
+    private Long hydratedIntegral(int parameterIndex, long min, long max) {
+        Object value = this.hydratedValue(parameterIndex, Byte.class, Short.class, Integer.class, Long.class,
+                BigInteger.class, BigDecimal.class);
+        if (value == NOT_HYDRATED) {
+            return null;
+        }
+        if (value == null) {
+            return 0L;
+        }
+        long longValue;
+        try {
+            if (value instanceof BigDecimal) {
+                longValue = ((BigDecimal) value).longValueExact();
+            } else if (value instanceof BigInteger) {
+                longValue = ((BigInteger) value).longValueExact();
+            } else {
+                longValue = ((Number) value).longValue();
+            }
+        } catch (ArithmeticException e) {
+            this.lastValueHydrated = false;
+            return null;
+        }
+        if (longValue < min || longValue > max) {
+            this.lastValueHydrated = false;
+            return null;
+        }
+        return longValue;
+    }
 }
\ No newline at end of file
@@ -14,6 +14,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 
 @Slf4j
@@ -28,7 +29,7 @@ public class Clob extends Lob implements java.sql.Clob {
         log.debug("getSubString: {}, {}", pos, length);
         BufferedInputStream bis = new BufferedInputStream(this.getBinaryStream(pos, length + 1));
         try {
-            return new String(bis.readAllBytes());
+            return new String(bis.readAllBytes(), StandardCharsets.UTF_8);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -37,7 +38,7 @@ public class Clob extends Lob implements java.sql.Clob {
     @Override
     public Reader getCharacterStream() throws SQLException {
         log.debug("getCharacterStream called");
-        return null;
+        return this.getCharacterStream(1, Integer.MAX_VALUE);
     }
 
     @Override
@@ -88,7 +89,7 @@ public class Clob extends Lob implements java.sql.Clob {
     public Writer setCharacterStream(long pos) throws SQLException {
         log.debug("setCharacterStream: {}", pos);
         OutputStream os = this.setBinaryStream(LobType.LT_CLOB, pos);
-        return new OutputStreamWriter(os);
+        return new OutputStreamWriter(os, StandardCharsets.UTF_8);
     }
 
     @Override
@@ -104,6 +105,6 @@ public class Clob extends Lob implements java.sql.Clob {
     @Override
     public Reader getCharacterStream(long pos, long length) throws SQLException {
         log.debug("getCharacterStream: {}, {}", pos, length);
-        return new InputStreamReader(super.getBinaryStream(pos, length));
+        return new InputStreamReader(super.getBinaryStream(pos, length), StandardCharsets.UTF_8);
     }
 }
\ No newline at end of file
@@ -3,7 +3,10 @@ package org.openjproxy.jdbc;
 import com.google.protobuf.ByteString;
 import com.openjproxy.grpc.CallResourceRequest;
 import com.openjproxy.grpc.CallResourceResponse;
+import com.openjproxy.grpc.CallResourcesRequest;
+import com.openjproxy.grpc.CallResourcesResponse;
 import com.openjproxy.grpc.CallType;
+import com.openjproxy.grpc.ConnectionState;
 import com.openjproxy.grpc.DbName;
 import com.openjproxy.grpc.ResourceType;
 import com.openjproxy.grpc.SessionInfo;
@@ -15,6 +18,7 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.openjproxy.constants.CommonConstants;
+import org.openjproxy.grpc.client.GrpcExceptionHandler;
 import org.openjproxy.grpc.client.StatementService;
 
 import java.sql.SQLClientInfoException;
@@ -27,9 +31,14 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
+import static org.openjproxy.constants.CommonConstants.CONNECTION_STATE_NULL_CATALOG;
+import static org.openjproxy.constants.CommonConstants.CONNECTION_STATE_NULL_SCHEMA;
 import static org.openjproxy.grpc.SerializationHandler.deserialize;
 import static org.openjproxy.grpc.SerializationHandler.serialize;
 
@@ -45,12 +54,34 @@ public class Connection implements java.sql.Connection {
     private boolean autoCommit = true;
     private boolean readOnly = false;
     private boolean closed;
+    //State setting calls waiting to be sent with the next remote call of the connection.
+    private final List<CallResourceRequest> deferredCalls = new ArrayList<>();
+    //Local copy of the connection state, only kept if the server reported the initial state on connect.
+    private final boolean stateShadowed;
+    private int transactionIsolation;
+    private String catalog;
+    private String schema;
+    private int holdability;
+    private int networkTimeout;
+    //Shadowed attributes whose setting failed on the server, read again from the server until set again.
+    private final Set<String> staleState = ConcurrentHashMap.newKeySet();
 
     public Connection(SessionInfo session, StatementService statementService, DbName dbName) {
         this.session = session;
         this.statementService = statementService;
         this.closed = false;
         this.dbName = dbName;
+        this.stateShadowed = session.hasInitialState() && DriverConfig.get().isConnectionShadowState();
+        if (session.hasInitialState()) {
+            ConnectionState state = session.getInitialState();
+            this.transactionIsolation = state.getTransactionIsolation();
+            this.catalog = (state.getNullAttributes() & CONNECTION_STATE_NULL_CATALOG) != 0 ? null : state.getCatalog();
+            this.schema = (state.getNullAttributes() & CONNECTION_STATE_NULL_SCHEMA) != 0 ? null : state.getSchema();
+            this.holdability = state.getHoldability();
+            this.networkTimeout = state.getNetworkTimeout();
+            //Only reported once, no need to send it back with every request.
+            this.session = session.toBuilder().clearInitialState().build();
+        }
     }
 
     @Override
@@ -82,6 +113,7 @@ public class Connection implements java.sql.Connection {
     public void setAutoCommit(boolean autoCommit) throws SQLException {
         log.debug("setAutoCommit: {}", autoCommit);
         //if switching on autocommit with active transaction, commit current transaction.
+        this.flushDeferredCalls();
         if (!this.autoCommit && autoCommit &&
                 TransactionStatus.TRX_ACTIVE.equals(session.getTransactionInfo().getTransactionStatus())) {
             this.session = this.statementService.commitTransaction(this.session);
@@ -102,6 +134,7 @@ public class Connection implements java.sql.Connection {
     public void commit() throws SQLException {
         log.debug("commit called");
         if (!this.autoCommit) {
+            this.flushDeferredCalls();
             this.session = this.statementService.commitTransaction(this.session);
         }
     }
@@ -110,6 +143,7 @@ public class Connection implements java.sql.Connection {
     public void rollback() throws SQLException {
         log.debug("rollback called");
         if (!this.autoCommit) {
+            this.flushDeferredCalls();
             this.session = this.statementService.rollbackTransaction(this.session);
         }
     }
@@ -124,6 +158,9 @@ public class Connection implements java.sql.Connection {
     @Override
     public void close() throws SQLException {
         log.debug("close called");
+        synchronized (this.deferredCalls) {
+            this.deferredCalls.clear();
+        }
         if (StringUtils.isNotEmpty(this.session.getSessionUUID())) {
             this.statementService.terminateSession(this.session);
             this.session = null;
@@ -160,24 +197,55 @@ public class Connection implements java.sql.Connection {
     @Override
     public void setCatalog(String catalog) throws SQLException {
         log.debug("setCatalog: {}", catalog);
-        this.callProxy(CallType.CALL_SET, "Catalog", Void.class, Arrays.asList(catalog));
+        if (this.stateShadowed) {
+            if (!this.staleState.contains("Catalog") && Objects.equals(this.catalog, catalog)) {
+                return;
+            }
+            this.catalog = catalog;
+            this.staleState.remove("Catalog");
+        }
+        this.deferProxy(CallType.CALL_SET, "Catalog", Arrays.asList(catalog));
     }
 
     @Override
     public String getCatalog() throws SQLException {
         log.debug("getCatalog called");
+        if (this.isShadowed("Catalog")) {
+            return this.catalog;
+        }
+        if (this.stateShadowed) {
+            this.catalog = this.invokeProxy(CallType.CALL_GET, "Catalog", String.class, Constants.EMPTY_OBJECT_LIST);
+            this.staleState.remove("Catalog");
+            return this.catalog;
+        }
         return this.callProxy(CallType.CALL_GET, "Catalog", String.class);
     }
 
     @Override
     public void setTransactionIsolation(int level) throws SQLException {
         log.debug("setTransactionIsolation: {}", level);
-        this.callProxy(CallType.CALL_SET, "TransactionIsolation", Void.class, Arrays.asList(level));
+        if (this.stateShadowed) {
+            if (!this.staleState.contains("TransactionIsolation") && this.transactionIsolation == level) {
+                return;
+            }
+            this.transactionIsolation = level;
+            this.staleState.remove("TransactionIsolation");
+        }
+        this.deferProxy(CallType.CALL_SET, "TransactionIsolation", Arrays.asList(level));
     }
 
     @Override
     public int getTransactionIsolation() throws SQLException {
         log.debug("getTransactionIsolation called");
+        if (this.isShadowed("TransactionIsolation")) {
+            return this.transactionIsolation;
+        }
+        if (this.stateShadowed) {
+            this.transactionIsolation = this.<Integer>invokeProxy(CallType.CALL_GET, "TransactionIsolation",
+                    Integer.class, Constants.EMPTY_OBJECT_LIST);
+            this.staleState.remove("TransactionIsolation");
+            return this.transactionIsolation;
+        }
         return this.callProxy(CallType.CALL_GET, "TransactionIsolation", Integer.class);
     }
 
@@ -246,12 +314,28 @@ public class Connection implements java.sql.Connection {
     @Override
     public void setHoldability(int holdability) throws SQLException {
         log.debug("setHoldability: {}", holdability);
-        this.callProxy(CallType.CALL_SET, "Holdability", Void.class, Arrays.asList(holdability));
+        if (this.stateShadowed) {
+            if (!this.staleState.contains("Holdability") && this.holdability == holdability) {
+                return;
+            }
+            this.holdability = holdability;
+            this.staleState.remove("Holdability");
+        }
+        this.deferProxy(CallType.CALL_SET, "Holdability", Arrays.asList(holdability));
     }
 
     @Override
     public int getHoldability() throws SQLException {
         log.debug("getHoldability called");
+        if (this.isShadowed("Holdability")) {
+            return this.holdability;
+        }
+        if (this.stateShadowed) {
+            this.holdability = this.<Integer>invokeProxy(CallType.CALL_GET, "Holdability", Integer.class,
+                    Constants.EMPTY_OBJECT_LIST);
+            this.staleState.remove("Holdability");
+            return this.holdability;
+        }
         return this.callProxy(CallType.CALL_GET, "Holdability", Integer.class);
     }
 
@@ -375,6 +459,10 @@ public class Connection implements java.sql.Connection {
         if (this.closed) {
             return false;
         }
+        //The server validates the database connections itself, a connected channel is all the client can check.
+        if (this.stateShadowed && this.statementService.isChannelReady()) {
+            return true;
+        }
         return this.callProxy(CallType.CALL_IS, "Valid", Boolean.class, Arrays.asList(timeout));
     }
 
@@ -382,14 +470,14 @@ public class Connection implements java.sql.Connection {
     @Override
     public void setClientInfo(String name, String value) throws SQLClientInfoException {
         log.debug("setClientInfo: {}, {}", name, value);
-        this.callProxy(CallType.CALL_SET, "ClientInfo", Void.class, Arrays.asList(name, value));
+        this.deferProxy(CallType.CALL_SET, "ClientInfo", Arrays.asList(name, value));
     }
 
     @SneakyThrows //TODO revisit, maybe can be transferred from server and parsed in the client
     @Override
     public void setClientInfo(Properties properties) throws SQLClientInfoException {
         log.debug("setClientInfo: <Properties>");
-        this.callProxy(CallType.CALL_SET, "ClientInfo", Void.class, Arrays.asList(properties));
+        this.deferProxy(CallType.CALL_SET, "ClientInfo", Arrays.asList(properties));
     }
 
     @Override
@@ -425,12 +513,27 @@ public class Connection implements java.sql.Connection {
     @Override
     public void setSchema(String schema) throws SQLException {
         log.debug("setSchema: {}", schema);
-        this.callProxy(CallType.CALL_SET, "Schema", Void.class, Arrays.asList(schema));
+        if (this.stateShadowed) {
+            if (!this.staleState.contains("Schema") && Objects.equals(this.schema, schema)) {
+                return;
+            }
+            this.schema = schema;
+            this.staleState.remove("Schema");
+        }
+        this.deferProxy(CallType.CALL_SET, "Schema", Arrays.asList(schema));
     }
 
     @Override
     public String getSchema() throws SQLException {
         log.debug("getSchema called");
+        if (this.isShadowed("Schema")) {
+            return this.schema;
+        }
+        if (this.stateShadowed) {
+            this.schema = this.invokeProxy(CallType.CALL_GET, "Schema", String.class, Constants.EMPTY_OBJECT_LIST);
+            this.staleState.remove("Schema");
+            return this.schema;
+        }
         return this.callProxy(CallType.CALL_GET, "Schema", String.class);
     }
 
@@ -443,6 +546,17 @@ public class Connection implements java.sql.Connection {
     @Override
     public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
         log.debug("setNetworkTimeout: <Executor>, {}", milliseconds);
+        if (this.stateShadowed) {
+            if (!this.staleState.contains("NetworkTimeout") && this.networkTimeout == milliseconds) {
+                return;
+            }
+            //Only updated once the server applied it.
+            this.staleState.add("NetworkTimeout");
+            this.invokeProxy(CallType.CALL_SET, "NetworkTimeout", Void.class, Arrays.asList(executor, milliseconds));
+            this.networkTimeout = milliseconds;
+            this.staleState.remove("NetworkTimeout");
+            return;
+        }
         this.callProxy(CallType.CALL_SET, "NetworkTimeout", Void.class,
                 Arrays.asList(executor, milliseconds));
     }
@@ -450,19 +564,31 @@ public class Connection implements java.sql.Connection {
     @Override
     public int getNetworkTimeout() throws SQLException {
         log.debug("getNetworkTimeout called");
+        if (this.isShadowed("NetworkTimeout")) {
+            return this.networkTimeout;
+        }
+        if (this.stateShadowed) {
+            this.networkTimeout = this.<Integer>invokeProxy(CallType.CALL_GET, "NetworkTimeout", Integer.class,
+                    Constants.EMPTY_OBJECT_LIST);
+            this.staleState.remove("NetworkTimeout");
+            return this.networkTimeout;
+        }
         return this.callProxy(CallType.CALL_GET, "NetworkTimeout", Integer.class);
     }
 
     @Override
     public <T> T unwrap(Class<T> iface) throws SQLException {
         log.debug("unwrap: {}", iface);
+        if (OjpBulkLoader.class.equals(iface)) {
+            return iface.cast(new OjpBulkLoaderImpl(this, this.statementService));
+        }
         throw new SQLFeatureNotSupportedException("Cannot unwrap remote proxy object.");
     }
 
     @Override
     public boolean isWrapperFor(Class<?> iface) throws SQLException {
         log.debug("isWrapperFor: {}", iface);
-        return false;
+        return OjpBulkLoader.class.equals(iface);
     }
 
     private CallResourceRequest.Builder newCallBuilder() {
@@ -472,6 +598,142 @@ public class Connection implements java.sql.Connection {
                 .setResourceType(ResourceType.RES_CONNECTION);
     }
 
+    private TargetCall newTargetCall(CallType callType, String targetName, List<Object> params) {
+        return TargetCall.newBuilder()
+                .setCallType(callType)
+                .setResourceName(targetName)
+                .setParams(ByteString.copyFrom(serialize(params)))
+                .build();
+    }
+
+    /**
+     * Queues a state setting call to be sent with the next remote call of the connection, pools and frameworks issue
+     * several of these on every checkout and each one would otherwise cost a round trip.
+     */
+    private void deferProxy(CallType callType, String targetName, List<Object> params) throws SQLException {
+        log.debug("deferProxy: {}, {}, <params>", callType, targetName);
+        if (!DriverConfig.get().isConnectionDeferStateCalls()) {
+            try {
+                this.invokeProxy(callType, targetName, Void.class, params);
+            } catch (SQLException | RuntimeException e) {
+                this.staleState.add(targetName);
+                throw e;
+            }
+            return;
+        }
+        CallResourceRequest call = CallResourceRequest.newBuilder()
+                .setResourceType(ResourceType.RES_CONNECTION)
+                .setTarget(this.newTargetCall(callType, targetName, params))
+                .build();
+        synchronized (this.deferredCalls) {
+            this.deferredCalls.add(call);
+        }
+    }
+
+    /**
+     * Sends the deferred state setting calls, if any, in a single round trip. Must be called before any remote call
+     * which could depend on the state of the connection, such as statement executions.
+     *
+     * @throws SQLException if a deferred call failed, so the call depending on the state is not made
+     */
+    void flushDeferredCalls() throws SQLException {
+        if (this.hasDeferredCalls()) {
+            this.sendWithDeferredCalls(null);
+        }
+    }
+
+    private boolean hasDeferredCalls() {
+        synchronized (this.deferredCalls) {
+            return !this.deferredCalls.isEmpty();
+        }
+    }
+
+    /**
+     * Tells if a state attribute can be answered from its local copy. A deferred call setting the attribute is sent
+     * first, so a value the server rejected is never answered.
+     *
+     * @param attribute The resource name of the attribute, as sent in its calls
+     */
+    private boolean isShadowed(String attribute) throws SQLException {
+        if (!this.stateShadowed) {
+            return false;
+        }
+        boolean pending;
+        synchronized (this.deferredCalls) {
+            pending = this.deferredCalls.stream()
+                    .anyMatch(call -> attribute.equals(call.getTarget().getResourceName()));
+        }
+        if (pending) {
+            this.flushDeferredCalls();
+        }
+        return !this.staleState.contains(attribute);
+    }
+
+    /**
+     * Sends the deferred calls followed by the given call in a single callResources request. The server executes
+     * every call even if a previous one failed. A failed deferred call is thrown in preference to a failure of the
+     * given call, which is chained to it, as the caller would otherwise go on with a connection state it did not
+     * set.
+     *
+     * @param call The call to send after the deferred ones, null to only send the deferred calls
+     * @return the response of the last call sent
+     */
+    private CallResourceResponse sendWithDeferredCalls(CallResourceRequest call) throws SQLException {
+        CallResourcesRequest.Builder reqBuilder = CallResourcesRequest.newBuilder();
+        synchronized (this.deferredCalls) {
+            for (CallResourceRequest deferredCall : this.deferredCalls) {
+                reqBuilder.addCalls(deferredCall.toBuilder().setSession(this.session));
+            }
+            this.deferredCalls.clear();
+        }
+        if (call != null) {
+            reqBuilder.addCalls(call);
+        }
+        if (reqBuilder.getCallsCount() == 0) {
+            return null;
+        }
+        int deferredCount = call != null ? reqBuilder.getCallsCount() - 1 : reqBuilder.getCallsCount();
+        CallResourcesResponse response;
+        try {
+            response = this.statementService.callResources(reqBuilder.build());
+        } catch (SQLException | RuntimeException e) {
+            for (int i = 0; i < deferredCount; i++) {
+                this.staleState.add(reqBuilder.getCalls(i).getTarget().getResourceName());
+            }
+            throw e;
+        }
+        this.session = response.getSession();
+        SQLException deferredFailure = null;
+        for (int i = 0; i < deferredCount; i++) {
+            if (response.getResponses(i).hasError()) {
+                //The local copy of the attribute, if shadowed, is read again from the server.
+                String resourceName = reqBuilder.getCalls(i).getTarget().getResourceName();
+                this.staleState.add(resourceName);
+                SQLException cause = GrpcExceptionHandler.toSQLException(response.getResponses(i).getError());
+                SQLException failure = new SQLException("Deferred connection call " +
+                        reqBuilder.getCalls(i).getTarget().getCallType() + " " + resourceName + " failed: " +
+                        cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+                if (deferredFailure == null) {
+                    deferredFailure = failure;
+                } else {
+                    deferredFailure.setNextException(failure);
+                }
+            }
+        }
+        CallResourceResponse last = response.getResponses(response.getResponsesCount() - 1);
+        if (call != null && last.hasError()) {
+            SQLException callFailure = GrpcExceptionHandler.toSQLException(last.getError());
+            if (deferredFailure == null) {
+                throw callFailure;
+            }
+            deferredFailure.setNextException(callFailure);
+        }
+        if (deferredFailure != null) {
+            throw deferredFailure;
+        }
+        return last;
+    }
+
     private <T> T callProxy(CallType callType, String targetName, Class returnType) throws SQLException {
         log.debug("callProxy: {}, {}, {}", callType, targetName, returnType);
         return this.callProxy(callType, targetName, returnType, Constants.EMPTY_OBJECT_LIST);
@@ -479,25 +741,29 @@ public class Connection implements java.sql.Connection {
 
     private <T> T callProxy(CallType callType, String targetName, Class returnType, List<Object> params) throws SQLException {
         log.debug("callProxy: {}, {}, {}, <params>", callType, targetName, returnType);
-        CallResourceRequest.Builder reqBuilder = this.newCallBuilder();
-        reqBuilder.setTarget(
-                TargetCall.newBuilder()
-                        .setCallType(callType)
-                        .setResourceName(targetName)
-                        .setParams(ByteString.copyFrom(serialize(params)))
-                        .build()
-        );
         try {
-            CallResourceResponse response = this.statementService.callResource(reqBuilder.build());
-            this.session = response.getSession();
-            this.setSession(response.getSession());
-            if (Void.class.equals(returnType)) {
-                return null;
-            }
-            return (T) deserialize(response.getValues().toByteArray(), returnType);
+            return this.invokeProxy(callType, targetName, returnType, params);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
+
+    /**
+     * Calls the connection on the server, unlike callProxy failures are thrown.
+     */
+    private <T> T invokeProxy(CallType callType, String targetName, Class returnType, List<Object> params)
+            throws SQLException {
+        CallResourceRequest.Builder reqBuilder = this.newCallBuilder();
+        reqBuilder.setTarget(this.newTargetCall(callType, targetName, params));
+        CallResourceResponse response = this.hasDeferredCalls() ?
+                this.sendWithDeferredCalls(reqBuilder.build()) :
+                this.statementService.callResource(reqBuilder.build());
+        this.session = response.getSession();
+        this.setSession(response.getSession());
+        if (Void.class.equals(returnType)) {
+            return null;
+        }
+        return (T) deserialize(response.getValues().toByteArray(), returnType);
+    }
 }
\ No newline at end of file
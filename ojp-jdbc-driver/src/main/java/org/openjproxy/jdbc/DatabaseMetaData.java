@@ -4,9 +4,13 @@ import com.google.protobuf.ByteString;
 import com.openjproxy.grpc.CallResourceRequest;
 import com.openjproxy.grpc.CallResourceResponse;
 import com.openjproxy.grpc.CallType;
+import com.openjproxy.grpc.DatabaseMetaDataSnapshot;
+import com.openjproxy.grpc.OpResult;
 import com.openjproxy.grpc.ResourceType;
 import com.openjproxy.grpc.SessionInfo;
 import com.openjproxy.grpc.TargetCall;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.openjproxy.grpc.client.StatementService;
@@ -16,14 +20,25 @@ import java.sql.ResultSet;
 import java.sql.RowIdLifetime;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.openjproxy.grpc.SerializationHandler.deserialize;
 import static org.openjproxy.grpc.SerializationHandler.serialize;
+import static org.openjproxy.grpc.client.GrpcExceptionHandler.handle;
 
 @Slf4j
 public class DatabaseMetaData implements java.sql.DatabaseMetaData {
 
+    //Scalar metadata values by connection hash, shared by all the connections to the same datasource.
+    private static final Map<String, Map<String, Object>> SNAPSHOTS = new ConcurrentHashMap<>();
+    //Connection hashes of the datasources whose server does not send catalog result sets in full.
+    private static final Set<String> NO_HYDRATED_RESULT_SETS = ConcurrentHashMap.newKeySet();
+
     private final StatementService statementService;
     private final org.openjproxy.jdbc.Connection connection;
     private final Statement statement;
@@ -787,9 +802,7 @@ public class DatabaseMetaData implements java.sql.DatabaseMetaData {
     @Override
     public ResultSet getTables(String catalog, String schemaPattern, String tableNamePattern, String[] types) throws SQLException {
         log.debug("getTables: {}, {}, {}, <String[]>", catalog, schemaPattern, tableNamePattern);
-        String resultSetUUID = this.retrieveMetadataAttribute(CallType.CALL_GET, "Tables", String.class,
-                Arrays.asList(catalog, schemaPattern, tableNamePattern, types));
-        return new RemoteProxyResultSet(resultSetUUID, this.statementService, this.connection, this.statement);
+        return this.retrieveMetadataResultSet("Tables", Arrays.asList(catalog, schemaPattern, tableNamePattern, types));
     }
 
     @Override
@@ -816,9 +829,7 @@ public class DatabaseMetaData implements java.sql.DatabaseMetaData {
     @Override
     public ResultSet getColumns(String catalog, String schemaPattern, String tableNamePattern, String columnNamePattern) throws SQLException {
         log.debug("getColumns: {}, {}, {}, {}", catalog, schemaPattern, tableNamePattern, columnNamePattern);
-        String resultSetUUID = this.retrieveMetadataAttribute(CallType.CALL_GET, "Columns", String.class,
-                Arrays.asList(catalog, schemaPattern, tableNamePattern, columnNamePattern));
-        return new RemoteProxyResultSet(resultSetUUID, this.statementService, this.connection, this.statement);
+        return this.retrieveMetadataResultSet("Columns", Arrays.asList(catalog, schemaPattern, tableNamePattern, columnNamePattern));
     }
 
     @Override
@@ -856,9 +867,7 @@ public class DatabaseMetaData implements java.sql.DatabaseMetaData {
     @Override
     public ResultSet getPrimaryKeys(String catalog, String schema, String table) throws SQLException {
         log.debug("getPrimaryKeys: {}, {}, {}", catalog, schema, table);
-        String resultSetUUID = this.retrieveMetadataAttribute(CallType.CALL_GET, "PrimaryKeys", String.class,
-                Arrays.asList(catalog, schema, table));
-        return new RemoteProxyResultSet(resultSetUUID, this.statementService, this.connection, this.statement);
+        return this.retrieveMetadataResultSet("PrimaryKeys", Arrays.asList(catalog, schema, table));
     }
 
     @Override
@@ -896,9 +905,7 @@ public class DatabaseMetaData implements java.sql.DatabaseMetaData {
     @Override
     public ResultSet getIndexInfo(String catalog, String schema, String table, boolean unique, boolean approximate) throws SQLException {
         log.debug("getIndexInfo: {}, {}, {}, {}, {}", catalog, schema, table, unique, approximate);
-        String resultSetUUID = this.retrieveMetadataAttribute(CallType.CALL_GET, "IndexInfo", String.class,
-                Arrays.asList(catalog, schema, table, unique, approximate));
-        return new RemoteProxyResultSet(resultSetUUID, this.statementService, this.connection, this.statement);
+        return this.retrieveMetadataResultSet("IndexInfo", Arrays.asList(catalog, schema, table, unique, approximate));
     }
 
     @Override
@@ -1189,6 +1196,14 @@ public class DatabaseMetaData implements java.sql.DatabaseMetaData {
 
     private <T> T retrieveMetadataAttribute(CallType callType, String attrName, Class returnType, List<Object> params) throws SQLException {
         log.debug("retrieveMetadataAttribute: {}, {}, <params>", callType, attrName);
+        if (params.isEmpty()) {
+            Map<String, Object> snapshot = this.snapshot();
+            String key = callType.name().substring("CALL_".length()).toLowerCase() + attrName.toLowerCase();
+            if (snapshot != null && snapshot.containsKey(key)) {
+                return (T) snapshot.get(key);
+            }
+        }
+        this.connection.flushDeferredCalls();
         CallResourceRequest.Builder reqBuilder = this.newCallBuilder();
         reqBuilder
             .setTarget(
@@ -1207,4 +1222,66 @@ public class DatabaseMetaData implements java.sql.DatabaseMetaData {
 
         return (T) deserialize(response.getValues().toByteArray(), returnType);
     }
+
+    /**
+     * Reads a catalog result set in full, served from the metadata cache of the server when possible. Servers not
+     * supporting it get the result set linked to the remote instance instead.
+     */
+    private ResultSet retrieveMetadataResultSet(String attrName, List<Object> params) throws SQLException {
+        log.debug("retrieveMetadataResultSet: {}, <params>", attrName);
+        String connHash = this.connection.getSession().getConnHash();
+        if (!NO_HYDRATED_RESULT_SETS.contains(connHash)) {
+            this.connection.flushDeferredCalls();
+            Iterator<OpResult> itResults = this.statementService.readMetaDataResultSet(this.newCallBuilder()
+                    .setTarget(TargetCall.newBuilder()
+                            .setCallType(CallType.CALL_GET)
+                            .setResourceName("MetaData")
+                            .setNextCall(TargetCall.newBuilder()
+                                    .setCallType(CallType.CALL_GET)
+                                    .setResourceName(attrName)
+                                    .setParams(ByteString.copyFrom(serialize(params)))
+                                    .build())
+                            .build())
+                    .build());
+            try {
+                itResults.hasNext();
+                return new org.openjproxy.jdbc.ResultSet(itResults, this.statementService, null, this.connection);
+            } catch (StatusRuntimeException e) {
+                if (e.getStatus().getCode() != Status.Code.UNIMPLEMENTED) {
+                    throw handle(e);
+                }
+                NO_HYDRATED_RESULT_SETS.add(connHash);
+            }
+        }
+        String resultSetUUID = this.retrieveMetadataAttribute(CallType.CALL_GET, attrName, String.class, params);
+        return new RemoteProxyResultSet(resultSetUUID, this.statementService, this.connection, this.statement);
+    }
+
+    /**
+     * Gets the metadata snapshot of the datasource, reading it from the server the first time. Servers not supporting
+     * snapshots get an empty one so every value is asked for, other failures are retried on the next call.
+     */
+    private Map<String, Object> snapshot() {
+        String connHash = this.connection.getSession().getConnHash();
+        Map<String, Object> snapshot = SNAPSHOTS.get(connHash);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        try {
+            DatabaseMetaDataSnapshot response = this.statementService.getDatabaseMetaDataSnapshot(
+                    this.connection.getSession());
+            snapshot = deserialize(response.getValues().toByteArray(), Map.class);
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() != Status.Code.UNIMPLEMENTED) {
+                log.warn("Unable to read the database metadata snapshot: {}", e.getMessage());
+                return null;
+            }
+            snapshot = Collections.emptyMap();
+        } catch (SQLException e) {
+            log.warn("Unable to read the database metadata snapshot: {}", e.getMessage());
+            return null;
+        }
+        SNAPSHOTS.put(connHash, snapshot);
+        return snapshot;
+    }
 }
\ No newline at end of file
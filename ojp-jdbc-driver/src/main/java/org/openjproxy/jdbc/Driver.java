@@ -71,6 +71,7 @@ public class Driver implements java.sql.Driver {
                         .setPassword((String) ((info.get(PASSWORD) != null) ? info.get(PASSWORD) : ""))
                         .setClientUUID(ClientUUID.getUUID())
                         .setProperties(propertiesBytes)
+                        .addAllSupportedResultSetFormats(DriverConfig.get().getSupportedResultSetFormats())
                         .build()
                 );
         log.debug("Returning new Connection with sessionInfo: {}", sessionInfo);
@@ -0,0 +1,227 @@
+package org.openjproxy.jdbc;
+
+import com.openjproxy.grpc.ResultSetFormat;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Client side settings of the JDBC driver.
+ * <p>
+ * Loaded once from the {@code ojp.properties} file located in the classpath, default values are used when the file
+ * or a property is missing. Unlike the {@code ojp.connection.pool.*} properties these are never sent to the server.
+ * </p>
+ */
+@Slf4j
+public class DriverConfig {
+
+    public static final String RESULT_SET_COLUMNAR_PROPERTY = "ojp.resultSet.columnar";
+    public static final String RESULT_SET_READ_AHEAD_DEPTH_PROPERTY = "ojp.resultSet.readAheadDepth";
+    public static final int DEFAULT_RESULT_SET_READ_AHEAD_DEPTH = 2;
+    public static final String RESULT_SET_READ_AHEAD_MAX_THREADS_PROPERTY = "ojp.resultSet.readAheadMaxThreads";
+    public static final int DEFAULT_RESULT_SET_READ_AHEAD_MAX_THREADS = 32;
+    public static final String RESULT_SET_READ_AHEAD_IDLE_TIMEOUT_PROPERTY = "ojp.resultSet.readAheadIdleTimeout";
+    public static final int DEFAULT_RESULT_SET_READ_AHEAD_IDLE_TIMEOUT = 30000;
+    public static final String BATCH_MAX_REQUEST_BYTES_PROPERTY = "ojp.batch.maxRequestBytes";
+    public static final int DEFAULT_BATCH_MAX_REQUEST_BYTES = 3 * 1024 * 1024; // Below the 4MB server max request size
+    public static final String BULK_LOAD_CHUNK_ROWS_PROPERTY = "ojp.bulkLoad.chunkRows";
+    public static final int DEFAULT_BULK_LOAD_CHUNK_ROWS = 1000;
+    public static final String STATEMENT_HANDLE_MIN_SQL_LENGTH_PROPERTY = "ojp.statementHandle.minSqlLength";
+    public static final int DEFAULT_STATEMENT_HANDLE_MIN_SQL_LENGTH = 1024;
+    public static final String CONNECTION_DEFER_STATE_CALLS_PROPERTY = "ojp.connection.deferStateCalls";
+    public static final String CONNECTION_SHADOW_STATE_PROPERTY = "ojp.connection.shadowState";
+    public static final String LOB_UPLOAD_BLOCK_SIZE_PROPERTY = "ojp.lob.uploadBlockSize";
+    public static final int DEFAULT_LOB_UPLOAD_BLOCK_SIZE = 256 * 1024;
+
+    private static volatile DriverConfig instance;
+
+    private final boolean resultSetColumnar;
+    private final int resultSetReadAheadDepth;
+    private final int resultSetReadAheadMaxThreads;
+    private final int resultSetReadAheadIdleTimeout;
+    private final int batchMaxRequestBytes;
+    private final int bulkLoadChunkRows;
+    private final int statementHandleMinSqlLength;
+    private final boolean connectionDeferStateCalls;
+    private final boolean connectionShadowState;
+    private final int lobUploadBlockSize;
+
+    /**
+     * Constructs a new {@code DriverConfig} using the provided {@link Properties}.
+     *
+     * @param props the {@link Properties} object containing configuration values
+     */
+    public DriverConfig(Properties props) {
+        this.resultSetColumnar = Boolean.parseBoolean(props.getProperty(RESULT_SET_COLUMNAR_PROPERTY, "false"));
+        this.resultSetReadAheadDepth = parseInt(props, RESULT_SET_READ_AHEAD_DEPTH_PROPERTY,
+                DEFAULT_RESULT_SET_READ_AHEAD_DEPTH);
+        this.resultSetReadAheadMaxThreads = Math.max(1, parseInt(props, RESULT_SET_READ_AHEAD_MAX_THREADS_PROPERTY,
+                DEFAULT_RESULT_SET_READ_AHEAD_MAX_THREADS));
+        this.resultSetReadAheadIdleTimeout = Math.max(1, parseInt(props, RESULT_SET_READ_AHEAD_IDLE_TIMEOUT_PROPERTY,
+                DEFAULT_RESULT_SET_READ_AHEAD_IDLE_TIMEOUT));
+        this.batchMaxRequestBytes = parseInt(props, BATCH_MAX_REQUEST_BYTES_PROPERTY, DEFAULT_BATCH_MAX_REQUEST_BYTES);
+        this.bulkLoadChunkRows = Math.max(1, parseInt(props, BULK_LOAD_CHUNK_ROWS_PROPERTY, DEFAULT_BULK_LOAD_CHUNK_ROWS));
+        this.statementHandleMinSqlLength = parseInt(props, STATEMENT_HANDLE_MIN_SQL_LENGTH_PROPERTY,
+                DEFAULT_STATEMENT_HANDLE_MIN_SQL_LENGTH);
+        this.connectionDeferStateCalls = Boolean.parseBoolean(
+                props.getProperty(CONNECTION_DEFER_STATE_CALLS_PROPERTY, "true"));
+        this.connectionShadowState = Boolean.parseBoolean(props.getProperty(CONNECTION_SHADOW_STATE_PROPERTY, "true"));
+        this.lobUploadBlockSize = Math.max(1, parseInt(props, LOB_UPLOAD_BLOCK_SIZE_PROPERTY,
+                DEFAULT_LOB_UPLOAD_BLOCK_SIZE));
+    }
+
+    /**
+     * Returns true if the driver asks the server for columnar result set blocks.
+     *
+     * @return true if columnar blocks are enabled
+     */
+    public boolean isResultSetColumnar() {
+        return this.resultSetColumnar;
+    }
+
+    /**
+     * Number of result set blocks received and decoded in the background ahead of the application, 0 disables it.
+     *
+     * @return the read ahead depth in blocks
+     */
+    public int getResultSetReadAheadDepth() {
+        return this.resultSetReadAheadDepth;
+    }
+
+    /**
+     * Max number of threads reading result sets ahead, result sets opened while every thread is busy are read on the
+     * application thread.
+     *
+     * @return the max read ahead threads
+     */
+    public int getResultSetReadAheadMaxThreads() {
+        return this.resultSetReadAheadMaxThreads;
+    }
+
+    /**
+     * Time in milliseconds a read ahead thread waits on a full buffer for the application before handing the rest of
+     * the result set over to the application thread, so result sets left open do not hold a thread.
+     *
+     * @return the read ahead idle timeout in milliseconds
+     */
+    public int getResultSetReadAheadIdleTimeout() {
+        return this.resultSetReadAheadIdleTimeout;
+    }
+
+    /**
+     * Max size of the parameters sent in a single executeBatch request, larger batches are split in several requests
+     * so they stay within the server max inbound message size.
+     *
+     * @return the max batch request size in bytes
+     */
+    public int getBatchMaxRequestBytes() {
+        return this.batchMaxRequestBytes;
+    }
+
+    /**
+     * Rows sent per chunk by {@link OjpBulkLoader}.
+     *
+     * @return the rows per bulk load chunk
+     */
+    public int getBulkLoadChunkRows() {
+        return this.bulkLoadChunkRows;
+    }
+
+    /**
+     * SQL at least this long is registered with the server once and then sent by handle, 0 always sends the SQL.
+     *
+     * @return the min SQL length to use statement handles
+     */
+    public int getStatementHandleMinSqlLength() {
+        return this.statementHandleMinSqlLength;
+    }
+
+    /**
+     * Returns true if connection state setters such as setTransactionIsolation or setSchema are queued and sent to
+     * the server together with the next remote call of the connection instead of one round trip each.
+     *
+     * @return true if connection state calls are deferred
+     */
+    public boolean isConnectionDeferStateCalls() {
+        return this.connectionDeferStateCalls;
+    }
+
+    /**
+     * Returns true if the connection state getters are answered from a local copy of the state reported by the
+     * server on connect, setters are then only sent when the value changes.
+     *
+     * @return true if the connection state is shadowed
+     */
+    public boolean isConnectionShadowState() {
+        return this.connectionShadowState;
+    }
+
+    /**
+     * Max bytes of LOB data sent per block when writing a LOB, larger LOBs are streamed to the server in several
+     * blocks.
+     *
+     * @return the LOB upload block size in bytes
+     */
+    public int getLobUploadBlockSize() {
+        return this.lobUploadBlockSize;
+    }
+
+    /**
+     * Result set formats advertised to the server on connect, the server picks the richest one it supports.
+     *
+     * @return list of supported result set formats
+     */
+    public List<ResultSetFormat> getSupportedResultSetFormats() {
+        List<ResultSetFormat> formats = new ArrayList<>();
+        formats.add(ResultSetFormat.RSF_ROW_BLOCK);
+        if (this.resultSetColumnar) {
+            formats.add(ResultSetFormat.RSF_COLUMNAR);
+        }
+        return formats;
+    }
+
+    /**
+     * Returns the driver configuration loaded from {@code ojp.properties}, loading it on first use.
+     *
+     * @return the driver configuration
+     */
+    public static DriverConfig get() {
+        if (instance == null) {
+            synchronized (DriverConfig.class) {
+                if (instance == null) {
+                    instance = new DriverConfig(load());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static int parseInt(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid integer value for {}: {}, using default {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream is = DriverConfig.class.getClassLoader().getResourceAsStream("ojp.properties")) {
+            if (is != null) {
+                properties.load(is);
+            }
+        } catch (IOException e) {
+            log.debug("Could not load ojp.properties, using driver defaults: {}", e.getMessage());
+        }
+        return properties;
+    }
+}
@@ -1,5 +1,6 @@
 package org.openjproxy.jdbc;
 
+import com.openjproxy.grpc.OpResult;
 import lombok.Builder;
 import lombok.Data;
 import org.openjproxy.grpc.dto.OpQueryResult;
@@ -9,6 +10,7 @@ import java.sql.SQLException;
 @Builder
 @Data
 public class FetchBlockResult {
+    private OpResult opResult;
     private OpQueryResult result;
     private SQLException exception;
 }
@@ -0,0 +1,135 @@
+package org.openjproxy.jdbc;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import com.openjproxy.grpc.LobDataBlock;
+import com.openjproxy.grpc.LobType;
+import com.openjproxy.grpc.SessionInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Reads the stream of a LOB being written in blocks of bounded size, each block is only read from the stream when it
+ * is requested, so writing a LOB of any size holds a few blocks in memory at most. A LOB without any data is still
+ * sent as one empty block, the server creates the LOB with the first block.
+ * <p>
+ * Clob data is UTF-8 encoded, blocks are cut at character boundaries so the server decodes each block on its own.
+ * </p>
+ */
+class LobDataBlockIterator implements Iterator<LobDataBlock> {
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private final LobType lobType;
+    private final long position;
+    private final InputStream inputStream;
+    private final long length;
+    private final byte[] metadata;
+    private final int blockSize;
+    private final Supplier<SessionInfo> session;
+    private byte[] carry = NO_BYTES;
+    private long bytesRead;
+    private long bytesSent;
+    private ByteString nextData;
+    private boolean blockSent;
+    private boolean exhausted;
+
+    /**
+     * @param lobType     The type of the LOB
+     * @param position    The position the LOB is written from
+     * @param inputStream The LOB data
+     * @param length      Max bytes read from the stream, -1 to read it to the end
+     * @param metadata    Java serialized metadata, sent with the first block only
+     * @param blockSize   Max bytes per block
+     * @param session     Supplies the current session, read for every block as the first one might start a session
+     */
+    LobDataBlockIterator(LobType lobType, long position, InputStream inputStream, long length, byte[] metadata,
+                         int blockSize, Supplier<SessionInfo> session) {
+        this.lobType = lobType;
+        this.position = position;
+        this.inputStream = inputStream;
+        this.length = length;
+        this.metadata = metadata;
+        this.blockSize = blockSize;
+        this.session = session;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.nextData == null && !(this.exhausted && this.blockSent)) {
+            try {
+                this.nextData = this.readData();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read LOB data: " + e.getMessage(), e);
+            }
+        }
+        return this.nextData != null;
+    }
+
+    @Override
+    public LobDataBlock next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        LobDataBlock.Builder block = LobDataBlock.newBuilder()
+                .setLobType(this.lobType)
+                .setSession(this.session.get())
+                .setPosition(this.position + this.bytesSent)
+                .setData(this.nextData);
+        if (!this.blockSent) {
+            block.setMetadata(ByteString.copyFrom(this.metadata));
+        }
+        this.bytesSent += this.nextData.size();
+        this.nextData = null;
+        this.blockSent = true;
+        return block.build();
+    }
+
+    /**
+     * @return the data of the next block or null if there is nothing else to send
+     */
+    private ByteString readData() throws IOException {
+        if (this.exhausted) {
+            return this.blockSent ? null : ByteString.EMPTY;
+        }
+        int size = this.length >= 0 ? (int) Math.min(this.blockSize, this.length - this.bytesRead) : this.blockSize;
+        byte[] data = new byte[this.carry.length + size];
+        System.arraycopy(this.carry, 0, data, 0, this.carry.length);
+        int read = this.inputStream.readNBytes(data, this.carry.length, size);
+        this.bytesRead += read;
+        this.exhausted = read < size || (this.length >= 0 && this.bytesRead >= this.length);
+        int total = this.carry.length + read;
+        int cut = total;
+        if (LobType.LT_CLOB.equals(this.lobType) && !this.exhausted) {
+            cut = utf8Boundary(data, total);
+        }
+        this.carry = cut < total ? Arrays.copyOfRange(data, cut, total) : NO_BYTES;
+        if (cut == 0 && this.exhausted && this.blockSent) {
+            return null;
+        }
+        //The array is not used after being wrapped, its data does not need to be copied.
+        return cut == data.length ? UnsafeByteOperations.unsafeWrap(data) : ByteString.copyFrom(data, 0, cut);
+    }
+
+    /**
+     * Finds where the last complete UTF-8 character of the data ends, the bytes of an incomplete character are sent
+     * with the next block.
+     */
+    static int utf8Boundary(byte[] data, int length) {
+        for (int i = length - 1; i >= 0 && i >= length - 4; i--) {
+            int b = data[i] & 0xFF;
+            if ((b & 0xC0) == 0x80) {
+                continue;//Continuation byte, the character starts before.
+            }
+            int charLength = b < 0x80 ? 1 : (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : (b & 0xF8) == 0xF0 ? 4 : 1;
+            return i + charLength > length ? i : length;
+        }
+        return length;
+    }
+}
@@ -1,57 +1,91 @@
 package org.openjproxy.jdbc;
 
-import com.google.common.util.concurrent.SettableFuture;
 import com.openjproxy.grpc.LobDataBlock;
-import lombok.Setter;
+import io.grpc.stub.ClientCallStreamObserver;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Iterator;
-import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
- * Iterator over the blocks received when getting a LOB object.
+ * Iterator over the blocks received when getting a LOB object. The call receives one block at a time: the next block
+ * is only requested from the server once the previous one is taken, so a LOB read from start to end holds a couple of
+ * blocks in memory at most however slow the reader is.
  * IMPORTANT: can only be consumed once as per the data is removed from memory once consumed.
  */
 public class LobGrpcIterator implements Iterator<LobDataBlock> {
-    private final List<LobDataBlock> blocksReceived = Collections.synchronizedList(new ArrayList<>());
-    private boolean finished = false;
-    @Setter
-    private Throwable error;
+    //Queued once no more blocks are going to arrive, compared by identity.
+    private static final LobDataBlock END_OF_BLOCKS = LobDataBlock.newBuilder().build();
+    //The block requested and the end of the blocks.
+    private static final int QUEUE_CAPACITY = 2;
+
+    private final BlockingQueue<LobDataBlock> blocksReceived = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile ClientCallStreamObserver<?> call;
+    private volatile Throwable error;
+    private LobDataBlock nextBlock;
+
+    /**
+     * Sets the call receiving the blocks, which has to be started with a single block requested.
+     */
+    public void setCall(ClientCallStreamObserver<?> call) {
+        this.call = call;
+    }
 
     public void addBlock(LobDataBlock block) {
         this.blocksReceived.add(block);
     }
 
+    public void setError(Throwable error) {
+        this.error = error;
+        this.blocksReceived.offer(END_OF_BLOCKS);
+    }
+
     @Override
     public boolean hasNext() {
-        if (this.error != null) {
-            throw new RuntimeException(this.error);
-        }
-        while (blocksReceived.isEmpty() && !finished) {
+        if (this.nextBlock == null) {
             try {
-                Thread.sleep(1);//TODO implement this wait in a more efficient way.
+                this.nextBlock = this.blocksReceived.take();
             } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 throw new RuntimeException(e);
             }
+            if (this.nextBlock != END_OF_BLOCKS && this.call != null) {
+                this.call.request(1);
+            }
+        }
+        if (this.nextBlock == END_OF_BLOCKS) {
+            //Left in place so every later call answers the same.
+            if (this.error != null) {
+                throw new RuntimeException(this.error);
+            }
+            return false;
         }
-        return !blocksReceived.isEmpty();
+        return true;
     }
 
     @Override
     public LobDataBlock next() {
-        if (this.error != null) {
-            throw new RuntimeException(this.error);
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
         }
-        LobDataBlock block = this.blocksReceived.get(0);
-        this.blocksReceived.remove(0);
+        LobDataBlock block = this.nextBlock;
+        this.nextBlock = null;
         return block;
     }
 
     public void finished() {
-        this.finished = true;
+        this.blocksReceived.offer(END_OF_BLOCKS);
+    }
+
+    /**
+     * Cancels the call when the remaining blocks are no longer wanted, so the server stops reading the LOB. Cancelling
+     * a call already completed has no effect.
+     */
+    public void cancel() {
+        if (this.call != null) {
+            this.call.cancel("LOB stream closed", null);
+        }
+        this.blocksReceived.clear();
     }
 }
@@ -0,0 +1,30 @@
+package org.openjproxy.jdbc;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Loads large amounts of rows into a table streaming them to the OJP server in bounded chunks. PostgreSQL tables are
+ * loaded with {@code COPY}, other databases with batched inserts.
+ * <p>
+ * Obtained by unwrapping an OJP connection:
+ * <pre>
+ * OjpBulkLoader loader = connection.unwrap(OjpBulkLoader.class);
+ * long loaded = loader.load("customers", List.of("id", "name"), rows);
+ * </pre>
+ * </p>
+ */
+public interface OjpBulkLoader {
+
+    /**
+     * Loads the rows into the table, rows are pulled from the iterator as the server is ready to take them.
+     *
+     * @param table   The target table, optionally qualified by schema
+     * @param columns The target columns
+     * @param rows    The rows to load, each with the values of the columns in the same order
+     * @return number of rows loaded
+     * @throws SQLException if the load fails
+     */
+    long load(String table, List<String> columns, Iterator<Object[]> rows) throws SQLException;
+}
@@ -0,0 +1,63 @@
+package org.openjproxy.jdbc;
+
+import com.openjproxy.grpc.BulkLoadChunk;
+import com.openjproxy.grpc.BulkLoadResult;
+import lombok.extern.slf4j.Slf4j;
+import org.openjproxy.grpc.RowBlockCodec;
+import org.openjproxy.grpc.client.StatementService;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Slf4j
+public class OjpBulkLoaderImpl implements OjpBulkLoader {
+
+    private final Connection connection;
+    private final StatementService statementService;
+
+    public OjpBulkLoaderImpl(Connection connection, StatementService statementService) {
+        this.connection = connection;
+        this.statementService = statementService;
+    }
+
+    @Override
+    public long load(String table, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        log.debug("load: {}, {}", table, columns);
+        this.connection.flushDeferredCalls();
+        int chunkRows = DriverConfig.get().getBulkLoadChunkRows();
+        BulkLoadResult result = this.statementService.bulkLoad(new Iterator<>() {
+            private boolean firstChunk = true;
+
+            @Override
+            public boolean hasNext() {
+                return this.firstChunk || rows.hasNext();
+            }
+
+            @Override
+            public BulkLoadChunk next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<Object[]> chunk = new ArrayList<>(chunkRows);
+                while (chunk.size() < chunkRows && rows.hasNext()) {
+                    chunk.add(rows.next());
+                }
+                //The first chunk is sent even if there are no rows, it tells the server the target of the load.
+                BulkLoadChunk.Builder builder = BulkLoadChunk.newBuilder()
+                        .setRows(RowBlockCodec.encode(null, null, chunk));
+                if (this.firstChunk) {
+                    builder.setSession(connection.getSession())
+                            .setTable(table)
+                            .addAllColumns(columns);
+                    this.firstChunk = false;
+                }
+                return builder.build();
+            }
+        });
+        this.connection.setSession(result.getSession());
+        return result.getRowCount();
+    }
+}
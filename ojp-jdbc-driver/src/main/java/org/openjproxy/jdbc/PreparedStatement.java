@@ -9,7 +9,6 @@ import com.openjproxy.grpc.LobReference;
 import com.openjproxy.grpc.LobType;
 import com.openjproxy.grpc.OpResult;
 import com.openjproxy.grpc.ResourceType;
-import com.openjproxy.grpc.ResultType;
 import com.openjproxy.grpc.TargetCall;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +24,7 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Array;
+import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Date;
@@ -86,6 +86,10 @@ public class PreparedStatement extends Statement implements java.sql.PreparedSta
     private SortedMap<Integer, Parameter> paramsMap;
     private Map<String, Object> properties;
     private StatementService statementService;
+    //Parameters of each row added to the batch, serialized when added so later changes to the values are not seen.
+    private final List<ByteString> batchParameterSets = new ArrayList<>();
+    //Blocks of the generated keys sent by the server with the last update count, null if not sent.
+    private List<OpResult> generatedKeys;
 
     public PreparedStatement(Connection connection, String sql, StatementService statementService) {
         super(connection, statementService, null, ResourceType.RES_PREPARED_STATEMENT);
@@ -113,8 +117,11 @@ public class PreparedStatement extends Statement implements java.sql.PreparedSta
         log.debug("executeQuery called");
         this.checkClosed();
         log.info("Executing query for -> {}", this.sql);
+        this.generatedKeys = null;
+        this.connection.flushDeferredCalls();
         Iterator<OpResult> itOpResult = this.statementService
-                .executeQuery(this.connection.getSession(), this.sql, new ArrayList<>(this.paramsMap.values()), this.properties);
+                .executeQuery(this.connection.getSession(), this.sql, new ArrayList<>(this.paramsMap.values()), null,
+                        this.fetchSize, this.properties);
         return new ResultSet(itOpResult, this.statementService, this);
     }
 
@@ -123,31 +130,117 @@ public class PreparedStatement extends Statement implements java.sql.PreparedSta
         log.debug("executeUpdate called");
         this.checkClosed();
         log.info("Executing update for -> {}", this.sql);
+        this.connection.flushDeferredCalls();
+        this.generatedKeys = null;
         OpResult result = this.statementService.executeUpdate(this.connection.getSession(), this.sql,
                 new ArrayList<>(this.paramsMap.values()), this.getStatementUUID(), this.properties);
         this.connection.setSession(result.getSession());
         if (StringUtils.isNotBlank(result.getUuid())) {
             this.setStatementUUID(result.getUuid());
         }
+        if (result.getGeneratedKeysCount() > 0) {
+            this.generatedKeys = result.getGeneratedKeysList();
+        }
         return deserialize(result.getValue().toByteArray(), Integer.class);
     }
 
+    /**
+     * Buffers the current parameters locally, the whole batch is sent to the server when it is executed.
+     */
     @Override
     public void addBatch() throws SQLException {
         log.debug("addBatch called");
         this.checkClosed();
-        log.info("Executing add batch for -> {}", this.sql);
-        Map<String, Object> properties = new HashMap<>();
-        properties.put(CommonConstants.PREPARED_STATEMENT_ADD_BATCH_FLAG, Boolean.TRUE);
-        OpResult result = this.statementService.executeUpdate(this.connection.getSession(), this.sql,
-                new ArrayList<>(this.paramsMap.values()), this.getStatementUUID(), properties);
+        this.batchParameterSets.add(ByteString.copyFrom(serialize(new ArrayList<>(this.paramsMap.values()))));
+        this.paramsMap = new TreeMap<>();
+    }
+
+    /**
+     * Sends every row added to the batch in a single request, split in several requests only if the parameters
+     * exceed the configured max batch request bytes. A split batch is not atomic, the rows of the requests completed
+     * before a failing one stay executed and their update counts are reported by the {@link BatchUpdateException}
+     * thrown.
+     */
+    @Override
+    public int[] executeBatch() throws SQLException {
+        log.debug("executeBatch called");
+        this.checkClosed();
+        log.info("Executing batch of {} rows for -> {}", this.batchParameterSets.size(), this.sql);
+        if (this.batchParameterSets.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            int maxRequestBytes = DriverConfig.get().getBatchMaxRequestBytes();
+            int[] updateCounts = new int[0];
+            List<ByteString> chunk = new ArrayList<>();
+            long chunkBytes = 0;
+            for (ByteString parameterSet : this.batchParameterSets) {
+                if (!chunk.isEmpty() && chunkBytes + parameterSet.size() > maxRequestBytes) {
+                    updateCounts = concat(updateCounts, this.executeBatchChunk(chunk, updateCounts));
+                    chunk = new ArrayList<>();
+                    chunkBytes = 0;
+                }
+                chunk.add(parameterSet);
+                chunkBytes += parameterSet.size();
+            }
+            return concat(updateCounts, this.executeBatchChunk(chunk, updateCounts));
+        } finally {
+            this.batchParameterSets.clear();
+        }
+    }
+
+    /**
+     * Executes one request of the batch, a failure after previous requests completed is reported with their update
+     * counts.
+     *
+     * @param completedUpdateCounts Update counts of the requests of the batch already completed.
+     */
+    private int[] executeBatchChunk(List<ByteString> parameterSets, int[] completedUpdateCounts) throws SQLException {
+        try {
+            return this.executeBatchChunk(parameterSets);
+        } catch (SQLException e) {
+            if (completedUpdateCounts.length == 0) {
+                throw e;
+            }
+            int[] failedUpdateCounts = e instanceof BatchUpdateException ?
+                    ((BatchUpdateException) e).getUpdateCounts() : null;
+            throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(),
+                    failedUpdateCounts != null ? concat(completedUpdateCounts, failedUpdateCounts) :
+                            completedUpdateCounts, e);
+        }
+    }
+
+    private int[] executeBatchChunk(List<ByteString> parameterSets) throws SQLException {
+        this.generatedKeys = null;
+        this.connection.flushDeferredCalls();
+        OpResult result = this.statementService.executeBatch(this.connection.getSession(), this.sql, parameterSets,
+                this.getStatementUUID(), this.propertiesWithoutSql());
         this.connection.setSession(result.getSession());
-        if (StringUtils.isBlank(this.getStatementUUID()) && ResultType.UUID_STRING.equals(result.getType()) &&
-                !result.getValue().isEmpty()) {
-            String psUUID = deserialize(result.getValue().toByteArray(), String.class);
-            this.setStatementUUID(psUUID);
+        if (StringUtils.isBlank(this.getStatementUUID()) && StringUtils.isNotBlank(result.getUuid())) {
+            this.setStatementUUID(result.getUuid());
         }
-        this.paramsMap = new TreeMap<>();
+        return deserialize(result.getValue().toByteArray(), int[].class);
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        if (first.length == 0) {
+            return second;
+        }
+        int[] all = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+
+    /**
+     * Properties used by the server to create the prepared statement, the sql is sent apart so it is left out.
+     */
+    private Map<String, Object> propertiesWithoutSql() {
+        if (this.properties == null || !this.properties.containsKey(CommonConstants.PREPARED_STATEMENT_SQL_KEY)) {
+            return this.properties;
+        }
+        Map<String, Object> properties = new HashMap<>(this.properties);
+        properties.remove(CommonConstants.PREPARED_STATEMENT_SQL_KEY);
+        return properties;
     }
 
     @Override
@@ -783,7 +876,7 @@ public class PreparedStatement extends Statement implements java.sql.PreparedSta
 
     /**
      * Has to override the Statement implementation because PreparedStatement has to send extra properties like the SQL
-     * being executed, which Statement does not.
+     * being executed, which Statement does not. Keys sent by the server with the update count are read locally.
      *
      * @return RemoteProxyResultSet
      * @throws SQLException
@@ -792,6 +885,10 @@ public class PreparedStatement extends Statement implements java.sql.PreparedSta
     public RemoteProxyResultSet getGeneratedKeys() throws SQLException {
         log.debug("getGeneratedKeys called");
         checkClosed();
+        if (this.generatedKeys != null) {
+            return new ResultSet(Statement.withSession(this.generatedKeys, this.connection.getSession()).iterator(),
+                    this.statementService, this);
+        }
         String resultSetUUID = this.callProxy(CallType.CALL_GET, "GeneratedKeys", String.class);
         return new RemoteProxyResultSet(resultSetUUID, this.statementService, this.connection, this);
     }
@@ -833,7 +930,10 @@ public class PreparedStatement extends Statement implements java.sql.PreparedSta
     public void clearBatch() throws SQLException {
         log.debug("clearBatch called");
         checkClosed();
-        this.callProxy(CallType.CALL_CLEAR, "Batch", Void.class);
+        this.batchParameterSets.clear();
+        if (this.getStatementUUID() != null) {
+            this.callProxy(CallType.CALL_CLEAR, "Batch", Void.class);
+        }
     }
 
     /**
@@ -848,6 +948,7 @@ public class PreparedStatement extends Statement implements java.sql.PreparedSta
         log.debug("setFetchSize called with {}", rows);
         checkClosed();
         this.callProxy(CallType.CALL_SET, "FetchSize", Void.class, List.of(rows));
+        this.fetchSize = rows;
     }
 
     /**
@@ -911,6 +1012,7 @@ public class PreparedStatement extends Statement implements java.sql.PreparedSta
 
     private <T> T callProxy(CallType callType, String targetName, Class<?> returnType, List<Object> params) throws SQLException {
         log.debug("callProxy: {}, {}, {}, params.size={}", callType, targetName, returnType, params != null ? params.size() : 0);
+        this.connection.flushDeferredCalls();
         CallResourceRequest.Builder reqBuilder = this.newCallBuilder();
         reqBuilder.setTarget(
                 TargetCall.newBuilder()
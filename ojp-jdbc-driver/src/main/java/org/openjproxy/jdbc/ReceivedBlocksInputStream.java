@@ -0,0 +1,89 @@
+package org.openjproxy.jdbc;
+
+import com.openjproxy.grpc.LobDataBlock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Reads the data of the LOB blocks received from the server as they arrive. Each block is read straight from the
+ * data of the received message, without copying it, and released once read. Blocks received through a
+ * {@link LobGrpcIterator} are only requested as the previous ones are read, so memory stays bounded by a couple of
+ * blocks, and closing the stream before its end cancels the call.
+ */
+class ReceivedBlocksInputStream extends InputStream {
+
+    private final Iterator<LobDataBlock> blocks;
+    private InputStream currentBlock;
+
+    /**
+     * @param firstBlock The first block received
+     * @param blocks     The blocks received after the first one
+     */
+    ReceivedBlocksInputStream(LobDataBlock firstBlock, Iterator<LobDataBlock> blocks) {
+        this.blocks = blocks;
+        this.currentBlock = firstBlock.getData().newInput();
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (this.currentBlock != null) {
+            int b = this.currentBlock.read();
+            if (b != -1) {
+                return b;
+            }
+            this.currentBlock = this.nextBlock();
+        }
+        return -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        while (this.currentBlock != null) {
+            int read = this.currentBlock.read(b, off, len);
+            if (read > 0) {
+                return read;
+            }
+            this.currentBlock = this.nextBlock();
+        }
+        return -1;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return this.currentBlock != null ? this.currentBlock.available() : 0;
+    }
+
+    /**
+     * Stops receiving blocks, the call is cancelled if blocks are still to arrive.
+     */
+    @Override
+    public void close() {
+        if (this.currentBlock == null) {
+            return;
+        }
+        this.currentBlock = null;
+        if (this.blocks instanceof LobGrpcIterator) {
+            ((LobGrpcIterator) this.blocks).cancel();
+        }
+    }
+
+    /**
+     * Waits for the next block to arrive.
+     *
+     * @return the data of the next block or null if all blocks were read
+     */
+    private InputStream nextBlock() throws IOException {
+        try {
+            return this.blocks.hasNext() ? this.blocks.next().getData().newInput() : null;
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to read LOB data: " + e.getMessage(), e);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.Clob;
@@ -1284,7 +1285,8 @@ public class RemoteProxyResultSet implements java.sql.ResultSet {
     private Reader retrieveReader(CallType callType, String attrName, LobType lobType, List<Object> params)
             throws SQLException {
         log.debug("retrieveReader: {}, {}, {}, <params>", callType, attrName, lobType);
-        return new InputStreamReader(this.retrieveBinaryStream(callType, attrName, lobType, params));
+        return new InputStreamReader(this.retrieveBinaryStream(callType, attrName, lobType, params),
+                StandardCharsets.UTF_8);
     }
 
     /**
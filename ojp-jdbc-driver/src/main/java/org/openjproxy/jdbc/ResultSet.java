@@ -1,15 +1,23 @@
 package org.openjproxy.jdbc;
 
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.openjproxy.grpc.LobReference;
 import com.openjproxy.grpc.LobType;
+import com.openjproxy.grpc.ColumnarBlock;
 import com.openjproxy.grpc.OpResult;
+import com.openjproxy.grpc.ResultType;
+import com.openjproxy.grpc.RowBlock;
 import io.grpc.StatusRuntimeException;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.openjproxy.constants.CommonConstants;
+import org.openjproxy.grpc.ColumnarBlockCodec;
+import org.openjproxy.grpc.RowBlockCodec;
+import org.openjproxy.grpc.client.CancellableIterator;
 import org.openjproxy.grpc.client.StatementService;
+import org.openjproxy.grpc.dto.ColumnarRows;
 import org.openjproxy.grpc.dto.OpQueryResult;
 import org.openjproxy.jdbc.sqlserver.HydratedBlob;
 
@@ -49,34 +57,56 @@ public class ResultSet extends RemoteProxyResultSet {
     private final Map<String, Integer> labelsMap;
 
     private Iterator<OpResult> itResults;//Iterator of blocks of data
+    private ResultSetReadAhead readAhead;//Receives the next blocks in the background, null if read ahead is disabled
     private List<Object[]> currentDataBlock;//Current block of data being processed.
     private AtomicInteger blockIdx = new AtomicInteger(-1);//Current block index
     private AtomicInteger blockCount = new AtomicInteger(1);//Current block count
+    private int rowsInPreviousBlocks;//Block sizes vary, so rows of blocks already consumed are counted for getRow
     private java.sql.ResultSetMetaData resultSetMetadata;
+    //Column metadata sent by the server with the first block, null if the server did not send it.
+    @Getter
+    private java.sql.ResultSetMetaData hydratedMetadata;
     private boolean inProxyMode;
     private boolean closed;
     private AtomicInteger currentIdx = new AtomicInteger(0);
     private boolean inRowByRowMode;
 
     private Object lastValueRead;
+    //Marks the last value read as not null when it was read unboxed from a columnar block.
+    private static final Object PRIMITIVE_VALUE_READ = new Object();
 
     public ResultSet(Iterator<OpResult> itOpResult, StatementService statementService, java.sql.Statement statement) throws SQLException {
+        this(itOpResult, statementService, statement, null);
+    }
+
+    /**
+     * Creates a result set not linked to a statement, such as the catalog result sets of DatabaseMetaData, which
+     * takes the session from the given connection instead.
+     */
+    public ResultSet(Iterator<OpResult> itOpResult, StatementService statementService, java.sql.Statement statement,
+                     Connection connection) throws SQLException {
         this.itResults = itOpResult;
         this.inProxyMode = false;
         this.closed = false;
         try {
             this.statement = statement;
+            this.setConnection(connection);
             OpResult result = nextWithSessionUpdate(itOpResult.next());
-            OpQueryResult opQueryResult = deserialize(result.getValue().toByteArray(), OpQueryResult.class);
+            OpQueryResult opQueryResult = toQueryResult(result);
             this.inRowByRowMode = CommonConstants.RESULT_SET_ROW_BY_ROW_MODE.equalsIgnoreCase(result.getFlag());
             this.setStatementService(statementService);
             this.setResultSetUUID(opQueryResult.getResultSetUUID());
             this.currentDataBlock = opQueryResult.getRows();
+            this.hydratedMetadata = opQueryResult.getMetadata();
             this.labelsMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);//During tests CockroachDB returned column names capital, this is so that the search for a column to be case insensitive.
             List<String> labels = opQueryResult.getLabels();
             for (int i = 0; i < labels.size(); i++) {
                 labelsMap.put(labels.get(i).toUpperCase(), i);
             }
+            int readAheadDepth = DriverConfig.get().getResultSetReadAheadDepth();
+            if (!this.inRowByRowMode && readAheadDepth > 0) {
+                this.readAhead = new ResultSetReadAhead(itOpResult, readAheadDepth);
+            }
         } catch (StatusRuntimeException e) {
             throw handle(e);
         }
@@ -96,45 +126,109 @@ public class ResultSet extends RemoteProxyResultSet {
                 // would invalidate the LOB object(s) and therefore for SQL Server and DB2 the read is only done when asked
                 // by the client.
                 OpResult result = this.nextWithSessionUpdate(
-                        this.getStatementService().fetchNextRows(((Connection) this.statement.getConnection()).getSession(),
+                        this.getStatementService().fetchNextRows(this.sessionConnection().getSession(),
                         this.getResultSetUUID(), 1));
                 this.setNextOpResult(result);
             } catch (StatusRuntimeException e) {
                 throw handle(e);
             }
         }
-        if (!this.inRowByRowMode && blockIdx.get() >= currentDataBlock.size() && itResults.hasNext()) {
-            try {
-                this.setNextOpResult(this.nextWithSessionUpdate(itResults.next()));
-            } catch (StatusRuntimeException e) {
-                throw handle(e);
+        if (!this.inRowByRowMode && blockIdx.get() >= currentDataBlock.size() && this.hasNextBlock()) {
+            if (this.readAhead != null) {
+                FetchBlockResult block = this.readAhead.next();
+                this.nextWithSessionUpdate(block.getOpResult());
+                this.setNextBlock(block.getResult());
+            } else {
+                try {
+                    this.setNextOpResult(this.nextWithSessionUpdate(itResults.next()));
+                } catch (StatusRuntimeException e) {
+                    throw handle(e);
+                }
             }
         }
         return blockIdx.get() < currentDataBlock.size();
     }
 
-    private void setNextOpResult(OpResult result) {
-        OpQueryResult opQueryResult = deserialize(result.getValue().toByteArray(), OpQueryResult.class);
+    private boolean hasNextBlock() throws SQLException {
+        if (this.readAhead != null) {
+            return this.readAhead.hasNext();
+        }
+        try {
+            return itResults.hasNext();
+        } catch (StatusRuntimeException e) {
+            throw handle(e);
+        }
+    }
+
+    private void setNextOpResult(OpResult result) throws SQLException {
+        this.setNextBlock(toQueryResult(result));
+    }
+
+    private void setNextBlock(OpQueryResult opQueryResult) {
+        this.rowsInPreviousBlocks += this.currentDataBlock.size();
         this.currentDataBlock = opQueryResult.getRows();
         this.blockCount.incrementAndGet();
         this.blockIdx.set(0);
     }
 
+    /**
+     * Decodes a block of rows, typed row or columnar blocks are used when negotiated on connect otherwise the block
+     * is a java serialized OpQueryResult.
+     */
+    static OpQueryResult toQueryResult(OpResult result) throws SQLException {
+        try {
+            if (ResultType.RESULT_SET_COLUMNAR_BLOCK.equals(result.getType())) {
+                return ColumnarBlockCodec.decode(ColumnarBlock.parseFrom(result.getValue()));
+            } else if (ResultType.RESULT_SET_ROW_BLOCK.equals(result.getType())) {
+                return RowBlockCodec.decode(RowBlock.parseFrom(result.getValue()));
+            }
+        } catch (InvalidProtocolBufferException e) {
+            throw new SQLException("Unable to decode result set block: " + e.getMessage(), e);
+        }
+        return deserialize(result.getValue().toByteArray(), OpQueryResult.class);
+    }
+
+    /**
+     * Value of the given column (1 based) in the current row, columnar blocks are read without materializing the row.
+     */
+    private Object currentValue(int columnIndex) {
+        if (this.currentDataBlock instanceof ColumnarRows) {
+            return ((ColumnarRows) this.currentDataBlock).getValue(blockIdx.get(), columnIndex - 1);
+        }
+        return currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+    }
+
     private OpResult nextWithSessionUpdate(OpResult next) throws SQLException {
         log.debug("nextWithSessionUpdate called");
-        ((Connection) this.statement.getConnection()).setSession(next.getSession());
+        this.sessionConnection().setSession(next.getSession());
         return next;
     }
 
+    /**
+     * Connection holding the session of the result set, the one of the statement unless created without statement.
+     */
+    private Connection sessionConnection() throws SQLException {
+        return this.statement != null ? (Connection) this.statement.getConnection() : this.getConnection();
+    }
+
     @Override
     public void close() throws SQLException {
         log.debug("close called");
         this.closed = true;
         this.blockIdx = null;
+        if (this.readAhead != null) {
+            this.readAhead.close();
+            this.readAhead = null;
+        }
+        if (this.itResults instanceof CancellableIterator) {
+            //Stops the server from streaming the blocks not read yet.
+            ((CancellableIterator<OpResult>) this.itResults).cancel();
+        }
         this.itResults = null;
         this.currentDataBlock = null;
         //If the parent statement is closed the result set is closed already, attempting to close it again would produce an error.
-        if (this.statement == null || !this.statement.isClosed()) {
+        //Result sets without UUID were fully read and closed by the server already.
+        if ((this.statement == null || !this.statement.isClosed()) && StringUtils.isNotBlank(this.getResultSetUUID())) {
             super.close();
         }
     }
@@ -154,7 +248,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getString(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         }
@@ -175,7 +269,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getBoolean(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return false;
         }
@@ -188,7 +282,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getByte(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return 0;
         } else if (lastValueRead instanceof byte[]) {
@@ -205,7 +299,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getShort(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return 0;
         }
@@ -218,7 +312,16 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getInt(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        if (this.currentDataBlock instanceof ColumnarRows && ((ColumnarRows) this.currentDataBlock).isLongColumn(columnIndex - 1)) {
+            ColumnarRows columnarRows = (ColumnarRows) this.currentDataBlock;
+            if (columnarRows.isNull(blockIdx.get(), columnIndex - 1)) {
+                lastValueRead = null;
+                return 0;
+            }
+            lastValueRead = PRIMITIVE_VALUE_READ;
+            return (int) columnarRows.getLong(blockIdx.get(), columnIndex - 1);
+        }
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return 0;
         }
@@ -253,7 +356,16 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getLong(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        if (this.currentDataBlock instanceof ColumnarRows && ((ColumnarRows) this.currentDataBlock).isLongColumn(columnIndex - 1)) {
+            ColumnarRows columnarRows = (ColumnarRows) this.currentDataBlock;
+            if (columnarRows.isNull(blockIdx.get(), columnIndex - 1)) {
+                lastValueRead = null;
+                return 0;
+            }
+            lastValueRead = PRIMITIVE_VALUE_READ;
+            return columnarRows.getLong(blockIdx.get(), columnIndex - 1);
+        }
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return 0;
         }
@@ -275,7 +387,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getFloat(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return 0;
         }
@@ -293,7 +405,16 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getDouble(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        if (this.currentDataBlock instanceof ColumnarRows && ((ColumnarRows) this.currentDataBlock).isDoubleColumn(columnIndex - 1)) {
+            ColumnarRows columnarRows = (ColumnarRows) this.currentDataBlock;
+            if (columnarRows.isNull(blockIdx.get(), columnIndex - 1)) {
+                lastValueRead = null;
+                return 0d;
+            }
+            lastValueRead = PRIMITIVE_VALUE_READ;
+            return columnarRows.getDouble(blockIdx.get(), columnIndex - 1);
+        }
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return 0d;
         }
@@ -311,7 +432,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getBigDecimal(columnIndex, scale);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         }
@@ -325,10 +446,11 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getBytes(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
-        if (lastValueRead instanceof String) {// Means the server is treating it as a binary stream
-            InputStream is = this.getBinaryStream(columnIndex);
-            return is.readAllBytes();
+        lastValueRead = this.currentValue(columnIndex);
+        if (lastValueRead instanceof String) {// Means the server is treating it as a binary stream or spilled it
+            try (InputStream is = this.getBinaryStream(columnIndex)) {
+                return is.readAllBytes();
+            }
         }
         return (byte[]) lastValueRead;
     }
@@ -339,7 +461,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getDate(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         }
@@ -357,7 +479,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getTime(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         }
@@ -370,7 +492,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getTimestamp(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         }
@@ -403,14 +525,13 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getBinaryStream(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         } else if (lastValueRead instanceof byte[]) {// Only used by SQL server
             return new ByteArrayInputStream((byte[]) lastValueRead);
         }
-        Object objUUID = lastValueRead;
-        String lobRefUUID = String.valueOf(objUUID);
+        String lobRefUUID = lobUUID(lastValueRead);
         LobReference.Builder lobRefBuilder = LobReference.newBuilder()
                 .setSession(this.getConnection().getSession())
                 .setLobType(LobType.LT_BINARY_STREAM)
@@ -562,7 +683,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getBigDecimal(columnLabel, scale);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[this.labelsMap.get(columnLabel.toUpperCase())];
+        lastValueRead = this.currentValue(this.labelsMap.get(columnLabel.toUpperCase()) + 1);
         if (lastValueRead == null) {
             return null;
         }
@@ -596,7 +717,7 @@ public class ResultSet extends RemoteProxyResultSet {
             return super.getBinaryStream(columnLabel);
         }
         int colIdx = this.labelsMap.get(columnLabel.toUpperCase()) + 1;
-        lastValueRead = currentDataBlock.get(blockIdx.get())[colIdx - 1];
+        lastValueRead = this.currentValue(colIdx);
         if (lastValueRead == null) {
             return null;
         }
@@ -647,10 +768,26 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getObject(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
+        if (lastValueRead instanceof String &&
+                ((String) lastValueRead).startsWith(CommonConstants.OJP_BLOB_PREFIX)) {
+            //Spilled binary values are read whole, as the bytes of values not spilled are.
+            return this.getBytes(columnIndex);
+        }
         return lastValueRead;
     }
 
+    /**
+     * Gets the UUID a binary value is read by on the server, dropping the prefix of values spilled to disk.
+     */
+    private static String lobUUID(Object value) {
+        String uuid = String.valueOf(value);
+        if (uuid.startsWith(CommonConstants.OJP_BLOB_PREFIX)) {
+            return uuid.substring(CommonConstants.OJP_BLOB_PREFIX.length());
+        }
+        return uuid;
+    }
+
     @Override
     public int findColumn(String columnLabel) throws SQLException {
         log.debug("findColumn: {}", columnLabel);
@@ -686,7 +823,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getBigDecimal(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         }
@@ -715,7 +852,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.isAfterLast();
         }
-        return !itResults.hasNext() && blockIdx.get() >= currentDataBlock.size();
+        return !this.hasNextBlock() && blockIdx.get() >= currentDataBlock.size();
     }
 
     @Override
@@ -733,7 +870,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.isLast();
         }
-        return !itResults.hasNext() && blockIdx.get() == (currentDataBlock.size() - 1);
+        return !this.hasNextBlock() && blockIdx.get() == (currentDataBlock.size() - 1);
     }
 
     @Override
@@ -763,7 +900,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getRow();
         }
-        return ((this.blockCount.get() - 1) * CommonConstants.ROWS_PER_RESULT_SET_DATA_BLOCK) + this.blockIdx.get() + 1;
+        return this.rowsInPreviousBlocks + this.blockIdx.get() + 1;
     }
 
     @Override
@@ -1341,14 +1478,13 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getBlob(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         } else if (lastValueRead instanceof byte[]) { //Only for SQL server
             return new HydratedBlob((byte[]) lastValueRead);
         }
-        Object objUUID = lastValueRead;
-        String blobRefUUID = String.valueOf(objUUID);
+        String blobRefUUID = lobUUID(lastValueRead);
         LobReference.Builder lobRefBuilder = LobReference.newBuilder()
                 .setSession(((Connection) this.statement.getConnection()).getSession())
                 .setUuid(blobRefUUID);
@@ -1371,7 +1507,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getClob(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         }
@@ -1426,20 +1562,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getBlob(columnLabel);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[this.labelsMap.get(columnLabel.toUpperCase())];
-        //For databases where LOBs get invalidated once cursor moves (SQL Server and DB2) must eagerly hydrate LOBs.
-        if (lastValueRead instanceof byte[]){
-            return new HydratedBlob((byte[]) lastValueRead);
-        }
-        String blobRefUUID = (String) lastValueRead;
-        return new org.openjproxy.jdbc.Blob((Connection) this.statement.getConnection(),
-                new LobServiceImpl((Connection) this.statement.getConnection(), this.getStatementService()),
-                this.getStatementService(),
-                LobReference.newBuilder()
-                        .setSession(((Connection) this.statement.getConnection()).getSession())
-                        .setUuid(blobRefUUID)
-                        .build()
-        );
+        return this.getBlob(this.labelsMap.get(columnLabel.toUpperCase()) + 1);
     }
 
     @Override
@@ -1528,7 +1651,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getURL(columnIndex);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         }
@@ -1541,7 +1664,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getURL(columnLabel);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[this.labelsMap.get(columnLabel.toUpperCase())];
+        lastValueRead = this.currentValue(this.labelsMap.get(columnLabel.toUpperCase()) + 1);
         if (lastValueRead == null) {
             return null;
         }
@@ -2113,7 +2236,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getObject(columnIndex, type);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[columnIndex - 1];
+        lastValueRead = this.currentValue(columnIndex);
         if (lastValueRead == null) {
             return null;
         }
@@ -2126,7 +2249,7 @@ public class ResultSet extends RemoteProxyResultSet {
         if (this.inProxyMode) {
             return super.getObject(columnLabel, type);
         }
-        lastValueRead = currentDataBlock.get(blockIdx.get())[this.labelsMap.get(columnLabel.toUpperCase())];
+        lastValueRead = this.currentValue(this.labelsMap.get(columnLabel.toUpperCase()) + 1);
         if (lastValueRead == null) {
             return null;
         }
@@ -23,23 +23,30 @@ public class ResultSetMetaData implements java.sql.ResultSetMetaData {
     private final StatementService statementService;
     private final RemoteProxyResultSet resultSet;
     private final PreparedStatement ps;
+    //Metadata sent by the server with the first block of the result set, when present every getter is answered locally.
+    private final java.sql.ResultSetMetaData hydrated;
 
     public ResultSetMetaData(RemoteProxyResultSet resultSet, StatementService statementService) {
         this.resultSet = resultSet;
         this.statementService = statementService;
         this.ps = null;
+        this.hydrated = resultSet instanceof org.openjproxy.jdbc.ResultSet ?
+                ((org.openjproxy.jdbc.ResultSet) resultSet).getHydratedMetadata() : null;
     }
 
     public ResultSetMetaData(PreparedStatement ps, StatementService statementService) {
         this.ps = ps;
         this.statementService = statementService;
         this.resultSet = null;
+        this.hydrated = null;
     }
 
     @Override
     public int getColumnCount() throws SQLException {
         log.debug("getColumnCount called");
-        if (resultSet instanceof org.openjproxy.jdbc.ResultSet) {
+        if (this.hydrated != null) {
+            return this.hydrated.getColumnCount();
+        } else if (resultSet instanceof org.openjproxy.jdbc.ResultSet) {
             org.openjproxy.jdbc.ResultSet rs = (org.openjproxy.jdbc.ResultSet) resultSet;
             return rs.getLabelsMap().size();
         } else {
@@ -70,120 +77,180 @@ public class ResultSetMetaData implements java.sql.ResultSetMetaData {
     @Override
     public boolean isAutoIncrement(int column) throws SQLException {
         log.debug("isAutoIncrement: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.isAutoIncrement(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_IS, "AutoIncrement", column, Boolean.class);
     }
 
     @Override
     public boolean isCaseSensitive(int column) throws SQLException {
         log.debug("isCaseSensitive: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.isCaseSensitive(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_IS, "CaseSensitive", column, Boolean.class);
     }
 
     @Override
     public boolean isSearchable(int column) throws SQLException {
         log.debug("isSearchable: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.isSearchable(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_IS, "Searchable", column, Boolean.class);
     }
 
     @Override
     public boolean isCurrency(int column) throws SQLException {
         log.debug("isCurrency: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.isCurrency(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_IS, "Currency", column, Boolean.class);
     }
 
     @Override
     public int isNullable(int column) throws SQLException {
         log.debug("isNullable: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.isNullable(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_IS, "Nullable", column, Integer.class);
     }
 
     @Override
     public boolean isSigned(int column) throws SQLException {
         log.debug("isSigned: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.isSigned(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_IS, "Signed", column, Boolean.class);
     }
 
     @Override
     public int getColumnDisplaySize(int column) throws SQLException {
         log.debug("getColumnDisplaySize: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getColumnDisplaySize(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "ColumnDisplaySize", column, Integer.class);
     }
 
     @Override
     public String getColumnLabel(int column) throws SQLException {
         log.debug("getColumnLabel: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getColumnLabel(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "ColumnLabel", column, String.class);
     }
 
     @Override
     public String getColumnName(int column) throws SQLException {
         log.debug("getColumnName: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getColumnName(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "ColumnName", column, String.class);
     }
 
     @Override
     public String getSchemaName(int column) throws SQLException {
         log.debug("getSchemaName: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getSchemaName(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "SchemaName", column, String.class);
     }
 
     @Override
     public int getPrecision(int column) throws SQLException {
         log.debug("getPrecision: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getPrecision(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "Precision", column, Integer.class);
     }
 
     @Override
     public int getScale(int column) throws SQLException {
         log.debug("getScale: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getScale(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "Scale", column, Integer.class);
     }
 
     @Override
     public String getTableName(int column) throws SQLException {
         log.debug("getTableName: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getTableName(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "TableName", column, String.class);
     }
 
     @Override
     public String getCatalogName(int column) throws SQLException {
         log.debug("getCatalogName: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getCatalogName(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "CatalogName", column, String.class);
     }
 
     @Override
     public int getColumnType(int column) throws SQLException {
         log.debug("getColumnType: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getColumnType(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "ColumnType", column, Integer.class);
     }
 
     @Override
     public String getColumnTypeName(int column) throws SQLException {
         log.debug("getColumnTypeName: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getColumnTypeName(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "ColumnTypeName", column, String.class);
     }
 
     @Override
     public boolean isReadOnly(int column) throws SQLException {
         log.debug("isReadOnly: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.isReadOnly(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_IS, "ReadOnly", column, Boolean.class);
     }
 
     @Override
     public boolean isWritable(int column) throws SQLException {
         log.debug("isWritable: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.isWritable(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_IS, "Writable", column, Boolean.class);
     }
 
     @Override
     public boolean isDefinitelyWritable(int column) throws SQLException {
         log.debug("isDefinitelyWritable: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.isDefinitelyWritable(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_IS, "DefinitelyWritable", column, Boolean.class);
     }
 
     @Override
     public String getColumnClassName(int column) throws SQLException {
         log.debug("getColumnClassName: {}", column);
+        if (this.hydrated != null) {
+            return this.hydrated.getColumnClassName(column);
+        }
         return this.retrieveMetadataAttribute(CallType.CALL_GET, "ColumnClassName", column, String.class);
     }
 
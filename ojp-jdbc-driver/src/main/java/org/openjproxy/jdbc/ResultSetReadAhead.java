@@ -0,0 +1,215 @@
+package org.openjproxy.jdbc;
+
+import com.openjproxy.grpc.OpResult;
+import io.grpc.StatusRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+import org.openjproxy.grpc.client.CancellableIterator;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.openjproxy.grpc.client.GrpcExceptionHandler.handle;
+
+/**
+ * Receives and decodes the next blocks of a result set on a background thread while the application is still
+ * processing the current block, so reaching the end of a block does not stall the application on network latency
+ * and decoding. At most {@code depth} decoded blocks are buffered, once the buffer is full the background thread
+ * stops reading which in turn makes the server stop reading the database cursor.
+ * <p>
+ * Read ahead threads are bounded, result sets opened while every thread is busy are read on the application thread.
+ * A thread waiting on a full buffer for longer than the idle timeout hands the rest of the result set over to the
+ * application thread and exits, so result sets the application neither drains nor closes do not hold a thread.
+ * </p>
+ */
+@Slf4j
+class ResultSetReadAhead {
+
+    private static final FetchBlockResult END_OF_BLOCKS = FetchBlockResult.builder().build();
+    // How often the application thread checks if the reader handed the result set over while waiting for a block.
+    private static final long HANDOVER_CHECK_MILLIS = 100;
+
+    private static final ExecutorService READ_AHEAD_EXECUTOR = new ThreadPoolExecutor(0,
+            DriverConfig.get().getResultSetReadAheadMaxThreads(), 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "ojp-result-set-read-ahead");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Iterator<OpResult> itResults;
+    private final BlockingQueue<FetchBlockResult> blocks;
+    private final long idleTimeoutMillis;
+    private final Future<?> reader;
+    private volatile boolean closed;
+    // Set once the reader stopped, the application thread then reads the rest of the result set itself.
+    private volatile boolean handedOver;
+    // Block read but not buffered by the reader before handing over, written before handedOver is set.
+    private volatile FetchBlockResult handedOverBlock;
+    private FetchBlockResult nextBlock;
+
+    ResultSetReadAhead(Iterator<OpResult> itResults, int depth) {
+        this(itResults, depth, READ_AHEAD_EXECUTOR, DriverConfig.get().getResultSetReadAheadIdleTimeout());
+    }
+
+    ResultSetReadAhead(Iterator<OpResult> itResults, int depth, ExecutorService executor, long idleTimeoutMillis) {
+        this.itResults = itResults;
+        this.blocks = new ArrayBlockingQueue<>(depth);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        Future<?> future = null;
+        try {
+            future = executor.submit(this::readBlocks);
+        } catch (RejectedExecutionException e) {
+            log.debug("Every read ahead thread is busy, reading the result set on the application thread");
+            this.handedOver = true;
+        }
+        this.reader = future;
+    }
+
+    /**
+     * Returns true if there is another block, waits for the background thread if the block was not received yet.
+     *
+     * @throws SQLException if receiving or decoding the block failed.
+     */
+    boolean hasNext() throws SQLException {
+        if (this.nextBlock == null) {
+            try {
+                this.nextBlock = this.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the next result set block.", e);
+            }
+        }
+        if (this.nextBlock.getException() != null) {
+            throw this.nextBlock.getException();
+        }
+        return this.nextBlock != END_OF_BLOCKS;
+    }
+
+    FetchBlockResult next() throws SQLException {
+        if (!this.hasNext()) {
+            throw new SQLException("No more result set blocks.");
+        }
+        FetchBlockResult block = this.nextBlock;
+        this.nextBlock = null;
+        return block;
+    }
+
+    /**
+     * Stops the background thread and cancels the gRPC call, so the server stops streaming the blocks not received
+     * yet whether the thread is waiting on the server or on a full buffer.
+     */
+    void close() {
+        this.closed = true;
+        if (this.itResults instanceof CancellableIterator) {
+            ((CancellableIterator<OpResult>) this.itResults).cancel();
+        }
+        if (this.reader != null) {
+            this.reader.cancel(true);
+        }
+        this.blocks.clear();
+    }
+
+    /**
+     * Takes the next buffered block, once the reader handed the result set over and the buffer is drained the
+     * blocks are read on the calling thread.
+     */
+    private FetchBlockResult take() throws InterruptedException {
+        while (true) {
+            //Read before polling, nothing is buffered after the hand over so an empty buffer then means drained.
+            boolean readerStopped = this.handedOver;
+            FetchBlockResult block = readerStopped ? this.blocks.poll() :
+                    this.blocks.poll(HANDOVER_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            if (block != null) {
+                return block;
+            }
+            if (readerStopped) {
+                block = this.handedOverBlock;
+                if (block != null) {
+                    this.handedOverBlock = null;
+                    return block;
+                }
+                return this.readBlock();
+            }
+        }
+    }
+
+    private void readBlocks() {
+        try {
+            FetchBlockResult block;
+            do {
+                block = this.readBlock();
+                if (!this.offer(block)) {
+                    return;
+                }
+            } while (!this.closed && block != END_OF_BLOCKS && block.getException() == null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Buffers a block, waiting up to the idle timeout for the application to make room.
+     *
+     * @return false if the block was not buffered, either closed or handed over to the application thread
+     */
+    private boolean offer(FetchBlockResult block) throws InterruptedException {
+        if (this.closed) {
+            return false;
+        }
+        if (this.blocks.offer(block, this.idleTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        log.debug("Result set not read for {} ms, handing it over to the application thread", this.idleTimeoutMillis);
+        this.handedOverBlock = block;
+        this.handedOver = true;
+        return false;
+    }
+
+    /**
+     * Receives and decodes the next block, failures are returned as a block carrying the exception.
+     */
+    private FetchBlockResult readBlock() {
+        try {
+            if (!this.itResults.hasNext()) {
+                return END_OF_BLOCKS;
+            }
+            OpResult opResult = this.itResults.next();
+            return FetchBlockResult.builder()
+                    .opResult(opResult)
+                    .result(ResultSet.toQueryResult(opResult))
+                    .build();
+        } catch (SQLException e) {
+            return failure(e);
+        } catch (StatusRuntimeException e) {
+            if (this.closed) {
+                log.debug("Result set read ahead stopped: {}", e.getMessage());
+            }
+            return failure(toSQLException(e));
+        } catch (RuntimeException e) {
+            return failure(new SQLException("Unable to read result set block: " + e.getMessage(), e));
+        }
+    }
+
+    private static SQLException toSQLException(StatusRuntimeException e) {
+        try {
+            StatusRuntimeException sre = handle(e);
+            return new SQLException(sre.getMessage(), sre);
+        } catch (SQLException sqlException) {
+            return sqlException;
+        } catch (RuntimeException re) {
+            return new SQLException(e.getMessage(), e);
+        }
+    }
+
+    private static FetchBlockResult failure(SQLException e) {
+        return FetchBlockResult.builder().exception(e).build();
+    }
+}
@@ -6,19 +6,24 @@ import com.openjproxy.grpc.CallResourceResponse;
 import com.openjproxy.grpc.CallType;
 import com.openjproxy.grpc.OpResult;
 import com.openjproxy.grpc.ResourceType;
+import com.openjproxy.grpc.SessionInfo;
 import com.openjproxy.grpc.TargetCall;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.openjproxy.constants.CommonConstants;
 import org.openjproxy.grpc.client.StatementService;
 
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLWarning;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.openjproxy.grpc.SerializationHandler.deserialize;
 import static org.openjproxy.grpc.SerializationHandler.serialize;
@@ -35,8 +40,11 @@ public class Statement implements java.sql.Statement {
     private String statementUUID;
     private int maxRows;
     private ResourceType resourceType;
+    // Generated keys sent with the update count of the last update, null if they have to be fetched.
+    private List<OpResult> generatedKeys;
 
     protected boolean closed;
+    protected int fetchSize;
     protected ResultSet lastResultSet;
     protected int lastUpdateCount;
 
@@ -68,8 +76,10 @@ public class Statement implements java.sql.Statement {
     public ResultSet executeQuery(String sql) throws SQLException {
         log.debug("executeQuery: {}", sql);
         checkClosed();
+        this.connection.flushDeferredCalls();
+        this.generatedKeys = null;
         Iterator<OpResult> itResults = this.statementService.executeQuery(this.connection.getSession(), sql,
-                EMPTY_PARAMETERS_LIST, this.statementUUID, this.properties);
+                EMPTY_PARAMETERS_LIST, this.statementUUID, this.fetchSize, this.properties);
         return new ResultSet(itResults, this.statementService, this);
     }
 
@@ -77,6 +87,8 @@ public class Statement implements java.sql.Statement {
     public int executeUpdate(String sql) throws SQLException {
         log.debug("executeUpdate: {}", sql);
         checkClosed();
+        this.connection.flushDeferredCalls();
+        this.generatedKeys = null;
         OpResult result = this.statementService.executeUpdate(this.connection.getSession(), sql, EMPTY_PARAMETERS_LIST,
                 this.statementUUID, this.properties);
         this.connection.setSession(result.getSession());//TODO see if can do this in one place instead of updating session everywhere
@@ -229,6 +241,7 @@ public class Statement implements java.sql.Statement {
         log.debug("setFetchSize: {}", rows);
         checkClosed();
         this.callProxy(CallType.CALL_SET, "FetchSize", Void.class, Arrays.asList(rows));
+        this.fetchSize = rows;
     }
 
     @Override
@@ -291,6 +304,10 @@ public class Statement implements java.sql.Statement {
     public RemoteProxyResultSet getGeneratedKeys() throws SQLException {
         log.debug("getGeneratedKeys called");
         checkClosed();
+        if (this.generatedKeys != null) {
+            return new ResultSet(withSession(this.generatedKeys, this.connection.getSession()).iterator(),
+                    this.statementService, this);
+        }
         String resultSetUUID = this.callProxy(CallType.CALL_GET, "GeneratedKeys", String.class);
         return new RemoteProxyResultSet(resultSetUUID, this.statementService, this.connection, this);
     }
@@ -299,7 +316,25 @@ public class Statement implements java.sql.Statement {
     public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
         log.debug("executeUpdate: {}, autoGeneratedKeys={}", sql, autoGeneratedKeys);
         checkClosed();
-        return this.callProxy(CallType.CALL_EXECUTE, "Update", Integer.class, Arrays.asList(sql, autoGeneratedKeys));
+        if (autoGeneratedKeys != RETURN_GENERATED_KEYS) {
+            return this.callProxy(CallType.CALL_EXECUTE, "Update", Integer.class, Arrays.asList(sql, autoGeneratedKeys));
+        }
+        //Executed as an update so the generated keys come back with the update count.
+        this.connection.flushDeferredCalls();
+        this.generatedKeys = null;
+        Map<String, Object> updateProperties = this.properties != null ? new HashMap<>(this.properties) :
+                new HashMap<>();
+        updateProperties.put(CommonConstants.STATEMENT_AUTO_GENERATED_KEYS_KEY, autoGeneratedKeys);
+        OpResult result = this.statementService.executeUpdate(this.connection.getSession(), sql, EMPTY_PARAMETERS_LIST,
+                this.statementUUID, updateProperties);
+        this.connection.setSession(result.getSession());
+        if (this.statementUUID == null && StringUtils.isNotBlank(result.getUuid())) {
+            this.statementUUID = result.getUuid();
+        }
+        if (result.getGeneratedKeysCount() > 0) {
+            this.generatedKeys = result.getGeneratedKeysList();
+        }
+        return deserialize(result.getValue().toByteArray(), Integer.class);
     }
 
     @Override
@@ -487,6 +522,10 @@ public class Statement implements java.sql.Statement {
 
     private <T> T callProxy(CallType callType, String targetName, Class<?> returnType, List<Object> params) throws SQLException {
         log.debug("callProxy: {}, {}, {}, params.size={}", callType, targetName, returnType, params != null ? params.size() : 0);
+        this.connection.flushDeferredCalls();
+        if (CallType.CALL_EXECUTE.equals(callType)) {
+            this.generatedKeys = null;
+        }
         CallResourceRequest.Builder reqBuilder = this.newCallBuilder();
         reqBuilder.setTarget(
                 TargetCall.newBuilder()
@@ -505,4 +544,14 @@ public class Statement implements java.sql.Statement {
         }
         return (T) deserialize(response.getValues().toByteArray(), returnType);
     }
-}
\ No newline at end of file
+
+    /**
+     * Generated keys blocks carry the session of the update which returned them, by the time the keys are read the
+     * connection might have moved on to a newer session so the blocks are given the current one.
+     */
+    static List<OpResult> withSession(List<OpResult> blocks, SessionInfo session) {
+        return blocks.stream()
+                .map(block -> block.toBuilder().setSession(session).build())
+                .collect(Collectors.toList());
+    }
+}
@@ -7,6 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.openjproxy.grpc.SerializationHandler;
 import org.openjproxy.grpc.client.StatementService;
 import org.openjproxy.jdbc.ClientUUID;
+import org.openjproxy.jdbc.DriverConfig;
 
 import javax.sql.ConnectionEvent;
 import javax.sql.ConnectionEventListener;
@@ -72,6 +73,7 @@ public class OjpXAConnection implements XAConnection {
                     .setClientUUID(ClientUUID.getUUID())
                     .setProperties(propertiesBytes)
                     .setIsXA(true)  // Mark this as an XA connection
+                    .addAllSupportedResultSetFormats(DriverConfig.get().getSupportedResultSetFormats())
                     .build();
 
             this.sessionInfo = statementService.connect(connectionDetails);
@@ -0,0 +1,79 @@
+package openjproxy.jdbc;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+import org.openjproxy.jdbc.OjpBulkLoader;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static openjproxy.helpers.SqlHelper.executeUpdate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkLoadIntegrationTest {
+
+    private static final int TOTAL_ROWS = 2500;
+
+    private static boolean isPostgresTestDisabled;
+
+    @BeforeAll
+    public static void setup() {
+        isPostgresTestDisabled = Boolean.parseBoolean(System.getProperty("disablePostgresTests", "false"));
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_postgres_connections.csv")
+    public void bulkLoadRowsInChunks(String driverClass, String url, String user, String pwd, boolean isXA)
+            throws SQLException {
+        Assumptions.assumeFalse(isPostgresTestDisabled && url.contains("postgresql"), "Skipping Postgres tests");
+        Assumptions.assumeFalse(isXA, "Bulk load is unwrapped from plain connections");
+
+        try (Connection conn = DriverManager.getConnection(url, user, pwd)) {
+            try {
+                executeUpdate(conn, "drop table bulk_load_test");
+            } catch (Exception e) {
+                //If fails disregard as per the table is most possibly not created yet
+            }
+            executeUpdate(conn, "create table bulk_load_test (id INT, name VARCHAR(50))");
+
+            assertTrue(conn.isWrapperFor(OjpBulkLoader.class));
+            OjpBulkLoader loader = conn.unwrap(OjpBulkLoader.class);
+            long loaded = loader.load("bulk_load_test", List.of("id", "name"), IntStream.range(0, TOTAL_ROWS)
+                    .mapToObj(i -> new Object[]{i, i % 10 == 0 ? null : "name, \"" + i + "\""})
+                    .iterator());
+            assertEquals(TOTAL_ROWS, loaded);
+            assertEquals(0, loader.load("bulk_load_test", List.of("id"), Collections.emptyIterator()));
+
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("select id, name from bulk_load_test where id in (0, 7) order by id")) {
+                assertTrue(rs.next());
+                assertNull(rs.getString(2));
+                assertTrue(rs.next());
+                assertEquals("name, \"7\"", rs.getString(2));
+                assertFalse(rs.next());
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("select count(*) from bulk_load_test")) {
+                assertTrue(rs.next());
+                assertEquals(TOTAL_ROWS, rs.getInt(1));
+            }
+
+            assertThrows(SQLException.class, () -> loader.load("bulk_load_test; drop table bulk_load_test",
+                    List.of("id"), Collections.emptyIterator()));
+
+            executeUpdate(conn, "drop table bulk_load_test");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package openjproxy.jdbc;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CallableStatementOutParametersIntegrationTest {
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void outParametersReadAfterEveryExecution(String driverClass, String url, String user, String password)
+            throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, user, password);
+             CallableStatement cs = conn.prepareCall("{? = call ABS(?)}")) {
+            cs.registerOutParameter(1, Types.INTEGER);
+            cs.setInt(2, -5);
+            assertEquals(0, cs.executeUpdate());
+            assertEquals(5, cs.getInt(1));
+            assertFalse(cs.wasNull());
+            assertEquals(5L, cs.getLong(1));
+            assertEquals("5", cs.getString(1));
+            assertEquals(5, cs.getObject(1));
+            assertEquals(5.0, cs.getDouble(1));
+
+            cs.setInt(2, -7);
+            cs.executeUpdate();
+            assertEquals(7, cs.getInt(1));
+
+            cs.setInt(2, -9);
+            cs.execute();
+            assertEquals(9, cs.getInt(1));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void nullAndDecimalOutParameters(String driverClass, String url, String user, String password)
+            throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, user, password);
+             CallableStatement cs = conn.prepareCall("{? = call ABS(?)}")) {
+            cs.registerOutParameter(1, Types.DECIMAL);
+            cs.setBigDecimal(2, new BigDecimal("-12.50"));
+            cs.executeUpdate();
+            assertEquals(new BigDecimal("12.50"), cs.getBigDecimal(1));
+            assertEquals(12.5, cs.getDouble(1));
+
+            cs.setNull(2, Types.DECIMAL);
+            cs.executeUpdate();
+            assertNull(cs.getBigDecimal(1));
+            assertTrue(cs.wasNull());
+            assertEquals(0, cs.getInt(1));
+            assertTrue(cs.wasNull());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package openjproxy.jdbc;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeferredConnectionCallsIntegrationTest {
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void stateSettersAppliedBeforeNextCall(String driverClass, String url, String user, String password)
+            throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            conn.setSchema("PUBLIC");
+            conn.setHoldability(ResultSet.CLOSE_CURSORS_AT_COMMIT);
+
+            assertEquals(Connection.TRANSACTION_SERIALIZABLE, conn.getTransactionIsolation());
+            assertEquals("PUBLIC", conn.getSchema());
+            assertEquals(ResultSet.CLOSE_CURSORS_AT_COMMIT, conn.getHoldability());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void stateSettersAppliedBeforeStatementExecution(String driverClass, String url, String user,
+                                                           String password) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            conn.setTransactionIsolation(Connection.TRANSACTION_READ_UNCOMMITTED);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT ISOLATION_LEVEL FROM INFORMATION_SCHEMA.SESSIONS " +
+                         "WHERE SESSION_ID = SESSION_ID()")) {
+                assertTrue(rs.next());
+                assertEquals("READ UNCOMMITTED", rs.getString(1));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void failedSetterDoesNotCancelTheFollowingCalls(String driverClass, String url, String user,
+                                                           String password) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            conn.setSchema("NO_SUCH_SCHEMA");
+            conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+
+            try (Statement stmt = conn.createStatement()) {
+                assertThrows(SQLException.class, () -> stmt.executeQuery("SELECT 1"));
+                try (ResultSet rs = stmt.executeQuery("SELECT ISOLATION_LEVEL FROM INFORMATION_SCHEMA.SESSIONS " +
+                        "WHERE SESSION_ID = SESSION_ID()")) {
+                    assertTrue(rs.next());
+                    assertEquals("SERIALIZABLE", rs.getString(1));
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void failedSetterIsNotAnsweredFromTheShadowedState(String driverClass, String url, String user,
+                                                             String password) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            String schema = conn.getSchema();
+            conn.setSchema("NO_SUCH_SCHEMA");
+
+            assertThrows(SQLException.class, conn::getSchema);
+            assertEquals(schema, conn.getSchema());
+            conn.setSchema(schema);
+            assertEquals(schema, conn.getSchema());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void failedSetterIsThrownByTheCallFlushingIt(String driverClass, String url, String user,
+                                                        String password) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, user, password);
+             Statement stmt = conn.createStatement()) {
+            conn.setSchema("NO_SUCH_SCHEMA");
+
+            SQLException e = assertThrows(SQLException.class, () -> stmt.executeUpdate(
+                    "CREATE TABLE deferred_failure_test (id INT)"));
+            assertNotNull(e.getCause(), "Keeps the server error");
+            assertTrue(e.getMessage().contains("Schema"));
+        }
+    }
+}
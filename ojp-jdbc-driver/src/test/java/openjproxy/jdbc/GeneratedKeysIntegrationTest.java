@@ -0,0 +1,71 @@
+package openjproxy.jdbc;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeneratedKeysIntegrationTest {
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void generatedKeysOfEveryExecution(String driverClass, String url, String user, String password)
+            throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            createTable(conn);
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO generated_keys_it (name) VALUES (?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, "first");
+                assertEquals(1, ps.executeUpdate());
+                long firstId = readKey(ps);
+                //Read again from the keys already received.
+                assertEquals(firstId, readKey(ps));
+
+                ps.setString(1, "second");
+                assertEquals(1, ps.executeUpdate());
+                assertEquals(firstId + 1, readKey(ps));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void generatedKeysOfRequestedColumns(String driverClass, String url, String user, String password)
+            throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            createTable(conn);
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO generated_keys_it (name) VALUES (?)",
+                    new int[]{1})) {
+                ps.setString(1, "indexed");
+                assertEquals(1, ps.executeUpdate());
+                assertTrue(readKey(ps) > 0);
+            }
+        }
+    }
+
+    private void createTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS generated_keys_it");
+            stmt.executeUpdate("CREATE TABLE generated_keys_it (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "name VARCHAR(20))");
+        }
+    }
+
+    private long readKey(PreparedStatement ps) throws SQLException {
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            assertTrue(keys.next());
+            long id = keys.getLong(1);
+            assertFalse(keys.next());
+            return id;
+        }
+    }
+}
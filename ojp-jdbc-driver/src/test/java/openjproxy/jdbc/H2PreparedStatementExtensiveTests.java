@@ -8,6 +8,7 @@ import java.io.ByteArrayInputStream;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Connection;
@@ -235,6 +236,65 @@ public class H2PreparedStatementExtensiveTests {
         assertTrue(ps.isClosed());
     }
 
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void testLargeBatchAndClearBatch(String driverClass, String url, String user, String password) throws Exception {
+        this.setUp(driverClass, url, user, password);
+
+        ps = connection.prepareStatement("INSERT INTO h2_prepared_stmt_test (id, name, age) VALUES (?, ?, ?)");
+        ps.setInt(1, -1); ps.setString(2, "Cleared"); ps.setInt(3, 0);
+        ps.addBatch();
+        ps.clearBatch();
+        assertEquals(0, ps.executeBatch().length);
+
+        for (int i = 0; i < 1000; i++) {
+            ps.setInt(1, i); ps.setString(2, "Name " + i); ps.setInt(3, i % 100);
+            ps.addBatch();
+        }
+        int[] results = ps.executeBatch();
+        assertEquals(1000, results.length);
+        for (int result : results) {
+            assertEquals(1, result);
+        }
+
+        ps.setInt(1, 1000); ps.setString(2, "Reused"); ps.setInt(3, 1);
+        ps.addBatch();
+        assertEquals(1, ps.executeBatch().length);
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*), MIN(id) FROM h2_prepared_stmt_test")) {
+            assertTrue(rs.next());
+            assertEquals(1001, rs.getInt(1));
+            assertEquals(0, rs.getInt(2));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void testSplitBatchFailureReportsCompletedRequests(String driverClass, String url, String user,
+                                                              String password) throws Exception {
+        this.setUp(driverClass, url, user, password);
+
+        //Rows of about 1MB, split by the default 3MB max batch request bytes in requests of 3 rows.
+        String info = "x".repeat(1000 * 1000);
+        ps = connection.prepareStatement("INSERT INTO h2_prepared_stmt_test (id, name, age, info) VALUES (?, ?, ?, ?)");
+        for (int i = 0; i < 12; i++) {
+            ps.setInt(1, i == 10 ? 0 : i); ps.setString(2, "Name " + i); ps.setInt(3, i); ps.setString(4, info);
+            ps.addBatch();
+        }
+        BatchUpdateException e = assertThrows(BatchUpdateException.class, ps::executeBatch);
+        assertTrue(e.getUpdateCounts().length >= 9, "Counts of the three requests completed");
+        for (int i = 0; i < 9; i++) {
+            assertEquals(1, e.getUpdateCounts()[i]);
+        }
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM h2_prepared_stmt_test WHERE id < 9")) {
+            assertTrue(rs.next());
+            assertEquals(9, rs.getInt(1), "Rows of the completed request stay inserted");
+        }
+    }
+
     @ParameterizedTest
     @CsvFileSource(resources = "/h2_connection.csv")
     public void testStatementBatchAndConnection(String driverClass, String url, String user, String password) throws Exception {
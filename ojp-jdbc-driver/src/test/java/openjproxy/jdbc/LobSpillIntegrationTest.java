@@ -0,0 +1,70 @@
+package openjproxy.jdbc;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads LOBs above the server spill threshold (1MB by default), which the server keeps in a temp file of the session
+ * instead of in the rows.
+ */
+public class LobSpillIntegrationTest {
+
+    private static final int LOB_SIZE = 1536 * 1024;
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void spilledLobsReadByEveryAccessor(String driverClass, String url, String user, String password)
+            throws SQLException, IOException {
+        byte[] data = new byte[LOB_SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 13);
+        }
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DROP TABLE IF EXISTS lob_spill_it");
+                stmt.executeUpdate("CREATE TABLE lob_spill_it (id INT PRIMARY KEY, val BLOB)");
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO lob_spill_it (id, val) VALUES (?, ?)")) {
+                for (int id = 1; id <= 2; id++) {
+                    ps.setInt(1, id);
+                    ps.setBytes(2, data);
+                    ps.executeUpdate();
+                }
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT val FROM lob_spill_it ORDER BY id")) {
+                assertTrue(rs.next());
+                Blob blob = rs.getBlob(1);
+                assertEquals(LOB_SIZE, blob.length());
+                try (InputStream in = blob.getBinaryStream()) {
+                    assertArrayEquals(data, in.readAllBytes());
+                }
+                assertTrue(rs.next());
+                try (InputStream in = rs.getBinaryStream(1)) {
+                    assertArrayEquals(data, in.readAllBytes());
+                }
+                assertArrayEquals(data, rs.getBytes(1));
+                assertArrayEquals(data, (byte[]) rs.getObject(1));
+                Blob blobByLabel = rs.getBlob("val");
+                assertEquals(LOB_SIZE, blobByLabel.length());
+                try (InputStream in = blobByLabel.getBinaryStream()) {
+                    assertArrayEquals(data, in.readAllBytes());
+                }
+            }
+        }
+    }
+}
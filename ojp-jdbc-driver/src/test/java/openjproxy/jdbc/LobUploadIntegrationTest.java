@@ -0,0 +1,96 @@
+package openjproxy.jdbc;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes LOBs larger than the upload block size, so they are streamed to the server in several blocks.
+ */
+public class LobUploadIntegrationTest {
+
+    private static final int LOB_SIZE = 600 * 1024;
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void blobWrittenInSeveralBlocks(String driverClass, String url, String user, String password)
+            throws SQLException, IOException {
+        byte[] data = bytes(LOB_SIZE);
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            createTable(conn, "lob_upload_blob", "BLOB");
+            Blob blob = conn.createBlob();
+            try (OutputStream out = blob.setBinaryStream(1)) {
+                out.write(data);
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO lob_upload_blob (id, val) VALUES (1, ?)")) {
+                ps.setBlob(1, blob);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO lob_upload_blob (id, val) VALUES (2, ?)")) {
+                ps.setBinaryStream(1, new ByteArrayInputStream(data));
+                ps.executeUpdate();
+            }
+            for (int id = 1; id <= 2; id++) {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT val FROM lob_upload_blob WHERE id = " + id)) {
+                    assertTrue(rs.next());
+                    try (InputStream in = rs.getBinaryStream(1)) {
+                        assertArrayEquals(data, in.readAllBytes());
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void clobWrittenInSeveralBlocks(String driverClass, String url, String user, String password)
+            throws SQLException, IOException {
+        //Multi-byte characters end up split across the block boundaries.
+        String text = "ação € 𝄞 ".repeat(LOB_SIZE / 10);
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            Clob clob = conn.createClob();
+            clob.setString(1, text);
+            assertEquals(text.length(), clob.length());
+            assertEquals(text, clob.getSubString(1, text.length()));
+            try (Reader reader = clob.getCharacterStream()) {
+                StringWriter read = new StringWriter();
+                reader.transferTo(read);
+                assertEquals(text, read.toString());
+            }
+        }
+    }
+
+    private void createTable(Connection conn, String table, String lobType) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS " + table);
+            stmt.executeUpdate("CREATE TABLE " + table + " (id INT PRIMARY KEY, val " + lobType + ")");
+        }
+    }
+
+    private byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,61 @@
+package openjproxy.jdbc;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatementHandleIntegrationTest {
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/h2_connection.csv")
+    public void longSqlExecutedRepeatedly(String driverClass, String url, String user, String password)
+            throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS statement_handle_test");
+                stmt.execute("CREATE TABLE statement_handle_test (id INT, name VARCHAR(50))");
+            }
+
+            //Long enough to be sent by handle with the default ojp.statementHandle.minSqlLength.
+            StringBuilder conditions = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                conditions.append(" AND id <> ").append(-1 - i);
+            }
+            String insert = "INSERT INTO statement_handle_test (id, name) VALUES (?, ?) /*" + conditions + " */";
+            String select = "SELECT id, name FROM statement_handle_test WHERE id = ?" + conditions;
+            assertTrue(insert.length() > 1024 && select.length() > 1024);
+
+            for (int i = 0; i < 5; i++) {
+                try (PreparedStatement ps = conn.prepareStatement(insert)) {
+                    ps.setInt(1, i);
+                    ps.setString(2, "name " + i);
+                    assertEquals(1, ps.executeUpdate());
+                }
+            }
+            for (int i = 0; i < 5; i++) {
+                try (PreparedStatement ps = conn.prepareStatement(select)) {
+                    ps.setInt(1, i);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        assertTrue(rs.next());
+                        assertEquals("name " + i, rs.getString(2));
+                        assertFalse(rs.next());
+                    }
+                }
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE statement_handle_test");
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.openjproxy.jdbc;
+
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.LobDataBlock;
+import io.grpc.stub.ClientCallStreamObserver;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReceivedBlocksInputStreamTest {
+
+    @Test
+    public void shouldRequestTheNextBlockOnceThePreviousIsTaken() throws Exception {
+        TestCall call = new TestCall();
+        LobGrpcIterator blocks = new LobGrpcIterator();
+        blocks.setCall(call);
+        blocks.addBlock(block(1, 2));
+
+        assertTrue(blocks.hasNext());
+        assertEquals(1, call.requested.get());
+        blocks.addBlock(block(3));
+
+        InputStream in = new ReceivedBlocksInputStream(blocks.next(), blocks);
+        blocks.finished();
+        assertArrayEquals(new byte[]{1, 2, 3}, in.readAllBytes());
+        assertEquals(2, call.requested.get());
+        assertFalse(call.cancelled.get());
+    }
+
+    @Test
+    public void shouldCancelTheCallWhenClosedBeforeTheEnd() throws Exception {
+        TestCall call = new TestCall();
+        LobGrpcIterator blocks = new LobGrpcIterator();
+        blocks.setCall(call);
+        blocks.addBlock(block(1));
+        blocks.hasNext();
+
+        InputStream in = new ReceivedBlocksInputStream(blocks.next(), blocks);
+        assertEquals(1, in.read());
+        in.close();
+
+        assertTrue(call.cancelled.get());
+        assertEquals(-1, in.read());
+    }
+
+    private static LobDataBlock block(int... values) {
+        byte[] data = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            data[i] = (byte) values[i];
+        }
+        return LobDataBlock.newBuilder().setData(ByteString.copyFrom(data)).build();
+    }
+
+    private static class TestCall extends ClientCallStreamObserver<Object> {
+        private final AtomicInteger requested = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            this.cancelled.set(true);
+        }
+
+        @Override
+        public void request(int count) {
+            this.requested.addAndGet(count);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void onNext(Object value) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
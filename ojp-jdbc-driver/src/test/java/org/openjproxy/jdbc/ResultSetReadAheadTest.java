@@ -0,0 +1,180 @@
+package org.openjproxy.jdbc;
+
+import com.openjproxy.grpc.OpResult;
+import com.openjproxy.grpc.ResultType;
+import io.grpc.Context;
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.RowBlockCodec;
+import org.openjproxy.grpc.client.CancellableIterator;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResultSetReadAheadTest {
+
+    @Test
+    public void shouldReturnDecodedBlocksInOrder() throws Exception {
+        ResultSetReadAhead readAhead = new ResultSetReadAhead(blocks(5, null).iterator(), 2);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(readAhead.hasNext());
+            FetchBlockResult block = readAhead.next();
+            assertEquals(i, block.getResult().getRows().get(0)[0]);
+            assertEquals(ResultType.RESULT_SET_ROW_BLOCK, block.getOpResult().getType());
+        }
+        assertFalse(readAhead.hasNext());
+        assertFalse(readAhead.hasNext());
+    }
+
+    @Test
+    public void shouldOnlyReadUpToDepthBlocksAhead() throws Exception {
+        AtomicInteger blocksRead = new AtomicInteger();
+        AtomicReference<Thread> readerThread = new AtomicReference<>();
+        Iterator<OpResult> blocks = blocks(10, null).iterator();
+        ResultSetReadAhead readAhead = new ResultSetReadAhead(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return blocks.hasNext();
+            }
+
+            @Override
+            public OpResult next() {
+                readerThread.set(Thread.currentThread());
+                blocksRead.incrementAndGet();
+                return blocks.next();
+            }
+        }, 2);
+
+        awaitBlockedOnFullBuffer(readerThread, blocksRead, 3);
+        assertEquals(3, blocksRead.get(), "Buffers two blocks plus the one waiting to be buffered");
+
+        readAhead.next();
+        awaitBlockedOnFullBuffer(readerThread, blocksRead, 4);
+        assertEquals(4, blocksRead.get());
+        readAhead.close();
+    }
+
+    @Test
+    public void shouldCancelTheCallWhenClosed() throws Exception {
+        Context.CancellableContext context = Context.current().withCancellation();
+        AtomicInteger blocksRead = new AtomicInteger();
+        AtomicReference<Thread> readerThread = new AtomicReference<>();
+        Iterator<OpResult> blocks = blocks(10, null).iterator();
+        ResultSetReadAhead readAhead = new ResultSetReadAhead(new CancellableIterator<>(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return blocks.hasNext();
+            }
+
+            @Override
+            public OpResult next() {
+                readerThread.set(Thread.currentThread());
+                blocksRead.incrementAndGet();
+                return blocks.next();
+            }
+        }, context), 1);
+
+        awaitBlockedOnFullBuffer(readerThread, blocksRead, 2);
+        readAhead.close();
+
+        assertTrue(context.isCancelled(), "The call is cancelled while the reader waits on the full buffer");
+    }
+
+    @Test
+    public void shouldHandTheResultSetOverWhenTheApplicationIdles() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ResultSetReadAhead readAhead = new ResultSetReadAhead(blocks(5, null).iterator(), 1, executor, 10);
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS), "The reader exits once the application idles");
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, readAhead.next().getResult().getRows().get(0)[0]);
+        }
+        assertFalse(readAhead.hasNext());
+    }
+
+    @Test
+    public void shouldReadOnTheApplicationThreadWhenNoReaderIsAvailable() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        ResultSetReadAhead readAhead = new ResultSetReadAhead(blocks(3, null).iterator(), 2, executor, 60000);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, readAhead.next().getResult().getRows().get(0)[0]);
+        }
+        assertFalse(readAhead.hasNext());
+    }
+
+    @Test
+    public void shouldSurfaceFailuresToTheApplicationThread() throws Exception {
+        ResultSetReadAhead readAhead = new ResultSetReadAhead(
+                blocks(2, Status.UNAVAILABLE.withDescription("connection lost").asRuntimeException()).iterator(), 4);
+
+        readAhead.next();
+        readAhead.next();
+        SQLException e = assertThrows(SQLException.class, readAhead::hasNext);
+        assertTrue(e.getMessage().contains("connection lost"));
+    }
+
+    /**
+     * Waits for the reader to read the given number of blocks and park on the full buffer, the blocks come from
+     * memory so the reader only parks there.
+     */
+    private static void awaitBlockedOnFullBuffer(AtomicReference<Thread> readerThread, AtomicInteger blocksRead,
+                                                 int expectedBlocksRead) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (blocksRead.get() < expectedBlocksRead ||
+                readerThread.get().getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(System.nanoTime() < deadline, "Reader not blocked on the full buffer in time");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static List<OpResult> blocks(int count, RuntimeException failure) {
+        List<OpResult> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            List<Object[]> rows = Collections.singletonList(new Object[]{i});
+            results.add(OpResult.newBuilder()
+                    .setType(ResultType.RESULT_SET_ROW_BLOCK)
+                    .setValue(RowBlockCodec.encode("rs-uuid", null, rows).toByteString())
+                    .build());
+        }
+        if (failure == null) {
+            return results;
+        }
+        return new ArrayList<>(results) {
+            @Override
+            public Iterator<OpResult> iterator() {
+                Iterator<OpResult> iterator = results.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        if (!iterator.hasNext()) {
+                            throw failure;
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public OpResult next() {
+                        return iterator.next();
+                    }
+                };
+            }
+        };
+    }
+}
@@ -36,15 +36,7 @@ public class GrpcExceptionHandler {
     public static <T> void sendSQLExceptionMetadata(SQLException e, StreamObserver<T> streamObserver, SqlErrorType sqlErrorType) {
         Metadata metadata = new Metadata();
         try {
-            SqlErrorResponse.Builder responseBuilder = SqlErrorResponse.newBuilder()
-                    .setReason(e.getMessage())
-                    .setSqlErrorType(sqlErrorType)
-                    .setVendorCode(e.getErrorCode());
-            if (e.getSQLState() != null) {
-                responseBuilder.setSqlState(e.getSQLState());
-            }
-
-            SqlErrorResponse sqlErrorResponse = responseBuilder.build();
+            SqlErrorResponse sqlErrorResponse = toSqlErrorResponse(e, sqlErrorType);
             Metadata.Key<SqlErrorResponse> errorResponseKey = ProtoUtils.keyForProto(SqlErrorResponse.getDefaultInstance());
             metadata.put(errorResponseKey, sqlErrorResponse);
         } catch (RuntimeException re) {
@@ -52,4 +44,21 @@ public class GrpcExceptionHandler {
         }
         streamObserver.onError(Status.CANCELLED.asRuntimeException(metadata));
     }
+
+    /**
+     * Converts a SQLException into the error response read by the client.
+     * @param e SQLException
+     * @param sqlErrorType Indicates the type of error.
+     * @return the error response.
+     */
+    public static SqlErrorResponse toSqlErrorResponse(SQLException e, SqlErrorType sqlErrorType) {
+        SqlErrorResponse.Builder responseBuilder = SqlErrorResponse.newBuilder()
+                .setReason(e.getMessage())
+                .setSqlErrorType(sqlErrorType)
+                .setVendorCode(e.getErrorCode());
+        if (e.getSQLState() != null) {
+            responseBuilder.setSqlState(e.getSQLState());
+        }
+        return responseBuilder.build();
+    }
 }
@@ -1,101 +1,127 @@
 package org.openjproxy.grpc.server;
 
-import com.google.common.util.concurrent.SettableFuture;
 import com.openjproxy.grpc.LobDataBlock;
 import lombok.Getter;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.InterruptedIOException;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Accumulates LobDataBlocks and provide an implementation of InputStream interface, specially resolving the problem of
  * waiting for new blocks while feeding the InputStream at the same time.
+ * <p>
+ * The blocks are handed from the call receiving them to the statement reading the stream through a queue, the reader
+ * waits on the queue for the next block and the end of the stream is marked by queueing {@link #END_OF_STREAM}.
+ * </p>
  */
 @Slf4j
 public class LobDataBlocksInputStream extends InputStream {
+    //Queued after the last block, the reader never gets past it.
+    private static final InputStream END_OF_STREAM = InputStream.nullInputStream();
+
     @Getter
     private final String uuid;
-    private final List<LobDataBlock> blocksReceived;
-    private final AtomicBoolean atomicFinished;
-    private byte[] currentBlock;
-    private int currentIdx;
-    private SettableFuture<Boolean> blockArrived;
+    //One producer (the call receiving the blocks) and one consumer (the statement reading the stream). The producer
+    // never waits for the consumer, the client only runs the statement once every block has been received.
+    private final BlockingQueue<InputStream> blocksReceived;
+    /**
+     * Completes once the stream has been read to the end or closed by the reader.
+     */
     @Getter
-    private AtomicBoolean fullyConsumed;
+    private final CompletableFuture<Void> consumption;
+    private volatile Throwable failure;
+    private InputStream currentBlock;
 
     public LobDataBlocksInputStream(LobDataBlock firstBlock) {
         this.uuid = UUID.randomUUID().toString();
-        this.fullyConsumed = new AtomicBoolean(false);
-        this.blocksReceived = new ArrayList<>();
-        this.currentBlock = firstBlock.getData().toByteArray();
-        this.atomicFinished = new AtomicBoolean(false);
-        this.blockArrived = SettableFuture.create();
-        this.currentIdx = -1;
-        this.blockArrived.set(true);
+        this.blocksReceived = new LinkedBlockingQueue<>();
+        this.consumption = new CompletableFuture<>();
+        this.currentBlock = firstBlock.getData().newInput();
         log.info("{} lob created", this.uuid);
     }
 
-    @SneakyThrows
     @Override
-    public int read() {
-        log.debug("Reading lob {}", this.uuid);
-        if (this.currentIdx >= this.currentBlock.length - 1) {
-            log.debug("Current block has no bytes to read.");
-            if (this.blocksReceived.isEmpty()) {
-                log.debug("No new blocks received, will wait for block to arrive if stream not finished");
-                Thread.sleep(10);//TODO review if possible to remove, here because it was reading the flag before blocks feeder thread had a chance to mark it as finished.
-                if (this.atomicFinished.get()) {
-                    log.debug("All blocks exhausted, finishing byte stream. lob {}", this.uuid);
-                    this.fullyConsumed.set(true);
-                    return -1;//End of stream.
-                }
-                try {
-                    this.blockArrived.get(5, TimeUnit.SECONDS); //Wait for next block to arrive
-                } catch (TimeoutException e) {
-                    if (this.atomicFinished.get()) {
-                        log.debug("All blocks exhausted, timed out waiting for new block, finishing byte stream. lob {}", this.uuid);
-                        this.fullyConsumed.set(true);
-                        return -1;//End of stream.
-                    }
-                }
-                log.debug("New block arrived");
-                synchronized (this) {
-                    this.blockArrived = SettableFuture.create();
-                }
+    public int read() throws IOException {
+        while (this.currentBlock != END_OF_STREAM) {
+            int b = this.currentBlock.read();
+            if (b != -1) {
+                return b;
             }
-            synchronized (this) {
-                LobDataBlock nextBlock = this.blocksReceived.remove(0);
-                this.currentBlock = nextBlock.getData().toByteArray();
+            this.currentBlock = this.takeNextBlock();
+        }
+        return this.endOfStream();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        while (this.currentBlock != END_OF_STREAM) {
+            int read = this.currentBlock.read(b, off, len);
+            if (read > 0) {
+                return read;
             }
-            this.currentIdx = -1;
-            log.debug("Nex block positioned for reading");
+            this.currentBlock = this.takeNextBlock();
         }
+        return this.endOfStream();
+    }
+
+    @Override
+    public int available() throws IOException {
+        return this.currentBlock.available();
+    }
 
-        int ret = this.currentBlock[++currentIdx];
-        return ret & 0xFF;
+    @Override
+    public void close() {
+        this.consumption.complete(null);
     }
 
     public void addBlock(LobDataBlock lobDataBlock) {
-        synchronized (this) {
-            this.blocksReceived.add(lobDataBlock);
-            this.blockArrived.set(true);
-        }
+        this.blocksReceived.add(lobDataBlock.getData().newInput());
     }
 
     /**
      * Indicate that it finished receiving blocks not that if finished being read.
-     *
-     * @param finished
      */
-    public void finish(boolean finished) {
-        log.debug("Finished receiving blocks");
-        atomicFinished.set(finished);
+    public void finish() {
+        log.debug("Finished receiving blocks of lob {}", this.uuid);
+        this.blocksReceived.add(END_OF_STREAM);
+    }
+
+    /**
+     * Indicate that receiving the blocks failed, the reader gets an IOException once it reads all blocks received.
+     */
+    public void fail(Throwable failure) {
+        this.failure = failure;
+        this.finish();
+    }
+
+    private InputStream takeNextBlock() throws IOException {
+        try {
+            return this.blocksReceived.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for blocks of lob " + this.uuid);
+        }
+    }
+
+    private int endOfStream() throws IOException {
+        if (this.failure != null) {
+            this.consumption.completeExceptionally(this.failure);
+            throw new IOException("Failure receiving lob " + this.uuid + ": " + this.failure.getMessage(),
+                    this.failure);
+        }
+        log.debug("All blocks exhausted, finishing byte stream. lob {}", this.uuid);
+        this.consumption.complete(null);
+        return -1;
     }
 }
@@ -0,0 +1,85 @@
+package org.openjproxy.grpc.server;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+
+/**
+ * OJP specific metrics recorded by the server, exported through the same OpenTelemetry instance used for the gRPC
+ * metrics. Until {@link #initialize(OpenTelemetry)} is called every metric is recorded into a no-op meter.
+ */
+public class OjpServerMetrics {
+
+    private static final String INSTRUMENTATION_SCOPE = "org.openjproxy.server";
+    private static final AttributeKey<String> SIZING_KEY = AttributeKey.stringKey("sizing");
+    private static final Attributes FETCH_SIZE_SIZING = Attributes.of(SIZING_KEY, "fetch_size");
+    private static final Attributes ADAPTIVE_SIZING = Attributes.of(SIZING_KEY, "adaptive");
+    private static final AttributeKey<String> RESULT_KEY = AttributeKey.stringKey("result");
+    private static final Attributes CACHE_HIT = Attributes.of(RESULT_KEY, "hit");
+    private static final Attributes CACHE_MISS = Attributes.of(RESULT_KEY, "miss");
+
+    private static volatile LongHistogram resultSetBlockRows;
+    private static volatile LongHistogram resultSetBlockBytes;
+    private static volatile LongCounter statementCacheLookups;
+    private static volatile LongCounter metaDataCacheLookups;
+
+    static {
+        initialize(OpenTelemetry.noop());
+    }
+
+    public static void initialize(OpenTelemetry openTelemetry) {
+        Meter meter = openTelemetry.getMeter(INSTRUMENTATION_SCOPE);
+        resultSetBlockRows = meter.histogramBuilder("ojp.resultset.block.rows")
+                .setDescription("Number of rows per result set block sent to clients")
+                .setUnit("{row}")
+                .ofLongs()
+                .build();
+        resultSetBlockBytes = meter.histogramBuilder("ojp.resultset.block.bytes")
+                .setDescription("Estimated size of the values per result set block sent to clients")
+                .setUnit("By")
+                .ofLongs()
+                .build();
+        statementCacheLookups = meter.counterBuilder("ojp.statement.cache.lookups")
+                .setDescription("Lookups of prepared statements in the per session statement cache")
+                .setUnit("{lookup}")
+                .build();
+        metaDataCacheLookups = meter.counterBuilder("ojp.metadata.cache.lookups")
+                .setDescription("Lookups of catalog result sets in the per datasource metadata cache")
+                .setUnit("{lookup}")
+                .build();
+    }
+
+    /**
+     * Records the size chosen for a result set block.
+     *
+     * @param rows           rows in the block
+     * @param estimatedBytes estimated size of the values in the block
+     * @param fetchSizeSized true if the block was sized by the fetch size requested by the client
+     */
+    public static void recordResultSetBlock(int rows, long estimatedBytes, boolean fetchSizeSized) {
+        Attributes attributes = fetchSizeSized ? FETCH_SIZE_SIZING : ADAPTIVE_SIZING;
+        resultSetBlockRows.record(rows, attributes);
+        resultSetBlockBytes.record(estimatedBytes, attributes);
+    }
+
+    /**
+     * Records a lookup in the prepared statement cache.
+     *
+     * @param hit true if a cached statement was reused
+     */
+    public static void recordStatementCacheLookup(boolean hit) {
+        statementCacheLookups.add(1, hit ? CACHE_HIT : CACHE_MISS);
+    }
+
+    /**
+     * Records a lookup in the metadata cache.
+     *
+     * @param hit true if the catalog result set was served from the cache
+     */
+    public static void recordMetaDataCacheLookup(boolean hit) {
+        metaDataCacheLookups.add(1, hit ? CACHE_HIT : CACHE_MISS);
+    }
+}
@@ -55,6 +55,7 @@ public class OjpServerTelemetry {
 								.registerMetricReader(prometheusServer)
 								.build())
 				.build();
+		OjpServerMetrics.initialize(openTelemetry);
 
 		return GrpcTelemetry.create(openTelemetry);
 	}
@@ -34,6 +34,19 @@ public class ServerConfiguration {
     private static final String SLOW_QUERY_SLOW_SLOT_TIMEOUT_KEY = "ojp.server.slowQuerySegregation.slowSlotTimeout";
     private static final String SLOW_QUERY_FAST_SLOT_TIMEOUT_KEY = "ojp.server.slowQuerySegregation.fastSlotTimeout";
     private static final String SLOW_QUERY_UPDATE_GLOBAL_AVG_INTERVAL_KEY = "ojp.server.slowQuerySegregation.updateGlobalAvgInterval";
+    private static final String RESULT_SET_TARGET_BLOCK_BYTES_KEY = "ojp.server.resultSet.targetBlockBytes";
+    private static final String RESULT_SET_MAX_ROWS_PER_BLOCK_KEY = "ojp.server.resultSet.maxRowsPerBlock";
+    private static final String BATCH_REWRITE_INSERTS_KEY = "ojp.server.batch.rewriteInserts";
+    private static final String BATCH_REWRITE_ROWS_PER_STATEMENT_KEY = "ojp.server.batch.rewriteRowsPerStatement";
+    private static final String PREPARED_STATEMENT_CACHE_SIZE_KEY = "ojp.server.preparedStatementCache.size";
+    private static final String STATEMENT_HANDLES_MAX_PER_CLIENT_KEY = "ojp.server.statementHandles.maxPerClient";
+    private static final String STATEMENT_HANDLES_IDLE_TIMEOUT_KEY = "ojp.server.statementHandles.idleTimeout";
+    private static final String SQL_FINGERPRINT_REPLACE_LITERALS_KEY = "ojp.server.sqlFingerprint.replaceLiterals";
+    private static final String METADATA_CACHE_TTL_KEY = "ojp.server.metadataCache.ttl";
+    private static final String METADATA_CACHE_MAX_ENTRIES_KEY = "ojp.server.metadataCache.maxEntries";
+    private static final String LOB_BLOCK_SIZE_KEY = "ojp.server.lob.blockSize";
+    private static final String LOB_SPILL_THRESHOLD_KEY = "ojp.server.lob.spillThreshold";
+    private static final String LOB_SPILL_MAX_BYTES_KEY = "ojp.server.lob.spillMaxBytes";
 
     // Default values
     public static final int DEFAULT_SERVER_PORT = CommonConstants.DEFAULT_PORT_NUMBER;
@@ -55,6 +68,19 @@ public class ServerConfiguration {
     public static final long DEFAULT_SLOW_QUERY_SLOW_SLOT_TIMEOUT = 120000; // 120 seconds slow slot timeout
     public static final long DEFAULT_SLOW_QUERY_FAST_SLOT_TIMEOUT = 60000; // 60 seconds fast slot timeout
     public static final long DEFAULT_SLOW_QUERY_UPDATE_GLOBAL_AVG_INTERVAL = 300; // 300 seconds (5 minutes) global average update interval
+    public static final int DEFAULT_RESULT_SET_TARGET_BLOCK_BYTES = 1024 * 1024; // 1MB of values per result set block
+    public static final int DEFAULT_RESULT_SET_MAX_ROWS_PER_BLOCK = 10000; // Upper bound of rows per result set block
+    public static final boolean DEFAULT_BATCH_REWRITE_INSERTS = false; // Batched inserts are executed as sent by default
+    public static final int DEFAULT_BATCH_REWRITE_ROWS_PER_STATEMENT = 100; // Rows folded in each multi-row insert
+    public static final int DEFAULT_PREPARED_STATEMENT_CACHE_SIZE = 64; // Prepared statements kept per session, 0 disables the cache
+    public static final int DEFAULT_STATEMENT_HANDLES_MAX_PER_CLIENT = 10000; // Registered SQL statements kept per client
+    public static final long DEFAULT_STATEMENT_HANDLES_IDLE_TIMEOUT = 1800000; // 30 minutes without use before the handles of a client are dropped
+    public static final boolean DEFAULT_SQL_FINGERPRINT_REPLACE_LITERALS = false; // Literals are part of the SQL fingerprint by default
+    public static final long DEFAULT_METADATA_CACHE_TTL = 60000; // 60 seconds, 0 disables the metadata cache
+    public static final int DEFAULT_METADATA_CACHE_MAX_ENTRIES = 1000; // Catalog result sets cached per datasource
+    public static final int DEFAULT_LOB_BLOCK_SIZE = 256 * 1024; // 256KB of LOB data per block sent to the client
+    public static final int DEFAULT_LOB_SPILL_THRESHOLD = 1024 * 1024; // LOBs of 1MB or more read from result sets are spilled to disk, 0 disables it
+    public static final long DEFAULT_LOB_SPILL_MAX_BYTES = 1024L * 1024 * 1024; // 1GB of spilled LOBs on disk across all sessions, 0 for no limit
 
     // Configuration values
     private final int serverPort;
@@ -75,6 +101,19 @@ public class ServerConfiguration {
     private final long slowQuerySlowSlotTimeout;
     private final long slowQueryFastSlotTimeout;
     private final long slowQueryUpdateGlobalAvgInterval;
+    private final int resultSetTargetBlockBytes;
+    private final int resultSetMaxRowsPerBlock;
+    private final boolean batchRewriteInserts;
+    private final int batchRewriteRowsPerStatement;
+    private final int preparedStatementCacheSize;
+    private final int statementHandlesMaxPerClient;
+    private final long statementHandlesIdleTimeout;
+    private final boolean sqlFingerprintReplaceLiterals;
+    private final long metadataCacheTtl;
+    private final int metadataCacheMaxEntries;
+    private final int lobBlockSize;
+    private final int lobSpillThreshold;
+    private final long lobSpillMaxBytes;
 
     public ServerConfiguration() {
         this.serverPort = getIntProperty(SERVER_PORT_KEY, DEFAULT_SERVER_PORT);
@@ -95,6 +134,19 @@ public class ServerConfiguration {
         this.slowQuerySlowSlotTimeout = getLongProperty(SLOW_QUERY_SLOW_SLOT_TIMEOUT_KEY, DEFAULT_SLOW_QUERY_SLOW_SLOT_TIMEOUT);
         this.slowQueryFastSlotTimeout = getLongProperty(SLOW_QUERY_FAST_SLOT_TIMEOUT_KEY, DEFAULT_SLOW_QUERY_FAST_SLOT_TIMEOUT);
         this.slowQueryUpdateGlobalAvgInterval = getLongProperty(SLOW_QUERY_UPDATE_GLOBAL_AVG_INTERVAL_KEY, DEFAULT_SLOW_QUERY_UPDATE_GLOBAL_AVG_INTERVAL);
+        this.resultSetTargetBlockBytes = getIntProperty(RESULT_SET_TARGET_BLOCK_BYTES_KEY, DEFAULT_RESULT_SET_TARGET_BLOCK_BYTES);
+        this.resultSetMaxRowsPerBlock = getIntProperty(RESULT_SET_MAX_ROWS_PER_BLOCK_KEY, DEFAULT_RESULT_SET_MAX_ROWS_PER_BLOCK);
+        this.batchRewriteInserts = getBooleanProperty(BATCH_REWRITE_INSERTS_KEY, DEFAULT_BATCH_REWRITE_INSERTS);
+        this.batchRewriteRowsPerStatement = getIntProperty(BATCH_REWRITE_ROWS_PER_STATEMENT_KEY, DEFAULT_BATCH_REWRITE_ROWS_PER_STATEMENT);
+        this.preparedStatementCacheSize = getIntProperty(PREPARED_STATEMENT_CACHE_SIZE_KEY, DEFAULT_PREPARED_STATEMENT_CACHE_SIZE);
+        this.statementHandlesMaxPerClient = getIntProperty(STATEMENT_HANDLES_MAX_PER_CLIENT_KEY, DEFAULT_STATEMENT_HANDLES_MAX_PER_CLIENT);
+        this.statementHandlesIdleTimeout = getLongProperty(STATEMENT_HANDLES_IDLE_TIMEOUT_KEY, DEFAULT_STATEMENT_HANDLES_IDLE_TIMEOUT);
+        this.sqlFingerprintReplaceLiterals = getBooleanProperty(SQL_FINGERPRINT_REPLACE_LITERALS_KEY, DEFAULT_SQL_FINGERPRINT_REPLACE_LITERALS);
+        this.metadataCacheTtl = getLongProperty(METADATA_CACHE_TTL_KEY, DEFAULT_METADATA_CACHE_TTL);
+        this.metadataCacheMaxEntries = getIntProperty(METADATA_CACHE_MAX_ENTRIES_KEY, DEFAULT_METADATA_CACHE_MAX_ENTRIES);
+        this.lobBlockSize = getPositiveIntProperty(LOB_BLOCK_SIZE_KEY, DEFAULT_LOB_BLOCK_SIZE);
+        this.lobSpillThreshold = getIntProperty(LOB_SPILL_THRESHOLD_KEY, DEFAULT_LOB_SPILL_THRESHOLD);
+        this.lobSpillMaxBytes = getLongProperty(LOB_SPILL_MAX_BYTES_KEY, DEFAULT_LOB_SPILL_MAX_BYTES);
 
         logConfigurationSummary();
     }
@@ -135,6 +187,19 @@ public class ServerConfiguration {
         }
     }
 
+    /**
+     * Gets an integer property value which has to be at least 1, lower values are rejected in favor of the default.
+     */
+    private int getPositiveIntProperty(String key, int defaultValue) {
+        int value = getIntProperty(key, defaultValue);
+        if (value < 1) {
+            logger.warn("Invalid value for property '{}': {}, it must be at least 1, using default: {}", key, value,
+                    defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
     /**
      * Gets a long property value with validation.
      */
@@ -193,6 +258,19 @@ public class ServerConfiguration {
         logger.info("  Slow Query Slow Slot Timeout: {} ms", slowQuerySlowSlotTimeout);
         logger.info("  Slow Query Fast Slot Timeout: {} ms", slowQueryFastSlotTimeout);
         logger.info("  Slow Query Update Global Avg Interval: {} seconds", slowQueryUpdateGlobalAvgInterval);
+        logger.info("  Result Set Target Block Bytes: {} bytes", resultSetTargetBlockBytes);
+        logger.info("  Result Set Max Rows Per Block: {}", resultSetMaxRowsPerBlock);
+        logger.info("  Batch Rewrite Inserts: {}", batchRewriteInserts);
+        logger.info("  Batch Rewrite Rows Per Statement: {}", batchRewriteRowsPerStatement);
+        logger.info("  Prepared Statement Cache Size: {}", preparedStatementCacheSize);
+        logger.info("  Statement Handles Max Per Client: {}", statementHandlesMaxPerClient);
+        logger.info("  Statement Handles Idle Timeout: {} ms", statementHandlesIdleTimeout);
+        logger.info("  SQL Fingerprint Replace Literals: {}", sqlFingerprintReplaceLiterals);
+        logger.info("  Metadata Cache TTL: {} ms", metadataCacheTtl);
+        logger.info("  Metadata Cache Max Entries: {}", metadataCacheMaxEntries);
+        logger.info("  LOB Block Size: {} bytes", lobBlockSize);
+        logger.info("  LOB Spill Threshold: {} bytes", lobSpillThreshold);
+        logger.info("  LOB Spill Max Bytes: {} bytes", lobSpillMaxBytes);
     }
 
     // Getters
@@ -267,4 +345,56 @@ public class ServerConfiguration {
     public long getSlowQueryUpdateGlobalAvgInterval() {
         return slowQueryUpdateGlobalAvgInterval;
     }
+
+    public int getResultSetTargetBlockBytes() {
+        return resultSetTargetBlockBytes;
+    }
+
+    public int getResultSetMaxRowsPerBlock() {
+        return resultSetMaxRowsPerBlock;
+    }
+
+    public boolean isBatchRewriteInserts() {
+        return batchRewriteInserts;
+    }
+
+    public int getBatchRewriteRowsPerStatement() {
+        return batchRewriteRowsPerStatement;
+    }
+
+    public int getPreparedStatementCacheSize() {
+        return preparedStatementCacheSize;
+    }
+
+    public int getStatementHandlesMaxPerClient() {
+        return statementHandlesMaxPerClient;
+    }
+
+    public long getStatementHandlesIdleTimeout() {
+        return statementHandlesIdleTimeout;
+    }
+
+    public boolean isSqlFingerprintReplaceLiterals() {
+        return sqlFingerprintReplaceLiterals;
+    }
+
+    public long getMetadataCacheTtl() {
+        return metadataCacheTtl;
+    }
+
+    public int getMetadataCacheMaxEntries() {
+        return metadataCacheMaxEntries;
+    }
+
+    public int getLobBlockSize() {
+        return lobBlockSize;
+    }
+
+    public int getLobSpillThreshold() {
+        return lobSpillThreshold;
+    }
+
+    public long getLobSpillMaxBytes() {
+        return lobSpillMaxBytes;
+    }
 }
\ No newline at end of file
@@ -1,11 +1,17 @@
 package org.openjproxy.grpc.server;
 
+import com.openjproxy.grpc.ResultSetFormat;
 import com.openjproxy.grpc.SessionInfo;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.openjproxy.grpc.server.lob.LobSpillFile;
+import org.openjproxy.grpc.server.lob.LobSpillQuota;
+import org.openjproxy.grpc.server.lob.SpilledBlob;
+import org.openjproxy.grpc.server.statement.PreparedStatementCache;
 
 import javax.sql.XAConnection;
 import javax.transaction.xa.XAResource;
+import java.io.IOException;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -16,6 +22,7 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Holds information about a session of a given client.
@@ -36,12 +43,20 @@ public class Session {
     private XAConnection xaConnection;
     @Getter
     private XAResource xaResource;
+    // Result set format negotiated on connect by the client owning the session.
+    @Getter
+    private final ResultSetFormat resultSetFormat;
     private Map<String, ResultSet> resultSetMap;
     private Map<String, Statement> statementMap;
     private Map<String, PreparedStatement> preparedStatementMap;
     private Map<String, CallableStatement> callableStatementMap;
     private Map<String, Object> lobMap;
     private Map<String, Object> attrMap;
+    private PreparedStatementCache preparedStatementCache;
+    //Guarded by the session, created on the first LOB spilled.
+    private LobSpillFile lobSpillFile;
+    // Serializes the use of the connection by the calls of the client and the blocks streamed in the background.
+    private final ReentrantLock connectionLock = new ReentrantLock();
     private boolean closed;
     private int transactionTimeout = 0;
 
@@ -50,7 +65,13 @@ public class Session {
     }
 
     public Session(Connection connection, String connectionHash, String clientUUID, boolean isXA, XAConnection xaConnection) {
+        this(connection, connectionHash, clientUUID, isXA, xaConnection, ResultSetFormat.RSF_JAVA_SERIALIZATION);
+    }
+
+    public Session(Connection connection, String connectionHash, String clientUUID, boolean isXA,
+                   XAConnection xaConnection, ResultSetFormat resultSetFormat) {
         this.connection = connection;
+        this.resultSetFormat = resultSetFormat;
         this.connectionHash = connectionHash;
         this.clientUUID = clientUUID;
         this.isXA = isXA;
@@ -81,6 +102,7 @@ public class Session {
                 .setClientUUID(this.clientUUID)
                 .setSessionUUID(this.sessionUUID)
                 .setIsXA(this.isXA)
+                .setResultSetFormat(this.resultSetFormat)
                 .build();
     }
 
@@ -146,6 +168,78 @@ public class Session {
         return (T) this.lobMap.get(uuid);
     }
 
+    /**
+     * Gets the cache of prepared statements of the session connection, created on first use.
+     *
+     * @param capacity Max statements kept in the cache when created
+     * @return the cache
+     */
+    public synchronized PreparedStatementCache getPreparedStatementCache(int capacity) {
+        this.notClosed();
+        if (this.preparedStatementCache == null) {
+            this.preparedStatementCache = new PreparedStatementCache(capacity);
+        }
+        return this.preparedStatementCache;
+    }
+
+    /**
+     * Locks the connection of the session for the calling thread until the returned lock is closed. Blocks sent when
+     * the transport is ready run outside the call which opened them, the lock keeps them from using the connection
+     * along with the next calls of the client.
+     *
+     * @return the lock held, reentrant for the thread holding it
+     */
+    public ConnectionLock lockConnection() {
+        this.connectionLock.lock();
+        return this.connectionLock::unlock;
+    }
+
+    /**
+     * Lock held on the connection of a session, released when closed.
+     */
+    public interface ConnectionLock extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Gets the temp file the LOBs above the spill threshold are written to, created on first use. The file is shared
+     * by the result sets of the session, so spilled LOBs stay readable after their result set is closed.
+     *
+     * @param quota The quota the bytes spilled count against
+     * @return the spill file
+     * @throws IOException if the file cannot be created
+     */
+    public synchronized LobSpillFile getLobSpillFile(LobSpillQuota quota) throws IOException {
+        this.notClosed();
+        if (this.lobSpillFile == null) {
+            this.lobSpillFile = new LobSpillFile(quota);
+        }
+        return this.lobSpillFile;
+    }
+
+    /**
+     * Frees the spilled LOBs of the session, called when the transaction ends as LOBs are not valid beyond the
+     * transaction they were read in. Streams reading them keep the spill file until closed.
+     */
+    public void freeSpilledLobs() {
+        Map<String, Object> lobs = this.lobMap;
+        if (lobs == null) {
+            return;
+        }
+        lobs.entrySet().removeIf(entry -> {
+            if (!(entry.getValue() instanceof SpilledBlob)) {
+                return false;
+            }
+            try {
+                ((SpilledBlob) entry.getValue()).free();
+            } catch (SQLException e) {
+                log.error("Error freeing spilled lob", e);
+            }
+            return true;
+        });
+    }
+
     private void notClosed() {
         if (this.closed) {
             throw new RuntimeException("Session is closed.");
@@ -158,6 +252,18 @@ public class Session {
             return;
         }
 
+        //Deleted first, in case closing the connection fails.
+        synchronized (this) {
+            if (this.lobSpillFile != null) {
+                try {
+                    this.lobSpillFile.close();
+                } catch (IOException e) {
+                    log.error("Error deleting lob spill file", e);
+                }
+                this.lobSpillFile = null;
+            }
+        }
+
         // For XA connections, close the XA connection (which also closes the logical connection)
         // Do NOT close the regular connection as it would trigger auto-commit changes
         if (isXA && xaConnection != null) {
@@ -177,6 +283,7 @@ public class Session {
         this.resultSetMap = null;
         this.statementMap = null;
         this.preparedStatementMap = null;
+        this.preparedStatementCache = null;
         this.connection = null;
         this.xaConnection = null;
         this.xaResource = null;
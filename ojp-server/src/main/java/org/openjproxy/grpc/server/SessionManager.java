@@ -1,5 +1,6 @@
 package org.openjproxy.grpc.server;
 
+import com.openjproxy.grpc.ResultSetFormat;
 import com.openjproxy.grpc.SessionInfo;
 
 import javax.sql.XAConnection;
@@ -16,8 +17,9 @@ import java.util.Collection;
  */
 public interface SessionManager {
     void registerClientUUID(String connectionHash, String clientUUID);
-    SessionInfo createSession(String clientUUID, Connection connection);
-    SessionInfo createXASession(String clientUUID, Connection connection, XAConnection xaConnection);
+    SessionInfo createSession(String clientUUID, Connection connection, ResultSetFormat resultSetFormat);
+    SessionInfo createXASession(String clientUUID, Connection connection, XAConnection xaConnection,
+                                ResultSetFormat resultSetFormat);
     Session getSession(SessionInfo sessionInfo);
     Connection getConnection(SessionInfo sessionInfo);
     String registerResultSet(SessionInfo sessionInfo, ResultSet rs);
@@ -1,5 +1,6 @@
 package org.openjproxy.grpc.server;
 
+import com.openjproxy.grpc.ResultSetFormat;
 import com.openjproxy.grpc.SessionInfo;
 import com.openjproxy.grpc.TransactionStatus;
 import lombok.SneakyThrows;
@@ -33,18 +34,21 @@ public class SessionManagerImpl implements SessionManager {
     }
 
     @Override
-    public SessionInfo createSession(String clientUUID, Connection connection) {
+    public SessionInfo createSession(String clientUUID, Connection connection, ResultSetFormat resultSetFormat) {
         log.info("Create session for client uuid " + clientUUID);
-        Session session = new Session(connection, connectionHashMap.get(clientUUID), clientUUID);
+        Session session = new Session(connection, connectionHashMap.get(clientUUID), clientUUID, false, null,
+                resultSetFormat);
         log.info("Session " + session.getSessionUUID() + " created for client uuid " + clientUUID);
         this.sessionMap.put(session.getSessionUUID(), session);
         return session.getSessionInfo();
     }
 
     @Override
-    public SessionInfo createXASession(String clientUUID, Connection connection, XAConnection xaConnection) {
+    public SessionInfo createXASession(String clientUUID, Connection connection, XAConnection xaConnection,
+                                       ResultSetFormat resultSetFormat) {
         log.info("Create XA session for client uuid " + clientUUID);
-        Session session = new Session(connection, connectionHashMap.get(clientUUID), clientUUID, true, xaConnection);
+        Session session = new Session(connection, connectionHashMap.get(clientUUID), clientUUID, true, xaConnection,
+                resultSetFormat);
         log.info("XA Session " + session.getSessionUUID() + " created for client uuid " + clientUUID);
         this.sessionMap.put(session.getSessionUUID(), session);
         return session.getSessionInfo();
@@ -165,17 +169,10 @@ public class SessionManagerImpl implements SessionManager {
         log.info("{} binary stream lobs found ", binaryStreamsLobs.size());
         for (LobDataBlocksInputStream lob : binaryStreamsLobs) {
             log.info("Verifying that lob {} is fully consumed.", lob.getUuid());
-            while (!lob.getFullyConsumed().get()) {
-                Thread.sleep(10);
-            }
+            //The stream only ends once every block has been received, so a consumed stream is fully set in the
+            // prepared statement.
+            lob.getConsumption().get();
             log.info("Lob {} fully consumed.", lob.getUuid());
-            //During postgres tests it was found out that if the update is executed immediately after the lob injection
-            //the lob is not yet set in the prepared statement, this thread sleep currently is required as per there is
-            // no way to be sure that the prepared statement is ready, as this only affects Binary streams (not blobs or
-            // clobs), the MVP will use this solution.
-            // TODO attempt reengineering.
-            Thread.sleep(100);
-            log.info("Binary stream lob finished");
         }
     }
 
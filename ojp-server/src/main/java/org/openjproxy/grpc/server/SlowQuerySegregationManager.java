@@ -2,6 +2,8 @@ package org.openjproxy.grpc.server;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Manages slow query segregation by combining performance monitoring with slot management.
  * 
@@ -81,38 +83,70 @@ public class SlowQuerySegregationManager {
         boolean isSlowOperation = performanceMonitor.isSlowOperation(operationHash);
         
         // Acquire appropriate slot
-        boolean slotAcquired = false;
-        long startTime = System.currentTimeMillis();
-        
+        acquireSlot(operationHash, isSlowOperation);
         try {
-            if (isSlowOperation) {
-                slotAcquired = slotManager.acquireSlowSlot(slowSlotTimeoutMs);
-                if (!slotAcquired) {
-                    throw new RuntimeException("Timeout waiting for slow operation slot for operation: " + operationHash);
-                }
-                log.debug("Acquired slow slot for operation: {}", operationHash);
-            } else {
-                slotAcquired = slotManager.acquireFastSlot(fastSlotTimeoutMs);
-                if (!slotAcquired) {
-                    throw new RuntimeException("Timeout waiting for fast operation slot for operation: " + operationHash);
-                }
-                log.debug("Acquired fast slot for operation: {}", operationHash);
-            }
-            
             // Execute the operation and monitor its performance
             return executeAndMonitor(operationHash, operation);
-            
         } finally {
             // Always release the slot
-            if (slotAcquired) {
-                if (isSlowOperation) {
-                    slotManager.releaseSlowSlot();
-                    log.debug("Released slow slot for operation: {}", operationHash);
-                } else {
-                    slotManager.releaseFastSlot();
-                    log.debug("Released fast slot for operation: {}", operationHash);
+            releaseSlot(operationHash, isSlowOperation);
+        }
+    }
+    
+    /**
+     * Executes an operation which completes after this method returns, such as a result set streamed while the
+     * client reads it. The slot is held, and the execution time measured, until the operation calls the release
+     * callback it is given. The operation has to call it once done unless it throws, in which case the slot is
+     * released straight away.
+     * 
+     * @param operationHash The hash of the SQL operation
+     * @param operation The operation to start
+     * @throws Exception if the operation fails to start or slot acquisition times out
+     */
+    public void executeStreamWithSegregation(String operationHash, SegregatedStream operation) throws Exception {
+        boolean isSlowOperation = enabled && performanceMonitor.isSlowOperation(operationHash);
+        if (enabled) {
+            acquireSlot(operationHash, isSlowOperation);
+        }
+        long startTime = System.currentTimeMillis();
+        AtomicBoolean released = new AtomicBoolean(false);
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                performanceMonitor.recordExecutionTime(operationHash, System.currentTimeMillis() - startTime);
+                if (enabled) {
+                    releaseSlot(operationHash, isSlowOperation);
                 }
             }
+        };
+        try {
+            operation.start(release);
+        } catch (Exception e) {
+            release.run();
+            throw e;
+        }
+    }
+    
+    private void acquireSlot(String operationHash, boolean isSlowOperation) throws InterruptedException {
+        if (isSlowOperation) {
+            if (!slotManager.acquireSlowSlot(slowSlotTimeoutMs)) {
+                throw new RuntimeException("Timeout waiting for slow operation slot for operation: " + operationHash);
+            }
+            log.debug("Acquired slow slot for operation: {}", operationHash);
+        } else {
+            if (!slotManager.acquireFastSlot(fastSlotTimeoutMs)) {
+                throw new RuntimeException("Timeout waiting for fast operation slot for operation: " + operationHash);
+            }
+            log.debug("Acquired fast slot for operation: {}", operationHash);
+        }
+    }
+    
+    private void releaseSlot(String operationHash, boolean isSlowOperation) {
+        if (isSlowOperation) {
+            slotManager.releaseSlowSlot();
+            log.debug("Released slow slot for operation: {}", operationHash);
+        } else {
+            slotManager.releaseFastSlot();
+            log.debug("Released fast slot for operation: {}", operationHash);
         }
     }
     
@@ -204,4 +238,13 @@ public class SlowQuerySegregationManager {
     public interface SegregatedOperation<T> {
         T execute() throws Exception;
     }
+    
+    /**
+     * Functional interface for operations completing after they are started, which call the given release callback
+     * once done.
+     */
+    @FunctionalInterface
+    public interface SegregatedStream {
+        void start(Runnable release) throws Exception;
+    }
 }
\ No newline at end of file
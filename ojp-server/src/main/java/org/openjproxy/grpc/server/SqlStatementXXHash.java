@@ -1,7 +1,6 @@
 package org.openjproxy.grpc.server;
+import net.jpountz.xxhash.StreamingXXHash64;
 import net.jpountz.xxhash.XXHashFactory;
-import net.jpountz.xxhash.XXHash64;
-import java.nio.charset.StandardCharsets;
 
 /**
  * SqlQueryXXHash provides a utility for generating unique, deterministic IDs for SQL query strings using the xxHash64 algorithm.
@@ -25,10 +24,18 @@ import java.nio.charset.StandardCharsets;
  *
  * xxHash is chosen here because it is extremely fast, has excellent distribution for typical database workloads,
  * and provides more than enough uniqueness for non-cryptographic use cases—making it ideal for lightweight query identification.
+ *
+ * The SQL is normalized and hashed in a single pass, characters are fed to a streaming hash as they are normalized
+ * so no intermediate strings are built, the hash is the same as hashing the bytes of {@link #normalizeSql(String)}.
+ * The last hashes computed by each thread are kept by SQL instance, so the same request SQL hashed again by several
+ * components is only hashed once.
  */
 public class SqlStatementXXHash {
-    private static final XXHashFactory factory = XXHashFactory.fastestInstance();
     private static final long SEED = 0x9747b28c; // Arbitrary seed, can be any long
+    private static final int IDENTITY_CACHE_SIZE = 16;
+    private static final char PLACEHOLDER = '?';
+    private static final ThreadLocal<HashSink> HASH_SINK = ThreadLocal.withInitial(HashSink::new);
+    private static final ThreadLocal<IdentityCache> IDENTITY_CACHE = ThreadLocal.withInitial(IdentityCache::new);
 
     /**
      * Normalize the SQL query string for better consistency.
@@ -37,18 +44,251 @@ public class SqlStatementXXHash {
      * - Collapse multiple whitespace
      */
     public static String normalizeSql(String sql) {
+        return normalizeSql(sql, false);
+    }
+
+    /**
+     * Normalize the SQL query string, optionally replacing string and numeric literals by a {@code ?} placeholder so
+     * statements only differing in their literals, such as {@code WHERE id = 5} and {@code WHERE id = 6}, share the
+     * same normalized form.
+     */
+    public static String normalizeSql(String sql, boolean replaceLiterals) {
         if (sql == null) return "";
-        return sql.trim().replaceAll("\\s+", " ").toLowerCase();
+        StringBuilder sb = new StringBuilder(sql.length());
+        normalize(sql, replaceLiterals, sb::appendCodePoint);
+        return sb.toString();
     }
 
     /**
      * Returns the 64-bit xxHash of the normalized SQL query as a hex string.
      */
     public static String hashSqlQuery(String sql) {
-        String normalized = normalizeSql(sql);
-        byte[] data = normalized.getBytes(StandardCharsets.UTF_8);
-        XXHash64 hash64 = factory.hash64();
-        long hash = hash64.hash(data, 0, data.length, SEED);
-        return Long.toHexString(hash);
+        return hashSqlQuery(sql, false);
+    }
+
+    /**
+     * Returns the 64-bit xxHash of the normalized SQL query as a hex string.
+     *
+     * @param sql             The SQL
+     * @param replaceLiterals True to hash the SQL with its literals replaced by placeholders
+     */
+    public static String hashSqlQuery(String sql, boolean replaceLiterals) {
+        if (sql == null) sql = "";
+        IdentityCache cache = IDENTITY_CACHE.get();
+        String hash = cache.get(sql, replaceLiterals);
+        if (hash == null) {
+            HashSink sink = HASH_SINK.get();
+            sink.reset();
+            normalize(sql, replaceLiterals, sink);
+            hash = Long.toHexString(sink.getValue());
+            cache.put(sql, replaceLiterals, hash);
+        }
+        return hash;
+    }
+
+    private static void normalize(String sql, boolean replaceLiterals, CodePointSink sink) {
+        //Trimmed as String.trim() does, inner whitespace collapsed as the regex \s+ does.
+        int end = sql.length();
+        while (end > 0 && sql.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int i = 0;
+        while (i < end && sql.charAt(i) <= ' ') {
+            i++;
+        }
+        boolean pendingSpace = false;
+        int previous = ' ';
+        while (i < end) {
+            char c = sql.charAt(i);
+            if (isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+            if (pendingSpace) {
+                sink.append(' ');
+                previous = ' ';
+                pendingSpace = false;
+            }
+            if (replaceLiterals) {
+                if (c == '\'') {
+                    i = skipStringLiteral(sql, i, end);
+                    sink.append(PLACEHOLDER);
+                    previous = PLACEHOLDER;
+                    continue;
+                }
+                if (c >= '0' && c <= '9' && !Character.isLetterOrDigit(previous) && previous != '_' &&
+                        previous != '$') {
+                    i = skipNumber(sql, i, end);
+                    sink.append(PLACEHOLDER);
+                    previous = PLACEHOLDER;
+                    continue;
+                }
+                if (c == '"' || c == '`') {
+                    //Quoted identifiers are kept, they might contain anything resembling a literal.
+                    int close = sql.indexOf(c, i + 1);
+                    int identifierEnd = close < 0 || close >= end ? end : close + 1;
+                    previous = appendLowerCase(sql, i, identifierEnd, sink);
+                    i = identifierEnd;
+                    continue;
+                }
+            }
+            if (c < 0x80) {
+                previous = c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+                sink.append(previous);
+                i++;
+                continue;
+            }
+            int codePoint = sql.codePointAt(i);
+            previous = Character.toLowerCase(codePoint);
+            sink.append(previous);
+            i += Character.charCount(codePoint);
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static int appendLowerCase(String sql, int from, int to, CodePointSink sink) {
+        int last = ' ';
+        for (int i = from; i < to; ) {
+            int codePoint = sql.codePointAt(i);
+            last = Character.toLowerCase(codePoint);
+            sink.append(last);
+            i += Character.charCount(codePoint);
+        }
+        return last;
+    }
+
+    /**
+     * Skips a quoted string literal, quotes within it are escaped by doubling them.
+     *
+     * @return the position after the closing quote
+     */
+    private static int skipStringLiteral(String sql, int open, int end) {
+        int i = open + 1;
+        while (i < end) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < end && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return end;
+    }
+
+    /**
+     * Skips a numeric literal, decimals, exponents and hexadecimals included.
+     *
+     * @return the position after the number
+     */
+    private static int skipNumber(String sql, int start, int end) {
+        int i = start;
+        if (sql.charAt(i) == '0' && i + 1 < end && (sql.charAt(i + 1) == 'x' || sql.charAt(i + 1) == 'X')) {
+            i += 2;
+            while (i < end && Character.digit(sql.charAt(i), 16) >= 0) {
+                i++;
+            }
+            return i;
+        }
+        while (i < end) {
+            char c = sql.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '.') {
+                i++;
+            } else if ((c == 'e' || c == 'E') && i + 1 < end && (Character.isDigit(sql.charAt(i + 1)) ||
+                    ((sql.charAt(i + 1) == '+' || sql.charAt(i + 1) == '-') && i + 2 < end &&
+                            Character.isDigit(sql.charAt(i + 2))))) {
+                i += 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    @FunctionalInterface
+    private interface CodePointSink {
+        void append(int codePoint);
+    }
+
+    /**
+     * Encodes the code points as UTF-8 into a small buffer fed to a streaming xxHash, reused by the thread.
+     */
+    private static class HashSink implements CodePointSink {
+        private final StreamingXXHash64 hash = XXHashFactory.fastestJavaInstance().newStreamingHash64(SEED);
+        private final byte[] buffer = new byte[1024];
+        private int position;
+
+        void reset() {
+            this.hash.reset();
+            this.position = 0;
+        }
+
+        @Override
+        public void append(int codePoint) {
+            if (this.position > this.buffer.length - 4) {
+                this.flush();
+            }
+            byte[] b = this.buffer;
+            if (codePoint < 0x80) {
+                b[this.position++] = (byte) codePoint;
+            } else if (codePoint < 0x800) {
+                b[this.position++] = (byte) (0xC0 | (codePoint >> 6));
+                b[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (codePoint < 0x10000) {
+                if (Character.isSurrogate((char) codePoint)) {
+                    //Unpaired surrogates are encoded as String.getBytes does.
+                    b[this.position++] = '?';
+                    return;
+                }
+                b[this.position++] = (byte) (0xE0 | (codePoint >> 12));
+                b[this.position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                b[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                b[this.position++] = (byte) (0xF0 | (codePoint >> 18));
+                b[this.position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                b[this.position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                b[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+        }
+
+        long getValue() {
+            this.flush();
+            return this.hash.getValue();
+        }
+
+        private void flush() {
+            if (this.position > 0) {
+                this.hash.update(this.buffer, 0, this.position);
+                this.position = 0;
+            }
+        }
+    }
+
+    /**
+     * Direct mapped cache of the last hashes computed by a thread, keyed by the identity of the SQL string.
+     */
+    private static class IdentityCache {
+        private final String[] sqls = new String[IDENTITY_CACHE_SIZE * 2];
+        private final String[] hashes = new String[IDENTITY_CACHE_SIZE * 2];
+
+        String get(String sql, boolean replaceLiterals) {
+            int slot = slot(sql, replaceLiterals);
+            return this.sqls[slot] == sql ? this.hashes[slot] : null;
+        }
+
+        void put(String sql, boolean replaceLiterals, String hash) {
+            int slot = slot(sql, replaceLiterals);
+            this.sqls[slot] = sql;
+            this.hashes[slot] = hash;
+        }
+
+        private static int slot(String sql, boolean replaceLiterals) {
+            return (System.identityHashCode(sql) & (IDENTITY_CACHE_SIZE - 1)) + (replaceLiterals ? IDENTITY_CACHE_SIZE : 0);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,18 @@
 package org.openjproxy.grpc.server;
 
 import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.BatchRequest;
+import com.openjproxy.grpc.BulkLoadChunk;
+import com.openjproxy.grpc.BulkLoadResult;
 import com.openjproxy.grpc.CallResourceRequest;
 import com.openjproxy.grpc.CallResourceResponse;
+import com.openjproxy.grpc.CallResourcesRequest;
+import com.openjproxy.grpc.CallResourcesResponse;
 import com.openjproxy.grpc.CallType;
+import com.openjproxy.grpc.ColumnMetadata;
 import com.openjproxy.grpc.ConnectionDetails;
+import com.openjproxy.grpc.ConnectionState;
+import com.openjproxy.grpc.DatabaseMetaDataSnapshot;
 import com.openjproxy.grpc.DbName;
 import com.openjproxy.grpc.LobDataBlock;
 import com.openjproxy.grpc.LobReference;
@@ -12,12 +20,15 @@ import com.openjproxy.grpc.LobType;
 import com.openjproxy.grpc.OpResult;
 import com.openjproxy.grpc.ReadLobRequest;
 import com.openjproxy.grpc.ResourceType;
+import com.openjproxy.grpc.ResultSetFormat;
 import com.openjproxy.grpc.ResultSetFetchRequest;
 import com.openjproxy.grpc.ResultType;
 import com.openjproxy.grpc.SessionInfo;
 import com.openjproxy.grpc.SessionTerminationStatus;
 import com.openjproxy.grpc.SqlErrorType;
 import com.openjproxy.grpc.StatementRequest;
+import com.openjproxy.grpc.StatementHandle;
+import com.openjproxy.grpc.StatementRegistration;
 import com.openjproxy.grpc.StatementServiceGrpc;
 import com.openjproxy.grpc.TargetCall;
 import com.openjproxy.grpc.TransactionInfo;
@@ -26,42 +37,58 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.io.input.ReaderInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.openjproxy.constants.CommonConstants;
+import org.openjproxy.grpc.ResultSetMetadataCodec;
+import org.openjproxy.grpc.RowBlockCodec;
 import org.openjproxy.grpc.dto.OpQueryResult;
 import org.openjproxy.grpc.dto.Parameter;
-import org.openjproxy.grpc.server.utils.DateTimeUtils;
 import org.openjproxy.database.DatabaseUtils;
 import org.openjproxy.grpc.server.utils.DriverUtils;
 import org.openjproxy.grpc.server.pool.ConnectionPoolConfigurer;
 import org.openjproxy.grpc.server.pool.DataSourceConfigurationManager;
 import org.openjproxy.grpc.server.utils.ConnectionHashGenerator;
+import org.openjproxy.grpc.server.utils.CallableStatementUtils;
+import org.openjproxy.grpc.server.utils.ConnectionStateUtils;
+import org.openjproxy.grpc.server.utils.DatabaseMetaDataUtils;
 import org.openjproxy.grpc.server.utils.UrlParser;
-import org.openjproxy.grpc.server.utils.MethodReflectionUtils;
+import org.openjproxy.grpc.server.utils.MethodDispatchCache;
+import org.openjproxy.grpc.server.utils.MethodDispatchCache.DispatchedMethod;
 import org.openjproxy.grpc.server.utils.MethodNameGenerator;
 import org.openjproxy.grpc.server.utils.SessionInfoUtils;
 import org.openjproxy.grpc.server.statement.ParameterHandler;
 import org.openjproxy.grpc.server.xa.XADataSourceFactory;
+import org.openjproxy.grpc.server.bulk.BulkLoadWriter;
+import org.openjproxy.grpc.server.statement.MultiRowInsertRewriter;
 import org.openjproxy.grpc.server.statement.StatementFactory;
+import org.openjproxy.grpc.server.statement.PreparedStatementCache;
+import org.openjproxy.grpc.server.statement.RegisteredStatement;
+import org.openjproxy.grpc.server.statement.StatementHandleRegistry;
+import org.openjproxy.grpc.server.lob.LobDataBlockReader;
+import org.openjproxy.grpc.server.lob.LobSpillQuota;
+import org.openjproxy.grpc.server.lob.LobSpillTarget;
+import org.openjproxy.grpc.server.resultset.ColumnReaderPlan;
+import org.openjproxy.grpc.server.resultset.MetaDataResultSetCache;
 import org.openjproxy.grpc.server.resultset.ResultSetWrapper;
-import org.openjproxy.grpc.server.lob.LobProcessor;
 import org.openjproxy.grpc.server.utils.StatementRequestValidator;
 
 import javax.sql.XAConnection;
 import javax.sql.XADataSource;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -70,7 +97,6 @@ import java.sql.Blob;
 import java.sql.CallableStatement;
 import java.sql.Clob;
 import java.sql.Connection;
-import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -80,7 +106,6 @@ import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
-import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -90,12 +115,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
-import static org.openjproxy.constants.CommonConstants.MAX_LOB_DATA_BLOCK_SIZE;
 import static org.openjproxy.grpc.SerializationHandler.deserialize;
 import static org.openjproxy.grpc.SerializationHandler.serialize;
 import static org.openjproxy.grpc.server.Constants.EMPTY_LIST;
@@ -103,6 +127,7 @@ import static org.openjproxy.grpc.server.Constants.EMPTY_MAP;
 import static org.openjproxy.grpc.server.Constants.EMPTY_STRING;
 import static org.openjproxy.grpc.server.Constants.SHA_256;
 import static org.openjproxy.grpc.server.GrpcExceptionHandler.sendSQLExceptionMetadata;
+import static org.openjproxy.grpc.server.GrpcExceptionHandler.toSqlErrorResponse;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -122,8 +147,28 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
     
     private static final List<String> INPUT_STREAM_TYPES = Arrays.asList("RAW", "BINARY VARYING", "BYTEA");
     private final Map<String, DbName> dbNameMap = new ConcurrentHashMap<>();
+    // State of the fresh connections of each datasource, the default instance if it could not be read.
+    private final Map<String, ConnectionState> connectionStateMap = new ConcurrentHashMap<>();
+    // Scalar DatabaseMetaData values of each datasource.
+    private final Map<String, DatabaseMetaDataSnapshot> metaDataSnapshotMap = new ConcurrentHashMap<>();
+    // Catalog result sets of each datasource, created on first use.
+    private final Map<String, MetaDataResultSetCache> metaDataResultSetCacheMap = new ConcurrentHashMap<>();
+    // Stops streaming a result set, per UUID of the result sets being streamed.
+    private final Map<String, Runnable> resultSetStreamStoppers = new ConcurrentHashMap<>();
+    // Held for calls without a session, their connection is not shared.
+    private static final Session.ConnectionLock NO_CONNECTION_LOCK = () -> {
+    };
+    // Bytes of the LOBs spilled to disk by all sessions, created once the configuration is set.
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final LobSpillQuota lobSpillQuota = new LobSpillQuota(this.serverConfiguration.getLobSpillMaxBytes());
+    // Prepared statements of the physical connections of the pools, used by executions outside of a session.
+    private final Map<Connection, PreparedStatementCache> pooledStatementCaches = new ConcurrentHashMap<>();
+    // SQL registered by the clients to be referenced by handle.
+    private final StatementHandleRegistry statementHandleRegistry = new StatementHandleRegistry();
 
     private final static String RESULT_SET_METADATA_ATTR_PREFIX = "rsMetadata|";
+    // Session attribute set once the session ran DDL, until its transaction ends.
+    private final static String DDL_EXECUTED_ATTR = "ddlExecuted";
 
     static {
         DriverUtils.registerDrivers();
@@ -172,6 +217,8 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         log.info("connect connHash = {}, isXA = {}, maxXaTransactions = {}, xaStartTimeout = {}ms", 
                 connHash, connectionDetails.getIsXA(), maxXaTransactions, xaStartTimeoutMillis);
 
+        ResultSetFormat resultSetFormat = this.negotiateResultSetFormat(connectionDetails);
+
         // Check if this is an XA connection request
         if (connectionDetails.getIsXA()) {
             // Initialize or retrieve XA transaction limiter for this connection
@@ -214,8 +261,13 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                 Connection connection = xaConnection.getConnection();
                 
                 // Create session with XA support using sessionManager
-                SessionInfo sessionInfo = this.sessionManager.createXASession(
-                        connectionDetails.getClientUUID(), connection, xaConnection);
+                SessionInfo.Builder sessionInfoBuilder = this.sessionManager.createXASession(
+                        connectionDetails.getClientUUID(), connection, xaConnection, resultSetFormat).toBuilder();
+                ConnectionState connectionState = this.initialConnectionState(connHash, () -> connection, false);
+                if (connectionState != null) {
+                    sessionInfoBuilder.setInitialState(connectionState);
+                }
+                SessionInfo sessionInfo = sessionInfoBuilder.build();
                 
                 log.info("Created XA session with UUID: {} for client: {}", 
                         sessionInfo.getSessionUUID(), connectionDetails.getClientUUID());
@@ -265,11 +317,16 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         this.sessionManager.registerClientUUID(connHash, connectionDetails.getClientUUID());
 
         // For regular connections, just return session info without creating a session yet (lazy allocation)
-        SessionInfo sessionInfo = SessionInfo.newBuilder()
+        SessionInfo.Builder sessionInfoBuilder = SessionInfo.newBuilder()
                 .setConnHash(connHash)
                 .setClientUUID(connectionDetails.getClientUUID())
                 .setIsXA(false)
-                .build();
+                .setResultSetFormat(resultSetFormat);
+        ConnectionState connectionState = this.initialConnectionState(connHash, ds::getConnection, true);
+        if (connectionState != null) {
+            sessionInfoBuilder.setInitialState(connectionState);
+        }
+        SessionInfo sessionInfo = sessionInfoBuilder.build();
 
         responseObserver.onNext(sessionInfo);
 
@@ -278,6 +335,78 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         responseObserver.onCompleted();
     }
     
+    /**
+     * State of the fresh connections of a datasource, read once per datasource as pools reset the state of the
+     * connections returned to them.
+     *
+     * @param connHash           The datasource connection hash
+     * @param connectionSupplier Supplies a fresh connection of the datasource
+     * @param close              True to close the supplied connection once read
+     * @return the connection state or null if it could not be read
+     */
+    private ConnectionState initialConnectionState(String connHash, ConnectionSupplier connectionSupplier,
+                                                   boolean close) {
+        ConnectionState state = this.connectionStateMap.get(connHash);
+        if (state == null) {
+            state = ConnectionState.getDefaultInstance();
+            Connection connection = null;
+            try {
+                connection = connectionSupplier.get();
+                ConnectionState read = ConnectionStateUtils.read(connection);
+                if (read != null) {
+                    state = read;
+                }
+            } catch (SQLException e) {
+                log.warn("Unable to read the connection state of {}: {}", connHash, e.getMessage());
+            } finally {
+                if (close && connection != null) {
+                    try {
+                        connection.close();
+                    } catch (SQLException e) {
+                        log.warn("Failure closing connection: {}", e.getMessage());
+                    }
+                }
+            }
+            this.connectionStateMap.put(connHash, state);
+        }
+        return ConnectionState.getDefaultInstance().equals(state) ? null : state;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * Picks the richest result set format advertised by the client, old clients do not advertise any and keep
+     * receiving java serialized blocks. Columnar blocks are only advertised by clients that opted in. The format
+     * travels in the SessionInfo returned and is kept on the sessions created for it.
+     */
+    private ResultSetFormat negotiateResultSetFormat(ConnectionDetails connectionDetails) {
+        List<ResultSetFormat> supportedFormats = connectionDetails.getSupportedResultSetFormatsList();
+        ResultSetFormat resultSetFormat = ResultSetFormat.RSF_JAVA_SERIALIZATION;
+        if (supportedFormats.contains(ResultSetFormat.RSF_COLUMNAR)) {
+            resultSetFormat = ResultSetFormat.RSF_COLUMNAR;
+        } else if (supportedFormats.contains(ResultSetFormat.RSF_ROW_BLOCK)) {
+            resultSetFormat = ResultSetFormat.RSF_ROW_BLOCK;
+        }
+        return resultSetFormat;
+    }
+
+    /**
+     * Result set format of a request, the one kept on its session if there is one, otherwise the one negotiated on
+     * connect and sent back by the client.
+     */
+    private ResultSetFormat resultSetFormat(SessionInfo sessionInfo) {
+        if (StringUtils.isNotEmpty(sessionInfo.getSessionUUID())) {
+            Session session = this.sessionManager.getSession(sessionInfo);
+            if (session != null) {
+                return session.getResultSetFormat();
+            }
+        }
+        return sessionInfo.getResultSetFormat();
+    }
+
     /**
      * Creates a slow query segregation manager for a specific datasource.
      * Each datasource gets its own manager with pool size based on actual HikariCP configuration.
@@ -321,11 +450,55 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         return manager;
     }
 
+    @Override
+    public void registerStatement(StatementRegistration request, StreamObserver<StatementHandle> responseObserver) {
+        log.debug("Registering statement {}", request.getSql());
+        String clientUUID = request.getSession().getClientUUID();
+        if (StringUtils.isBlank(clientUUID)) {
+            sendSQLExceptionMetadata(new SQLException("Statements can only be registered by identified clients."),
+                    responseObserver);
+            return;
+        }
+        this.statementHandleRegistry.evictIdleClientsIfDue(this.serverConfiguration.getStatementHandlesIdleTimeout());
+        long handle = this.statementHandleRegistry.register(clientUUID, request.getSql(),
+                this.serverConfiguration.getStatementHandlesMaxPerClient(),
+                this.serverConfiguration.isSqlFingerprintReplaceLiterals());
+        responseObserver.onNext(StatementHandle.newBuilder().setHandle(handle).build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Resolves the statement of a request, either registered under the request statement handle or built from the
+     * request SQL.
+     *
+     * @return the statement or null if the handle is not known, in which case the error is already sent to the client
+     */
+    private <T> RegisteredStatement resolveStatement(StatementRequest request, StreamObserver<T> responseObserver) {
+        if (request.getStatementHandle() == 0) {
+            return new RegisteredStatement(request.getSql(), this.serverConfiguration.isSqlFingerprintReplaceLiterals());
+        }
+        this.statementHandleRegistry.evictIdleClientsIfDue(this.serverConfiguration.getStatementHandlesIdleTimeout());
+        RegisteredStatement statement = this.statementHandleRegistry.get(request.getSession().getClientUUID(),
+                request.getStatementHandle());
+        if (statement == null) {
+            //The client sends the SQL again, registered handles are lost when the server restarts or the client idles.
+            sendSQLExceptionMetadata(new SQLException("Unknown statement handle " + request.getStatementHandle(),
+                    CommonConstants.UNKNOWN_STATEMENT_HANDLE_SQL_STATE), responseObserver);
+        }
+        return statement;
+    }
+
     @SneakyThrows
     @Override
-    public void executeUpdate(StatementRequest request, StreamObserver<OpResult> responseObserver) {
+    public void executeUpdate(StatementRequest statementRequest, StreamObserver<OpResult> responseObserver) {
+        RegisteredStatement statement = this.resolveStatement(statementRequest, responseObserver);
+        if (statement == null) {
+            return;
+        }
+        StatementRequest request = statementRequest.getStatementHandle() == 0 ? statementRequest :
+                statementRequest.toBuilder().setSql(statement.getSql()).build();
         log.info("Executing update {}", request.getSql());
-        String stmtHash = SqlStatementXXHash.hashSqlQuery(request.getSql());
+        String stmtHash = statement.getHash();
         
         try {
             circuitBreaker.preCheck(stmtHash);
@@ -336,8 +509,11 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             
             // Execute with slow query segregation
             OpResult result = manager.executeWithSegregation(stmtHash, () -> {
-                return executeUpdateInternal(request);
+                try (Session.ConnectionLock ignored = this.lockSessionConnection(request.getSession())) {
+                    return executeUpdateInternal(request);
+                }
             });
+            this.invalidateMetaDataOnDdl(result.getSession(), request.getSql());
             
             responseObserver.onNext(result);
             responseObserver.onCompleted();
@@ -375,6 +551,7 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         Statement stmt = null;
         String psUUID = "";
         OpResult.Builder opResultBuilder = OpResult.newBuilder();
+        PreparedStatementCache statementCache = null;
 
         try {
             dto = sessionConnection(request.getSession(), StatementRequestValidator.isAddBatchOperation(request) || StatementRequestValidator.hasAutoGeneratedKeysFlag(request));
@@ -388,6 +565,10 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                 if (StringUtils.isNotEmpty(request.getStatementUUID())) {
                     Collection<Object> lobs = sessionManager.getLobs(dto.getSession());
                     for (Object o : lobs) {
+                        //Other lobs of the session, like the ones read from result sets, are not parameters.
+                        if (!(o instanceof LobDataBlocksInputStream)) {
+                            continue;
+                        }
                         LobDataBlocksInputStream lobIS = (LobDataBlocksInputStream) o;
                         Map<String, Object> metadata = (Map<String, Object>) sessionManager.getAttr(dto.getSession(), lobIS.getUuid());
                         Integer parameterIndex = (Integer) metadata.get(CommonConstants.PREPARED_STATEMENT_BINARY_STREAM_INDEX);
@@ -400,7 +581,22 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                         ParameterHandler.addParametersPreparedStatement(sessionManager, dto.getSession(), ps, params);
                     }
                 } else {
-                    ps = StatementFactory.createPreparedStatement(sessionManager, dto, request.getSql(), params, request);
+                    //Statements registered for later use by the client are not shared through the cache.
+                    ConnectionSessionDTO statementDto = dto;
+                    if (!StatementRequestValidator.isAddBatchOperation(request) &&
+                            !StatementRequestValidator.hasAutoGeneratedKeysFlag(request)) {
+                        if (StringUtils.isBlank(dto.getSession().getSessionUUID())) {
+                            ConnectionSessionDTO pooledDto = this.pooledStatementConnection(dto);
+                            if (pooledDto != null) {
+                                statementDto = pooledDto;
+                                statementCache = this.pooledStatementCaches.get(pooledDto.getConnection());
+                            }
+                        } else {
+                            statementCache = this.preparedStatementCache(dto.getSession());
+                        }
+                    }
+                    ps = StatementFactory.createPreparedStatement(sessionManager, statementDto, request.getSql(),
+                            params, request.getProperties(), statementCache);
                     if (StatementRequestValidator.hasAutoGeneratedKeysFlag(request)) {
                         String psNewUUID = sessionManager.registerPreparedStatement(dto.getSession(), ps);
                         opResultBuilder.setUuid(psNewUUID);
@@ -414,12 +610,32 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                         psUUID = request.getStatementUUID();
                     }
                 } else {
-                    updated = ps.executeUpdate();
+                    try {
+                        updated = ps.executeUpdate();
+                        if (StatementRequestValidator.returnsGeneratedKeys(request)) {
+                            this.addGeneratedKeys(opResultBuilder, dto.getSession(), ps);
+                        }
+                    } finally {
+                        //Released on failure too, the statement would otherwise stay open untracked until the
+                        //session connection is closed.
+                        if (statementCache != null) {
+                            statementCache.release(request.getSql(), request.getProperties(), ps, null);
+                        }
+                    }
                 }
                 stmt = ps;
             } else {
                 stmt = StatementFactory.createStatement(sessionManager, dto.getConnection(), request);
-                updated = stmt.executeUpdate(request.getSql());
+                if (StatementRequestValidator.hasAutoGeneratedKeysFlag(request)) {
+                    updated = stmt.executeUpdate(request.getSql(), Statement.RETURN_GENERATED_KEYS);
+                    this.addGeneratedKeys(opResultBuilder, dto.getSession(), stmt);
+                    //Registered so the client can still fetch the generated keys if they were not sent inline.
+                    if (StringUtils.isBlank(request.getStatementUUID())) {
+                        opResultBuilder.setUuid(sessionManager.registerStatement(dto.getSession(), stmt));
+                    }
+                } else {
+                    updated = stmt.executeUpdate(request.getSql());
+                }
             }
 
             if (StatementRequestValidator.isAddBatchOperation(request)) {
@@ -434,16 +650,19 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                         .setValue(ByteString.copyFrom(serialize(updated))).build();
             }
         } finally {
-            //If there is no session, close statement and connection
+            //If there is no session, close statement and connection, cached statements stay with the physical
+            //connection returned to the pool.
             if (dto.getSession() == null || StringUtils.isEmpty(dto.getSession().getSessionUUID())) {
-                if (stmt != null) {
+                if (stmt != null && statementCache == null) {
                     try {
                         stmt.close();
                     } catch (SQLException e) {
                         log.error("Failure closing statement: " + e.getMessage(), e);
                     }
+                }
+                if (dto.getConnection() != null) {
                     try {
-                        stmt.getConnection().close();
+                        dto.getConnection().close();
                     } catch (SQLException e) {
                         log.error("Failure closing connection: " + e.getMessage(), e);
                     }
@@ -453,9 +672,189 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
     }
 
     @Override
-    public void executeQuery(StatementRequest request, StreamObserver<OpResult> responseObserver) {
+    public void executeBatch(BatchRequest request, StreamObserver<OpResult> responseObserver) {
+        log.info("Executing batch of {} rows for {}", request.getParameterSetsCount(), request.getSql());
+        String stmtHash = SqlStatementXXHash.hashSqlQuery(request.getSql(),
+                this.serverConfiguration.isSqlFingerprintReplaceLiterals());
+
+        try {
+            circuitBreaker.preCheck(stmtHash);
+
+            // The whole batch is applied within a single slot acquisition.
+            String connHash = request.getSession().getConnHash();
+            SlowQuerySegregationManager manager = getSlowQuerySegregationManagerForConnection(connHash);
+            OpResult result = manager.executeWithSegregation(stmtHash, () -> {
+                try (Session.ConnectionLock ignored = this.lockSessionConnection(request.getSession())) {
+                    return executeBatchInternal(request);
+                }
+            });
+            this.invalidateMetaDataOnDdl(result.getSession(), request.getSql());
+
+            responseObserver.onNext(result);
+            responseObserver.onCompleted();
+            circuitBreaker.onSuccess(stmtHash);
+        } catch (SQLException e) {
+            circuitBreaker.onFailure(stmtHash, e);
+            log.error("Failure during batch execution: " + e.getMessage(), e);
+            sendSQLExceptionMetadata(e, responseObserver);
+        } catch (Exception e) {
+            log.error("Unexpected failure during batch execution: " + e.getMessage(), e);
+            if (e.getCause() instanceof SQLException) {
+                circuitBreaker.onFailure(stmtHash, (SQLException) e.getCause());
+                sendSQLExceptionMetadata((SQLException) e.getCause(), responseObserver);
+            } else {
+                SQLException sqlException = new SQLException("Unexpected error: " + e.getMessage(), e);
+                circuitBreaker.onFailure(stmtHash, sqlException);
+                sendSQLExceptionMetadata(sqlException, responseObserver);
+            }
+        }
+    }
+
+    /**
+     * Adds every parameter set of the request to the prepared statement batch and executes it. The prepared statement
+     * is kept in the session so the client can later reuse it, for example to read the generated keys.
+     */
+    private OpResult executeBatchInternal(BatchRequest request) throws SQLException {
+        ConnectionSessionDTO dto = sessionConnection(request.getSession(), true);
+        MultiRowInsertRewriter rewriter = this.multiRowInsertRewriter(request,
+                this.dbNameMap.get(request.getSession().getConnHash()));
+        if (rewriter != null) {
+            List<List<Parameter>> rows = new ArrayList<>(request.getParameterSetsCount());
+            for (ByteString parameterSet : request.getParameterSetsList()) {
+                rows.add(deserialize(parameterSet.toByteArray(), List.class));
+            }
+            int[] updateCounts = rewriter.executeBatch(sessionManager, dto.getSession(), dto.getConnection(), rows,
+                    this.serverConfiguration.getBatchRewriteRowsPerStatement());
+            return OpResult.newBuilder()
+                    .setType(ResultType.BATCH_UPDATE_COUNTS)
+                    .setSession(dto.getSession())
+                    .setValue(ByteString.copyFrom(serialize(updateCounts)))
+                    .build();
+        }
+        String psUUID = request.getStatementUUID();
+        PreparedStatement ps = StringUtils.isNotBlank(psUUID) ?
+                sessionManager.getPreparedStatement(dto.getSession(), psUUID) : null;
+        if (ps == null) {
+            ps = StatementFactory.createPreparedStatement(sessionManager, dto, request.getSql(), EMPTY_LIST,
+                    request.getProperties());
+            psUUID = sessionManager.registerPreparedStatement(dto.getSession(), ps);
+        }
+        for (ByteString parameterSet : request.getParameterSetsList()) {
+            List<Parameter> params = deserialize(parameterSet.toByteArray(), List.class);
+            ParameterHandler.addParametersPreparedStatement(sessionManager, dto.getSession(), ps, params);
+            ps.addBatch();
+        }
+        int[] updateCounts = ps.executeBatch();
+        return OpResult.newBuilder()
+                .setType(ResultType.BATCH_UPDATE_COUNTS)
+                .setSession(dto.getSession())
+                .setUuid(psUUID)
+                .setValue(ByteString.copyFrom(serialize(updateCounts)))
+                .build();
+    }
+
+    /**
+     * Returns the rewriter folding the batch into multi-row inserts, or null if the batch is to be executed as sent.
+     * Only batches of new prepared statements without properties are rewritten, as a statement already open in the
+     * session or prepared to return generated keys has to be the one executing the batch.
+     */
+    private MultiRowInsertRewriter multiRowInsertRewriter(BatchRequest request, DbName dbName) {
+        if (!this.serverConfiguration.isBatchRewriteInserts() || !MultiRowInsertRewriter.supports(dbName) ||
+                request.getParameterSetsCount() < 2 || StringUtils.isNotBlank(request.getStatementUUID())) {
+            return null;
+        }
+        if (!request.getProperties().isEmpty() &&
+                !((Map<?, ?>) deserialize(request.getProperties().toByteArray(), Map.class)).isEmpty()) {
+            return null;
+        }
+        return MultiRowInsertRewriter.parse(request.getSql());
+    }
+
+    /**
+     * Loads the streamed chunks of rows into a table. Each chunk is written to the database as it arrives, and the
+     * next chunk is only taken once the previous one is written, so memory held per load stays bounded by one chunk.
+     */
+    @Override
+    public StreamObserver<BulkLoadChunk> bulkLoad(StreamObserver<BulkLoadResult> responseObserver) {
+        return new StreamObserver<>() {
+            private SessionInfo session;
+            private BulkLoadWriter writer;
+            private boolean failed;
+
+            @Override
+            public void onNext(BulkLoadChunk chunk) {
+                if (this.failed) {
+                    return;
+                }
+                try {
+                    if (this.writer == null) {
+                        ConnectionSessionDTO dto = sessionConnection(chunk.getSession(), true);
+                        this.session = dto.getSession();
+                        log.info("Bulk loading into {}", chunk.getTable());
+                        this.writer = BulkLoadWriter.open(dto.getConnection(),
+                                dbNameMap.get(chunk.getSession().getConnHash()), chunk.getTable(),
+                                chunk.getColumnsList());
+                    }
+                    this.writer.write(RowBlockCodec.decode(chunk.getRows()).getRows());
+                } catch (SQLException e) {
+                    this.fail(e);
+                } catch (RuntimeException e) {
+                    this.fail(new SQLException("Unexpected error: " + e.getMessage(), e));
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                log.error("Bulk load cancelled by the client: " + throwable.getMessage(), throwable);
+                this.failed = true;
+                if (this.writer != null) {
+                    this.writer.abort();
+                }
+            }
+
+            @Override
+            public void onCompleted() {
+                if (this.failed) {
+                    return;
+                }
+                if (this.writer == null) {
+                    this.fail(new SQLException("Bulk load completed without any chunk of rows."));
+                    return;
+                }
+                try {
+                    long rowCount = this.writer.finish();
+                    log.info("Bulk load finished, {} rows loaded", rowCount);
+                    responseObserver.onNext(BulkLoadResult.newBuilder()
+                            .setSession(this.session)
+                            .setRowCount(rowCount)
+                            .build());
+                    responseObserver.onCompleted();
+                } catch (SQLException e) {
+                    this.fail(e);
+                }
+            }
+
+            private void fail(SQLException e) {
+                this.failed = true;
+                if (this.writer != null) {
+                    this.writer.abort();
+                }
+                log.error("Failure during bulk load: " + e.getMessage(), e);
+                sendSQLExceptionMetadata(e, responseObserver);
+            }
+        };
+    }
+
+    @Override
+    public void executeQuery(StatementRequest statementRequest, StreamObserver<OpResult> responseObserver) {
+        RegisteredStatement statement = this.resolveStatement(statementRequest, responseObserver);
+        if (statement == null) {
+            return;
+        }
+        StatementRequest request = statementRequest.getStatementHandle() == 0 ? statementRequest :
+                statementRequest.toBuilder().setSql(statement.getSql()).build();
         log.info("Executing query for {}", request.getSql());
-        String stmtHash = SqlStatementXXHash.hashSqlQuery(request.getSql());
+        String stmtHash = statement.getHash();
         
         try {
             circuitBreaker.preCheck(stmtHash);
@@ -464,13 +863,20 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             String connHash = request.getSession().getConnHash();
             SlowQuerySegregationManager manager = getSlowQuerySegregationManagerForConnection(connHash);
             
-            // Execute with slow query segregation
-            manager.executeWithSegregation(stmtHash, () -> {
-                executeQueryInternal(request, responseObserver);
-                return null; // Void return for query execution
+            // Execute with slow query segregation, the slot is held and the outcome recorded once the result set
+            // is fully streamed, not when the first block is sent.
+            manager.executeStreamWithSegregation(stmtHash, release -> {
+                try (Session.ConnectionLock ignored = this.lockSessionConnection(request.getSession())) {
+                    executeQueryInternal(request, responseObserver, failure -> {
+                        release.run();
+                        if (failure == null) {
+                            circuitBreaker.onSuccess(stmtHash);
+                        } else {
+                            circuitBreaker.onFailure(stmtHash, failure);
+                        }
+                    });
+                }
             });
-            
-            circuitBreaker.onSuccess(stmtHash);
         } catch (SQLException e) {
             circuitBreaker.onFailure(stmtHash, e);
             log.error("Failure during query execution: " + e.getMessage(), e);
@@ -490,29 +896,58 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
     
     /**
      * Internal method for executing queries without segregation logic.
+     *
+     * @param onEnd Called once the result set is fully sent, or with the failure if sending a block failed, unless
+     *              this method throws
      */
-    private void executeQueryInternal(StatementRequest request, StreamObserver<OpResult> responseObserver) throws SQLException {
+    private void executeQueryInternal(StatementRequest request, StreamObserver<OpResult> responseObserver,
+                                      Consumer<SQLException> onEnd) throws SQLException {
         ConnectionSessionDTO dto = this.sessionConnection(request.getSession(), true);
 
         List<Parameter> params = deserialize(request.getParameters().toByteArray(), List.class);
+        int fetchSize = request.getFetchSize();
+        String resultSetUUID;
         if (CollectionUtils.isNotEmpty(params)) {
-            PreparedStatement ps = StatementFactory.createPreparedStatement(sessionManager, dto, request.getSql(), params, request);
-            String resultSetUUID = this.sessionManager.registerResultSet(dto.getSession(), ps.executeQuery());
-            this.handleResultSet(dto.getSession(), resultSetUUID, responseObserver);
+            PreparedStatementCache statementCache = this.preparedStatementCache(dto.getSession());
+            PreparedStatement ps = StatementFactory.createPreparedStatement(sessionManager, dto, request.getSql(),
+                    params, request.getProperties(), statementCache);
+            ResultSet rs = null;
+            try {
+                //Cached statements keep the fetch size of their previous execution.
+                if (fetchSize > 0 || statementCache != null) {
+                    ps.setFetchSize(fetchSize);
+                }
+                rs = ps.executeQuery();
+            } finally {
+                if (statementCache != null) {
+                    statementCache.release(request.getSql(), request.getProperties(), ps, rs);
+                }
+            }
+            resultSetUUID = this.sessionManager.registerResultSet(dto.getSession(), rs);
         } else {
             Statement stmt = StatementFactory.createStatement(sessionManager, dto.getConnection(), request);
-            String resultSetUUID = this.sessionManager.registerResultSet(dto.getSession(),
+            if (fetchSize > 0) {
+                stmt.setFetchSize(fetchSize);
+            }
+            resultSetUUID = this.sessionManager.registerResultSet(dto.getSession(),
                     stmt.executeQuery(request.getSql()));
-            this.handleResultSet(dto.getSession(), resultSetUUID, responseObserver);
+        }
+        if (responseObserver instanceof ServerCallStreamObserver) {
+            this.streamResultSet(dto.getSession(), resultSetUUID, fetchSize,
+                    (ServerCallStreamObserver<OpResult>) responseObserver, onEnd);
+        } else {
+            this.handleResultSet(dto.getSession(), resultSetUUID, fetchSize, true, responseObserver);
+            onEnd.accept(null);
         }
     }
 
     @Override
     public void fetchNextRows(ResultSetFetchRequest request, StreamObserver<OpResult> responseObserver) {
         log.debug("Executing fetch next rows for result set  {}", request.getResultSetUUID());
-        try {
+        try (Session.ConnectionLock ignored = this.lockSessionConnection(request.getSession())) {
             ConnectionSessionDTO dto = this.sessionConnection(request.getSession(), false);
-            this.handleResultSet(dto.getSession(), request.getResultSetUUID(), responseObserver);
+            this.handleResultSet(dto.getSession(), request.getResultSetUUID(), request.getSize(), false,
+                    responseObserver);
         } catch (SQLException e) {
             log.error("Failure fetch next rows for result set: " + e.getMessage(), e);
             sendSQLExceptionMetadata(e, responseObserver);
@@ -528,6 +963,10 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             private String stmtUUID;
             private LobType lobType;
             private LobDataBlocksInputStream lobDataBlocksInputStream = null;
+            //Blocks after the first are appended to the stream opened at the position of the first block, as some
+            // drivers (H2) only write new LOBs from the start.
+            private OutputStream blobOutputStream;
+            private Writer clobWriter;
             private final AtomicBoolean isFirstBlock = new AtomicBoolean(true);
             private final AtomicInteger countBytesWritten = new AtomicInteger(0);
 
@@ -573,7 +1012,10 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
 
             @Override
             public void onNext(LobDataBlock lobDataBlock) {
-                try {
+                //Binary streams are consumed by the update holding the connection lock, their blocks do not use the
+                // connection once the statement is prepared.
+                try (Session.ConnectionLock ignored = LobType.LT_BINARY_STREAM.equals(lobDataBlock.getLobType()) ?
+                        NO_CONNECTION_LOCK : lockSessionConnection(lobDataBlock.getSession())) {
                     this.lobType = lobDataBlock.getLobType();
                     log.info("lob data block received, lob type {}", this.lobType);
                     ConnectionSessionDTO dto = sessionConnection(lobDataBlock.getSession(), true);
@@ -598,8 +1040,11 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                                 throw new SQLException("Unable to write LOB of type " + this.lobType + ": Blob object is null for UUID " + this.lobUUID + 
                                     ". This may indicate a race condition or session management issue.");
                             }
-                            byte[] byteArrayData = lobDataBlock.getData().toByteArray();
-                            bytesWritten = blob.setBytes(lobDataBlock.getPosition(), byteArrayData);
+                            if (this.blobOutputStream == null) {
+                                this.blobOutputStream = blob.setBinaryStream(lobDataBlock.getPosition());
+                            }
+                            lobDataBlock.getData().writeTo(this.blobOutputStream);
+                            bytesWritten = lobDataBlock.getData().size();
                             break;
                         }
                         case LT_CLOB: {
@@ -608,10 +1053,11 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                                 throw new SQLException("Unable to write LOB of type " + this.lobType + ": Clob object is null for UUID " + this.lobUUID + 
                                     ". This may indicate a race condition or session management issue.");
                             }
-                            byte[] byteArrayData = lobDataBlock.getData().toByteArray();
-                            Writer writer = clob.setCharacterStream(lobDataBlock.getPosition());
-                            writer.write(new String(byteArrayData, StandardCharsets.UTF_8).toCharArray());
-                            bytesWritten = byteArrayData.length;
+                            if (this.clobWriter == null) {
+                                this.clobWriter = clob.setCharacterStream(lobDataBlock.getPosition());
+                            }
+                            this.clobWriter.write(lobDataBlock.getData().toStringUtf8());
+                            bytesWritten = lobDataBlock.getData().size();
                             break;
                         }
                         case LT_BINARY_STREAM: {
@@ -679,18 +1125,43 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             public void onError(Throwable throwable) {
                 log.error("Failure lob stream: " + throwable.getMessage(), throwable);
                 if (lobDataBlocksInputStream != null) {
-                    lobDataBlocksInputStream.finish(true);
+                    lobDataBlocksInputStream.fail(throwable);
+                }
+                try {
+                    this.closeLobStreams();
+                } catch (IOException e) {
+                    log.error("Failure closing lob stream: " + e.getMessage(), e);
+                }
+            }
+
+            /**
+             * Closing the streams completes writing the LOB, some drivers only store the data once closed.
+             */
+            private void closeLobStreams() throws IOException {
+                try {
+                    if (this.blobOutputStream != null) {
+                        this.blobOutputStream.close();
+                    }
+                } finally {
+                    if (this.clobWriter != null) {
+                        this.clobWriter.close();
+                    }
                 }
             }
 
             @SneakyThrows
             @Override
             public void onCompleted() {
+                try {
+                    this.closeLobStreams();
+                } catch (IOException e) {
+                    sendSQLExceptionMetadata(new SQLException("Unable to write data: " + e.getMessage(), e),
+                            responseObserver);
+                    return;
+                }
                 if (lobDataBlocksInputStream != null) {
-                    CompletableFuture.runAsync(() -> {
-                        log.info("Finishing lob stream for lob ref {}", this.lobUUID);
-                        lobDataBlocksInputStream.finish(true);
-                    });
+                    log.info("Finishing lob stream for lob ref {}", this.lobUUID);
+                    lobDataBlocksInputStream.finish();
                 }
 
                 LobReference.Builder lobRefBuilder = LobReference.newBuilder()
@@ -712,7 +1183,7 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
     @Override
     public void readLob(ReadLobRequest request, StreamObserver<LobDataBlock> responseObserver) {
         log.debug("Reading lob {}", request.getLobReference().getUuid());
-        try {
+        try (Session.ConnectionLock ignored = this.lockSessionConnection(request.getLobReference().getSession())) {
             LobReference lobRef = request.getLobReference();
             ReadLobContext readLobContext = this.findLobContext(request);
             InputStream inputStream = readLobContext.getInputStream();
@@ -725,60 +1196,25 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                 responseObserver.onCompleted();
                 return;
             }
-            //If the lob length is known the exact size of the next block is also known.
-            boolean exactSizeKnown = readLobContext.getLobLength().isPresent() && readLobContext.getAvailableLength().isPresent();
-            int nextByte = inputStream.read();
-            int nextBlockSize = nextByte == -1 ? 1 : this.nextBlockSize(readLobContext, request.getPosition());
-            byte[] nextBlock = new byte[nextBlockSize];
-            int idx = -1;
-            int currentPos = (int) request.getPosition();
-            boolean nextBlockFullyEmpty = false;
-            while (nextByte != -1) {
-                nextBlock[++idx] = (byte) nextByte;
-                nextBlockFullyEmpty = false;
-                if (idx == nextBlockSize - 1) {
-                    currentPos += (idx + 1);
-                    log.info("Sending block of data size {} pos {}", idx + 1, currentPos);
-                    //Send data to client in limited size blocks to safeguard server memory.
-                    responseObserver.onNext(LobDataBlock.newBuilder()
-                            .setSession(lobRef.getSession())
-                            .setPosition(currentPos)
-                            .setData(ByteString.copyFrom(nextBlock))
-                            .build()
-                    );
-                    nextBlockSize = this.nextBlockSize(readLobContext, currentPos - 1);
-                    if (nextBlockSize > 0) {//Might be a single small block then nextBlockSize will return negative.
-                        nextBlock = new byte[nextBlockSize];
-                    } else {
-                        nextBlock = new byte[0];
+            LobDataBlockReader blockReader = new LobDataBlockReader(lobRef.getSession(), inputStream,
+                    request.getPosition(), this.serverConfiguration.getLobBlockSize(),
+                    readLobContext.getAvailableLength().orElse(-1));
+            //Streams opened for this read are closed once it ends, streams kept in the session are read again.
+            InputStream ownedStream = readLobContext.isSessionStream() ? null : inputStream;
+            if (responseObserver instanceof ServerCallStreamObserver) {
+                this.streamLob(lobRef.getSession(), lobRef.getUuid(), blockReader, ownedStream,
+                        (ServerCallStreamObserver<LobDataBlock>) responseObserver);
+            } else {
+                try {
+                    LobDataBlock block;
+                    while ((block = blockReader.nextBlock()) != null) {
+                        responseObserver.onNext(block);
                     }
-                    nextBlockFullyEmpty = true;
-                    idx = -1;
+                    responseObserver.onCompleted();
+                } finally {
+                    closeLobStream(ownedStream);
                 }
-                nextByte = inputStream.read();
             }
-
-            //Send leftover bytes
-            if (!nextBlockFullyEmpty && nextBlock.length > 0 && nextBlock[0] != -1) {
-
-                byte[] adjustedSizeArray = (idx % MAX_LOB_DATA_BLOCK_SIZE != 0 && !exactSizeKnown) ?
-                        trim(nextBlock) : nextBlock;
-                if (nextByte == -1 && adjustedSizeArray.length == 1 && adjustedSizeArray[0] != nextByte) {
-                    // For cases where the amount of bytes is a multiple of the block size and last read only reads the end of the stream.
-                    adjustedSizeArray = new byte[0];
-                }
-                currentPos = (int) request.getPosition() + idx;
-                log.info("Sending leftover bytes size {} pos {}", idx, currentPos);
-                responseObserver.onNext(LobDataBlock.newBuilder()
-                        .setSession(lobRef.getSession())
-                        .setPosition(currentPos)
-                        .setData(ByteString.copyFrom(adjustedSizeArray))
-                        .build()
-                );
-            }
-
-            responseObserver.onCompleted();
-
         } catch (SQLException se) {
             sendSQLExceptionMetadata(se, responseObserver);
         } catch (Exception e) {
@@ -786,19 +1222,59 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         }
     }
 
-    private byte[] trim(byte[] nextBlock) {
-        int lastBytePos = 0;
-        for (int i = nextBlock.length - 1; i >= 0; i--) {
-            int currentByte = nextBlock[i];
-            if (currentByte != 0) {
-                lastBytePos = i;
-                break;
+    /**
+     * Streams the LOB respecting the client demand, every block is only read from the LOB when the transport is
+     * ready to take it, so memory held per LOB being read stays bounded by one block regardless of how slow the client
+     * is. Like result set blocks, the blocks are read holding the connection lock of the session. The owned stream,
+     * if any, is closed once the LOB is sent, fails or the client cancels.
+     */
+    private void streamLob(SessionInfo session, String lobUUID, LobDataBlockReader blockReader,
+                           InputStream ownedStream, ServerCallStreamObserver<LobDataBlock> responseObserver) {
+        AtomicBoolean finished = new AtomicBoolean(false);
+        responseObserver.setOnCancelHandler(() -> {
+            finished.set(true);
+            log.debug("Client cancelled reading of lob {}", lobUUID);
+            synchronized (blockReader) {
+                closeLobStream(ownedStream);
             }
-        }
+        });
+        Runnable sendWhileReady = () -> {
+            try (Session.ConnectionLock ignored = this.lockSessionConnection(session)) {
+                synchronized (blockReader) {
+                    try {
+                        while (!finished.get() && responseObserver.isReady()) {
+                            LobDataBlock block = blockReader.nextBlock();
+                            if (block == null) {
+                                finished.set(true);
+                                closeLobStream(ownedStream);
+                                responseObserver.onCompleted();
+                            } else {
+                                responseObserver.onNext(block);
+                            }
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        finished.set(true);
+                        closeLobStream(ownedStream);
+                        log.error("Failure reading lob " + lobUUID + ": " + e.getMessage(), e);
+                        sendSQLExceptionMetadata(new SQLException("Unable to read lob: " + e.getMessage(), e),
+                                responseObserver);
+                    }
+                }
+            }
+        };
+        responseObserver.setOnReadyHandler(sendWhileReady);
+        sendWhileReady.run();
+    }
 
-        byte[] trimmedArray = new byte[lastBytePos + 1];
-        System.arraycopy(nextBlock, 0, trimmedArray, 0, lastBytePos + 1);
-        return trimmedArray;
+    private static void closeLobStream(InputStream inputStream) {
+        if (inputStream == null) {
+            return;
+        }
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            log.warn("Failure closing lob stream: {}", e.getMessage());
+        }
     }
 
     @Builder
@@ -806,9 +1282,10 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         @Getter
         private InputStream inputStream;
         @Getter
-        private Optional<Long> lobLength;
-        @Getter
         private Optional<Integer> availableLength;
+        //Set when the stream is kept in the session, so it is not closed once read.
+        @Getter
+        private boolean sessionStream;
     }
 
     @SneakyThrows
@@ -822,18 +1299,17 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                 break;
             }
             case LT_BINARY_STREAM: {
-                readLobContextBuilder.lobLength(Optional.empty());
                 readLobContextBuilder.availableLength(Optional.empty());
                 Object lobObj = sessionManager.getLob(lobReference.getSession(), lobReference.getUuid());
                 if (lobObj instanceof Blob) {
                     inputStream = this.inputStreamFromBlob(sessionManager, lobReference, request, readLobContextBuilder);
                 } else if (lobObj instanceof InputStream) {
                     inputStream = sessionManager.getLob(lobReference.getSession(), lobReference.getUuid());
+                    readLobContextBuilder.sessionStream(true);
                     inputStream.reset();//Might be a second read of the same stream, this guarantees that the position is at the start.
                     if (inputStream instanceof ByteArrayInputStream) {// Only used in SQL Server
                         ByteArrayInputStream bais = (ByteArrayInputStream) inputStream;
                         bais.reset();
-                        readLobContextBuilder.lobLength(Optional.of((long) bais.available()));
                         readLobContextBuilder.availableLength(Optional.of(bais.available()));
                     }
                 }
@@ -855,7 +1331,6 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                                             ReadLobContext.ReadLobContextBuilder readLobContextBuilder) {
         Clob clob = sessionManager.getLob(lobReference.getSession(), lobReference.getUuid());
         long lobLength = clob.length();
-        readLobContextBuilder.lobLength(Optional.of(lobLength));
         int availableLength = (request.getPosition() + request.getLength()) < lobLength ? request.getLength() :
                 (int) (lobLength - request.getPosition() + 1);
         readLobContextBuilder.availableLength(Optional.of(availableLength));
@@ -863,7 +1338,7 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         return ReaderInputStream.builder()
                 .setReader(reader)
                 .setCharset(StandardCharsets.UTF_8)
-                .getInputStream();
+                .get();
     }
 
     @SneakyThrows
@@ -872,43 +1347,21 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                                             ReadLobContext.ReadLobContextBuilder readLobContextBuilder) {
         Blob blob = sessionManager.getLob(lobReference.getSession(), lobReference.getUuid());
         long lobLength = blob.length();
-        readLobContextBuilder.lobLength(Optional.of(lobLength));
         int availableLength = (request.getPosition() + request.getLength()) < lobLength ? request.getLength() :
                 (int) (lobLength - request.getPosition() + 1);
         readLobContextBuilder.availableLength(Optional.of(availableLength));
         return blob.getBinaryStream(request.getPosition(), availableLength);
     }
 
-    private int nextBlockSize(ReadLobContext readLobContext, long position) {
-
-        //BinaryStreams do not have means to know the size of the lob like Blobs or Clobs.
-        if (readLobContext.getAvailableLength().isEmpty() || readLobContext.getLobLength().isEmpty()) {
-            return MAX_LOB_DATA_BLOCK_SIZE;
-        }
-
-        long lobLength = readLobContext.getLobLength().get();
-        int length = readLobContext.getAvailableLength().get();
-
-        //Single read situations
-        int nextBlockSize = Math.min(MAX_LOB_DATA_BLOCK_SIZE, length);
-        if ((int) lobLength == length && position == 1) {
-            return length;
-        }
-        int nextPos = (int) (position + nextBlockSize);
-        if (nextPos > lobLength) {
-            nextBlockSize = Math.toIntExact(nextBlockSize - (nextPos - lobLength));
-        } else if ((position + 1) % length == 0) {
-            nextBlockSize = 0;
-        }
-
-        return nextBlockSize;
-    }
-
     @Override
     public void terminateSession(SessionInfo sessionInfo, StreamObserver<SessionTerminationStatus> responseObserver) {
         try {
             log.info("Terminating session");
-            this.sessionManager.terminateSession(sessionInfo);
+            this.statementHandleRegistry.evictIdleClientsIfDue(
+                    this.serverConfiguration.getStatementHandlesIdleTimeout());
+            try (Session.ConnectionLock ignored = this.lockSessionConnection(sessionInfo)) {
+                this.sessionManager.terminateSession(sessionInfo);
+            }
             responseObserver.onNext(SessionTerminationStatus.newBuilder().setTerminated(true).build());
             responseObserver.onCompleted();
         } catch (SQLException se) {
@@ -927,11 +1380,14 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             //Start a session if none started yet.
             if (StringUtils.isEmpty(sessionInfo.getSessionUUID())) {
                 Connection conn = this.datasourceMap.get(sessionInfo.getConnHash()).getConnection();
-                activeSessionInfo = sessionManager.createSession(sessionInfo.getClientUUID(), conn);
+                activeSessionInfo = sessionManager.createSession(sessionInfo.getClientUUID(), conn,
+                        sessionInfo.getResultSetFormat());
             }
             Connection sessionConnection = sessionManager.getConnection(activeSessionInfo);
             //Start a transaction
-            sessionConnection.setAutoCommit(Boolean.FALSE);
+            try (Session.ConnectionLock ignored = this.lockSessionConnection(activeSessionInfo)) {
+                sessionConnection.setAutoCommit(Boolean.FALSE);
+            }
 
             TransactionInfo transactionInfo = TransactionInfo.newBuilder()
                     .setTransactionStatus(TransactionStatus.TRX_ACTIVE)
@@ -955,7 +1411,11 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         log.info("Commiting transaction");
         try {
             Connection conn = sessionManager.getConnection(sessionInfo);
-            conn.commit();
+            try (Session.ConnectionLock ignored = this.lockSessionConnection(sessionInfo)) {
+                conn.commit();
+            }
+            this.invalidateMetaDataOnTransactionEnd(sessionInfo);
+            this.freeSpilledLobs(sessionInfo);
 
             TransactionInfo transactionInfo = TransactionInfo.newBuilder()
                     .setTransactionStatus(TransactionStatus.TRX_COMMITED)
@@ -979,7 +1439,11 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         log.info("Rollback transaction");
         try {
             Connection conn = sessionManager.getConnection(sessionInfo);
-            conn.rollback();
+            try (Session.ConnectionLock ignored = this.lockSessionConnection(sessionInfo)) {
+                conn.rollback();
+            }
+            this.invalidateMetaDataOnTransactionEnd(sessionInfo);
+            this.freeSpilledLobs(sessionInfo);
 
             TransactionInfo transactionInfo = TransactionInfo.newBuilder()
                     .setTransactionStatus(TransactionStatus.TRX_ROLLBACK)
@@ -1001,157 +1465,414 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
     @Override
     public void callResource(CallResourceRequest request, StreamObserver<CallResourceResponse> responseObserver) {
         try {
-            if (!request.hasSession()) {
-                throw new SQLException("No active session.");
+            CallResourceResponse response;
+            try (Session.ConnectionLock ignored = this.lockSessionConnection(request.getSession())) {
+                response = this.callResourceInternal(request);
             }
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        } catch (SQLException se) {
+            sendSQLExceptionMetadata(se, responseObserver);
+        } catch (Exception e) {
+            sendSQLExceptionMetadata(new SQLException("Unable to call resource: " + e.getMessage(), e), responseObserver);
+        }
+    }
 
-            CallResourceResponse.Builder responseBuilder = CallResourceResponse.newBuilder();
+    /**
+     * Executes the calls in order, each one with the session returned by the previous call, so calls issued in
+     * bursts by the client cost a single round trip. A failing call is reported in its response along with the
+     * session, so a session opened by a previous call is not lost, and the following calls are still executed.
+     */
+    @Override
+    public void callResources(CallResourcesRequest request, StreamObserver<CallResourcesResponse> responseObserver) {
+        try {
+            CallResourcesResponse.Builder responseBuilder = CallResourcesResponse.newBuilder();
+            SessionInfo session = null;
+            for (CallResourceRequest call : request.getCallsList()) {
+                if (session != null) {
+                    call = call.toBuilder().setSession(session).build();
+                }
+                CallResourceResponse.Builder callResponseBuilder = CallResourceResponse.newBuilder();
+                CallResourceResponse response;
+                try (Session.ConnectionLock ignored = this.lockSessionConnection(call.getSession())) {
+                    response = this.callResourceInternal(call, callResponseBuilder);
+                } catch (Exception e) {
+                    SQLException se = e instanceof SQLException ? (SQLException) e :
+                            new SQLException("Unable to call resource: " + e.getMessage(), e);
+                    log.error("Failure calling resource: " + se.getMessage(), se);
+                    //The session is set on the response by the call once it is opened.
+                    response = CallResourceResponse.newBuilder()
+                            .setSession(StringUtils.isNotBlank(callResponseBuilder.getSession().getSessionUUID()) ?
+                                    callResponseBuilder.getSession() : call.getSession())
+                            .setError(toSqlErrorResponse(se, SqlErrorType.SQL_EXCEPTION))
+                            .build();
+                }
+                session = response.getSession();
+                responseBuilder.addResponses(response);
+            }
+            if (session != null) {
+                responseBuilder.setSession(session);
+            }
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            sendSQLExceptionMetadata(new SQLException("Unable to call resource: " + e.getMessage(), e), responseObserver);
+        }
+    }
 
-            if (this.db2SpecialResultSetMetadata(request, responseObserver)) {
-                return;
+    @Override
+    public void getDatabaseMetaDataSnapshot(SessionInfo sessionInfo,
+                                            StreamObserver<DatabaseMetaDataSnapshot> responseObserver) {
+        try {
+            String connHash = sessionInfo.getConnHash();
+            DatabaseMetaDataSnapshot snapshot = this.metaDataSnapshotMap.get(connHash);
+            if (snapshot == null) {
+                snapshot = DatabaseMetaDataSnapshot.newBuilder()
+                        .setValues(ByteString.copyFrom(serialize(this.readMetaDataSnapshot(sessionInfo))))
+                        .build();
+                this.metaDataSnapshotMap.put(connHash, snapshot);
             }
+            responseObserver.onNext(snapshot);
+            responseObserver.onCompleted();
+        } catch (SQLException se) {
+            sendSQLExceptionMetadata(se, responseObserver);
+        } catch (Exception e) {
+            sendSQLExceptionMetadata(new SQLException("Unable to read database metadata: " + e.getMessage(), e),
+                    responseObserver);
+        }
+    }
 
-            Object resource;
-            switch (request.getResourceType()) {
-                case RES_RESULT_SET:
-                    resource = sessionManager.getResultSet(request.getSession(), request.getResourceUUID());
-                    break;
-                case RES_LOB:
-                    resource = sessionManager.getLob(request.getSession(), request.getResourceUUID());
-                    break;
-                case RES_STATEMENT: {
-                    ConnectionSessionDTO csDto = sessionConnection(request.getSession(), true);
-                    responseBuilder.setSession(csDto.getSession());
-                    Statement statement = null;
-                    if (!request.getResourceUUID().isBlank()) {
-                        statement = sessionManager.getStatement(csDto.getSession(), request.getResourceUUID());
-                    } else {
-                        statement = csDto.getConnection().createStatement();
-                        String uuid = sessionManager.registerStatement(csDto.getSession(), statement);
-                        responseBuilder.setResourceUUID(uuid);
-                    }
-                    resource = statement;
-                    break;
-                }
-                case RES_PREPARED_STATEMENT: {
-                    ConnectionSessionDTO csDto = sessionConnection(request.getSession(), true);
-                    responseBuilder.setSession(csDto.getSession());
-                    PreparedStatement ps = null;
-                    if (!request.getResourceUUID().isBlank()) {
-                        ps = sessionManager.getPreparedStatement(request.getSession(), request.getResourceUUID());
-                    } else {
-                        Map<String, Object> mapProperties = EMPTY_MAP;
-                        if (!request.getProperties().isEmpty()) {
-                            mapProperties = deserialize(request.getProperties().toByteArray(), Map.class);
-                        }
-                        ps = csDto.getConnection().prepareStatement((String) mapProperties.get(CommonConstants.PREPARED_STATEMENT_SQL_KEY));
-                        String uuid = sessionManager.registerPreparedStatement(csDto.getSession(), ps);
-                        responseBuilder.setResourceUUID(uuid);
-                    }
-                    resource = ps;
-                    break;
+    /**
+     * Reads the metadata snapshot from the session connection if there is one, otherwise from a connection borrowed
+     * from the datasource so no session is started.
+     */
+    private HashMap<String, Object> readMetaDataSnapshot(SessionInfo sessionInfo) throws SQLException {
+        if (StringUtils.isNotEmpty(sessionInfo.getSessionUUID())) {
+            Connection conn = this.sessionManager.getConnection(sessionInfo);
+            if (conn == null) {
+                throw new SQLException("Connection not found for this sessionInfo");
+            }
+            try (Session.ConnectionLock ignored = this.lockSessionConnection(sessionInfo)) {
+                return DatabaseMetaDataUtils.snapshot(conn.getMetaData());
+            }
+        }
+        HikariDataSource ds = this.datasourceMap.get(sessionInfo.getConnHash());
+        if (ds == null) {
+            throw new SQLException("No datasource found for connection hash " + sessionInfo.getConnHash());
+        }
+        try (Connection conn = ds.getConnection()) {
+            return DatabaseMetaDataUtils.snapshot(conn.getMetaData());
+        }
+    }
+
+    @Override
+    public void readMetaDataResultSet(CallResourceRequest request, StreamObserver<OpResult> responseObserver) {
+        try {
+            if (!request.hasSession()) {
+                throw new SQLException("No active session.");
+            }
+            TargetCall metaDataCall = request.getTarget().getNextCall();
+            SessionInfo session = request.getSession();
+            ResultSetFormat resultSetFormat = this.resultSetFormat(session);
+            MetaDataResultSetCache cache = this.metaDataResultSetCacheMap.computeIfAbsent(session.getConnHash(),
+                    k -> new MetaDataResultSetCache(this.serverConfiguration.getMetadataCacheTtl(),
+                            this.serverConfiguration.getMetadataCacheMaxEntries()));
+            MetaDataResultSetCache.Key key = cache.isEnabled() ? this.metaDataCacheKey(session, resultSetFormat,
+                    metaDataCall) : null;
+            List<OpResult> blocks = null;
+            if (key != null) {
+                blocks = cache.get(key);
+                OjpServerMetrics.recordMetaDataCacheLookup(blocks != null);
+            }
+            if (blocks == null) {
+                long generation = cache.generation();
+                try (Session.ConnectionLock ignored = this.lockSessionConnection(session)) {
+                    ConnectionSessionDTO dto = this.sessionConnection(session, true);
+                    session = dto.getSession();
+                    blocks = this.readMetaDataResultSetBlocks(dto, metaDataCall);
                 }
-                case RES_CALLABLE_STATEMENT:
-                    resource = sessionManager.getCallableStatement(request.getSession(), request.getResourceUUID());
-                    break;
-                case RES_CONNECTION: {
-                    ConnectionSessionDTO csDto = sessionConnection(request.getSession(), true);
-                    responseBuilder.setSession(csDto.getSession());
-                    resource = csDto.getConnection();
-                    break;
+                if (key != null) {
+                    cache.put(key, blocks, generation);
                 }
-                case RES_SAVEPOINT:
-                    resource = sessionManager.getAttr(request.getSession(), request.getResourceUUID());
-                    break;
-                default:
-                    throw new RuntimeException("Resource type invalid");
-            }
-
-            if (responseBuilder.getSession() == null || StringUtils.isBlank(responseBuilder.getSession().getSessionUUID())) {
-                responseBuilder.setSession(request.getSession());
-            }
-
-            List<Object> paramsReceived = (request.getTarget().getParams().size() > 0) ?
-                    deserialize(request.getTarget().getParams().toByteArray(), List.class) : EMPTY_LIST;
-            Class<?> clazz = resource.getClass();
-            if ((paramsReceived != null && paramsReceived.size() > 0) &&
-                    ((CallType.CALL_RELEASE.equals(request.getTarget().getCallType()) &&
-                            "Savepoint".equalsIgnoreCase(request.getTarget().getResourceName())) ||
-                            (CallType.CALL_ROLLBACK.equals(request.getTarget().getCallType()))
-                    )
-            ) {
-                Savepoint savepoint = (Savepoint) this.sessionManager.getAttr(request.getSession(),
-                        (String) paramsReceived.get(0));
-                paramsReceived.set(0, savepoint);
-            }
-            Method method = MethodReflectionUtils.findMethodByName(JavaSqlInterfacesConverter.interfaceClass(clazz),
-                    MethodNameGenerator.methodName(request.getTarget()), paramsReceived);
-            java.lang.reflect.Parameter[] params = method.getParameters();
-            Object resultFirstLevel = null;
-            if (params != null && params.length > 0) {
-                resultFirstLevel = method.invoke(resource, paramsReceived.toArray());
-                if (resultFirstLevel instanceof CallableStatement) {
-                    CallableStatement cs = (CallableStatement) resultFirstLevel;
-                    resultFirstLevel = this.sessionManager.registerCallableStatement(responseBuilder.getSession(), cs);
+            }
+            for (OpResult block : blocks) {
+                responseObserver.onNext(block.toBuilder().setSession(session).build());
+            }
+            responseObserver.onCompleted();
+        } catch (SQLException se) {
+            sendSQLExceptionMetadata(se, responseObserver);
+        } catch (Exception e) {
+            sendSQLExceptionMetadata(new SQLException("Unable to read metadata: " + e.getMessage(), e),
+                    responseObserver);
+        }
+    }
+
+    /**
+     * Key of a catalog call in the metadata cache. Without a session the call runs on a pooled connection, which the
+     * pool hands out with the default catalog and schema, those are keyed as null.
+     *
+     * @return the key or null if the current catalog or schema of the session connection can not be read, in which
+     * case the call is not cached
+     */
+    private MetaDataResultSetCache.Key metaDataCacheKey(SessionInfo session, ResultSetFormat resultSetFormat,
+                                                        TargetCall metaDataCall) {
+        if (StringUtils.isEmpty(session.getSessionUUID())) {
+            return new MetaDataResultSetCache.Key(resultSetFormat, metaDataCall, null, null);
+        }
+        try {
+            Connection conn = this.sessionManager.getConnection(session);
+            if (conn == null) {
+                return null;
+            }
+            return new MetaDataResultSetCache.Key(resultSetFormat, metaDataCall, conn.getCatalog(), conn.getSchema());
+        } catch (Exception | AbstractMethodError e) {
+            log.debug("Unable to read the current catalog and schema, not caching the metadata call: {}",
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the whole result set of a DatabaseMetaData call in blocks. The blocks carry no result set UUID, the
+     * result set is closed once read so the client never refers to it.
+     */
+    private List<OpResult> readMetaDataResultSetBlocks(ConnectionSessionDTO dto, TargetCall metaDataCall)
+            throws Exception {
+        List<Object> params = (metaDataCall.getParams().size() > 0) ?
+                deserialize(metaDataCall.getParams().toByteArray(), List.class) : EMPTY_LIST;
+        DispatchedMethod method = MethodDispatchCache.findMethod(java.sql.DatabaseMetaData.class,
+                MethodNameGenerator.methodName(metaDataCall), params);
+        Object result = method.invoke(dto.getConnection().getMetaData(), params);
+        if (!(result instanceof ResultSet)) {
+            throw new SQLException("Metadata call " + metaDataCall.getResourceName() + " does not return a result set");
+        }
+        try (ResultSet rs = (ResultSet) result) {
+            return this.readResultSetBlocks(dto.getSession(), rs);
+        }
+    }
+
+    /**
+     * Reads the whole result set into blocks not bound to any cursor registered in the session, for result sets that
+     * are sent to the client in one go.
+     */
+    private List<OpResult> readResultSetBlocks(SessionInfo session, ResultSet rs) throws SQLException {
+        ResultSetCursor cursor = this.openResultSetCursor(session, EMPTY_STRING, rs, 0, true);
+        List<OpResult> blocks = new ArrayList<>();
+        while (this.sendNextResultSetBlock(cursor, blocks::add)) {
+            //Keep reading blocks until the cursor is exhausted.
+        }
+        return blocks;
+    }
+
+    /**
+     * Sends the generated keys with the update count, sparing the client the round trips to fetch them. If they
+     * cannot be read inline the client still fetches them from the statement.
+     */
+    private void addGeneratedKeys(OpResult.Builder opResultBuilder, SessionInfo session, Statement stmt) {
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            opResultBuilder.addAllGeneratedKeys(this.readResultSetBlocks(session, rs));
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Generated keys not sent with the update count: {}", e.getMessage());
+            opResultBuilder.clearGeneratedKeys();
+        }
+    }
+
+    /**
+     * DDL might change the catalog, the cached catalog result sets of the datasource are dropped. Until the session
+     * running it ends its transaction, other sessions might still cache the catalog as it was, so they are dropped
+     * again then.
+     */
+    private void invalidateMetaDataOnDdl(SessionInfo sessionInfo, String sql) {
+        if (MetaDataResultSetCache.isDdl(sql)) {
+            this.invalidateMetaData(sessionInfo.getConnHash());
+            if (StringUtils.isNotBlank(sessionInfo.getSessionUUID())) {
+                this.sessionManager.registerAttr(sessionInfo, DDL_EXECUTED_ATTR, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Drops the cached catalog result sets again if the session ran DDL in the transaction just ended.
+     */
+    private void invalidateMetaDataOnTransactionEnd(SessionInfo sessionInfo) {
+        Session session = StringUtils.isBlank(sessionInfo.getSessionUUID()) ? null :
+                this.sessionManager.getSession(sessionInfo);
+        if (session != null && Boolean.TRUE.equals(session.getAttr(DDL_EXECUTED_ATTR))) {
+            session.addAttr(DDL_EXECUTED_ATTR, Boolean.FALSE);
+            this.invalidateMetaData(session.getConnectionHash());
+        }
+    }
+
+    private void invalidateMetaData(String connHash) {
+        MetaDataResultSetCache cache = this.metaDataResultSetCacheMap.get(connHash);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    private CallResourceResponse callResourceInternal(CallResourceRequest request) throws Exception {
+        return this.callResourceInternal(request, CallResourceResponse.newBuilder());
+    }
+
+    private CallResourceResponse callResourceInternal(CallResourceRequest request,
+                                                      CallResourceResponse.Builder responseBuilder) throws Exception {
+        if (!request.hasSession()) {
+            throw new SQLException("No active session.");
+        }
+
+        CallResourceResponse db2MetadataResponse = this.db2SpecialResultSetMetadata(request);
+        if (db2MetadataResponse != null) {
+            return db2MetadataResponse;
+        }
+
+        Object resource;
+        switch (request.getResourceType()) {
+            case RES_RESULT_SET:
+                if (CallType.CALL_CLOSE.equals(request.getTarget().getCallType())) {
+                    this.stopResultSetStream(request.getResourceUUID());
                 }
-            } else {
-                resultFirstLevel = method.invoke(resource);
-                if (resultFirstLevel instanceof ResultSet) {
-                    ResultSet rs = (ResultSet) resultFirstLevel;
-                    resultFirstLevel = this.sessionManager.registerResultSet(responseBuilder.getSession(), rs);
-                } else if (resultFirstLevel instanceof Array) {
-                    Array array = (Array) resultFirstLevel;
-                    String arrayUUID = UUID.randomUUID().toString();
-                    this.sessionManager.registerAttr(responseBuilder.getSession(), arrayUUID, array);
-                    resultFirstLevel = arrayUUID;
+                resource = sessionManager.getResultSet(request.getSession(), request.getResourceUUID());
+                break;
+            case RES_LOB:
+                resource = sessionManager.getLob(request.getSession(), request.getResourceUUID());
+                break;
+            case RES_STATEMENT: {
+                ConnectionSessionDTO csDto = sessionConnection(request.getSession(), true);
+                responseBuilder.setSession(csDto.getSession());
+                Statement statement = null;
+                if (!request.getResourceUUID().isBlank()) {
+                    statement = sessionManager.getStatement(csDto.getSession(), request.getResourceUUID());
+                } else {
+                    statement = csDto.getConnection().createStatement();
+                    String uuid = sessionManager.registerStatement(csDto.getSession(), statement);
+                    responseBuilder.setResourceUUID(uuid);
                 }
+                resource = statement;
+                break;
             }
-            if (resultFirstLevel instanceof Savepoint) {
-                Savepoint sp = (Savepoint) resultFirstLevel;
-                String uuid = UUID.randomUUID().toString();
-                resultFirstLevel = uuid;
-                this.sessionManager.registerAttr(responseBuilder.getSession(), uuid, sp);
-            }
-            if (request.getTarget().hasNextCall()) {
-                //Second level calls, for cases like getMetadata().isAutoIncrement(int column)
-                Class<?> clazzNext = resultFirstLevel.getClass();
-                List<Object> paramsReceived2 = (request.getTarget().getNextCall().getParams().size() > 0) ?
-                        deserialize(request.getTarget().getNextCall().getParams().toByteArray(), List.class) :
-                        EMPTY_LIST;
-                Method methodNext = MethodReflectionUtils.findMethodByName(JavaSqlInterfacesConverter.interfaceClass(clazzNext),
-                        MethodNameGenerator.methodName(request.getTarget().getNextCall()),
-                        paramsReceived2);
-                params = methodNext.getParameters();
-                Object resultSecondLevel = null;
-                if (params != null && params.length > 0) {
-                    resultSecondLevel = methodNext.invoke(resultFirstLevel, paramsReceived2.toArray());
+            case RES_PREPARED_STATEMENT: {
+                ConnectionSessionDTO csDto = sessionConnection(request.getSession(), true);
+                responseBuilder.setSession(csDto.getSession());
+                PreparedStatement ps = null;
+                if (!request.getResourceUUID().isBlank()) {
+                    ps = sessionManager.getPreparedStatement(request.getSession(), request.getResourceUUID());
                 } else {
-                    resultSecondLevel = methodNext.invoke(resultFirstLevel);
-                }
-                if (resultSecondLevel instanceof ResultSet) {
-                    ResultSet rs = (ResultSet) resultSecondLevel;
-                    resultSecondLevel = this.sessionManager.registerResultSet(responseBuilder.getSession(), rs);
+                    Map<String, Object> mapProperties = EMPTY_MAP;
+                    if (!request.getProperties().isEmpty()) {
+                        mapProperties = deserialize(request.getProperties().toByteArray(), Map.class);
+                    }
+                    ps = csDto.getConnection().prepareStatement((String) mapProperties.get(CommonConstants.PREPARED_STATEMENT_SQL_KEY));
+                    String uuid = sessionManager.registerPreparedStatement(csDto.getSession(), ps);
+                    responseBuilder.setResourceUUID(uuid);
                 }
-                responseBuilder.setValues(ByteString.copyFrom(serialize(resultSecondLevel)));
-            } else {
-                responseBuilder.setValues(ByteString.copyFrom(serialize(resultFirstLevel)));
+                resource = ps;
+                break;
             }
+            case RES_CALLABLE_STATEMENT:
+                resource = sessionManager.getCallableStatement(request.getSession(), request.getResourceUUID());
+                break;
+            case RES_CONNECTION: {
+                ConnectionSessionDTO csDto = sessionConnection(request.getSession(), true);
+                responseBuilder.setSession(csDto.getSession());
+                resource = csDto.getConnection();
+                break;
+            }
+            case RES_SAVEPOINT:
+                resource = sessionManager.getAttr(request.getSession(), request.getResourceUUID());
+                break;
+            default:
+                throw new RuntimeException("Resource type invalid");
+        }
 
-            responseObserver.onNext(responseBuilder.build());
-            responseObserver.onCompleted();
-        } catch (SQLException se) {
-            sendSQLExceptionMetadata(se, responseObserver);
-        } catch (InvocationTargetException e) {
-            if (e.getTargetException() instanceof SQLException) {
-                SQLException sqlException = (SQLException) e.getTargetException();
-                sendSQLExceptionMetadata(sqlException, responseObserver);
-            } else {
-                sendSQLExceptionMetadata(new SQLException("Unable to call resource: " + e.getTargetException().getMessage()),
-                        responseObserver);
+        if (responseBuilder.getSession() == null || StringUtils.isBlank(responseBuilder.getSession().getSessionUUID())) {
+            responseBuilder.setSession(request.getSession());
+        }
+
+        List<Object> paramsReceived = (request.getTarget().getParams().size() > 0) ?
+                deserialize(request.getTarget().getParams().toByteArray(), List.class) : EMPTY_LIST;
+        Class<?> clazz = resource.getClass();
+        if ((paramsReceived != null && paramsReceived.size() > 0) &&
+                ((CallType.CALL_RELEASE.equals(request.getTarget().getCallType()) &&
+                        "Savepoint".equalsIgnoreCase(request.getTarget().getResourceName())) ||
+                        (CallType.CALL_ROLLBACK.equals(request.getTarget().getCallType()))
+                )
+        ) {
+            Savepoint savepoint = (Savepoint) this.sessionManager.getAttr(request.getSession(),
+                    (String) paramsReceived.get(0));
+            paramsReceived.set(0, savepoint);
+        }
+        DispatchedMethod method = MethodDispatchCache.findMethod(JavaSqlInterfacesConverter.interfaceClass(clazz),
+                MethodNameGenerator.methodName(request.getTarget()), paramsReceived);
+        Object resultFirstLevel = null;
+        if (method.hasParameters()) {
+            resultFirstLevel = method.invoke(resource, paramsReceived);
+            if (ResourceType.RES_STATEMENT.equals(request.getResourceType()) &&
+                    paramsReceived.get(0) instanceof String) {
+                //Statements added to a batch invalidate the cache when added, before the batch runs.
+                this.invalidateMetaDataOnDdl(request.getSession(), (String) paramsReceived.get(0));
+            }
+            if (resultFirstLevel instanceof CallableStatement) {
+                CallableStatement cs = (CallableStatement) resultFirstLevel;
+                resultFirstLevel = this.sessionManager.registerCallableStatement(responseBuilder.getSession(), cs);
+            }
+        } else {
+            resultFirstLevel = method.invoke(resource, paramsReceived);
+            if (ResourceType.RES_RESULT_SET.equals(request.getResourceType()) &&
+                    CallType.CALL_CLOSE.equals(request.getTarget().getCallType())) {
+                PreparedStatementCache statementCache = this.preparedStatementCache(request.getSession());
+                if (statementCache != null) {
+                    statementCache.closeRetired();
+                }
+            }
+            if (resultFirstLevel instanceof ResultSet) {
+                ResultSet rs = (ResultSet) resultFirstLevel;
+                resultFirstLevel = this.sessionManager.registerResultSet(responseBuilder.getSession(), rs);
+            } else if (resultFirstLevel instanceof Array) {
+                Array array = (Array) resultFirstLevel;
+                String arrayUUID = UUID.randomUUID().toString();
+                this.sessionManager.registerAttr(responseBuilder.getSession(), arrayUUID, array);
+                resultFirstLevel = arrayUUID;
+            }
+        }
+        if (ResourceType.RES_CALLABLE_STATEMENT.equals(request.getResourceType()) &&
+                CallType.CALL_EXECUTE.equals(request.getTarget().getCallType()) && !request.getProperties().isEmpty() &&
+                !Boolean.TRUE.equals(resultFirstLevel)) {
+            //Out parameters are only read when no result set is pending, reading them might close it otherwise.
+            Map<String, Object> properties = deserialize(request.getProperties().toByteArray(), Map.class);
+            List<Integer> outParameters = (List<Integer>) properties.get(
+                    CommonConstants.CALLABLE_STATEMENT_OUT_PARAMETERS_KEY);
+            if (outParameters != null) {
+                responseBuilder.setOutParameters(ByteString.copyFrom(serialize(
+                        CallableStatementUtils.readOutParameters((CallableStatement) resource, outParameters))));
             }
-        } catch (Exception e) {
-            sendSQLExceptionMetadata(new SQLException("Unable to call resource: " + e.getMessage(), e), responseObserver);
         }
+        if (resultFirstLevel instanceof Savepoint) {
+            Savepoint sp = (Savepoint) resultFirstLevel;
+            String uuid = UUID.randomUUID().toString();
+            resultFirstLevel = uuid;
+            this.sessionManager.registerAttr(responseBuilder.getSession(), uuid, sp);
+        }
+        if (request.getTarget().hasNextCall()) {
+            //Second level calls, for cases like getMetadata().isAutoIncrement(int column)
+            Class<?> clazzNext = resultFirstLevel.getClass();
+            List<Object> paramsReceived2 = (request.getTarget().getNextCall().getParams().size() > 0) ?
+                    deserialize(request.getTarget().getNextCall().getParams().toByteArray(), List.class) :
+                    EMPTY_LIST;
+            DispatchedMethod methodNext = MethodDispatchCache.findMethod(
+                    JavaSqlInterfacesConverter.interfaceClass(clazzNext),
+                    MethodNameGenerator.methodName(request.getTarget().getNextCall()),
+                    paramsReceived2);
+            Object resultSecondLevel = methodNext.invoke(resultFirstLevel, paramsReceived2);
+            if (resultSecondLevel instanceof ResultSet) {
+                ResultSet rs = (ResultSet) resultSecondLevel;
+                resultSecondLevel = this.sessionManager.registerResultSet(responseBuilder.getSession(), rs);
+            }
+            responseBuilder.setValues(ByteString.copyFrom(serialize(resultSecondLevel)));
+        } else {
+            responseBuilder.setValues(ByteString.copyFrom(serialize(resultFirstLevel)));
+        }
+
+        return responseBuilder.build();
     }
 
     /**
@@ -1159,12 +1880,11 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
      * attribute and has to be read in a special manner treated in this method.
      *
      * @param request
-     * @param responseObserver
-     * @return boolean
+     * @return the response or null if the request is not a DB2 result set metadata call
      * @throws SQLException
      */
     @SneakyThrows
-    private boolean db2SpecialResultSetMetadata(CallResourceRequest request, StreamObserver<CallResourceResponse> responseObserver) throws SQLException {
+    private CallResourceResponse db2SpecialResultSetMetadata(CallResourceRequest request) throws SQLException {
         if (DbName.DB2.equals(this.dbNameMap.get(request.getSession().getConnHash())) &&
                 ResourceType.RES_RESULT_SET.equals(request.getResourceType()) &&
                 CallType.CALL_GET.equals(request.getTarget().getCallType()) &&
@@ -1174,18 +1894,16 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             List<Object> paramsReceived = (request.getTarget().getNextCall().getParams().size() > 0) ?
                     deserialize(request.getTarget().getNextCall().getParams().toByteArray(), List.class) :
                     EMPTY_LIST;
-            Method methodNext = MethodReflectionUtils.findMethodByName(ResultSetMetaData.class,
+            DispatchedMethod methodNext = MethodDispatchCache.findMethod(ResultSetMetaData.class,
                     MethodNameGenerator.methodName(request.getTarget().getNextCall()),
                     paramsReceived);
-            Object metadataResult = methodNext.invoke(resultSetMetaData, paramsReceived.toArray());
-            responseObserver.onNext(CallResourceResponse.newBuilder()
+            Object metadataResult = methodNext.invoke(resultSetMetaData, paramsReceived);
+            return CallResourceResponse.newBuilder()
                     .setSession(request.getSession())
                     .setValues(ByteString.copyFrom(serialize(metadataResult)))
-                    .build());
-            responseObserver.onCompleted();
-            return true;
+                    .build();
         }
-        return false;
+        return null;
     }
 
     /**
@@ -1242,7 +1960,8 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
                 }
                 
                 if (startSessionIfNone) {
-                    SessionInfo updatedSession = this.sessionManager.createSession(sessionInfo.getClientUUID(), conn);
+                    SessionInfo updatedSession = this.sessionManager.createSession(sessionInfo.getClientUUID(), conn,
+                            sessionInfo.getResultSetFormat());
                     dtoBuilder.session(updatedSession);
                 }
             }
@@ -1252,128 +1971,313 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
         return dtoBuilder.build();
     }
 
-    private void handleResultSet(SessionInfo session, String resultSetUUID, StreamObserver<OpResult> responseObserver)
-            throws SQLException {
-        ResultSet rs = this.sessionManager.getResultSet(session, resultSetUUID);
-        OpQueryResult.OpQueryResultBuilder queryResultBuilder = OpQueryResult.builder();
-        int columnCount = rs.getMetaData().getColumnCount();
-        List<String> labels = new ArrayList<>();
+    /**
+     * Gets the prepared statement cache of the session connection.
+     *
+     * @return the cache or null if there is no session or the cache is disabled
+     */
+    private PreparedStatementCache preparedStatementCache(SessionInfo sessionInfo) {
+        int cacheSize = this.serverConfiguration.getPreparedStatementCacheSize();
+        if (cacheSize <= 0 || sessionInfo == null || StringUtils.isBlank(sessionInfo.getSessionUUID())) {
+            return null;
+        }
+        Session session = this.sessionManager.getSession(sessionInfo);
+        return session != null ? session.getPreparedStatementCache(cacheSize) : null;
+    }
+
+    /**
+     * Gets the physical connection behind a connection borrowed from the pool outside of a session, and makes sure it
+     * has a prepared statement cache. Statements are prepared on the physical connection as the pool closes the ones
+     * prepared through its proxy when the connection is returned.
+     *
+     * @return the connection to prepare cached statements on or null if the cache is disabled or the connection is
+     * not pooled
+     */
+    private ConnectionSessionDTO pooledStatementConnection(ConnectionSessionDTO dto) throws SQLException {
+        int cacheSize = this.serverConfiguration.getPreparedStatementCacheSize();
+        if (cacheSize <= 0) {
+            return null;
+        }
+        Connection physical = dto.getConnection().unwrap(Connection.class);
+        if (physical == null || physical == dto.getConnection()) {
+            return null;
+        }
+        if (!this.pooledStatementCaches.containsKey(physical)) {
+            //New physical connections are rare, drop the caches of the ones closed by the pool meanwhile.
+            this.pooledStatementCaches.keySet().removeIf(conn -> {
+                try {
+                    return conn.isClosed();
+                } catch (SQLException e) {
+                    return true;
+                }
+            });
+            this.pooledStatementCaches.computeIfAbsent(physical, conn -> new PreparedStatementCache(cacheSize));
+        }
+        return ConnectionSessionDTO.builder()
+                .connection(physical)
+                .session(dto.getSession())
+                .dbName(dto.getDbName())
+                .build();
+    }
+
+    private void handleResultSet(SessionInfo session, String resultSetUUID, int fetchSize, boolean sendColumnMetadata,
+                                 StreamObserver<OpResult> responseObserver) throws SQLException {
+        ResultSetCursor cursor = this.openResultSetCursor(session, resultSetUUID, fetchSize, sendColumnMetadata);
+        while (this.sendNextResultSetBlock(cursor, responseObserver::onNext)) {
+            //Keep sending blocks until the cursor is exhausted.
+        }
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Streams the result set respecting the client demand: the first block is sent straight away, every further
+     * block is only read from the database cursor when the transport is ready to take it, so memory held per open
+     * cursor stays bounded by one block regardless of how slow the client is. Blocks sent after this method returns
+     * hold the connection lock of the session, so they never use the connection along with the client calls.
+     *
+     * @param onEnd Called once the stream ended, with the failure if sending a block failed, unless this method throws
+     */
+    private void streamResultSet(SessionInfo session, String resultSetUUID, int fetchSize,
+                                 ServerCallStreamObserver<OpResult> responseObserver,
+                                 Consumer<SQLException> onEnd) throws SQLException {
+        ResultSetCursor cursor = this.openResultSetCursor(session, resultSetUUID, fetchSize, true);
+        if (!this.sendNextResultSetBlock(cursor, responseObserver::onNext)) {
+            responseObserver.onCompleted();
+            onEnd.accept(null);
+            return;
+        }
+        AtomicBoolean finished = new AtomicBoolean(false);
+        //Called holding the cursor, ends the stream once whether fully sent, failed, cancelled or closed.
+        Consumer<SQLException> finish = failure -> {
+            if (!finished.getAndSet(true)) {
+                this.resultSetStreamStoppers.remove(resultSetUUID);
+                onEnd.accept(failure);
+            }
+        };
+        Runnable stop = () -> {
+            synchronized (cursor) {
+                if (!finished.get()) {
+                    log.debug("Result set {} closed while streaming", resultSetUUID);
+                    responseObserver.onCompleted();
+                    finish.accept(null);
+                }
+            }
+        };
+        this.resultSetStreamStoppers.put(resultSetUUID, stop);
+        responseObserver.setOnCancelHandler(() -> {
+            synchronized (cursor) {
+                log.debug("Client cancelled streaming of result set {}", resultSetUUID);
+                finish.accept(null);
+            }
+        });
+        Runnable sendWhileReady = () -> {
+            try (Session.ConnectionLock ignored = this.lockSessionConnection(session)) {
+                synchronized (cursor) {
+                    try {
+                        while (!finished.get() && responseObserver.isReady()) {
+                            if (!this.sendNextResultSetBlock(cursor, responseObserver::onNext)) {
+                                responseObserver.onCompleted();
+                                finish.accept(null);
+                            }
+                        }
+                    } catch (SQLException e) {
+                        log.error("Failure streaming result set " + resultSetUUID + ": " + e.getMessage(), e);
+                        sendSQLExceptionMetadata(e, responseObserver);
+                        finish.accept(e);
+                    } catch (RuntimeException e) {
+                        log.error("Unexpected failure streaming result set " + resultSetUUID + ": " + e.getMessage(),
+                                e);
+                        SQLException sqlException = new SQLException("Unexpected error: " + e.getMessage(), e);
+                        sendSQLExceptionMetadata(sqlException, responseObserver);
+                        finish.accept(sqlException);
+                    }
+                }
+            }
+        };
+        responseObserver.setOnReadyHandler(sendWhileReady);
+        sendWhileReady.run();
+    }
+
+    /**
+     * Completes the streaming of the result set if it is still being streamed, so closing a result set not fully
+     * read stops reading its cursor. Waits for the block being sent, if any, before the result set is closed.
+     */
+    private void stopResultSetStream(String resultSetUUID) {
+        Runnable stop = this.resultSetStreamStoppers.remove(resultSetUUID);
+        if (stop != null) {
+            stop.run();
+        }
+    }
+
+    /**
+     * Locks the connection of the session, if there is one, so the client calls and the blocks streamed in the
+     * background use it one at a time.
+     */
+    private Session.ConnectionLock lockSessionConnection(SessionInfo sessionInfo) {
+        if (sessionInfo == null || StringUtils.isBlank(sessionInfo.getSessionUUID())) {
+            return NO_CONNECTION_LOCK;
+        }
+        Session session = this.sessionManager.getSession(sessionInfo);
+        return session != null ? session.lockConnection() : NO_CONNECTION_LOCK;
+    }
+
+    /**
+     * Frees the LOBs spilled in the transaction ended, so the spill file is emptied once they are not read anymore.
+     */
+    private void freeSpilledLobs(SessionInfo sessionInfo) {
+        Session session = this.sessionManager.getSession(sessionInfo);
+        if (session != null) {
+            session.freeSpilledLobs();
+        }
+    }
+
+    /**
+     * Opens the cursor used to send the result set in blocks. A positive fetch size fixes the rows per block,
+     * otherwise blocks are sized by the configured target block bytes. When requested, and the client takes protobuf
+     * blocks, the full column metadata is sent with the first block so the driver answers {@code getMetaData()}
+     * without further round trips.
+     */
+    private ResultSetCursor openResultSetCursor(SessionInfo session, String resultSetUUID, int fetchSize,
+                                                boolean sendColumnMetadata) throws SQLException {
+        return this.openResultSetCursor(session, resultSetUUID, this.sessionManager.getResultSet(session, resultSetUUID),
+                fetchSize, sendColumnMetadata);
+    }
+
+    private ResultSetCursor openResultSetCursor(SessionInfo session, String resultSetUUID, ResultSet rs,
+                                                int fetchSize, boolean sendColumnMetadata) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        List<String> labels = new ArrayList<>(columnCount);
         for (int i = 0; i < columnCount; i++) {
-            labels.add(rs.getMetaData().getColumnName(i + 1));
+            labels.add(metaData.getColumnName(i + 1));
+        }
+        DbName dbName = this.dbNameMap.get(session.getConnHash());
+        if (dbName == null) {
+            dbName = DatabaseUtils.resolveDbName(rs.getStatement().getConnection().getMetaData().getURL());
+        }
+        ResultSetFormat resultSetFormat = this.resultSetFormat(session);
+        List<ColumnMetadata> columnMetadata = null;
+        if (sendColumnMetadata && !ResultSetFormat.RSF_JAVA_SERIALIZATION.equals(resultSetFormat)) {
+            columnMetadata = this.encodeColumnMetadata(metaData);
+        }
+        return ResultSetCursor.builder()
+                .session(session)
+                .resultSetUUID(resultSetUUID)
+                .resultSet(rs)
+                .columnReaderPlan(ColumnReaderPlan.create(this.sessionManager, session, metaData, dbName,
+                        this.dbNameMap, INPUT_STREAM_TYPES, LobSpillTarget.builder()
+                                .threshold(this.serverConfiguration.getLobSpillThreshold())
+                                .quota(this.getLobSpillQuota())
+                                .build()))
+                .labels(labels)
+                .columnMetadata(columnMetadata)
+                .dbName(dbName)
+                .resultSetFormat(resultSetFormat)
+                .fetchSize(fetchSize)
+                .targetBlockBytes(this.serverConfiguration.getResultSetTargetBlockBytes())
+                .maxRowsPerBlock(this.serverConfiguration.getResultSetMaxRowsPerBlock())
+                .build();
+    }
+
+    /**
+     * Some drivers do not support every metadata getter, in which case no metadata is sent and the client falls back
+     * to ask the server for each attribute.
+     */
+    private List<ColumnMetadata> encodeColumnMetadata(ResultSetMetaData metaData) {
+        try {
+            return ResultSetMetadataCodec.encode(metaData);
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Result set metadata not sent with the first block: {}", e.getMessage());
+            return null;
         }
-        queryResultBuilder.labels(labels);
+    }
 
+    /**
+     * Reads the next block of rows from the cursor and sends it. The first block is always sent, even if empty, as
+     * it carries the labels, later blocks are only sent if they have rows. The block ends when it reaches the fetch
+     * size requested by the client, when the estimated size of its values reaches the target block bytes, which
+     * keeps blocks of wide rows within the message size limits, or when the max rows per block is reached.
+     *
+     * @return true if the cursor might have more rows to be sent.
+     */
+    private boolean sendNextResultSetBlock(ResultSetCursor cursor, Consumer<OpResult> blockConsumer)
+            throws SQLException {
+        SessionInfo session = cursor.getSession();
+        String resultSetUUID = cursor.getResultSetUUID();
+        ResultSet rs = cursor.getResultSet();
+        ColumnReaderPlan columnReaderPlan = cursor.getColumnReaderPlan();
+        DbName dbName = cursor.getDbName();
+        OpQueryResult.OpQueryResultBuilder queryResultBuilder = OpQueryResult.builder();
+        if (!cursor.isFirstBlockSent()) {
+            queryResultBuilder.labels(cursor.getLabels());
+        }
         List<Object[]> results = new ArrayList<>();
-        int row = 0;
-        boolean justSent = false;
-        DbName dbName = DatabaseUtils.resolveDbName(rs.getStatement().getConnection().getMetaData().getURL());
-        //Only used if result set contains LOBs in SQL Server and DB2 (if LOB's present), so cursor is not read in advance,
-        // every row has to be requested by the jdbc client.
-        String resultSetMode = "";
-        boolean resultSetMetadataCollected = false;
+        boolean moreRows = false;
+        long blockBytes = 0;
+        int blockRowLimit = cursor.getFetchSize() > 0 ? cursor.getFetchSize() : cursor.getMaxRowsPerBlock();
 
         forEachRow:
         while (rs.next()) {
-            if (DbName.DB2.equals(dbName) && !resultSetMetadataCollected) {
+            if (DbName.DB2.equals(dbName) && !cursor.isResultSetMetadataCollected()) {
                 this.collectResultSetMetadata(session, resultSetUUID, rs);
+                cursor.setResultSetMetadataCollected(true);
             }
-            justSent = false;
-            row++;
-            Object[] rowValues = new Object[columnCount];
-            for (int i = 0; i < columnCount; i++) {
-                int colType = rs.getMetaData().getColumnType(i + 1);
-                String colTypeName = rs.getMetaData().getColumnTypeName(i + 1);
-                Object currentValue = null;
-                //Postgres uses type BYTEA which translates to type VARBINARY
-                switch (colType) {
-                    case Types.VARBINARY: {
-                        if (DbName.SQL_SERVER.equals(dbName) || DbName.DB2.equals(dbName)) {
-                            resultSetMode = CommonConstants.RESULT_SET_ROW_BY_ROW_MODE;
-                        }
-                        if ("BLOB".equalsIgnoreCase(colTypeName)) {
-                            currentValue = LobProcessor.treatAsBlob(sessionManager, session, rs, i, dbNameMap);
-                        } else {
-                            currentValue = LobProcessor.treatAsBinary(sessionManager, session, dbName, rs, i, INPUT_STREAM_TYPES);
-                        }
-                        break;
-                    }
-                    case Types.BLOB, Types.LONGVARBINARY: {
-                        if (DbName.SQL_SERVER.equals(dbName) || DbName.DB2.equals(dbName)) {
-                            resultSetMode = CommonConstants.RESULT_SET_ROW_BY_ROW_MODE;
-                        }
-                        currentValue = LobProcessor.treatAsBlob(sessionManager, session, rs, i, dbNameMap);
-                        break;
-                    }
-                    case Types.CLOB: {
-                        if (DbName.SQL_SERVER.equals(dbName) || DbName.DB2.equals(dbName)) {
-                            resultSetMode = CommonConstants.RESULT_SET_ROW_BY_ROW_MODE;
-                        }
-                        Clob clob = rs.getClob(i + 1);
-                        if (clob == null) {
-                            currentValue = null;
-                        } else {
-                            String clobUUID = UUID.randomUUID().toString();
-                            //CLOB needs to be prefixed as per it can be read in the JDBC driver by getString method and it would be valid to return just a UUID as string
-                            currentValue = CommonConstants.OJP_CLOB_PREFIX + clobUUID;
-                            this.sessionManager.registerLob(session, clob, clobUUID);
-                        }
-                        break;
-                    }
-                    case Types.BINARY: {
-                        if (DbName.SQL_SERVER.equals(dbName) || DbName.DB2.equals(dbName)) {
-                            resultSetMode = CommonConstants.RESULT_SET_ROW_BY_ROW_MODE;
-                        }
-                        currentValue = LobProcessor.treatAsBinary(sessionManager, session, dbName, rs, i, INPUT_STREAM_TYPES);
-                        break;
-                    }
-                    case Types.DATE: {
-                        Date date = rs.getDate(i + 1);
-                        if ("YEAR".equalsIgnoreCase(colTypeName)) {
-                            currentValue = date.toLocalDate().getYear();
-                        } else {
-                            currentValue = date;
-                        }
-                        break;
-                    }
-                    case Types.TIMESTAMP: {
-                        currentValue = rs.getTimestamp(i + 1);
-                        break;
-                    }
-                    default: {
-                        currentValue = rs.getObject(i + 1);
-                        //com.microsoft.sqlserver.jdbc.DateTimeOffset special case as per it does not implement any standar java.sql interface.
-                        if ("datetimeoffset".equalsIgnoreCase(colTypeName) && colType == -155) {
-                            currentValue = DateTimeUtils.extractOffsetDateTime(currentValue);
-                        }
-                        break;
-                    }
-                }
-                rowValues[i] = currentValue;
-
+            if (columnReaderPlan.isRowByRow()) {
+                cursor.setResultSetMode(CommonConstants.RESULT_SET_ROW_BY_ROW_MODE);
+            }
+            Object[] rowValues = columnReaderPlan.readRow(rs);
+            for (Object value : rowValues) {
+                blockBytes += ResultSetWrapper.estimateSize(value);
             }
             results.add(rowValues);
 
+            //Only used if result set contains LOBs in SQL Server and DB2 (if LOB's present), so cursor is not read in advance,
+            // every row has to be requested by the jdbc client.
             if ((DbName.DB2.equals(dbName) || DbName.SQL_SERVER.equals(dbName))
-                    && CommonConstants.RESULT_SET_ROW_BY_ROW_MODE.equalsIgnoreCase(resultSetMode)) {
+                    && CommonConstants.RESULT_SET_ROW_BY_ROW_MODE.equalsIgnoreCase(cursor.getResultSetMode())) {
                 break forEachRow;
             }
 
-            if (row % CommonConstants.ROWS_PER_RESULT_SET_DATA_BLOCK == 0) {
-                justSent = true;
-                //Send a block of records
-                responseObserver.onNext(ResultSetWrapper.wrapResults(session, results, queryResultBuilder, resultSetUUID, resultSetMode));
-                queryResultBuilder = OpQueryResult.builder();// Recreate the builder to not send labels in every block.
-                results = new ArrayList<>();
+            if (results.size() >= blockRowLimit || blockBytes >= cursor.getTargetBlockBytes()) {
+                moreRows = true;
+                break forEachRow;
             }
         }
 
-        if (!justSent) {
-            //Send a block of remaining records
-            responseObserver.onNext(ResultSetWrapper.wrapResults(session, results, queryResultBuilder, resultSetUUID, resultSetMode));
+        if (!results.isEmpty() || !cursor.isFirstBlockSent()) {
+            blockConsumer.accept(ResultSetWrapper.wrapResults(session, results, queryResultBuilder, resultSetUUID,
+                    cursor.isFirstBlockSent() ? null : cursor.getColumnMetadata(), cursor.getResultSetMode(),
+                    cursor.getResultSetFormat()));
+            cursor.setFirstBlockSent(true);
+            OjpServerMetrics.recordResultSetBlock(results.size(), blockBytes, cursor.getFetchSize() > 0);
         }
+        return moreRows;
+    }
 
-        responseObserver.onCompleted();
-
+    /**
+     * State of a result set being sent to the client, kept between blocks while streaming.
+     */
+    @Builder
+    @Getter
+    static class ResultSetCursor {
+        private final SessionInfo session;
+        private final String resultSetUUID;
+        private final ResultSet resultSet;
+        private final ColumnReaderPlan columnReaderPlan;
+        private final List<String> labels;
+        private final List<ColumnMetadata> columnMetadata;
+        private final DbName dbName;
+        private final ResultSetFormat resultSetFormat;
+        private final int fetchSize;
+        private final int targetBlockBytes;
+        private final int maxRowsPerBlock;
+        @Setter
+        @Builder.Default
+        private String resultSetMode = "";
+        @Setter
+        private boolean firstBlockSent;
+        @Setter
+        private boolean resultSetMetadataCollected;
     }
 
     @SneakyThrows
@@ -1421,7 +2325,9 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             }
             
             javax.transaction.xa.Xid xid = convertXid(request.getXid());
-            session.getXaResource().start(xid, request.getFlags());
+            try (Session.ConnectionLock ignored = session.lockConnection()) {
+                session.getXaResource().start(xid, request.getFlags());
+            }
             
             com.openjproxy.grpc.XaResponse response = com.openjproxy.grpc.XaResponse.newBuilder()
                     .setSession(session.getSessionInfo())
@@ -1473,7 +2379,9 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             }
             
             javax.transaction.xa.Xid xid = convertXid(request.getXid());
-            session.getXaResource().end(xid, request.getFlags());
+            try (Session.ConnectionLock ignored = session.lockConnection()) {
+                session.getXaResource().end(xid, request.getFlags());
+            }
             
             com.openjproxy.grpc.XaResponse response = com.openjproxy.grpc.XaResponse.newBuilder()
                     .setSession(session.getSessionInfo())
@@ -1502,7 +2410,10 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             }
             
             javax.transaction.xa.Xid xid = convertXid(request.getXid());
-            int result = session.getXaResource().prepare(xid);
+            int result;
+            try (Session.ConnectionLock ignored = session.lockConnection()) {
+                result = session.getXaResource().prepare(xid);
+            }
             
             com.openjproxy.grpc.XaPrepareResponse response = com.openjproxy.grpc.XaPrepareResponse.newBuilder()
                     .setSession(session.getSessionInfo())
@@ -1530,7 +2441,10 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             }
             
             javax.transaction.xa.Xid xid = convertXid(request.getXid());
-            session.getXaResource().commit(xid, request.getOnePhase());
+            try (Session.ConnectionLock ignored = session.lockConnection()) {
+                session.getXaResource().commit(xid, request.getOnePhase());
+            }
+            this.invalidateMetaDataOnTransactionEnd(request.getSession());
             
             // Release XA transaction permit after commit
             String connHash = session.getConnectionHash();
@@ -1567,7 +2481,10 @@ public class StatementServiceImpl extends StatementServiceGrpc.StatementServiceI
             }
             
             javax.transaction.xa.Xid xid = convertXid(request.getXid());
-            session.getXaResource().rollback(xid);
+            try (Session.ConnectionLock ignored = session.lockConnection()) {
+                session.getXaResource().rollback(xid);
+            }
+            this.invalidateMetaDataOnTransactionEnd(request.getSession());
             
             // Release XA transaction permit after rollback
             String connHash = session.getConnectionHash();
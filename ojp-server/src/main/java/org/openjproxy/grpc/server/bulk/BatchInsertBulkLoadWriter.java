@@ -0,0 +1,99 @@
+package org.openjproxy.grpc.server.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Loads rows through a prepared insert, every chunk is executed as one batch.
+ */
+@Slf4j
+class BatchInsertBulkLoadWriter implements BulkLoadWriter {
+
+    private final PreparedStatement ps;
+    private final int columnCount;
+    private long rowCount;
+    // SQL types to bind nulls with, resolved on the first null, null when the driver can not describe the parameters.
+    private int[] nullTypes;
+    private boolean nullTypesResolved;
+
+    BatchInsertBulkLoadWriter(Connection connection, String table, String columnList, int columnCount)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(columnList)
+                .append(") VALUES (");
+        for (int i = 0; i < columnCount; i++) {
+            sql.append(i > 0 ? ", ?" : "?");
+        }
+        this.ps = connection.prepareStatement(sql.append(')').toString());
+        this.columnCount = columnCount;
+    }
+
+    @Override
+    public void write(List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] == null) {
+                    this.setNull(i + 1);
+                } else {
+                    this.ps.setObject(i + 1, row[i]);
+                }
+            }
+            this.ps.addBatch();
+        }
+        this.ps.executeBatch();
+        this.rowCount += rows.size();
+    }
+
+    /**
+     * Binds a null with the parameter SQL type reported by the driver, databases like Oracle and DB2 reject
+     * Types.NULL. Falls back to setObject with a null value when the parameter type is not available.
+     */
+    private void setNull(int index) throws SQLException {
+        int[] types = this.resolveNullTypes();
+        if (types != null) {
+            this.ps.setNull(index, types[index - 1]);
+        } else {
+            this.ps.setObject(index, null);
+        }
+    }
+
+    private int[] resolveNullTypes() {
+        if (!this.nullTypesResolved) {
+            this.nullTypesResolved = true;
+            try {
+                ParameterMetaData pmd = this.ps.getParameterMetaData();
+                int[] types = new int[this.columnCount];
+                for (int i = 0; i < this.columnCount; i++) {
+                    types[i] = pmd.getParameterType(i + 1);
+                }
+                this.nullTypes = types;
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Parameter metadata not available for bulk load, binding nulls as objects: {}",
+                        e.getMessage());
+            }
+        }
+        return this.nullTypes;
+    }
+
+    @Override
+    public long finish() throws SQLException {
+        this.ps.close();
+        return this.rowCount;
+    }
+
+    @Override
+    public void abort() {
+        try {
+            this.ps.close();
+        } catch (SQLException e) {
+            log.warn("Failure closing bulk load statement: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.openjproxy.grpc.server.bulk;
+
+import com.openjproxy.grpc.DbName;
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the rows streamed by a bulk load into a table. PostgreSQL tables are loaded with {@code COPY}, any other
+ * database falls back to batched inserts.
+ */
+public interface BulkLoadWriter {
+
+    //Plain or double quoted identifiers, table names might be qualified by schema.
+    Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*|\"[^\"]+\"");
+    Pattern TABLE_NAME = Pattern.compile("(" + COLUMN_NAME.pattern() + ")(\\.(" + COLUMN_NAME.pattern() + "))*");
+
+    /**
+     * Writes a chunk of rows, each row holds the values of the columns in the order they were given.
+     */
+    void write(List<Object[]> rows) throws SQLException;
+
+    /**
+     * Completes the load.
+     *
+     * @return number of rows loaded
+     */
+    long finish() throws SQLException;
+
+    /**
+     * Abandons the load after a failure, rows written by the database in the meantime are not rolled back here.
+     */
+    void abort();
+
+    /**
+     * Opens the writer best suited for the database.
+     *
+     * @param connection The connection to load the rows through
+     * @param dbName     The database name
+     * @param table      The target table
+     * @param columns    The target columns
+     * @return the writer
+     * @throws SQLException if the table or columns are not valid identifiers or the load cannot be started
+     */
+    static BulkLoadWriter open(Connection connection, DbName dbName, String table, List<String> columns)
+            throws SQLException {
+        if (table == null || !TABLE_NAME.matcher(table).matches()) {
+            throw new SQLException("Invalid bulk load table name: " + table);
+        }
+        if (columns.isEmpty()) {
+            throw new SQLException("Bulk load requires at least one column.");
+        }
+        for (String column : columns) {
+            if (!COLUMN_NAME.matcher(column).matches()) {
+                throw new SQLException("Invalid bulk load column name: " + column);
+            }
+        }
+        String columnList = String.join(", ", columns);
+        if (DbName.POSTGRES.equals(dbName) && connection.isWrapperFor(PGConnection.class)) {
+            return new CopyBulkLoadWriter(connection.unwrap(PGConnection.class), table, columnList);
+        }
+        return new BatchInsertBulkLoadWriter(connection, table, columnList, columns.size());
+    }
+}
@@ -0,0 +1,91 @@
+package org.openjproxy.grpc.server.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Loads rows into PostgreSQL with {@code COPY ... FROM STDIN}, every chunk is converted to CSV and written to the
+ * same copy operation as it arrives.
+ */
+@Slf4j
+class CopyBulkLoadWriter implements BulkLoadWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final CopyIn copyIn;
+
+    CopyBulkLoadWriter(PGConnection connection, String table, String columnList) throws SQLException {
+        this.copyIn = connection.getCopyAPI().copyIn("COPY " + table + " (" + columnList +
+                ") FROM STDIN WITH (FORMAT csv)");
+    }
+
+    @Override
+    public void write(List<Object[]> rows) throws SQLException {
+        StringBuilder csv = new StringBuilder(rows.size() * 64);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                appendValue(csv, row[i]);
+            }
+            csv.append('\n');
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        this.copyIn.writeToCopy(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public long finish() throws SQLException {
+        return this.copyIn.endCopy();
+    }
+
+    @Override
+    public void abort() {
+        try {
+            if (this.copyIn.isActive()) {
+                this.copyIn.cancelCopy();
+            }
+        } catch (SQLException e) {
+            log.warn("Failure cancelling COPY: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Null is written as an unquoted empty value, everything else that might contain separators is quoted so empty
+     * strings are kept apart from nulls.
+     */
+    static void appendValue(StringBuilder csv, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            csv.append("\\x");
+            for (byte b : bytes) {
+                csv.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+            }
+        } else if (value instanceof BigDecimal) {
+            csv.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            csv.append(value);
+        } else {
+            String text = value.toString();
+            csv.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    csv.append('"');
+                }
+                csv.append(c);
+            }
+            csv.append('"');
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.openjproxy.grpc.server.lob;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import com.openjproxy.grpc.LobDataBlock;
+import com.openjproxy.grpc.SessionInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a LOB stream in blocks sent to the client. The stream is read in bulk, each block is read straight into the
+ * array wrapped by the sent {@link ByteString} so its data is never copied. A LOB without any data is still answered
+ * with one empty block.
+ */
+public class LobDataBlockReader {
+
+    private final SessionInfo session;
+    private final InputStream inputStream;
+    private final long startPosition;
+    private final int blockSize;
+    private final long expectedLength;
+    private long bytesRead;
+    private boolean blockSent;
+    private boolean exhausted;
+
+    /**
+     * @param session        The session the LOB belongs to
+     * @param inputStream    The LOB stream, positioned where the client asked to start reading
+     * @param startPosition  The position the client asked to start reading from
+     * @param blockSize      Max bytes per block
+     * @param expectedLength Bytes the stream is expected to have, used to size the blocks, -1 if not known
+     */
+    public LobDataBlockReader(SessionInfo session, InputStream inputStream, long startPosition, int blockSize,
+                              long expectedLength) {
+        this.session = session;
+        this.inputStream = inputStream;
+        this.startPosition = startPosition;
+        this.blockSize = blockSize;
+        this.expectedLength = expectedLength;
+    }
+
+    /**
+     * Reads the next block.
+     *
+     * @return the block or null once the stream is exhausted
+     */
+    public LobDataBlock nextBlock() throws IOException {
+        if (this.exhausted) {
+            return null;
+        }
+        //Probing for the end of the stream first spares allocating a block that would not be sent.
+        int firstByte = this.inputStream.read();
+        if (firstByte == -1) {
+            this.exhausted = true;
+            return this.blockSent ? null : this.block(ByteString.EMPTY);
+        }
+        byte[] data = new byte[this.nextBlockSize()];
+        data[0] = (byte) firstByte;
+        int read = 1 + this.inputStream.readNBytes(data, 1, data.length - 1);
+        this.bytesRead += read;
+        if (read < data.length) {
+            this.exhausted = true;
+            //Copied so the mostly empty array of a short last block is not held until the block is sent.
+            return this.block(ByteString.copyFrom(data, 0, read));
+        }
+        return this.block(UnsafeByteOperations.unsafeWrap(data));
+    }
+
+    private int nextBlockSize() {
+        long remaining = this.expectedLength - this.bytesRead;
+        //Clobs are read as UTF-8, which might take more bytes than the expected characters.
+        return remaining > 0 ? (int) Math.min(this.blockSize, remaining) : this.blockSize;
+    }
+
+    private LobDataBlock block(ByteString data) {
+        this.blockSent = true;
+        return LobDataBlock.newBuilder()
+                .setSession(this.session)
+                .setPosition(this.startPosition + this.bytesRead)
+                .setData(data)
+                .build();
+    }
+}
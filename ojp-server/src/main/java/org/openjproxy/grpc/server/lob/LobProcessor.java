@@ -3,13 +3,18 @@ package org.openjproxy.grpc.server.lob;
 import com.openjproxy.grpc.DbName;
 import com.openjproxy.grpc.SessionInfo;
 import lombok.SneakyThrows;
+import org.openjproxy.constants.CommonConstants;
 import org.openjproxy.grpc.server.SessionManager;
+import org.openjproxy.grpc.server.resultset.ColumnReader;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Blob;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Utility class for handling LOB (Large Object) operations.
@@ -23,82 +28,128 @@ public class LobProcessor {
      * NOTE: This method now uses a hydrated approach for all databases, where the entire 
      * BLOB content is materialized in memory as a byte array. This ensures consistent 
      * behavior across all database types and eliminates the complexity of streaming LOBs.
-     * 
-     * Performance implications:
-     * - Higher memory usage for large BLOBs (entire content loaded into memory)
-     * - Faster access once loaded, but higher initial load time
-     * - May limit maximum BLOB size due to memory constraints
+     * BLOBs of the spill threshold or larger are materialized in the session spill file instead,
+     * see {@link #hydrate(SessionManager, SessionInfo, InputStream, LobSpillTarget)}.
      *
-     * @param sessionManager The session manager (unused in hydrated approach)
+     * @param sessionManager The session manager, spilled BLOBs are registered in the session
      * @param session       The current session
      * @param rs           The result set
      * @param columnIndex  The column index (0-based)
      * @param dbNameMap    Map of connection hash to database name (unused in hydrated approach)
-     * @return The processed BLOB value as byte array
+     * @param spillTarget  Where BLOBs are spilled to disk
+     * @return The processed BLOB value as byte array, or the prefixed UUID of the spilled BLOB
      * @throws SQLException if BLOB processing fails
      */
     @SneakyThrows
     public static Object treatAsBlob(SessionManager sessionManager, SessionInfo session, 
-                                   ResultSet rs, int columnIndex, Map<String, DbName> dbNameMap) throws SQLException {
+                                   ResultSet rs, int columnIndex, Map<String, DbName> dbNameMap,
+                                   LobSpillTarget spillTarget) throws SQLException {
         Blob blob = rs.getBlob(columnIndex + 1);
         if (blob == null) {
             return null;
         }
-        // Hydrated approach: materialize the entire BLOB content in memory for all databases
-        // This provides consistent behavior and eliminates streaming complexity
-        return blob.getBinaryStream().readAllBytes();
+        return hydrate(sessionManager, session, blob.getBinaryStream(), spillTarget);
     }
 
     /**
      * Processes binary data from a result set using hydrated approach.
      * 
      * NOTE: This method now uses a hydrated approach for all databases, where binary streams 
-     * are materialized in memory as byte arrays. This ensures consistent behavior across all 
-     * database types and eliminates the complexity of streaming binary data.
-     * 
-     * Performance implications:
-     * - Higher memory usage for large binary data (entire content loaded into memory)
-     * - Faster access once loaded, but higher initial load time
-     * - May limit maximum binary data size due to memory constraints
+     * are materialized in memory as byte arrays, or in the session spill file when they reach the
+     * spill threshold.
      *
-     * @param sessionManager The session manager (unused in hydrated approach)
+     * @param sessionManager The session manager, spilled streams are registered in the session
      * @param session       The current session
      * @param dbName        The database name (unused in hydrated approach)
      * @param rs           The result set
      * @param columnIndex  The column index (0-based)
      * @param inputStreamTypes List of input stream types
-     * @return The processed binary value as byte array or primitive byte
+     * @param spillTarget  Where streams are spilled to disk
+     * @return The processed binary value as byte array, primitive byte or the prefixed UUID of the spilled stream
      * @throws SQLException if binary processing fails
      */
     @SneakyThrows
     public static Object treatAsBinary(SessionManager sessionManager, SessionInfo session, 
                                      DbName dbName, ResultSet rs, int columnIndex, 
-                                     java.util.List<String> inputStreamTypes) throws SQLException {
-        int precision = rs.getMetaData().getPrecision(columnIndex + 1);
-        String catalogName = rs.getMetaData().getCatalogName(columnIndex + 1);
-        String colClassName = rs.getMetaData().getColumnClassName(columnIndex + 1);
-        String colTypeName = rs.getMetaData().getColumnTypeName(columnIndex + 1);
+                                     java.util.List<String> inputStreamTypes, LobSpillTarget spillTarget) throws SQLException {
+        return binaryColumnReader(sessionManager, session, rs.getMetaData(), columnIndex, inputStreamTypes,
+                spillTarget).read(rs);
+    }
+
+    /**
+     * Chooses how a binary column is read based on its metadata, so the metadata is only inspected once per
+     * result set instead of once per row.
+     *
+     * @param sessionManager   The session manager, spilled streams are registered in the session
+     * @param session          The current session
+     * @param metaData         The result set metadata
+     * @param columnIndex      The column index (0-based)
+     * @param inputStreamTypes List of input stream types
+     * @param spillTarget      Where streams are spilled to disk
+     * @return The reader returning the column value as byte array, primitive byte or the prefixed UUID of the spilled stream
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static ColumnReader binaryColumnReader(SessionManager sessionManager, SessionInfo session,
+                                                  ResultSetMetaData metaData, int columnIndex,
+                                                  java.util.List<String> inputStreamTypes,
+                                                  LobSpillTarget spillTarget)
+            throws SQLException {
+        int column = columnIndex + 1;
+        int precision = metaData.getPrecision(column);
+        String catalogName = metaData.getCatalogName(column);
+        String colClassName = metaData.getColumnClassName(column);
+        String colTypeName = metaData.getColumnTypeName(column);
         colTypeName = colTypeName != null ? colTypeName : "";
-        Object binaryValue = null;
-        
+
         if (precision == 1 && !"[B".equalsIgnoreCase(colClassName) && !"byte[]".equalsIgnoreCase(colClassName)) { 
             //it is a single byte and is not of class byte array([B)
-            binaryValue = rs.getByte(columnIndex + 1);
+            return rs -> rs.getByte(column);
         } else if ((org.apache.commons.lang3.StringUtils.isNotEmpty(catalogName) || 
                    "[B".equalsIgnoreCase(colClassName) || "byte[]".equalsIgnoreCase(colClassName)) &&
                    !inputStreamTypes.contains(colTypeName.toUpperCase())) {
-            binaryValue = rs.getBytes(columnIndex + 1);
-        } else {
-            InputStream inputStream = rs.getBinaryStream(columnIndex + 1);
+            return rs -> rs.getBytes(column);
+        }
+        return rs -> {
+            InputStream inputStream = rs.getBinaryStream(column);
             if (inputStream == null) {
                 return null;
             }
+            try {
+                return hydrate(sessionManager, session, inputStream, spillTarget);
+            } catch (IOException e) {
+                throw new SQLException("Unable to read binary stream: " + e.getMessage(), e);
+            }
+        };
+    }
 
-            // Hydrated approach: materialize the entire binary stream content in memory for all databases
-            // This provides consistent behavior and eliminates streaming complexity
-            byte[] allBytes = inputStream.readAllBytes();
-            binaryValue = allBytes;
+    /**
+     * Reads a LOB stream whole, as the LOB might not be readable anymore once the cursor moves. LOBs smaller than the
+     * spill threshold are returned as byte array. Larger LOBs are written to the spill file of the session, so they
+     * do not take memory until the client reads them, and are returned as the UUID the client reads them by,
+     * prefixed with {@link CommonConstants#OJP_BLOB_PREFIX}.
+     *
+     * @param sessionManager The session manager, spilled LOBs are registered in the session
+     * @param session        The current session
+     * @param inputStream    The LOB stream
+     * @param spillTarget    Where LOBs are spilled to disk
+     * @return the LOB bytes or the prefixed UUID of the spilled LOB
+     * @throws IOException if the LOB cannot be read or spilled, such as when the spill quota is reached
+     */
+    static Object hydrate(SessionManager sessionManager, SessionInfo session, InputStream inputStream,
+                          LobSpillTarget spillTarget) throws IOException {
+        int spillThreshold = spillTarget.getThreshold();
+        if (spillThreshold <= 0) {
+            return inputStream.readAllBytes();
+        }
+        byte[] head = inputStream.readNBytes(spillThreshold);
+        if (head.length < spillThreshold) {
+            return head;
         }
-        return binaryValue;
+        SpilledBlob spilledBlob = sessionManager.getSession(session)
+                .getLobSpillFile(spillTarget.getQuota())
+                .spill(head, inputStream);
+        String lobUUID = UUID.randomUUID().toString();
+        sessionManager.registerLob(session, spilledBlob, lobUUID);
+        return CommonConstants.OJP_BLOB_PREFIX + lobUUID;
     }
-}
\ No newline at end of file
+}
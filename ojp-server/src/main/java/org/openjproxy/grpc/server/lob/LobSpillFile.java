@@ -0,0 +1,144 @@
+package org.openjproxy.grpc.server.lob;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Temp file of a session holding the LOBs of its result sets above the spill threshold, so they are not kept in memory
+ * until the client reads them. LOBs are appended to the file and read back through memory mapped regions of it. Once
+ * every LOB of the file is freed and no stream is reading it the file is emptied, and it is deleted once closed when
+ * the session terminates. Regions already mapped stay readable after the file is deleted, but not after it is
+ * emptied.
+ */
+@Slf4j
+public class LobSpillFile implements Closeable {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final LobSpillQuota quota;
+    private long size;
+    private int liveLobs;
+    private int openReaders;
+    private boolean closed;
+
+    /**
+     * @param quota The quota the bytes written to the file count against
+     */
+    public LobSpillFile(LobSpillQuota quota) throws IOException {
+        this.quota = quota;
+        this.path = Files.createTempFile("ojp-lob-", ".spill");
+        this.channel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        log.debug("Lob spill file {} created", this.path);
+    }
+
+    /**
+     * Appends a LOB to the file. If the LOB cannot be written whole, such as when the spill quota is reached, the
+     * bytes written for it are discarded.
+     *
+     * @param head The bytes of the LOB already read from the stream
+     * @param rest The stream with the remaining bytes of the LOB
+     * @return the LOB, read from the file
+     */
+    public synchronized SpilledBlob spill(byte[] head, InputStream rest) throws IOException {
+        long offset = this.size;
+        try {
+            this.write(ByteBuffer.wrap(head));
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = rest.read(buffer)) != -1) {
+                this.write(ByteBuffer.wrap(buffer, 0, read));
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                this.truncate(offset);
+            } catch (IOException te) {
+                e.addSuppressed(te);
+            }
+            throw e;
+        }
+        this.liveLobs++;
+        return new SpilledBlob(this, offset, this.size - offset);
+    }
+
+    /**
+     * Maps a region of the file to memory, read only.
+     */
+    MappedByteBuffer map(long offset, long length) throws IOException {
+        return this.channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    /**
+     * Releases the region of a freed LOB. Regions are not reused one by one, the file is emptied once the last LOB
+     * written to it is freed and the last stream reading it is closed.
+     */
+    synchronized void free() throws IOException {
+        this.liveLobs--;
+        this.emptyIfUnused();
+    }
+
+    /**
+     * Registers a stream reading the file, the file is not emptied until the stream is closed with
+     * {@link #closeReader()}.
+     */
+    synchronized void openReader() {
+        this.openReaders++;
+    }
+
+    synchronized void closeReader() throws IOException {
+        this.openReaders--;
+        this.emptyIfUnused();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        log.debug("Deleting lob spill file {}", this.path);
+        this.quota.release(this.size);
+        this.size = 0;
+        try {
+            this.channel.close();
+        } finally {
+            Files.deleteIfExists(this.path);
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        this.quota.reserve(buffer.remaining());
+        try {
+            while (buffer.hasRemaining()) {
+                this.size += this.channel.write(buffer, this.size);
+            }
+        } finally {
+            //Bytes not written are not held.
+            this.quota.release(buffer.remaining());
+        }
+    }
+
+    private void emptyIfUnused() throws IOException {
+        //Truncating a mapped region makes reading it fail, so streams still reading hold the bytes.
+        if (this.liveLobs == 0 && this.openReaders == 0 && this.size > 0 && !this.closed) {
+            this.truncate(0);
+        }
+    }
+
+    private void truncate(long size) throws IOException {
+        this.quota.release(this.size - size);
+        this.size = size;
+        this.channel.truncate(size);
+    }
+}
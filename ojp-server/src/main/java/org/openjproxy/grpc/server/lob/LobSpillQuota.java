@@ -0,0 +1,43 @@
+package org.openjproxy.grpc.server.lob;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the bytes written to the LOB spill files of all sessions. Bytes are reserved as LOBs are written and given
+ * back when the files, or the regions of them holding freed LOBs, are released.
+ */
+public class LobSpillQuota {
+
+    private final long maxBytes;
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    /**
+     * @param maxBytes Max bytes spilled at once, 0 or less for no limit
+     */
+    public LobSpillQuota(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reserves room for bytes about to be written.
+     *
+     * @throws IOException if the bytes would take the spilled bytes above the max
+     */
+    void reserve(long bytes) throws IOException {
+        long used = this.usedBytes.addAndGet(bytes);
+        if (this.maxBytes > 0 && used > this.maxBytes) {
+            this.usedBytes.addAndGet(-bytes);
+            throw new IOException("Lob spill limit of " + this.maxBytes + " bytes reached, see " +
+                    "ojp.server.lob.spillMaxBytes.");
+        }
+    }
+
+    void release(long bytes) {
+        this.usedBytes.addAndGet(-bytes);
+    }
+
+    public long getUsedBytes() {
+        return this.usedBytes.get();
+    }
+}
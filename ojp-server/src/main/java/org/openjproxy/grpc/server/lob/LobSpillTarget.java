@@ -0,0 +1,16 @@
+package org.openjproxy.grpc.server.lob;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Where the LOBs read from a result set are spilled: LOBs of the threshold or larger are written to the spill file of
+ * the session, within the spill quota of the server.
+ */
+@Getter
+@Builder
+public class LobSpillTarget {
+    //Min size in bytes of the LOBs spilled to disk, 0 to keep them all in memory.
+    private final int threshold;
+    private final LobSpillQuota quota;
+}
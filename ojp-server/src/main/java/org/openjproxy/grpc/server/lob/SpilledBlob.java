@@ -0,0 +1,177 @@
+package org.openjproxy.grpc.server.lob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read only Blob stored in a region of a {@link LobSpillFile}. It is registered in the session like the Blobs of the
+ * database, so the client reads it through the same LOB calls.
+ */
+public class SpilledBlob implements Blob {
+
+    //Regions larger than a window are mapped a window at a time as they are read.
+    private static final int MAP_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final LobSpillFile spillFile;
+    private final long offset;
+    private final long length;
+    private final AtomicBoolean freed = new AtomicBoolean();
+
+    SpilledBlob(LobSpillFile spillFile, long offset, long length) {
+        this.spillFile = spillFile;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public long length() {
+        return this.length;
+    }
+
+    @Override
+    public byte[] getBytes(long pos, int length) throws SQLException {
+        try (InputStream in = this.getBinaryStream(pos, length)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new SQLException("Unable to read spilled lob: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream getBinaryStream() throws SQLException {
+        return this.getBinaryStream(1, this.length);
+    }
+
+    @Override
+    public InputStream getBinaryStream(long pos, long length) throws SQLException {
+        if (this.freed.get()) {
+            throw new SQLException("The spilled lob was freed.");
+        }
+        if (pos < 1 || length < 0 || pos - 1 + length > this.length) {
+            throw new SQLException("Invalid position " + pos + " or length " + length + " for a lob of " +
+                    this.length + " bytes.");
+        }
+        this.spillFile.openReader();
+        return new MappedRegionInputStream(this.offset + pos - 1, length);
+    }
+
+    @Override
+    public long position(byte[] pattern, long start) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Search is not supported in spilled lobs.");
+    }
+
+    @Override
+    public long position(Blob pattern, long start) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Search is not supported in spilled lobs.");
+    }
+
+    @Override
+    public int setBytes(long pos, byte[] bytes) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Spilled lobs are read only.");
+    }
+
+    @Override
+    public int setBytes(long pos, byte[] bytes, int offset, int len) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Spilled lobs are read only.");
+    }
+
+    @Override
+    public OutputStream setBinaryStream(long pos) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Spilled lobs are read only.");
+    }
+
+    @Override
+    public void truncate(long len) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Spilled lobs are read only.");
+    }
+
+    /**
+     * Releases the region of the LOB in the spill file, the LOB cannot be read anymore. Streams opened before it was
+     * freed are read to the end.
+     */
+    @Override
+    public void free() throws SQLException {
+        if (this.freed.getAndSet(true)) {
+            return;
+        }
+        try {
+            this.spillFile.free();
+        } catch (IOException e) {
+            throw new SQLException("Unable to free spilled lob: " + e.getMessage(), e);
+        }
+    }
+
+    private class MappedRegionInputStream extends InputStream {
+        private long position;
+        private final long end;
+        private MappedByteBuffer window;
+        //Set once the stream stops holding the spill file, when closed or read to the end.
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        MappedRegionInputStream(long position, long length) {
+            this.position = position;
+            this.end = position + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return this.nextWindow() ? this.window.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.nextWindow()) {
+                return -1;
+            }
+            int read = Math.min(len, this.window.remaining());
+            this.window.get(b, off, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return this.window != null ? this.window.remaining() : 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.window = null;
+            this.release();
+        }
+
+        private void release() throws IOException {
+            if (!this.released.getAndSet(true)) {
+                spillFile.closeReader();
+            }
+        }
+
+        /**
+         * @return true if there are bytes left to read in the current window, mapping the next one if needed
+         */
+        private boolean nextWindow() throws IOException {
+            if (this.window != null && this.window.hasRemaining()) {
+                return true;
+            }
+            if (this.position >= this.end) {
+                this.release();
+                return false;
+            }
+            if (this.released.get()) {
+                throw new IOException("The spilled lob stream is closed.");
+            }
+            long size = Math.min(MAP_WINDOW_SIZE, this.end - this.position);
+            this.window = spillFile.map(this.position, size);
+            this.position += size;
+            return true;
+        }
+    }
+}
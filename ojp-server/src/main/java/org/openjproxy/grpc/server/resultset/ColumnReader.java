@@ -0,0 +1,20 @@
+package org.openjproxy.grpc.server.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads the value of one column of the current row of a result set, chosen once per result set from its metadata.
+ */
+@FunctionalInterface
+public interface ColumnReader {
+
+    /**
+     * Reads the column value of the current row.
+     *
+     * @param rs The result set positioned on a row
+     * @return The value to be sent to the client
+     * @throws SQLException if reading the value fails
+     */
+    Object read(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,158 @@
+package org.openjproxy.grpc.server.resultset;
+
+import com.openjproxy.grpc.DbName;
+import com.openjproxy.grpc.SessionInfo;
+import lombok.Getter;
+import org.openjproxy.constants.CommonConstants;
+import org.openjproxy.grpc.server.SessionManager;
+import org.openjproxy.grpc.server.lob.LobProcessor;
+import org.openjproxy.grpc.server.lob.LobSpillTarget;
+import org.openjproxy.grpc.server.utils.DateTimeUtils;
+
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Plan to read the rows of a result set, one {@link ColumnReader} per column chosen from the result set metadata when
+ * the result set is opened. Reading a row then only calls the readers, the metadata is not inspected again, which
+ * matters for drivers where {@code getMetaData()} is expensive.
+ */
+public class ColumnReaderPlan {
+
+    //com.microsoft.sqlserver.jdbc.DateTimeOffset type code.
+    private static final int SQL_SERVER_DATETIMEOFFSET_TYPE = -155;
+
+    private final ColumnReader[] readers;
+
+    /**
+     * True if the result set has LOB or binary columns in SQL Server or DB2, for those databases moving the cursor
+     * invalidates the LOBs of the previous row so rows are sent one by one as the client asks for them.
+     */
+    @Getter
+    private final boolean rowByRow;
+
+    private ColumnReaderPlan(ColumnReader[] readers, boolean rowByRow) {
+        this.readers = readers;
+        this.rowByRow = rowByRow;
+    }
+
+    /**
+     * Builds the plan from the result set metadata.
+     *
+     * @param sessionManager   The session manager, CLOBs are registered in the session to be read by the client later
+     * @param session          The current session
+     * @param metaData         The result set metadata
+     * @param dbName           The database the result set comes from
+     * @param dbNameMap        Map of connection hash to database name
+     * @param inputStreamTypes List of binary type names read as input streams
+     * @param lobSpillTarget   Where BLOBs and binary streams are spilled to disk
+     * @return The plan
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static ColumnReaderPlan create(SessionManager sessionManager, SessionInfo session,
+                                          ResultSetMetaData metaData, DbName dbName, Map<String, DbName> dbNameMap,
+                                          List<String> inputStreamTypes, LobSpillTarget lobSpillTarget)
+            throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        ColumnReader[] readers = new ColumnReader[columnCount];
+        boolean hasLobs = false;
+        for (int i = 0; i < columnCount; i++) {
+            int columnIdx = i;
+            int column = i + 1;
+            int colType = metaData.getColumnType(column);
+            String colTypeName = metaData.getColumnTypeName(column);
+            //Postgres uses type BYTEA which translates to type VARBINARY
+            switch (colType) {
+                case Types.VARBINARY: {
+                    hasLobs = true;
+                    if ("BLOB".equalsIgnoreCase(colTypeName)) {
+                        readers[i] = rs -> LobProcessor.treatAsBlob(sessionManager, session, rs, columnIdx, dbNameMap,
+                                lobSpillTarget);
+                    } else {
+                        readers[i] = LobProcessor.binaryColumnReader(sessionManager, session, metaData, columnIdx,
+                                inputStreamTypes, lobSpillTarget);
+                    }
+                    break;
+                }
+                case Types.BLOB, Types.LONGVARBINARY: {
+                    hasLobs = true;
+                    readers[i] = rs -> LobProcessor.treatAsBlob(sessionManager, session, rs, columnIdx, dbNameMap,
+                            lobSpillTarget);
+                    break;
+                }
+                case Types.CLOB: {
+                    hasLobs = true;
+                    readers[i] = rs -> {
+                        Clob clob = rs.getClob(column);
+                        if (clob == null) {
+                            return null;
+                        }
+                        String clobUUID = UUID.randomUUID().toString();
+                        sessionManager.registerLob(session, clob, clobUUID);
+                        //CLOB needs to be prefixed as per it can be read in the JDBC driver by getString method and it would be valid to return just a UUID as string
+                        return CommonConstants.OJP_CLOB_PREFIX + clobUUID;
+                    };
+                    break;
+                }
+                case Types.BINARY: {
+                    hasLobs = true;
+                    readers[i] = LobProcessor.binaryColumnReader(sessionManager, session, metaData, columnIdx,
+                            inputStreamTypes, lobSpillTarget);
+                    break;
+                }
+                case Types.DATE: {
+                    if ("YEAR".equalsIgnoreCase(colTypeName)) {
+                        readers[i] = rs -> {
+                            Date date = rs.getDate(column);
+                            return date == null ? null : date.toLocalDate().getYear();
+                        };
+                    } else {
+                        readers[i] = rs -> rs.getDate(column);
+                    }
+                    break;
+                }
+                case Types.TIMESTAMP: {
+                    readers[i] = rs -> rs.getTimestamp(column);
+                    break;
+                }
+                default: {
+                    //com.microsoft.sqlserver.jdbc.DateTimeOffset special case as per it does not implement any standar java.sql interface.
+                    if ("datetimeoffset".equalsIgnoreCase(colTypeName) && colType == SQL_SERVER_DATETIMEOFFSET_TYPE) {
+                        readers[i] = rs -> DateTimeUtils.extractOffsetDateTime(rs.getObject(column));
+                    } else {
+                        readers[i] = rs -> rs.getObject(column);
+                    }
+                    break;
+                }
+            }
+        }
+        boolean rowByRow = hasLobs && (DbName.SQL_SERVER.equals(dbName) || DbName.DB2.equals(dbName));
+        return new ColumnReaderPlan(readers, rowByRow);
+    }
+
+    public int getColumnCount() {
+        return this.readers.length;
+    }
+
+    /**
+     * Reads the values of the row the result set is positioned on.
+     *
+     * @param rs The result set
+     * @return The row values
+     * @throws SQLException if reading a value fails
+     */
+    public Object[] readRow(ResultSet rs) throws SQLException {
+        Object[] rowValues = new Object[this.readers.length];
+        for (int i = 0; i < this.readers.length; i++) {
+            rowValues[i] = this.readers[i].read(rs);
+        }
+        return rowValues;
+    }
+}
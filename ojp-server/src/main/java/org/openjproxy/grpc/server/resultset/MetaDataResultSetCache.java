@@ -0,0 +1,131 @@
+package org.openjproxy.grpc.server.resultset;
+
+import com.openjproxy.grpc.OpResult;
+import com.openjproxy.grpc.ResultSetFormat;
+import com.openjproxy.grpc.TargetCall;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of the blocks of the catalog result sets returned by DatabaseMetaData, like getTables or getColumns, of a
+ * datasource. Schema validation tools ask for the same catalog again on every start, serving it from the cache spares
+ * the database the catalog queries when many clients start together.
+ * <p>
+ * Entries expire after the configured time to live. DDL executed through the server drops every entry straight away,
+ * DDL executed by other means is only seen once the entries expire.
+ * </p>
+ */
+public class MetaDataResultSetCache {
+
+    private static final Pattern DDL = Pattern.compile(
+            "^(?:\\s|--[^\\n]*\\n|/\\*.*?\\*/)*(CREATE|ALTER|DROP|TRUNCATE|RENAME|COMMENT)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    //Incremented on every invalidation, so result sets read while DDL runs are not cached.
+    private final AtomicLong generation = new AtomicLong();
+
+    public MetaDataResultSetCache(long ttlMillis, int maxEntries) {
+        this(ttlMillis, maxEntries, System::currentTimeMillis);
+    }
+
+    MetaDataResultSetCache(long ttlMillis, int maxEntries, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return this.ttlMillis > 0 && this.maxEntries > 0;
+    }
+
+    /**
+     * Gets the cached blocks of a metadata call.
+     *
+     * @return the blocks or null if not cached or expired
+     */
+    public List<OpResult> get(Key key) {
+        Entry entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= this.clock.getAsLong()) {
+            this.entries.remove(key, entry);
+            return null;
+        }
+        return entry.blocks;
+    }
+
+    /**
+     * Current generation of the cache, to be read before reading the result set that is later cached.
+     */
+    public long generation() {
+        return this.generation.get();
+    }
+
+    /**
+     * Caches the blocks of a metadata call, unless the cache was invalidated since the given generation was read or
+     * it is full of entries not expired yet.
+     */
+    public void put(Key key, List<OpResult> blocks, long generation) {
+        if (!this.isEnabled()) {
+            return;
+        }
+        if (this.entries.size() >= this.maxEntries) {
+            long now = this.clock.getAsLong();
+            this.entries.values().removeIf(entry -> entry.expiresAt <= now);
+            if (this.entries.size() >= this.maxEntries) {
+                return;
+            }
+        }
+        this.entries.put(key, new Entry(List.copyOf(blocks), this.clock.getAsLong() + this.ttlMillis));
+        if (this.generation.get() != generation) {
+            this.entries.remove(key);
+        }
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public void invalidate() {
+        this.generation.incrementAndGet();
+        this.entries.clear();
+    }
+
+    /**
+     * Tells if the SQL is a DDL statement, which might change the catalog. Leading comments are skipped.
+     */
+    public static boolean isDdl(String sql) {
+        return sql != null && DDL.matcher(sql).lookingAt();
+    }
+
+    /**
+     * Identifies a metadata call, the result set format is part of it as the blocks are cached encoded. The current
+     * catalog and schema of the connection are part of it too, calls with null catalog or schema patterns might
+     * depend on them.
+     */
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class Key {
+        private final ResultSetFormat resultSetFormat;
+        private final TargetCall call;
+        private final String catalog;
+        private final String schema;
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final List<OpResult> blocks;
+        private final long expiresAt;
+    }
+}
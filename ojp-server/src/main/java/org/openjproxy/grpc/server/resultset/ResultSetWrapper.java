@@ -1,9 +1,13 @@
 package org.openjproxy.grpc.server.resultset;
 
 import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.ColumnMetadata;
 import com.openjproxy.grpc.OpResult;
+import com.openjproxy.grpc.ResultSetFormat;
 import com.openjproxy.grpc.ResultType;
 import com.openjproxy.grpc.SessionInfo;
+import org.openjproxy.grpc.ColumnarBlockCodec;
+import org.openjproxy.grpc.RowBlockCodec;
 import org.openjproxy.grpc.dto.OpQueryResult;
 
 import java.util.List;
@@ -23,22 +27,74 @@ public class ResultSetWrapper {
      * @param results           The result data rows
      * @param queryResultBuilder The query result builder
      * @param resultSetUUID     The result set UUID
+     * @param columnMetadata    Full metadata of the columns, only sent in protobuf blocks, null if not to be sent
      * @param resultSetMode     The result set mode flag
+     * @param resultSetFormat   The result set format negotiated with the client on connect
      * @return OpResult containing wrapped data
      */
     public static OpResult wrapResults(SessionInfo sessionInfo,
                                      List<Object[]> results,
                                      OpQueryResult.OpQueryResultBuilder queryResultBuilder,
-                                     String resultSetUUID, String resultSetMode) {
+                                     String resultSetUUID, List<ColumnMetadata> columnMetadata,
+                                     String resultSetMode, ResultSetFormat resultSetFormat) {
 
         OpResult.Builder resultsBuilder = OpResult.newBuilder();
         resultsBuilder.setSession(sessionInfo);
-        resultsBuilder.setType(ResultType.RESULT_SET_DATA);
         queryResultBuilder.resultSetUUID(resultSetUUID);
         queryResultBuilder.rows(results);
-        resultsBuilder.setValue(ByteString.copyFrom(serialize(queryResultBuilder.build())));
+        OpQueryResult queryResult = queryResultBuilder.build();
+        if (ResultSetFormat.RSF_COLUMNAR.equals(resultSetFormat)) {
+            resultsBuilder.setType(ResultType.RESULT_SET_COLUMNAR_BLOCK);
+            resultsBuilder.setValue(ColumnarBlockCodec.encode(queryResult.getResultSetUUID(),
+                    queryResult.getLabels(), columnMetadata, queryResult.getRows()).toByteString());
+        } else if (ResultSetFormat.RSF_ROW_BLOCK.equals(resultSetFormat)) {
+            resultsBuilder.setType(ResultType.RESULT_SET_ROW_BLOCK);
+            resultsBuilder.setValue(RowBlockCodec.encode(queryResult.getResultSetUUID(), queryResult.getLabels(),
+                    columnMetadata, queryResult.getRows()).toByteString());
+        } else {
+            resultsBuilder.setType(ResultType.RESULT_SET_DATA);
+            resultsBuilder.setValue(ByteString.copyFrom(serialize(queryResult)));
+        }
         resultsBuilder.setFlag(resultSetMode);
 
         return resultsBuilder.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Cheap estimate of the bytes a value takes once encoded, used to size result set blocks while they are read.
+     * Strings count their UTF-8 encoded length, other types a rough fixed size.
+     *
+     * @param value The column value
+     * @return estimated size in bytes
+     */
+    public static int estimateSize(Object value) {
+        if (value == null) {
+            return 1;
+        } else if (value instanceof String) {
+            return utf8Length((String) value) + 2;
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length + 2;
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return 8;
+        }
+        return 16;
+    }
+
+    /**
+     * Length of a string once UTF-8 encoded, without encoding it.
+     */
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                // Surrogate pairs take 4 bytes, 2 per char, other chars from U+0800 take 3.
+                bytes += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+}
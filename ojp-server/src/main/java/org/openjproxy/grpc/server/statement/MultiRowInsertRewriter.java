@@ -0,0 +1,198 @@
+package org.openjproxy.grpc.server.statement;
+
+import com.openjproxy.grpc.DbName;
+import com.openjproxy.grpc.SessionInfo;
+import org.openjproxy.grpc.dto.Parameter;
+import org.openjproxy.grpc.server.SessionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Folds batched single row {@code INSERT ... VALUES (?, ?)} statements into multi-row
+ * {@code INSERT ... VALUES (?, ?), (?, ?)} statements, so a batch of N rows costs N / rowsPerStatement executions in
+ * the database, the same optimization MySQL and PostgreSQL drivers only apply when asked via
+ * {@code rewriteBatchedStatements} or {@code reWriteBatchedInserts}.
+ */
+public class MultiRowInsertRewriter {
+
+    //Lowest limit of bind parameters per statement among the supported databases (PostgreSQL).
+    private static final int MAX_PARAMETERS_PER_STATEMENT = 32767;
+    private static final Pattern INSERT_VALUES = Pattern.compile("^\\s*INSERT\\s+INTO\\s.+?\\bVALUES\\s*\\(",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final String prefix;
+    private final String valuesGroup;
+    private final int parametersPerRow;
+
+    private MultiRowInsertRewriter(String prefix, String valuesGroup, int parametersPerRow) {
+        this.prefix = prefix;
+        this.valuesGroup = valuesGroup;
+        this.parametersPerRow = parametersPerRow;
+    }
+
+    /**
+     * Tells if batches of the database can be rewritten.
+     *
+     * @param dbName The database name
+     * @return true for MySQL, MariaDB and PostgreSQL
+     */
+    public static boolean supports(DbName dbName) {
+        return DbName.MYSQL.equals(dbName) || DbName.MARIADB.equals(dbName) || DbName.POSTGRES.equals(dbName);
+    }
+
+    /**
+     * Parses the sql of a batched statement.
+     *
+     * @param sql The sql of the prepared statement
+     * @return the rewriter or null if the sql is not a single row insert with a plain values clause
+     */
+    public static MultiRowInsertRewriter parse(String sql) {
+        Matcher matcher = INSERT_VALUES.matcher(sql);
+        if (!matcher.find()) {
+            return null;
+        }
+        int groupStart = matcher.end() - 1;
+        if (countParameters(sql, 0, groupStart) != 0) {
+            return null;
+        }
+        int groupEnd = closingParenthesis(sql, groupStart);
+        if (groupEnd < 0) {
+            return null;
+        }
+        String rest = sql.substring(groupEnd + 1).trim();
+        if (!rest.isEmpty() && !";".equals(rest)) {
+            return null;
+        }
+        int parametersPerRow = countParameters(sql, groupStart, groupEnd);
+        if (parametersPerRow <= 0) {
+            return null;
+        }
+        return new MultiRowInsertRewriter(sql.substring(0, groupStart), sql.substring(groupStart, groupEnd + 1),
+                parametersPerRow);
+    }
+
+    /**
+     * Builds the insert of the given number of rows.
+     */
+    public String sql(int rows) {
+        StringBuilder sb = new StringBuilder(this.prefix.length() + rows * (this.valuesGroup.length() + 2));
+        sb.append(this.prefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(this.valuesGroup);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Executes the rows of the batch as multi-row inserts of up to rowsPerStatement rows each.
+     *
+     * @param sessionManager   The session manager for LOB retrieval
+     * @param session          The current session
+     * @param connection       The connection to execute the inserts in
+     * @param rows             The parameters of each row of the batch
+     * @param rowsPerStatement Max rows per insert, lowered if needed to respect the bind parameters limit
+     * @return the update count of each row, 1 or {@link Statement#SUCCESS_NO_INFO} if the database did not report
+     * one row inserted per row
+     * @throws SQLException if any of the inserts fails
+     */
+    public int[] executeBatch(SessionManager sessionManager, SessionInfo session, Connection connection,
+                              List<List<Parameter>> rows, int rowsPerStatement) throws SQLException {
+        int statementRows = Math.max(1, Math.min(rowsPerStatement,
+                MAX_PARAMETERS_PER_STATEMENT / this.parametersPerRow));
+        int[] updateCounts = new int[rows.size()];
+        int fullStatements = rows.size() / statementRows;
+        int row = 0;
+        if (fullStatements > 0) {
+            try (PreparedStatement ps = connection.prepareStatement(this.sql(statementRows))) {
+                for (int i = 0; i < fullStatements; i++) {
+                    this.setRows(sessionManager, session, ps, rows, i * statementRows, statementRows);
+                    ps.addBatch();
+                }
+                int[] statementCounts = ps.executeBatch();
+                for (int i = 0; i < fullStatements; i++) {
+                    fillUpdateCounts(updateCounts, i * statementRows, statementRows, statementCounts[i]);
+                }
+            }
+            row = fullStatements * statementRows;
+        }
+        int remainingRows = rows.size() - row;
+        if (remainingRows > 0) {
+            try (PreparedStatement ps = connection.prepareStatement(this.sql(remainingRows))) {
+                this.setRows(sessionManager, session, ps, rows, row, remainingRows);
+                fillUpdateCounts(updateCounts, row, remainingRows, ps.executeUpdate());
+            }
+        }
+        return updateCounts;
+    }
+
+    private void setRows(SessionManager sessionManager, SessionInfo session, PreparedStatement ps,
+                         List<List<Parameter>> rows, int firstRow, int rowCount) throws SQLException {
+        for (int i = 0; i < rowCount; i++) {
+            int offset = i * this.parametersPerRow;
+            for (Parameter parameter : rows.get(firstRow + i)) {
+                ParameterHandler.addParam(sessionManager, session, parameter.getIndex() + offset, ps, parameter);
+            }
+        }
+    }
+
+    private static void fillUpdateCounts(int[] updateCounts, int from, int rows, int statementCount) {
+        Arrays.fill(updateCounts, from, from + rows, statementCount == rows ? 1 : Statement.SUCCESS_NO_INFO);
+    }
+
+    /**
+     * Counts the bind parameters between the given positions, ignoring question marks within quotes.
+     */
+    private static int countParameters(String sql, int from, int to) {
+        int count = 0;
+        char quote = 0;
+        for (int i = from; i < to; i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '?') {
+                count++;
+            }
+        }
+        return quote == 0 ? count : -1;
+    }
+
+    /**
+     * Finds the parenthesis closing the one at the given position, -1 if it is not closed.
+     */
+    private static int closingParenthesis(String sql, int open) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = open; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,206 @@
+package org.openjproxy.grpc.server.statement;
+
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import org.openjproxy.grpc.server.OjpServerMetrics;
+import org.openjproxy.grpc.server.SqlStatementXXHash;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Least recently used cache of the prepared statements of a session connection, keyed by the SQL fingerprint and the
+ * properties the statement was created with. Reusing a statement spares the database parsing and planning it again,
+ * which matters for drivers without their own statement cache.
+ * <p>
+ * Statements are taken out of the cache while in use and put back once executed. A statement is only handed out
+ * again once the result set it last returned is closed, as executing it again would close that result set under the
+ * client. Statements evicted or replaced while their result set is open are kept aside and closed once the result set
+ * is closed.
+ * </p>
+ */
+@Slf4j
+public class PreparedStatementCache {
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Entry> entries;
+    //Evicted or replaced while backing an open result set, guarded by entries.
+    private final List<Entry> retired = new ArrayList<>();
+
+    public PreparedStatementCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (this.size() > PreparedStatementCache.this.capacity) {
+                    if (!eldest.getValue().closeIfIdle()) {
+                        PreparedStatementCache.this.retired.add(eldest.getValue());
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Takes a statement out of the cache, with its parameters cleared.
+     *
+     * @param sql             The SQL of the statement
+     * @param propertiesBytes Java serialized properties the statement is created with, empty if none
+     * @return the cached statement or null if there is none ready to be reused
+     */
+    public PreparedStatement acquire(String sql, ByteString propertiesBytes) {
+        this.closeRetired();
+        Key key = new Key(SqlStatementXXHash.hashSqlQuery(sql), propertiesBytes);
+        Entry entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+            //The fingerprint normalizes the SQL, only the exact same SQL can reuse the statement.
+            if (entry == null || !entry.sql.equals(sql) || !entry.isIdle()) {
+                entry = null;
+            } else {
+                this.entries.remove(key);
+            }
+        }
+        if (entry == null) {
+            OjpServerMetrics.recordStatementCacheLookup(false);
+            return null;
+        }
+        try {
+            entry.ps.clearParameters();
+        } catch (SQLException e) {
+            log.debug("Cached prepared statement discarded: {}", e.getMessage());
+            entry.closeIfIdle();
+            OjpServerMetrics.recordStatementCacheLookup(false);
+            return null;
+        }
+        OjpServerMetrics.recordStatementCacheLookup(true);
+        return entry.ps;
+    }
+
+    /**
+     * Puts an executed statement in the cache, replacing any statement cached for the same SQL.
+     *
+     * @param sql             The SQL of the statement
+     * @param propertiesBytes Java serialized properties the statement was created with, empty if none
+     * @param ps              The statement
+     * @param resultSet       The result set returned by the execution, null if none
+     */
+    public void release(String sql, ByteString propertiesBytes, PreparedStatement ps, ResultSet resultSet) {
+        Key key = new Key(SqlStatementXXHash.hashSqlQuery(sql), propertiesBytes);
+        Entry previous;
+        synchronized (this.entries) {
+            previous = this.entries.put(key, new Entry(sql, ps, resultSet));
+        }
+        if (previous != null && previous.ps != ps && !previous.closeIfIdle()) {
+            synchronized (this.entries) {
+                this.retired.add(previous);
+            }
+        }
+    }
+
+    /**
+     * Closes the evicted or replaced statements whose result set was closed since.
+     */
+    public void closeRetired() {
+        List<Entry> idle = new ArrayList<>();
+        synchronized (this.entries) {
+            if (this.retired.isEmpty()) {
+                return;
+            }
+            this.retired.removeIf(entry -> entry.isIdle() && idle.add(entry));
+        }
+        idle.forEach(Entry::closeIfIdle);
+    }
+
+    /**
+     * Closes every cached or retired statement not backing an open result set and empties the cache.
+     */
+    public void clear() {
+        List<Entry> removed;
+        synchronized (this.entries) {
+            removed = new ArrayList<>(this.entries.values());
+            removed.addAll(this.retired);
+            this.entries.clear();
+            this.retired.clear();
+        }
+        removed.forEach(Entry::closeIfIdle);
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    private static final class Key {
+        private final String fingerprint;
+        private final ByteString properties;
+
+        private Key(String fingerprint, ByteString properties) {
+            this.fingerprint = fingerprint;
+            this.properties = properties;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return this.fingerprint.equals(key.fingerprint) && this.properties.equals(key.properties);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.fingerprint, this.properties);
+        }
+    }
+
+    private static final class Entry {
+        private final String sql;
+        private final PreparedStatement ps;
+        private final ResultSet resultSet;
+
+        private Entry(String sql, PreparedStatement ps, ResultSet resultSet) {
+            this.sql = sql;
+            this.ps = ps;
+            this.resultSet = resultSet;
+        }
+
+        private boolean isIdle() {
+            try {
+                return this.resultSet == null || this.resultSet.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Statements backing an open result set are left open, they are closed with the session connection.
+         *
+         * @return false if left open
+         */
+        private boolean closeIfIdle() {
+            if (!this.isIdle()) {
+                return false;
+            }
+            try {
+                this.ps.close();
+            } catch (SQLException e) {
+                log.warn("Failure closing cached prepared statement: {}", e.getMessage());
+            }
+            return true;
+        }
+    }
+}
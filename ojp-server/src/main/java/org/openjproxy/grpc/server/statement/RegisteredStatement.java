@@ -0,0 +1,30 @@
+package org.openjproxy.grpc.server.statement;
+
+import lombok.Getter;
+import org.openjproxy.grpc.server.SqlStatementXXHash;
+
+/**
+ * SQL of a statement along with the values derived from it, computed once when the statement is registered.
+ */
+@Getter
+public class RegisteredStatement {
+
+    private final String sql;
+    private final boolean replaceLiterals;
+    /**
+     * Fingerprint of the normalized SQL, also used as the circuit breaker and slow query segregation key.
+     */
+    private final String hash;
+    @Getter(lazy = true)
+    private final String normalizedSql = SqlStatementXXHash.normalizeSql(this.sql, this.replaceLiterals);
+
+    /**
+     * @param sql             The SQL
+     * @param replaceLiterals True if statements only differing in their literals share the same fingerprint
+     */
+    public RegisteredStatement(String sql, boolean replaceLiterals) {
+        this.sql = sql;
+        this.replaceLiterals = replaceLiterals;
+        this.hash = SqlStatementXXHash.hashSqlQuery(sql, replaceLiterals);
+    }
+}
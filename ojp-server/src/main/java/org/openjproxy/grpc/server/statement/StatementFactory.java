@@ -1,5 +1,6 @@
 package org.openjproxy.grpc.server.statement;
 
+import com.google.protobuf.ByteString;
 import com.openjproxy.grpc.StatementRequest;
 import org.apache.commons.lang3.StringUtils;
 import org.openjproxy.constants.CommonConstants;
@@ -42,6 +43,8 @@ public class StatementFactory {
                 return connection.createStatement();
             }
             Map<String, Object> properties = deserialize(request.getProperties().toByteArray(), Map.class);
+            //The generated keys flag is passed to the update itself, not when creating the statement.
+            properties.remove(CommonConstants.STATEMENT_AUTO_GENERATED_KEYS_KEY);
 
             if (properties.isEmpty() ||
                     (properties.size() == 1 && properties.get(CommonConstants.PREPARED_STATEMENT_SQL_KEY) != null)) {
@@ -79,28 +82,82 @@ public class StatementFactory {
                                                           ConnectionSessionDTO dto, String sql, 
                                                           List<Parameter> params, StatementRequest request)
             throws SQLException {
+        return createPreparedStatement(sessionManager, dto, sql, params, request.getProperties());
+    }
+
+    /**
+     * Creates a PreparedStatement with the given SQL and parameters.
+     *
+     * @param sessionManager The session manager
+     * @param dto           The connection session DTO
+     * @param sql           The SQL statement
+     * @param params        The parameters
+     * @param propertiesBytes Java serialized properties of the prepared statement, empty if none
+     * @return Created PreparedStatement
+     * @throws SQLException if prepared statement creation fails
+     */
+    public static PreparedStatement createPreparedStatement(SessionManager sessionManager,
+                                                          ConnectionSessionDTO dto, String sql,
+                                                          List<Parameter> params, ByteString propertiesBytes)
+            throws SQLException {
+        return createPreparedStatement(sessionManager, dto, sql, params, propertiesBytes, null);
+    }
 
+    /**
+     * Creates a PreparedStatement with the given SQL and parameters, reusing a cached statement when available.
+     * Statements taken from the cache have to be released back to it once executed.
+     *
+     * @param sessionManager  The session manager
+     * @param dto             The connection session DTO
+     * @param sql             The SQL statement
+     * @param params          The parameters
+     * @param propertiesBytes Java serialized properties of the prepared statement, empty if none
+     * @param cache           The prepared statement cache of the session connection, null to always prepare
+     * @return Created or cached PreparedStatement
+     * @throws SQLException if prepared statement creation fails
+     */
+    public static PreparedStatement createPreparedStatement(SessionManager sessionManager,
+                                                          ConnectionSessionDTO dto, String sql,
+                                                          List<Parameter> params, ByteString propertiesBytes,
+                                                          PreparedStatementCache cache) throws SQLException {
+        PreparedStatement ps = cache != null ? cache.acquire(sql, propertiesBytes) : null;
+        if (ps == null) {
+            ps = prepareStatement(dto.getConnection(), sql, propertiesBytes);
+        }
+        try {
+            ParameterHandler.addParametersPreparedStatement(sessionManager, dto.getSession(), ps, params);
+        } catch (SQLException | RuntimeException e) {
+            if (cache != null) {
+                cache.release(sql, propertiesBytes, ps, null);
+            }
+            throw e;
+        }
+        return ps;
+    }
+
+    private static PreparedStatement prepareStatement(Connection connection, String sql, ByteString propertiesBytes)
+            throws SQLException {
         PreparedStatement ps = null;
         Map<String, Object> properties = EMPTY_MAP;
-        if (!request.getProperties().isEmpty()) {
-            properties = deserialize(request.getProperties().toByteArray(), Map.class);
+        if (!propertiesBytes.isEmpty()) {
+            properties = deserialize(propertiesBytes.toByteArray(), Map.class);
         }
         if (properties.isEmpty()) {
-            ps = dto.getConnection().prepareStatement(sql);
+            ps = connection.prepareStatement(sql);
         }
         if (properties.size() == 1) {
             int[] columnIndexes = (int[]) properties.get(CommonConstants.STATEMENT_COLUMN_INDEXES_KEY);
-            String[] columnNames = (String[]) properties.get(CommonConstants.STATEMENT_COLUMN_INDEXES_KEY);
+            String[] columnNames = (String[]) properties.get(CommonConstants.STATEMENT_COLUMN_NAMES_KEY);
             Boolean isAddBatch = (Boolean) properties.get(CommonConstants.PREPARED_STATEMENT_ADD_BATCH_FLAG);
             Integer autoGeneratedKeys = (Integer) properties.get(CommonConstants.STATEMENT_AUTO_GENERATED_KEYS_KEY);
             if (columnIndexes != null) {
-                ps = dto.getConnection().prepareStatement(sql, columnIndexes);
+                ps = connection.prepareStatement(sql, columnIndexes);
             } else if (columnNames != null) {
-                ps = dto.getConnection().prepareStatement(sql, columnNames);
+                ps = connection.prepareStatement(sql, columnNames);
             } else if (isAddBatch != null && isAddBatch) {
-                ps = dto.getConnection().prepareStatement(sql);
+                ps = connection.prepareStatement(sql);
             } else if (autoGeneratedKeys != null) {
-                ps = dto.getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             }
         }
         Integer resultSetType = (Integer) properties.get(CommonConstants.STATEMENT_RESULT_SET_TYPE_KEY);
@@ -108,16 +165,14 @@ public class StatementFactory {
         Integer resultSetHoldability = (Integer) properties.get(CommonConstants.STATEMENT_RESULT_SET_HOLDABILITY_KEY);
 
         if (resultSetType != null && resultSetConcurrency != null && resultSetHoldability == null) {
-            ps = dto.getConnection().prepareStatement(sql, resultSetType, resultSetConcurrency);
+            ps = connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
         }
         if (resultSetType != null && resultSetConcurrency != null && resultSetHoldability != null) {
-            ps = dto.getConnection().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+            ps = connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
         }
         if (ps == null) {
             throw new SQLException("Incorrect number of properties for creating a new prepared statement.");
         }
-
-        ParameterHandler.addParametersPreparedStatement(sessionManager, dto.getSession(), ps, params);
         return ps;
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package org.openjproxy.grpc.server.statement;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numeric handles of the SQL registered by each client, so the client sends the handle instead of the SQL text on
+ * every execution and the server skips normalizing and hashing the SQL again. Handles are scoped to the client UUID
+ * and registering the same SQL twice returns the same handle.
+ * <p>
+ * Handles are random 64-bit values rather than a sequence, so a handle kept by a client across a server restart, or
+ * by another driver sharing the client UUID, is reported as unknown instead of resolving to a different SQL. The
+ * handles of a client are dropped once it has not used them for the idle timeout, idle clients are looked for while
+ * the server registers and resolves handles and terminates sessions.
+ * </p>
+ */
+@Slf4j
+public class StatementHandleRegistry {
+
+    private static final SecureRandom HANDLES = new SecureRandom();
+
+    private final Map<String, ClientStatements> clientStatements = new ConcurrentHashMap<>();
+    private final AtomicLong nextEviction = new AtomicLong();
+
+    /**
+     * Registers the SQL of a client.
+     *
+     * @param clientUUID          The client UUID
+     * @param sql                 The SQL
+     * @param maxHandlesPerClient Max number of handles kept per client
+     * @param replaceLiterals     True if statements only differing in their literals share the same fingerprint
+     * @return the handle of the SQL or 0 if the client reached the max number of handles
+     */
+    public long register(String clientUUID, String sql, int maxHandlesPerClient, boolean replaceLiterals) {
+        ClientStatements statements = this.clientStatements.computeIfAbsent(clientUUID, uuid -> new ClientStatements());
+        statements.touch();
+        Long handle = statements.handlesBySql.get(sql);
+        if (handle != null) {
+            return handle;
+        }
+        synchronized (statements) {
+            handle = statements.handlesBySql.get(sql);
+            if (handle != null) {
+                return handle;
+            }
+            if (statements.handlesBySql.size() >= maxHandlesPerClient) {
+                log.debug("Client {} reached the max of {} statement handles", clientUUID, maxHandlesPerClient);
+                return 0;
+            }
+            do {
+                handle = HANDLES.nextLong();
+            } while (handle == 0 || statements.statementsByHandle.containsKey(handle));
+            statements.statementsByHandle.put(handle, new RegisteredStatement(sql, replaceLiterals));
+            statements.handlesBySql.put(sql, handle);
+            return handle;
+        }
+    }
+
+    /**
+     * Gets the statement registered under a handle.
+     *
+     * @param clientUUID The client UUID
+     * @param handle     The handle
+     * @return the statement or null if the handle is not known for the client
+     */
+    public RegisteredStatement get(String clientUUID, long handle) {
+        ClientStatements statements = this.clientStatements.get(clientUUID);
+        if (statements == null) {
+            return null;
+        }
+        statements.touch();
+        return statements.statementsByHandle.get(handle);
+    }
+
+    /**
+     * Drops the handles of the clients which neither registered nor executed a statement within the idle timeout,
+     * clients using a dropped handle get it reported as unknown and send the SQL again.
+     *
+     * @param idleTimeoutMillis Time in milliseconds without use after which the handles of a client are dropped
+     */
+    public void evictIdleClients(long idleTimeoutMillis) {
+        long idleSince = System.currentTimeMillis() - idleTimeoutMillis;
+        this.clientStatements.entrySet().removeIf(entry -> {
+            if (entry.getValue().lastUsed >= idleSince) {
+                return false;
+            }
+            log.debug("Dropping statement handles of idle client {}", entry.getKey());
+            return true;
+        });
+    }
+
+    /**
+     * Drops the handles of the idle clients unless they were looked for recently, idle clients are looked for at most
+     * ten times per idle timeout so it can be called on every request.
+     *
+     * @param idleTimeoutMillis Time in milliseconds without use after which the handles of a client are dropped
+     */
+    public void evictIdleClientsIfDue(long idleTimeoutMillis) {
+        long now = System.currentTimeMillis();
+        long due = this.nextEviction.get();
+        if (now >= due && this.nextEviction.compareAndSet(due, now + Math.max(idleTimeoutMillis / 10, 1))) {
+            this.evictIdleClients(idleTimeoutMillis);
+        }
+    }
+
+    private static class ClientStatements {
+        private final Map<Long, RegisteredStatement> statementsByHandle = new ConcurrentHashMap<>();
+        private final Map<String, Long> handlesBySql = new ConcurrentHashMap<>();
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private void touch() {
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.openjproxy.grpc.server.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.CallableStatement;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class for reading the out parameters of callable statements sent to the clients with the execution.
+ */
+@Slf4j
+public class CallableStatementUtils {
+
+    //Values of other classes, like LOBs or driver specific types, are read by the clients one by one.
+    private static final Set<Class<?>> HYDRATED_CLASSES = Set.of(String.class, Boolean.class, Byte.class,
+            Short.class, Integer.class, Long.class, Float.class, Double.class, BigDecimal.class, BigInteger.class,
+            Date.class, Time.class, Timestamp.class, byte[].class, LocalDate.class, LocalTime.class,
+            LocalDateTime.class, OffsetDateTime.class, OffsetTime.class);
+
+    private CallableStatementUtils() {}
+
+    /**
+     * Reads the given out parameters of an executed callable statement. Parameters failing to be read or whose value
+     * is not of a plain java type are left out.
+     *
+     * @param callableStatement The executed callable statement
+     * @param parameterIndexes  Indexes of the out parameters
+     * @return map of the parameter indexes to their values
+     */
+    public static HashMap<Integer, Object> readOutParameters(CallableStatement callableStatement,
+                                                             List<Integer> parameterIndexes) {
+        HashMap<Integer, Object> values = new HashMap<>();
+        for (Integer parameterIndex : parameterIndexes) {
+            try {
+                Object value = callableStatement.getObject(parameterIndex);
+                if (value == null || HYDRATED_CLASSES.contains(value.getClass())) {
+                    values.put(parameterIndex, value);
+                }
+            } catch (Exception e) {
+                log.debug("Out parameter {} left out of the execution response: {}", parameterIndex,
+                        e.getMessage());
+            }
+        }
+        return values;
+    }
+}
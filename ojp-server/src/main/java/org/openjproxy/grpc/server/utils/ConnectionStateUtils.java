@@ -0,0 +1,45 @@
+package org.openjproxy.grpc.server.utils;
+
+import com.openjproxy.grpc.ConnectionState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+
+import static org.openjproxy.constants.CommonConstants.CONNECTION_STATE_NULL_CATALOG;
+import static org.openjproxy.constants.CommonConstants.CONNECTION_STATE_NULL_SCHEMA;
+
+/**
+ * Utility class for reading the state reported to the clients on connect.
+ */
+@Slf4j
+public class ConnectionStateUtils {
+
+    private ConnectionStateUtils() {}
+
+    /**
+     * Reads the state of a connection freshly taken from a datasource.
+     *
+     * @param connection The connection
+     * @return the connection state or null if the driver fails to report any part of it, in which case clients ask
+     * the server every time
+     */
+    public static ConnectionState read(Connection connection) {
+        try {
+            String catalog = connection.getCatalog();
+            String schema = connection.getSchema();
+            int nullAttributes = (catalog == null ? CONNECTION_STATE_NULL_CATALOG : 0) |
+                    (schema == null ? CONNECTION_STATE_NULL_SCHEMA : 0);
+            return ConnectionState.newBuilder()
+                    .setTransactionIsolation(connection.getTransactionIsolation())
+                    .setCatalog(catalog != null ? catalog : "")
+                    .setSchema(schema != null ? schema : "")
+                    .setHoldability(connection.getHoldability())
+                    .setNetworkTimeout(connection.getNetworkTimeout())
+                    .setNullAttributes(nullAttributes)
+                    .build();
+        } catch (Exception | AbstractMethodError e) {
+            log.warn("Unable to read the connection state, clients will not shadow it: {}", e.getMessage());
+            return null;
+        }
+    }
+}
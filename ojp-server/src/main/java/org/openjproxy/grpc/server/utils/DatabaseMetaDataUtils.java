@@ -0,0 +1,53 @@
+package org.openjproxy.grpc.server.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.DatabaseMetaData;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Utility class for reading the DatabaseMetaData values clients cache.
+ */
+@Slf4j
+public class DatabaseMetaDataUtils {
+
+    //Depend on the connection state rather than on the database.
+    private static final Set<String> EXCLUDED_METHODS = Set.of("isReadOnly");
+
+    private DatabaseMetaDataUtils() {}
+
+    /**
+     * Reads every scalar value of the metadata, the values of the methods without parameters returning a primitive or
+     * a string. Methods failing, for instance not supported by the driver, are left out.
+     *
+     * @param metaData The metadata of a connection of the datasource
+     * @return map of the lower case method names to their values
+     */
+    public static HashMap<String, Object> snapshot(DatabaseMetaData metaData) {
+        HashMap<String, Object> values = new HashMap<>();
+        for (Method method : DatabaseMetaData.class.getMethods()) {
+            if (!isScalarGetter(method) || EXCLUDED_METHODS.contains(method.getName())) {
+                continue;
+            }
+            try {
+                values.put(method.getName().toLowerCase(), method.invoke(metaData));
+            } catch (InvocationTargetException e) {
+                log.debug("Metadata {} left out of the snapshot: {}", method.getName(),
+                        e.getTargetException().getMessage());
+            } catch (Exception e) {
+                log.debug("Metadata {} left out of the snapshot: {}", method.getName(), e.getMessage());
+            }
+        }
+        return values;
+    }
+
+    private static boolean isScalarGetter(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return method.getParameterCount() == 0 && !Modifier.isStatic(method.getModifiers()) &&
+                ((returnType.isPrimitive() && returnType != void.class) || returnType == String.class);
+    }
+}
@@ -0,0 +1,151 @@
+package org.openjproxy.grpc.server.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dispatch table of the methods called remotely on JDBC resources. The method matching a class, method name and the
+ * types of the parameters received is resolved once via {@link MethodReflectionUtils#findMethodByName} and kept as a
+ * {@link MethodHandle}, so later calls are a map lookup plus a direct call instead of scanning the class methods and
+ * going through {@link Method#invoke}.
+ */
+@Slf4j
+public class MethodDispatchCache {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private static final ConcurrentHashMap<Key, DispatchedMethod> METHODS = new ConcurrentHashMap<>();
+
+    private MethodDispatchCache() {}
+
+    /**
+     * Finds the method to call, resolving and caching it on first use.
+     *
+     * @param clazz      The class to search in
+     * @param methodName The method name
+     * @param params     The parameters to match
+     * @return The matching method
+     * @throws RuntimeException if method is not found
+     */
+    public static DispatchedMethod findMethod(Class<?> clazz, String methodName, List<Object> params) {
+        Class<?>[] paramTypes = new Class<?>[params.size()];
+        for (int i = 0; i < paramTypes.length; i++) {
+            Object param = params.get(i);
+            paramTypes[i] = param != null ? param.getClass() : null;
+        }
+        Key key = new Key(clazz, methodName, paramTypes);
+        DispatchedMethod method = METHODS.get(key);
+        if (method == null) {
+            method = METHODS.computeIfAbsent(key, k ->
+                    new DispatchedMethod(MethodReflectionUtils.findMethodByName(clazz, methodName, params)));
+        }
+        return method;
+    }
+
+    /**
+     * A resolved method, invoked through a method handle when the method is accessible to this class or through
+     * reflection otherwise.
+     */
+    public static final class DispatchedMethod {
+        private final Method method;
+        private final MethodHandle handle;
+        private final int parameterCount;
+
+        private DispatchedMethod(Method method) {
+            this.method = method;
+            this.parameterCount = method.getParameterCount();
+            this.handle = invoker(method);
+        }
+
+        private static MethodHandle invoker(Method method) {
+            try {
+                return MethodHandles.publicLookup().unreflect(method)
+                        .asSpreader(Object[].class, method.getParameterCount())
+                        .asType(INVOKER_TYPE);
+            } catch (IllegalAccessException e) {
+                log.debug("Method {} dispatched through reflection: {}", method, e.getMessage());
+                return null;
+            }
+        }
+
+        public boolean hasParameters() {
+            return this.parameterCount > 0;
+        }
+
+        public Method getMethod() {
+            return this.method;
+        }
+
+        /**
+         * Invokes the method, exceptions thrown by the method are propagated as they are.
+         *
+         * @param target The object to invoke the method on
+         * @param params The parameters of the call
+         * @return The value returned, null for void methods
+         */
+        public Object invoke(Object target, List<Object> params) throws Exception {
+            Object[] args = params.toArray();
+            try {
+                if (this.handle != null) {
+                    return (Object) this.handle.invokeExact(target, args);
+                }
+                return this.method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw rethrow(e.getTargetException());
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        private static Exception rethrow(Throwable t) {
+            if (t instanceof Exception) {
+                return (Exception) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            return new RuntimeException(t);
+        }
+    }
+
+    private static final class Key {
+        private final Class<?> clazz;
+        private final String methodName;
+        private final Class<?>[] paramTypes;
+        private final int hash;
+
+        private Key(Class<?> clazz, String methodName, Class<?>[] paramTypes) {
+            this.clazz = clazz;
+            this.methodName = methodName;
+            this.paramTypes = paramTypes;
+            this.hash = 31 * (31 * clazz.hashCode() + methodName.hashCode()) + Arrays.hashCode(paramTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return this.clazz == key.clazz && this.methodName.equals(key.methodName) &&
+                    Arrays.equals(this.paramTypes, key.paramTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
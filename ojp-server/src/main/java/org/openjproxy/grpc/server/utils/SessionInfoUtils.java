@@ -20,6 +20,7 @@ public class SessionInfoUtils {
                 .setClientUUID(activeSessionInfo.getClientUUID())
                 .setSessionUUID(activeSessionInfo.getSessionUUID())
                 .setSessionStatus(activeSessionInfo.getSessionStatus())
-                .setTransactionInfo(activeSessionInfo.getTransactionInfo());
+                .setTransactionInfo(activeSessionInfo.getTransactionInfo())
+                .setResultSetFormat(activeSessionInfo.getResultSetFormat());
     }
 }
\ No newline at end of file
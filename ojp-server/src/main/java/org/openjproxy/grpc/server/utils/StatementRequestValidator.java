@@ -29,6 +29,24 @@ public class StatementRequestValidator {
         return autoGeneratedKeys != null && autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS;
     }
 
+    /**
+     * Checks if the request asks for generated keys, either with the auto-generated keys flag or with the indexes or
+     * names of the key columns.
+     *
+     * @param request The statement request
+     * @return true if the statement returns generated keys
+     */
+    public static boolean returnsGeneratedKeys(StatementRequest request) {
+        if (request.getProperties().isEmpty()) {
+            return false;
+        }
+        Map<String, Object> properties = deserialize(request.getProperties().toByteArray(), Map.class);
+        Integer autoGeneratedKeys = (Integer) properties.get(CommonConstants.STATEMENT_AUTO_GENERATED_KEYS_KEY);
+        return (autoGeneratedKeys != null && autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS) ||
+                properties.get(CommonConstants.STATEMENT_COLUMN_INDEXES_KEY) != null ||
+                properties.get(CommonConstants.STATEMENT_COLUMN_NAMES_KEY) != null;
+    }
+
     /**
      * Checks if the request is an add batch operation.
      *
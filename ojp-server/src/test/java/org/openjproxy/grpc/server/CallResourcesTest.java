@@ -0,0 +1,95 @@
+package org.openjproxy.grpc.server;
+
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.CallResourceRequest;
+import com.openjproxy.grpc.CallResourcesRequest;
+import com.openjproxy.grpc.CallResourcesResponse;
+import com.openjproxy.grpc.CallType;
+import com.openjproxy.grpc.ResourceType;
+import com.openjproxy.grpc.SessionInfo;
+import com.openjproxy.grpc.TargetCall;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.SerializationHandler;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies several resource calls are executed in order in a single request.
+ */
+public class CallResourcesTest {
+
+    private StatementServiceImpl statementService;
+    private SessionInfo sessionInfo;
+
+    @BeforeEach
+    public void setUp() {
+        StatementServiceFixture fixture = new StatementServiceFixture("callResources");
+        statementService = fixture.getStatementService();
+        sessionInfo = fixture.connect();
+    }
+
+    @Test
+    public void shouldExecuteCallsInOrderWithTheSessionOfThePreviousCall() throws Exception {
+        TestObserver<CallResourcesResponse> observer = new TestObserver<>();
+        statementService.callResources(CallResourcesRequest.newBuilder()
+                .addCalls(call(CallType.CALL_SET, "TransactionIsolation", List.of(Connection.TRANSACTION_SERIALIZABLE)))
+                .addCalls(call(CallType.CALL_SET, "Holdability", List.of(java.sql.ResultSet.CLOSE_CURSORS_AT_COMMIT)))
+                .addCalls(call(CallType.CALL_GET, "TransactionIsolation", List.of()))
+                .build(), observer);
+
+        assertNull(observer.error);
+        CallResourcesResponse response = observer.values.get(0);
+        assertEquals(3, response.getResponsesCount());
+        assertFalse(response.getSession().getSessionUUID().isBlank(), "Session started by the first call");
+        for (int i = 1; i < response.getResponsesCount(); i++) {
+            assertEquals(response.getSession().getSessionUUID(),
+                    response.getResponses(i).getSession().getSessionUUID());
+        }
+        assertEquals(Connection.TRANSACTION_SERIALIZABLE, SerializationHandler.deserialize(
+                response.getResponses(2).getValues().toByteArray(), Integer.class));
+    }
+
+    @Test
+    public void shouldReportFailingCallsAndExecuteTheFollowingOnes() throws Exception {
+        TestObserver<CallResourcesResponse> observer = new TestObserver<>();
+        statementService.callResources(CallResourcesRequest.newBuilder()
+                .addCalls(call(CallType.CALL_SET, "TransactionIsolation", List.of(Connection.TRANSACTION_SERIALIZABLE)))
+                .addCalls(call(CallType.CALL_SET, "Nothing", List.of(1)))
+                .addCalls(call(CallType.CALL_GET, "TransactionIsolation", List.of()))
+                .build(), observer);
+
+        assertNull(observer.error);
+        CallResourcesResponse response = observer.values.get(0);
+        assertEquals(3, response.getResponsesCount());
+        assertFalse(response.getResponses(0).hasError());
+        assertTrue(response.getResponses(1).hasError());
+        assertFalse(response.getResponses(1).getError().getReason().isBlank());
+        assertFalse(response.getResponses(2).hasError());
+        String sessionUUID = response.getResponses(0).getSession().getSessionUUID();
+        assertFalse(sessionUUID.isBlank(), "Session started by the first call");
+        assertEquals(sessionUUID, response.getResponses(1).getSession().getSessionUUID(),
+                "The session is returned with the failure");
+        assertEquals(sessionUUID, response.getSession().getSessionUUID());
+        assertEquals(Connection.TRANSACTION_SERIALIZABLE, SerializationHandler.deserialize(
+                response.getResponses(2).getValues().toByteArray(), Integer.class));
+    }
+
+    private CallResourceRequest call(CallType callType, String resourceName, List<Object> params) {
+        return CallResourceRequest.newBuilder()
+                .setSession(sessionInfo)
+                .setResourceType(ResourceType.RES_CONNECTION)
+                .setTarget(TargetCall.newBuilder()
+                        .setCallType(callType)
+                        .setResourceName(resourceName)
+                        .setParams(ByteString.copyFrom(SerializationHandler.serialize(params)))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package org.openjproxy.grpc.server;
+
+import com.openjproxy.grpc.ConnectionState;
+import com.openjproxy.grpc.SessionInfo;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.server.utils.ConnectionStateUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the state of fresh connections is reported on connect.
+ */
+public class ConnectionStateTest {
+
+    @Test
+    public void shouldReportInitialConnectionStateOnConnect() {
+        StatementServiceFixture fixture = new StatementServiceFixture("connectionState");
+
+        SessionInfo first = fixture.connect();
+        SessionInfo second = fixture.connect();
+
+        assertTrue(first.hasInitialState());
+        ConnectionState state = first.getInitialState();
+        assertEquals(Connection.TRANSACTION_READ_COMMITTED, state.getTransactionIsolation());
+        assertEquals("PUBLIC", state.getSchema());
+        assertEquals(0, state.getNullAttributes());
+        assertEquals(state, second.getInitialState());
+    }
+
+    @Test
+    public void shouldFlagNullAttributesAndFailuresToReadTheState() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_REPEATABLE_READ);
+        when(connection.getHoldability()).thenReturn(ResultSet.HOLD_CURSORS_OVER_COMMIT);
+        ConnectionState state = ConnectionStateUtils.read(connection);
+        assertEquals(3, state.getNullAttributes());
+        assertEquals(Connection.TRANSACTION_REPEATABLE_READ, state.getTransactionIsolation());
+
+        when(connection.getSchema()).thenThrow(new SQLException("Not supported"));
+        assertNull(ConnectionStateUtils.read(connection));
+
+        try (Connection h2 = DriverManager.getConnection("jdbc:h2:mem:connectionStateRead", "sa", "")) {
+            assertEquals("PUBLIC", ConnectionStateUtils.read(h2).getSchema());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.openjproxy.grpc.server;
+
+import com.openjproxy.grpc.DatabaseMetaDataSnapshot;
+import com.openjproxy.grpc.SessionInfo;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.SerializationHandler;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the scalar metadata values are read once per datasource.
+ */
+public class DatabaseMetaDataSnapshotTest {
+
+    @Test
+    public void shouldSnapshotScalarMetaDataOncePerDatasource() {
+        StatementServiceFixture fixture = new StatementServiceFixture("metaDataSnapshot");
+        StatementServiceImpl statementService = fixture.getStatementService();
+        SessionInfo sessionInfo = fixture.connect();
+
+        TestObserver<DatabaseMetaDataSnapshot> first = new TestObserver<>();
+        statementService.getDatabaseMetaDataSnapshot(sessionInfo, first);
+        TestObserver<DatabaseMetaDataSnapshot> second = new TestObserver<>();
+        statementService.getDatabaseMetaDataSnapshot(sessionInfo, second);
+
+        assertNull(first.error);
+        Map<String, Object> values = SerializationHandler.deserialize(
+                first.values.get(0).getValues().toByteArray(), Map.class);
+        assertEquals("H2", values.get("getdatabaseproductname"));
+        assertEquals(Boolean.TRUE, values.get("supportstransactions"));
+        assertTrue(values.containsKey("getmaxcolumnnamelength"));
+        assertFalse(values.containsKey("isreadonly"), "Depends on the connection state");
+        assertFalse(values.containsKey("getconnection"));
+        assertSame(first.values.get(0), second.values.get(0));
+    }
+}
@@ -0,0 +1,107 @@
+package org.openjproxy.grpc.server;
+
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.OpResult;
+import com.openjproxy.grpc.RowBlock;
+import com.openjproxy.grpc.SessionInfo;
+import com.openjproxy.grpc.StatementRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.constants.CommonConstants;
+import org.openjproxy.grpc.SerializationHandler;
+import org.openjproxy.grpc.dto.Parameter;
+import org.openjproxy.grpc.dto.ParameterType;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the generated keys are sent with the update count when the statement returns them.
+ */
+public class GeneratedKeysTest {
+
+    private StatementServiceImpl statementService;
+    private SessionInfo sessionInfo;
+
+    @BeforeEach
+    public void setUp() {
+        StatementServiceFixture fixture = new StatementServiceFixture("generatedKeys");
+        statementService = fixture.getStatementService();
+        sessionInfo = fixture.connect();
+        executeUpdate("CREATE TABLE generated_keys_test (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(20))",
+                new ArrayList<>(), null);
+    }
+
+    @Test
+    public void shouldSendGeneratedKeysWithTheUpdateCount() throws Exception {
+        OpResult result = insert(CommonConstants.STATEMENT_AUTO_GENERATED_KEYS_KEY, Statement.RETURN_GENERATED_KEYS);
+
+        assertEquals(1, (int) SerializationHandler.deserialize(result.getValue().toByteArray(), Integer.class));
+        assertTrue(result.getGeneratedKeysCount() > 0);
+        RowBlock block = RowBlock.parseFrom(result.getGeneratedKeys(0).getValue());
+        assertEquals(1, block.getRowsCount());
+        assertEquals("", block.getResultSetUUID());
+    }
+
+    @Test
+    public void shouldSendGeneratedKeysOfTheRequestedColumns() throws Exception {
+        OpResult result = insert(CommonConstants.STATEMENT_COLUMN_INDEXES_KEY, new int[]{1});
+
+        assertTrue(result.getGeneratedKeysCount() > 0);
+        assertEquals(1, RowBlock.parseFrom(result.getGeneratedKeys(0).getValue()).getRowsCount());
+    }
+
+    @Test
+    public void shouldSendGeneratedKeysOfPlainStatements() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(CommonConstants.STATEMENT_AUTO_GENERATED_KEYS_KEY, Statement.RETURN_GENERATED_KEYS);
+        OpResult result = executeUpdate("INSERT INTO generated_keys_test (name) VALUES ('plain')", new ArrayList<>(),
+                properties);
+
+        assertEquals(1, (int) SerializationHandler.deserialize(result.getValue().toByteArray(), Integer.class));
+        assertTrue(result.getGeneratedKeysCount() > 0);
+        assertEquals(1, RowBlock.parseFrom(result.getGeneratedKeys(0).getValue()).getRowsCount());
+        assertFalse(result.getUuid().isBlank());
+    }
+
+    @Test
+    public void shouldNotSendGeneratedKeysUnlessRequested() {
+        OpResult result = executeUpdate("INSERT INTO generated_keys_test (name) VALUES (?)",
+                List.of(Parameter.builder().index(1).type(ParameterType.STRING).values(List.of("plain")).build()),
+                null);
+
+        assertEquals(0, result.getGeneratedKeysCount());
+    }
+
+    private OpResult insert(String propertyKey, Object propertyValue) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(propertyKey, propertyValue);
+        return executeUpdate("INSERT INTO generated_keys_test (name) VALUES (?)",
+                List.of(Parameter.builder().index(1).type(ParameterType.STRING).values(List.of("keyed")).build()),
+                properties);
+    }
+
+    private OpResult executeUpdate(String sql, List<Parameter> params, Map<String, Object> properties) {
+        StatementRequest.Builder request = StatementRequest.newBuilder()
+                .setSession(sessionInfo)
+                .setSql(sql)
+                .setParameters(ByteString.copyFrom(SerializationHandler.serialize(new ArrayList<>(params))));
+        if (properties != null) {
+            request.setProperties(ByteString.copyFrom(SerializationHandler.serialize(properties)));
+        }
+        TestObserver<OpResult> observer = new TestObserver<>();
+        statementService.executeUpdate(request.build(), observer);
+        assertNull(observer.error);
+        OpResult result = observer.values.get(0);
+        sessionInfo = result.getSession();
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+package org.openjproxy.grpc.server;
+
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.LobDataBlock;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LobDataBlocksInputStreamTest {
+
+    @Test
+    public void shouldReadBlocksAsTheyArrive() throws Exception {
+        byte[] lob = bytes(3000);
+        LobDataBlocksInputStream stream = new LobDataBlocksInputStream(block(lob, 0, 1000));
+        CompletableFuture<byte[]> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stream.readAllBytes();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        stream.addBlock(block(lob, 1000, 1000));
+        stream.addBlock(block(lob, 2000, 1000));
+        assertFalse(read.isDone());
+        assertFalse(stream.getConsumption().isDone());
+        stream.finish();
+
+        assertArrayEquals(lob, read.get(5, TimeUnit.SECONDS));
+        assertTrue(stream.getConsumption().isDone());
+        assertEquals(-1, stream.read());
+    }
+
+    @Test
+    public void shouldReadSingleBytesAcrossBlocks() throws IOException {
+        LobDataBlocksInputStream stream = new LobDataBlocksInputStream(block(new byte[]{1}, 0, 1));
+        stream.addBlock(block(new byte[0], 0, 0));
+        stream.addBlock(block(new byte[]{2, 3}, 0, 2));
+        stream.finish();
+
+        assertEquals(1, stream.read());
+        assertEquals(2, stream.read());
+        assertEquals(3, stream.read());
+        assertEquals(-1, stream.read());
+    }
+
+    @Test
+    public void shouldFailTheReaderWhenReceivingFails() {
+        LobDataBlocksInputStream stream = new LobDataBlocksInputStream(block(new byte[]{1}, 0, 1));
+        stream.fail(new IllegalStateException("client gone"));
+
+        IOException e = assertThrows(IOException.class, stream::readAllBytes);
+        assertTrue(e.getMessage().contains("client gone"));
+        assertThrows(ExecutionException.class, () -> stream.getConsumption().get());
+    }
+
+    private LobDataBlock block(byte[] data, int offset, int length) {
+        return LobDataBlock.newBuilder().setData(ByteString.copyFrom(data, offset, length)).build();
+    }
+
+    private byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,154 @@
+package org.openjproxy.grpc.server;
+
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.CallResourceRequest;
+import com.openjproxy.grpc.CallType;
+import com.openjproxy.grpc.OpResult;
+import com.openjproxy.grpc.ResourceType;
+import com.openjproxy.grpc.RowBlock;
+import com.openjproxy.grpc.SessionInfo;
+import com.openjproxy.grpc.StatementRequest;
+import com.openjproxy.grpc.TargetCall;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.SerializationHandler;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies catalog result sets are sent in full and cached until DDL runs through the server, and dropped again when
+ * the transaction running it ends.
+ */
+public class MetaDataResultSetTest {
+
+    private StatementServiceImpl statementService;
+    private SessionInfo sessionInfo;
+    private String url;
+
+    @BeforeEach
+    public void setUp() {
+        StatementServiceFixture fixture = new StatementServiceFixture("metaDataResultSet");
+        statementService = fixture.getStatementService();
+        url = fixture.getUrl();
+        sessionInfo = fixture.connect();
+    }
+
+    @Test
+    public void shouldServeCachedTablesUntilDdlRunsThroughTheServer() throws Exception {
+        executeUpdate("CREATE TABLE first_table (id INT PRIMARY KEY)");
+        assertEquals(1, countTables());
+
+        //Not seen while cached, it did not run through the server.
+        try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+            conn.createStatement().executeUpdate("CREATE TABLE second_table (id INT PRIMARY KEY)");
+        }
+        assertEquals(1, countTables());
+
+        executeUpdate("CREATE TABLE third_table (id INT PRIMARY KEY)");
+        assertEquals(3, countTables());
+    }
+
+    @Test
+    public void shouldDropCachedTablesAgainWhenTheTransactionRunningDdlEnds() throws Exception {
+        SessionInfo transactionSession = startTransaction();
+        executeUpdate(transactionSession, "CREATE TABLE first_table (id INT PRIMARY KEY)");
+        //Read by other sessions before the transaction ends.
+        assertEquals(1, countTables());
+        try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+            conn.createStatement().executeUpdate("CREATE TABLE second_table (id INT PRIMARY KEY)");
+        }
+        assertEquals(1, countTables());
+
+        TestObserver<SessionInfo> commitObserver = new TestObserver<>();
+        statementService.commitTransaction(transactionSession, commitObserver);
+        assertNull(commitObserver.error);
+        assertEquals(2, countTables());
+    }
+
+    @Test
+    public void shouldDropCachedTablesAgainWhenTheTransactionRunningDdlIsRolledBack() throws Exception {
+        SessionInfo transactionSession = startTransaction();
+        executeUpdate(transactionSession, "CREATE TABLE first_table (id INT PRIMARY KEY)");
+        assertEquals(1, countTables());
+        try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+            conn.createStatement().executeUpdate("CREATE TABLE second_table (id INT PRIMARY KEY)");
+        }
+
+        TestObserver<SessionInfo> rollbackObserver = new TestObserver<>();
+        statementService.rollbackTransaction(transactionSession, rollbackObserver);
+        assertNull(rollbackObserver.error);
+        assertEquals(2, countTables());
+    }
+
+    @Test
+    public void shouldSendColumnMetadataAndNoResultSetUUID() throws Exception {
+        executeUpdate("CREATE TABLE columns_table (id INT PRIMARY KEY, name VARCHAR(20))");
+        TestObserver<OpResult> observer = readMetaData("Columns",
+                Arrays.asList(null, "PUBLIC", "COLUMNS_TABLE", null));
+
+        assertNull(observer.error);
+        assertTrue(observer.completed);
+        RowBlock block = RowBlock.parseFrom(observer.values.get(0).getValue());
+        assertEquals(2, block.getRowsCount());
+        assertTrue(block.getColumnMetadataCount() > 0);
+        assertEquals("", block.getResultSetUUID());
+    }
+
+    private int countTables() throws Exception {
+        TestObserver<OpResult> observer = readMetaData("Tables",
+                Arrays.asList(null, "PUBLIC", "%", new String[]{"TABLE"}));
+        assertNull(observer.error);
+        int rows = 0;
+        for (OpResult result : observer.values) {
+            rows += RowBlock.parseFrom(result.getValue()).getRowsCount();
+        }
+        return rows;
+    }
+
+    private TestObserver<OpResult> readMetaData(String resourceName, List<Object> params) {
+        TestObserver<OpResult> observer = new TestObserver<>();
+        statementService.readMetaDataResultSet(CallResourceRequest.newBuilder()
+                .setSession(sessionInfo)
+                .setResourceType(ResourceType.RES_CONNECTION)
+                .setTarget(TargetCall.newBuilder()
+                        .setCallType(CallType.CALL_GET)
+                        .setResourceName("MetaData")
+                        .setNextCall(TargetCall.newBuilder()
+                                .setCallType(CallType.CALL_GET)
+                                .setResourceName(resourceName)
+                                .setParams(ByteString.copyFrom(SerializationHandler.serialize(params)))
+                                .build())
+                        .build())
+                .build(), observer);
+        return observer;
+    }
+
+    private SessionInfo startTransaction() {
+        TestObserver<SessionInfo> observer = new TestObserver<>();
+        statementService.startTransaction(sessionInfo, observer);
+        assertNull(observer.error);
+        return observer.values.get(0);
+    }
+
+    private void executeUpdate(String sql) {
+        executeUpdate(sessionInfo, sql);
+    }
+
+    private void executeUpdate(SessionInfo session, String sql) {
+        TestObserver<OpResult> observer = new TestObserver<>();
+        statementService.executeUpdate(StatementRequest.newBuilder()
+                .setSession(session)
+                .setSql(sql)
+                .setParameters(ByteString.copyFrom(SerializationHandler.serialize(new ArrayList<>())))
+                .build(), observer);
+        assertNull(observer.error);
+    }
+}
@@ -0,0 +1,189 @@
+package org.openjproxy.grpc.server;
+
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.CallResourceRequest;
+import com.openjproxy.grpc.CallResourceResponse;
+import com.openjproxy.grpc.CallType;
+import com.openjproxy.grpc.OpResult;
+import com.openjproxy.grpc.ResourceType;
+import com.openjproxy.grpc.RowBlock;
+import com.openjproxy.grpc.SessionInfo;
+import com.openjproxy.grpc.StatementRequest;
+import com.openjproxy.grpc.TargetCall;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.SerializationHandler;
+
+import java.sql.Types;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that query results are only read from the database cursor when the client is ready to take them.
+ */
+public class ResultSetStreamingTest {
+
+    private static final int TOTAL_ROWS = 250;
+
+    private StatementServiceImpl statementService;
+    private SessionInfo sessionInfo;
+
+    @AfterEach
+    public void tearDown() {
+        System.clearProperty("ojp.server.resultSet.targetBlockBytes");
+    }
+
+    @BeforeEach
+    public void setUp() {
+        startServiceWithTestTable();
+    }
+
+    /**
+     * Starts a service reading the server configuration from the current system properties, connected to a fresh
+     * database holding the test table.
+     */
+    private void startServiceWithTestTable() {
+        StatementServiceFixture fixture = new StatementServiceFixture("streaming");
+        statementService = fixture.getStatementService();
+        sessionInfo = fixture.connect();
+
+        executeUpdate("CREATE TABLE streaming_test (id INT PRIMARY KEY, name VARCHAR(50))");
+        for (int i = 0; i < TOTAL_ROWS; i++) {
+            executeUpdate("INSERT INTO streaming_test (id, name) VALUES (" + i + ", 'name " + i + "')");
+        }
+    }
+
+    @Test
+    public void shouldOnlySendFurtherBlocksWhenClientIsReady() throws Exception {
+        TestObserver<OpResult> observer = new TestObserver<>();
+        observer.ready = false;
+
+        statementService.executeQuery(queryRequest("SELECT id, name FROM streaming_test ORDER BY id", 100), observer);
+
+        assertNull(observer.error);
+        assertEquals(1, observer.values.size(), "Only the first block is sent while the client is not ready");
+        assertFalse(observer.completed);
+
+        observer.ready = true;
+        observer.onReadyHandler.run();
+
+        assertNull(observer.error);
+        assertTrue(observer.completed);
+        int rows = 0;
+        for (OpResult result : observer.values) {
+            rows += RowBlock.parseFrom(result.getValue()).getRowsCount();
+        }
+        assertEquals(TOTAL_ROWS, rows);
+        assertEquals(2, RowBlock.parseFrom(observer.values.get(0).getValue()).getLabelsCount());
+        RowBlock firstBlock = RowBlock.parseFrom(observer.values.get(0).getValue());
+        assertEquals(2, firstBlock.getColumnMetadataCount(), "Full column metadata is sent with the first block");
+        assertEquals(Types.INTEGER, firstBlock.getColumnMetadata(0).getColumnType());
+        assertEquals("STREAMING_TEST", firstBlock.getColumnMetadata(1).getTableName());
+        assertEquals(0, RowBlock.parseFrom(observer.values.get(1).getValue()).getColumnMetadataCount());
+    }
+
+    @Test
+    public void shouldStopStreamingWhenTheResultSetIsClosed() throws Exception {
+        TestObserver<OpResult> observer = new TestObserver<>();
+        observer.ready = false;
+
+        statementService.executeQuery(queryRequest("SELECT id, name FROM streaming_test ORDER BY id", 100), observer);
+        String resultSetUUID = RowBlock.parseFrom(observer.values.get(0).getValue()).getResultSetUUID();
+
+        TestObserver<CallResourceResponse> closeObserver = new TestObserver<>();
+        statementService.callResource(CallResourceRequest.newBuilder()
+                .setSession(observer.values.get(0).getSession())
+                .setResourceType(ResourceType.RES_RESULT_SET)
+                .setResourceUUID(resultSetUUID)
+                .setTarget(TargetCall.newBuilder()
+                        .setCallType(CallType.CALL_CLOSE)
+                        .setResourceName("")
+                        .setParams(ByteString.copyFrom(SerializationHandler.serialize(new ArrayList<>())))
+                        .build())
+                .build(), closeObserver);
+
+        assertNull(closeObserver.error);
+        assertTrue(observer.completed, "Closing the result set completes the stream");
+        observer.ready = true;
+        observer.onReadyHandler.run();
+        assertNull(observer.error);
+        assertEquals(1, observer.values.size(), "No block is read once the result set is closed");
+    }
+
+    @Test
+    public void shouldCompleteSmallResultsWithoutWaitingForReadiness() {
+        TestObserver<OpResult> observer = new TestObserver<>();
+        observer.ready = false;
+
+        statementService.executeQuery(queryRequest("SELECT id FROM streaming_test WHERE id < 10", 0), observer);
+
+        assertNull(observer.error);
+        assertEquals(1, observer.values.size());
+        assertTrue(observer.completed);
+    }
+
+    @Test
+    public void shouldSizeBlocksByFetchSize() throws Exception {
+        TestObserver<OpResult> observer = new TestObserver<>();
+
+        statementService.executeQuery(queryRequest("SELECT id, name FROM streaming_test ORDER BY id", 40), observer);
+
+        assertNull(observer.error);
+        assertTrue(observer.completed);
+        assertEquals(7, observer.values.size());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(40, RowBlock.parseFrom(observer.values.get(i).getValue()).getRowsCount());
+        }
+        assertEquals(10, RowBlock.parseFrom(observer.values.get(6).getValue()).getRowsCount());
+    }
+
+    @Test
+    public void shouldSizeBlocksByTargetBytesWhenNoFetchSizeIsSet() throws Exception {
+        TestObserver<OpResult> observer = new TestObserver<>();
+        statementService.executeQuery(queryRequest("SELECT id, name FROM streaming_test ORDER BY id", 0), observer);
+
+        assertNull(observer.error);
+        assertEquals(1, observer.values.size(), "Narrow rows fit the default target block bytes in one block");
+        assertEquals(TOTAL_ROWS, RowBlock.parseFrom(observer.values.get(0).getValue()).getRowsCount());
+
+        System.setProperty("ojp.server.resultSet.targetBlockBytes", "1000");
+        startServiceWithTestTable();
+        observer = new TestObserver<>();
+        statementService.executeQuery(queryRequest("SELECT id, name FROM streaming_test ORDER BY id", 0), observer);
+
+        assertNull(observer.error);
+        assertTrue(observer.completed);
+        assertTrue(observer.values.size() > 1);
+        int rows = 0;
+        for (OpResult result : observer.values) {
+            int blockRows = RowBlock.parseFrom(result.getValue()).getRowsCount();
+            assertTrue(blockRows < 100, "Blocks are cut once the target bytes are reached");
+            rows += blockRows;
+        }
+        assertEquals(TOTAL_ROWS, rows);
+    }
+
+    private void executeUpdate(String sql) {
+        TestObserver<OpResult> observer = new TestObserver<>();
+        statementService.executeUpdate(StatementRequest.newBuilder()
+                .setSession(sessionInfo)
+                .setSql(sql)
+                .setParameters(ByteString.copyFrom(SerializationHandler.serialize(new ArrayList<>())))
+                .build(), observer);
+        assertNull(observer.error);
+    }
+
+    private StatementRequest queryRequest(String sql, int fetchSize) {
+        return StatementRequest.newBuilder()
+                .setSession(sessionInfo)
+                .setSql(sql)
+                .setFetchSize(fetchSize)
+                .setParameters(ByteString.copyFrom(SerializationHandler.serialize(new ArrayList<>())))
+                .build();
+    }
+}
@@ -26,6 +26,7 @@ public class ServerConfigurationTest {
         System.clearProperty("ojp.server.connectionIdleTimeout");
         System.clearProperty("ojp.prometheus.allowedIps");
         System.clearProperty("ojp.server.circuitBreakerTimeout");
+        System.clearProperty("ojp.server.lob.blockSize");
     }
 
     @Test
@@ -112,6 +113,18 @@ public class ServerConfigurationTest {
         assertTrue(config.isOpenTelemetryEnabled());
     }
 
+    @Test
+    public void testLobBlockSizeBelowOneUsesDefault() {
+        System.setProperty("ojp.server.lob.blockSize", "0");
+        assertEquals(ServerConfiguration.DEFAULT_LOB_BLOCK_SIZE, new ServerConfiguration().getLobBlockSize());
+
+        System.setProperty("ojp.server.lob.blockSize", "-1");
+        assertEquals(ServerConfiguration.DEFAULT_LOB_BLOCK_SIZE, new ServerConfiguration().getLobBlockSize());
+
+        System.setProperty("ojp.server.lob.blockSize", "1");
+        assertEquals(1, new ServerConfiguration().getLobBlockSize());
+    }
+
     @Test
     public void testListProperties() {
         System.setProperty("ojp.server.allowedIps", "192.168.1.1, 10.0.0.0/8 , 172.16.0.1");
@@ -72,6 +72,34 @@ public class SlowQuerySegregationManagerTest {
         assertTrue(disabledManager.getOperationAverageTime(operationHash) > 0);
     }
 
+    @Test
+    public void testExecuteStreamWithSegregationHoldsSlotUntilReleased() throws Exception {
+        String operationHash = "stream-operation";
+        Runnable[] releases = new Runnable[1];
+        
+        segregationManager.executeStreamWithSegregation(operationHash, release -> releases[0] = release);
+        
+        // The slot stays taken after the call returns, until the stream releases it
+        assertEquals(1, segregationManager.getSlotManager().getActiveFastOperations());
+        assertEquals(0, segregationManager.getPerformanceMonitor().getTotalExecutionCount());
+        
+        releases[0].run();
+        releases[0].run();
+        
+        assertEquals(0, segregationManager.getSlotManager().getActiveFastOperations());
+        assertEquals(1, segregationManager.getPerformanceMonitor().getTotalExecutionCount());
+    }
+
+    @Test
+    public void testExecuteStreamWithSegregationReleasesSlotWhenStartFails() {
+        assertThrows(IllegalStateException.class, () -> segregationManager.executeStreamWithSegregation(
+                "failing-stream", release -> {
+                    throw new IllegalStateException("start failed");
+                }));
+        
+        assertEquals(0, segregationManager.getSlotManager().getActiveFastOperations());
+    }
+
     @Test
     public void testSlowOperationClassification() throws Exception {
         String fastOp = "fast-operation";
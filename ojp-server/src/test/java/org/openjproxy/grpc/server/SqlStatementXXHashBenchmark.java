@@ -0,0 +1,48 @@
+package org.openjproxy.grpc.server;
+
+import net.jpountz.xxhash.XXHashFactory;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Manual benchmark comparing the single pass SQL fingerprint against normalizing with intermediate strings and
+ * hashing the resulting bytes. Run the main method, numbers are only meaningful relative to each other.
+ */
+public class SqlStatementXXHashBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        String shortSql = "SELECT id, name, email FROM users WHERE id = ? AND status = ?";
+        String longSql = "SELECT " + "t.some_column_name,\n       ".repeat(300) + "t.id FROM some_table t WHERE t.id = ?";
+
+        for (String sql : new String[]{shortSql, longSql}) {
+            System.out.println("SQL of " + sql.length() + " chars");
+            run("  intermediate strings", sql, SqlStatementXXHashBenchmark::intermediateStrings);
+            //New instances per call, as the SQL of each request is a new string.
+            run("  single pass         ", sql, s -> SqlStatementXXHash.hashSqlQuery(new String(s)));
+            run("  identity cache hit  ", sql, SqlStatementXXHash::hashSqlQuery);
+        }
+    }
+
+    private static String intermediateStrings(String sql) {
+        String normalized = sql.trim().replaceAll("\\s+", " ").toLowerCase();
+        byte[] data = normalized.getBytes(StandardCharsets.UTF_8);
+        return Long.toHexString(XXHashFactory.fastestInstance().hash64().hash(data, 0, data.length, 0x9747b28c));
+    }
+
+    private static void run(String name, String sql, java.util.function.Function<String, String> hash) {
+        int iterations = sql.length() > 1000 ? MEASURED_ITERATIONS / 20 : MEASURED_ITERATIONS;
+        long blackhole = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS / (sql.length() > 1000 ? 20 : 1); i++) {
+            blackhole += hash.apply(sql).length();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += hash.apply(sql).length();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s %,10.1f ns/op (%d)%n", name, (double) elapsed / iterations, blackhole % 10);
+    }
+}
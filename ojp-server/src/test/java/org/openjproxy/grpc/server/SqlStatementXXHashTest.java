@@ -0,0 +1,61 @@
+package org.openjproxy.grpc.server;
+
+import net.jpountz.xxhash.XXHashFactory;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SqlStatementXXHashTest {
+
+    private static final String[] SQLS = {
+            "SELECT * FROM users WHERE id = ?",
+            "  \n\tSELECT  *\r\n FROM   Users\tWHERE name = 'Ann  Lee' \n ",
+            "INSERT INTO café (naïve, emoji) VALUES ('Ünïcödé', '😀')",
+            "",
+            "select\u0001 1 \u0001",
+            "SELECT " + "very_long_column_name, ".repeat(200) + "id FROM t"
+    };
+
+    @Test
+    public void shouldNormalizeAsTrimCollapseAndLowercase() {
+        for (String sql : SQLS) {
+            assertEquals(sql.trim().replaceAll("\\s+", " ").toLowerCase(), SqlStatementXXHash.normalizeSql(sql));
+        }
+        assertEquals("", SqlStatementXXHash.normalizeSql(null));
+    }
+
+    @Test
+    public void shouldHashTheBytesOfTheNormalizedSql() {
+        for (String sql : SQLS) {
+            byte[] data = sql.trim().replaceAll("\\s+", " ").toLowerCase().getBytes(StandardCharsets.UTF_8);
+            long expected = XXHashFactory.safeInstance().hash64().hash(data, 0, data.length, 0x9747b28c);
+            assertEquals(Long.toHexString(expected), SqlStatementXXHash.hashSqlQuery(new String(sql)));
+        }
+    }
+
+    @Test
+    public void shouldReplaceLiteralsWhenAsked() {
+        assertEquals("select * from t1 where id = ? and name = ? and price > ? and flags = ?",
+                SqlStatementXXHash.normalizeSql(
+                        "SELECT * FROM t1 WHERE id = 5 AND name = 'O''Brien' AND price > 1.5e3 AND flags = 0xFF", true));
+        assertEquals("select \"col 1\", `2nd` from t where x = ?",
+                SqlStatementXXHash.normalizeSql("SELECT \"Col 1\", `2nd` FROM t WHERE x = 'a'", true));
+        assertEquals(SqlStatementXXHash.hashSqlQuery("SELECT * FROM t WHERE id = 5", true),
+                SqlStatementXXHash.hashSqlQuery("select * from t where id = 6", true));
+        assertNotEquals(SqlStatementXXHash.hashSqlQuery("SELECT * FROM t WHERE id = 5"),
+                SqlStatementXXHash.hashSqlQuery("SELECT * FROM t WHERE id = 6"));
+    }
+
+    @Test
+    public void shouldReuseHashOfTheSameSqlInstance() {
+        String sql = new String("SELECT * FROM users WHERE id = ?");
+        String hash = SqlStatementXXHash.hashSqlQuery(sql);
+
+        assertSame(hash, SqlStatementXXHash.hashSqlQuery(sql));
+        assertEquals(hash, SqlStatementXXHash.hashSqlQuery(new String(sql)));
+    }
+}
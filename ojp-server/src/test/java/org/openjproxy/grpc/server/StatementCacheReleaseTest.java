@@ -0,0 +1,86 @@
+package org.openjproxy.grpc.server;
+
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.OpResult;
+import com.openjproxy.grpc.SessionInfo;
+import com.openjproxy.grpc.StatementRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.SerializationHandler;
+import org.openjproxy.grpc.dto.Parameter;
+import org.openjproxy.grpc.dto.ParameterType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Verifies cached prepared statements are put back in the cache of the session when their execution fails.
+ */
+public class StatementCacheReleaseTest {
+
+    private SessionManagerImpl sessionManager;
+    private StatementServiceImpl statementService;
+    private SessionInfo sessionInfo;
+
+    @BeforeEach
+    public void setUp() {
+        StatementServiceFixture fixture = new StatementServiceFixture("statementCacheRelease");
+        sessionManager = fixture.getSessionManager();
+        statementService = fixture.getStatementService();
+        sessionInfo = fixture.connect();
+        assertNull(execute(false, "CREATE TABLE cache_release_test (id INT PRIMARY KEY)").error);
+        //Queries open a session, which holds the statement cache.
+        assertNull(execute(true, "SELECT id FROM cache_release_test WHERE id = ?", id(0)).error);
+    }
+
+    @Test
+    public void shouldReleaseStatementsWhoseUpdateFailed() {
+        String insert = "INSERT INTO cache_release_test (id) VALUES (?)";
+        assertNull(execute(false, insert, id(1)).error);
+        assertEquals(2, cacheSize());
+
+        assertNotNull(execute(false, insert, id(1)).error);
+        assertEquals(2, cacheSize(), "The statement is back in the cache");
+        assertNull(execute(false, insert, id(2)).error);
+    }
+
+    @Test
+    public void shouldReleaseStatementsWhoseQueryFailed() {
+        String query = "SELECT 10 / id FROM cache_release_test WHERE id >= ?";
+        assertNull(execute(false, "INSERT INTO cache_release_test (id) VALUES (0)").error);
+
+        assertNotNull(execute(true, query, id(0)).error);
+        assertEquals(2, cacheSize(), "The statement is back in the cache");
+    }
+
+    private int cacheSize() {
+        return sessionManager.getSession(sessionInfo)
+                .getPreparedStatementCache(new ServerConfiguration().getPreparedStatementCacheSize()).size();
+    }
+
+    private static Parameter id(int id) {
+        return Parameter.builder().index(1).type(ParameterType.INT).values(List.of(id)).build();
+    }
+
+    private TestObserver<OpResult> execute(boolean query, String sql, Parameter... params) {
+        StatementRequest request = StatementRequest.newBuilder()
+                .setSession(sessionInfo)
+                .setSql(sql)
+                .setParameters(ByteString.copyFrom(SerializationHandler.serialize(new ArrayList<>(List.of(params)))))
+                .build();
+        TestObserver<OpResult> observer = new TestObserver<>();
+        if (query) {
+            statementService.executeQuery(request, observer);
+        } else {
+            statementService.executeUpdate(request, observer);
+        }
+        if (!observer.values.isEmpty()) {
+            sessionInfo = observer.values.get(0).getSession();
+        }
+        return observer;
+    }
+}
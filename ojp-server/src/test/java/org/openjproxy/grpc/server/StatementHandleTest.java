@@ -0,0 +1,91 @@
+package org.openjproxy.grpc.server;
+
+import com.google.protobuf.ByteString;
+import com.openjproxy.grpc.OpResult;
+import com.openjproxy.grpc.RowBlock;
+import com.openjproxy.grpc.SessionInfo;
+import com.openjproxy.grpc.SqlErrorResponse;
+import com.openjproxy.grpc.StatementHandle;
+import com.openjproxy.grpc.StatementRegistration;
+import com.openjproxy.grpc.StatementRequest;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.constants.CommonConstants;
+import org.openjproxy.grpc.SerializationHandler;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Verifies statements are executed by the handle of their registered SQL.
+ */
+public class StatementHandleTest {
+
+    private StatementServiceImpl statementService;
+    private SessionInfo sessionInfo;
+
+    @BeforeEach
+    public void setUp() {
+        StatementServiceFixture fixture = new StatementServiceFixture("handles");
+        statementService = fixture.getStatementService();
+        sessionInfo = fixture.connect();
+    }
+
+    @Test
+    public void shouldExecuteRegisteredSqlByHandle() throws Exception {
+        long createHandle = register("CREATE TABLE handle_test (id INT)");
+        long insertHandle = register("INSERT INTO handle_test (id) VALUES (1)");
+        assertNotEquals(0, createHandle);
+        assertEquals(insertHandle, register("INSERT INTO handle_test (id) VALUES (1)"));
+
+        execute(createHandle, false);
+        execute(insertHandle, false);
+        execute(insertHandle, false);
+        TestObserver<OpResult> observer = execute(register("SELECT id FROM handle_test"), true);
+
+        assertNull(observer.error);
+        assertEquals(2, RowBlock.parseFrom(observer.values.get(0).getValue()).getRowsCount());
+    }
+
+    @Test
+    public void shouldReportUnknownHandles() {
+        TestObserver<OpResult> observer = execute(42, true);
+
+        assertNotNull(observer.error);
+        SqlErrorResponse errorResponse = Status.trailersFromThrowable(observer.error)
+                .get(ProtoUtils.keyForProto(SqlErrorResponse.getDefaultInstance()));
+        assertEquals(CommonConstants.UNKNOWN_STATEMENT_HANDLE_SQL_STATE, errorResponse.getSqlState());
+    }
+
+    private long register(String sql) {
+        TestObserver<StatementHandle> observer = new TestObserver<>();
+        statementService.registerStatement(StatementRegistration.newBuilder()
+                .setSession(sessionInfo)
+                .setSql(sql)
+                .build(), observer);
+        assertNull(observer.error);
+        return observer.values.get(0).getHandle();
+    }
+
+    private TestObserver<OpResult> execute(long handle, boolean query) {
+        TestObserver<OpResult> observer = new TestObserver<>();
+        StatementRequest request = StatementRequest.newBuilder()
+                .setSession(sessionInfo)
+                .setStatementHandle(handle)
+                .setParameters(ByteString.copyFrom(SerializationHandler.serialize(new ArrayList<>())))
+                .build();
+        if (query) {
+            statementService.executeQuery(request, observer);
+        } else {
+            statementService.executeUpdate(request, observer);
+            assertNull(observer.error);
+        }
+        return observer;
+    }
+}
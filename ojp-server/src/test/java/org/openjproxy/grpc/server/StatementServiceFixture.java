@@ -0,0 +1,48 @@
+package org.openjproxy.grpc.server;
+
+import com.openjproxy.grpc.ConnectionDetails;
+import com.openjproxy.grpc.ResultSetFormat;
+import com.openjproxy.grpc.SessionInfo;
+import lombok.Getter;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Statement service backed by a fresh H2 in memory database, for the tests calling the service directly the way the
+ * driver does. The server configuration is read from the system properties set when the fixture is created.
+ */
+@Getter
+class StatementServiceFixture {
+
+    private final SessionManagerImpl sessionManager = new SessionManagerImpl();
+    private final StatementServiceImpl statementService = new StatementServiceImpl(this.sessionManager,
+            new CircuitBreaker(60000, 3), new ServerConfiguration());
+    private final String url;
+
+    /**
+     * @param databaseName Prefix of the name of the database, a random suffix keeps every fixture apart
+     */
+    StatementServiceFixture(String databaseName) {
+        this.url = "jdbc:h2:mem:" + databaseName + UUID.randomUUID();
+    }
+
+    /**
+     * Connects a new client advertising row blocks to the database.
+     *
+     * @return the session info returned on connect
+     */
+    SessionInfo connect() {
+        TestObserver<SessionInfo> observer = new TestObserver<>();
+        this.statementService.connect(ConnectionDetails.newBuilder()
+                .setUrl(this.url)
+                .setUser("sa")
+                .setPassword("")
+                .setClientUUID(UUID.randomUUID().toString())
+                .addSupportedResultSetFormats(ResultSetFormat.RSF_ROW_BLOCK)
+                .build(), observer);
+        assertNull(observer.error);
+        return observer.values.get(0);
+    }
+}
@@ -0,0 +1,68 @@
+package org.openjproxy.grpc.server;
+
+import io.grpc.stub.ServerCallStreamObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects what the service sends to a client, readiness is controlled by the test and the ready handler is kept so
+ * the test can run it.
+ */
+class TestObserver<T> extends ServerCallStreamObserver<T> {
+    final List<T> values = new ArrayList<>();
+    volatile boolean ready = true;
+    volatile boolean completed;
+    volatile Throwable error;
+    Runnable onReadyHandler;
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public void setOnCancelHandler(Runnable onCancelHandler) {
+    }
+
+    @Override
+    public void setCompression(String compression) {
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void setOnReadyHandler(Runnable onReadyHandler) {
+        this.onReadyHandler = onReadyHandler;
+    }
+
+    @Override
+    public void disableAutoInboundFlowControl() {
+    }
+
+    @Override
+    public void request(int count) {
+    }
+
+    @Override
+    public void setMessageCompression(boolean enable) {
+    }
+
+    @Override
+    public void onNext(T value) {
+        values.add(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        error = t;
+    }
+
+    @Override
+    public void onCompleted() {
+        completed = true;
+    }
+}
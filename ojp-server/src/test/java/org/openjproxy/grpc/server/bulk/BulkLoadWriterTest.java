@@ -0,0 +1,86 @@
+package org.openjproxy.grpc.server.bulk;
+
+import com.openjproxy.grpc.DbName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkLoadWriterTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bulkLoadWriter", "sa", "");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE bulk_test (id INT, name VARCHAR(20))");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE bulk_test");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void shouldFallBackToBatchedInserts() throws SQLException {
+        BulkLoadWriter writer = BulkLoadWriter.open(connection, DbName.H2, "bulk_test", List.of("id", "name"));
+        assertTrue(writer instanceof BatchInsertBulkLoadWriter);
+
+        writer.write(Arrays.asList(new Object[]{1, "one"}, new Object[]{2, null}));
+        writer.write(Collections.emptyList());
+        writer.write(Collections.singletonList(new Object[]{3, "three"}));
+        assertEquals(3, writer.finish());
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM bulk_test ORDER BY id")) {
+            assertTrue(rs.next());
+            assertEquals("one", rs.getString(2));
+            assertTrue(rs.next());
+            assertNull(rs.getString(2));
+            assertTrue(rs.next());
+            assertEquals(3, rs.getInt(1));
+            assertFalse(rs.next());
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidIdentifiers() {
+        assertThrows(SQLException.class, () -> BulkLoadWriter.open(connection, DbName.H2,
+                "bulk_test; DROP TABLE bulk_test", List.of("id")));
+        assertThrows(SQLException.class, () -> BulkLoadWriter.open(connection, DbName.H2,
+                "bulk_test", List.of("id", "name) VALUES (1, 'x'); --")));
+        assertThrows(SQLException.class, () -> BulkLoadWriter.open(connection, DbName.H2,
+                "bulk_test", Collections.emptyList()));
+    }
+
+    @Test
+    public void shouldWriteCsvValuesForCopy() {
+        StringBuilder csv = new StringBuilder();
+        for (Object value : new Object[]{null, 42, new BigDecimal("1E+3"), true, "say \"hi\", bye", "",
+                new byte[]{0x0A, (byte) 0xFF}}) {
+            CopyBulkLoadWriter.appendValue(csv, value);
+            csv.append('|');
+        }
+        assertEquals("|42|1000|true|\"say \"\"hi\"\", bye\"|\"\"|\\x0aff|", csv.toString());
+    }
+}
@@ -0,0 +1,82 @@
+package org.openjproxy.grpc.server.lob;
+
+import com.openjproxy.grpc.LobDataBlock;
+import com.openjproxy.grpc.SessionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LobDataBlockReaderTest {
+
+    @Test
+    public void shouldReadTheStreamInBlocksOfTheConfiguredSize() throws IOException {
+        byte[] lob = bytes(2500);
+        List<LobDataBlock> blocks = readAll(new LobDataBlockReader(SessionInfo.getDefaultInstance(),
+                new ByteArrayInputStream(lob), 1, 1000, -1));
+
+        assertEquals(3, blocks.size());
+        assertEquals(1000, blocks.get(0).getData().size());
+        assertEquals(500, blocks.get(2).getData().size());
+        assertEquals(2501, blocks.get(2).getPosition());
+        assertArrayEquals(lob, concat(blocks));
+    }
+
+    @Test
+    public void shouldSizeBlocksByTheExpectedLength() throws IOException {
+        byte[] lob = bytes(2000);
+        List<LobDataBlock> blocks = readAll(new LobDataBlockReader(SessionInfo.getDefaultInstance(),
+                new ByteArrayInputStream(lob), 1, 1000, 2000));
+
+        assertEquals(2, blocks.size());
+        assertArrayEquals(lob, concat(blocks));
+
+        //Streams longer than expected, like clobs read as UTF-8, are still read to the end.
+        blocks = readAll(new LobDataBlockReader(SessionInfo.getDefaultInstance(),
+                new ByteArrayInputStream(lob), 1, 1000, 1500));
+        assertArrayEquals(lob, concat(blocks));
+    }
+
+    @Test
+    public void shouldAnswerEmptyLobsWithOneEmptyBlock() throws IOException {
+        LobDataBlockReader reader = new LobDataBlockReader(SessionInfo.getDefaultInstance(),
+                new ByteArrayInputStream(new byte[0]), 1, 1000, -1);
+
+        LobDataBlock block = reader.nextBlock();
+        assertEquals(0, block.getData().size());
+        assertEquals(1, block.getPosition());
+        assertNull(reader.nextBlock());
+    }
+
+    private List<LobDataBlock> readAll(LobDataBlockReader reader) throws IOException {
+        List<LobDataBlock> blocks = new ArrayList<>();
+        LobDataBlock block;
+        while ((block = reader.nextBlock()) != null) {
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    private byte[] concat(List<LobDataBlock> blocks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (LobDataBlock block : blocks) {
+            block.getData().writeTo(out);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+}
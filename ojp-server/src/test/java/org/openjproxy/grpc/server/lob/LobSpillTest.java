@@ -0,0 +1,221 @@
+package org.openjproxy.grpc.server.lob;
+
+import com.openjproxy.grpc.SessionInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.openjproxy.constants.CommonConstants;
+import org.openjproxy.grpc.server.Session;
+import org.openjproxy.grpc.server.SessionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LobSpillTest {
+
+    private static final int SPILL_THRESHOLD = 1000;
+
+    private Connection connection;
+    private SessionManager sessionManager;
+    private SessionInfo sessionInfo;
+    private Session session;
+    private LobSpillQuota quota;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:lobSpill", "sa", "");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE spill_test (id INT, data BLOB)");
+        }
+        session = new Session(connection, "hash", "client");
+        sessionInfo = session.getSessionInfo();
+        sessionManager = Mockito.mock(SessionManager.class);
+        when(sessionManager.getSession(sessionInfo)).thenReturn(session);
+        quota = new LobSpillQuota(0);
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        if (!connection.isClosed()) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("DROP TABLE spill_test");
+            }
+            connection.close();
+        }
+    }
+
+    @Test
+    public void shouldSpillBlobsFromTheThreshold() throws Exception {
+        byte[] small = bytes(SPILL_THRESHOLD - 1);
+        byte[] large = bytes(SPILL_THRESHOLD * 5);
+        insert(1, small);
+        insert(2, large);
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT data FROM spill_test ORDER BY id")) {
+            rs.next();
+            assertArrayEquals(small, (byte[]) LobProcessor.treatAsBlob(sessionManager, sessionInfo, rs, 0,
+                    new HashMap<>(), spillTarget()));
+            verify(sessionManager, never()).registerLob(any(), any(), anyString());
+
+            rs.next();
+            String value = (String) LobProcessor.treatAsBlob(sessionManager, sessionInfo, rs, 0,
+                    new HashMap<>(), spillTarget());
+            assertTrue(value.startsWith(CommonConstants.OJP_BLOB_PREFIX));
+            String lobUUID = value.substring(CommonConstants.OJP_BLOB_PREFIX.length());
+            ArgumentCaptor<Object> spilled = ArgumentCaptor.forClass(Object.class);
+            verify(sessionManager).registerLob(eq(sessionInfo), spilled.capture(), eq(lobUUID));
+            SpilledBlob blob = (SpilledBlob) spilled.getValue();
+            assertEquals(large.length, blob.length());
+            try (InputStream in = blob.getBinaryStream()) {
+                assertArrayEquals(large, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadRegionsOfSpilledLobs() throws IOException, SQLException {
+        try (LobSpillFile spillFile = new LobSpillFile(quota)) {
+            byte[] first = bytes(3000);
+            byte[] second = new byte[2000];
+            SpilledBlob firstBlob = spillFile.spill(new byte[]{first[0]},
+                    new ByteArrayInputStream(first, 1, first.length - 1));
+            SpilledBlob secondBlob = spillFile.spill(second, InputStream.nullInputStream());
+
+            assertArrayEquals(first, firstBlob.getBytes(1, first.length));
+            assertArrayEquals(second, secondBlob.getBytes(1, second.length));
+            try (InputStream in = firstBlob.getBinaryStream(1001, 500)) {
+                byte[] expected = new byte[500];
+                System.arraycopy(first, 1000, expected, 0, 500);
+                assertArrayEquals(expected, in.readAllBytes());
+            }
+            assertThrows(SQLException.class, () -> secondBlob.getBinaryStream(1500, 1000));
+        }
+    }
+
+    @Test
+    public void shouldDeleteTheSpillFileWhenTheSessionTerminates() throws Exception {
+        SpilledBlob blob = session.getLobSpillFile(quota)
+                .spill(bytes(10), InputStream.nullInputStream());
+
+        session.terminate();
+
+        assertThrows(IOException.class, () -> blob.getBinaryStream().read());
+        assertEquals(0, quota.getUsedBytes());
+    }
+
+    @Test
+    public void shouldFreeSpilledLobsWhenTheTransactionEnds() throws Exception {
+        SpilledBlob blob = session.getLobSpillFile(quota).spill(bytes(10), InputStream.nullInputStream());
+        SpilledBlob otherBlob = session.getLobSpillFile(quota).spill(bytes(20), InputStream.nullInputStream());
+        session.addLob("blob", blob);
+        session.addLob("otherBlob", otherBlob);
+        session.addLob("stream", new ByteArrayInputStream(bytes(5)));
+
+        assertArrayEquals(bytes(10), blob.getBytes(1, 10));
+        session.freeSpilledLobs();
+
+        assertNull(session.getLob("blob"));
+        assertNull(session.getLob("otherBlob"));
+        assertNotNull(session.getLob("stream"));
+        assertEquals(0, quota.getUsedBytes());
+    }
+
+    @Test
+    public void shouldNotEmptyTheSpillFileWhileAStreamReadsIt() throws Exception {
+        try (LobSpillFile spillFile = new LobSpillFile(quota)) {
+            SpilledBlob blob = spillFile.spill(bytes(30), InputStream.nullInputStream());
+            InputStream in = blob.getBinaryStream();
+            assertEquals(bytes(1)[0], (byte) in.read());
+
+            blob.free();
+            assertEquals(30, quota.getUsedBytes());
+            byte[] rest = in.readAllBytes();
+            assertEquals(29, rest.length);
+            assertEquals(bytes(30)[29], rest[28]);
+            in.close();
+            assertEquals(0, quota.getUsedBytes());
+        }
+    }
+
+    @Test
+    public void shouldEmptyTheSpillFileOnceEveryLobIsFreed() throws Exception {
+        try (LobSpillFile spillFile = new LobSpillFile(quota)) {
+            SpilledBlob first = spillFile.spill(bytes(10), InputStream.nullInputStream());
+            SpilledBlob second = spillFile.spill(bytes(20), InputStream.nullInputStream());
+
+            first.free();
+            first.free();
+            assertEquals(30, quota.getUsedBytes());
+            assertThrows(SQLException.class, first::getBinaryStream);
+            second.free();
+            assertEquals(0, quota.getUsedBytes());
+
+            SpilledBlob third = spillFile.spill(bytes(15), InputStream.nullInputStream());
+            assertEquals(15, quota.getUsedBytes());
+            assertArrayEquals(bytes(15), third.getBytes(1, 15));
+        }
+    }
+
+    @Test
+    public void shouldDiscardLobsAboveTheSpillQuota() throws Exception {
+        LobSpillQuota smallQuota = new LobSpillQuota(SPILL_THRESHOLD * 2);
+        try (LobSpillFile spillFile = new LobSpillFile(smallQuota)) {
+            SpilledBlob blob = spillFile.spill(bytes(SPILL_THRESHOLD), InputStream.nullInputStream());
+
+            assertThrows(IOException.class, () -> spillFile.spill(bytes(SPILL_THRESHOLD),
+                    new ByteArrayInputStream(bytes(SPILL_THRESHOLD))));
+            assertEquals(SPILL_THRESHOLD, smallQuota.getUsedBytes());
+            assertArrayEquals(bytes(SPILL_THRESHOLD), blob.getBytes(1, SPILL_THRESHOLD));
+            SpilledBlob next = spillFile.spill(bytes(SPILL_THRESHOLD / 2), InputStream.nullInputStream());
+            assertArrayEquals(bytes(SPILL_THRESHOLD / 2), next.getBytes(1, SPILL_THRESHOLD / 2));
+        }
+        assertEquals(0, smallQuota.getUsedBytes());
+    }
+
+    private LobSpillTarget spillTarget() {
+        return LobSpillTarget.builder()
+                .threshold(SPILL_THRESHOLD)
+                .quota(quota)
+                .build();
+    }
+
+    private void insert(int id, byte[] data) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO spill_test VALUES (?, ?)")) {
+            ps.setInt(1, id);
+            ps.setBytes(2, data);
+            ps.executeUpdate();
+        }
+    }
+
+    private byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 7);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,118 @@
+package org.openjproxy.grpc.server.resultset;
+
+import com.openjproxy.grpc.DbName;
+import com.openjproxy.grpc.SessionInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.openjproxy.constants.CommonConstants;
+import org.openjproxy.grpc.server.ServerConfiguration;
+import org.openjproxy.grpc.server.SessionManager;
+import org.openjproxy.grpc.server.lob.LobSpillQuota;
+import org.openjproxy.grpc.server.lob.LobSpillTarget;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ColumnReaderPlanTest {
+
+    private static final List<String> INPUT_STREAM_TYPES = List.of("RAW", "BINARY VARYING", "BYTEA");
+    private static final LobSpillTarget SPILL_TARGET = LobSpillTarget.builder()
+            .threshold(ServerConfiguration.DEFAULT_LOB_SPILL_THRESHOLD)
+            .quota(new LobSpillQuota(0))
+            .build();
+
+    private Connection connection;
+    private SessionManager sessionManager;
+    private SessionInfo session;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:columnReaderPlan", "sa", "");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE plan_test (id INT, name VARCHAR(20), created DATE, updated TIMESTAMP, " +
+                    "data VARBINARY(10), notes CLOB)");
+            stmt.execute("INSERT INTO plan_test VALUES (1, 'one', DATE '2024-01-02', TIMESTAMP '2024-01-02 03:04:05', " +
+                    "X'0102', 'some notes')");
+            stmt.execute("INSERT INTO plan_test VALUES (2, NULL, NULL, NULL, NULL, NULL)");
+        }
+        sessionManager = Mockito.mock(SessionManager.class);
+        session = SessionInfo.newBuilder().setSessionUUID("session").build();
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE plan_test");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void shouldReadRowsWithoutInspectingMetadataPerRow() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = Mockito.spy(stmt.executeQuery("SELECT * FROM plan_test ORDER BY id"))) {
+            ColumnReaderPlan plan = ColumnReaderPlan.create(sessionManager, session, rs.getMetaData(), DbName.H2,
+                    new HashMap<>(), INPUT_STREAM_TYPES, SPILL_TARGET);
+            Mockito.clearInvocations(rs);
+
+            assertEquals(6, plan.getColumnCount());
+            assertFalse(plan.isRowByRow());
+            List<Object[]> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(plan.readRow(rs));
+            }
+
+            verify(rs, never()).getMetaData();
+            assertEquals(2, rows.size());
+            Object[] first = rows.get(0);
+            assertEquals(1, first[0]);
+            assertEquals("one", first[1]);
+            assertEquals(Date.valueOf("2024-01-02"), first[2]);
+            assertEquals(Timestamp.valueOf("2024-01-02 03:04:05"), first[3]);
+            assertArrayEquals(new byte[]{1, 2}, (byte[]) first[4]);
+            assertTrue(((String) first[5]).startsWith(CommonConstants.OJP_CLOB_PREFIX));
+            verify(sessionManager).registerLob(any(SessionInfo.class), any(), anyString());
+            for (int i = 1; i < 6; i++) {
+                assertNull(rows.get(1)[i]);
+            }
+        }
+    }
+
+    @Test
+    public void shouldSendRowByRowForLobsInSqlServerAndDb2() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet lobs = stmt.executeQuery("SELECT id, data FROM plan_test")) {
+            assertTrue(ColumnReaderPlan.create(sessionManager, session, lobs.getMetaData(), DbName.SQL_SERVER,
+                    new HashMap<>(), INPUT_STREAM_TYPES, SPILL_TARGET).isRowByRow());
+            assertTrue(ColumnReaderPlan.create(sessionManager, session, lobs.getMetaData(), DbName.DB2,
+                    new HashMap<>(), INPUT_STREAM_TYPES, SPILL_TARGET).isRowByRow());
+            assertFalse(ColumnReaderPlan.create(sessionManager, session, lobs.getMetaData(), DbName.POSTGRES,
+                    new HashMap<>(), INPUT_STREAM_TYPES, SPILL_TARGET).isRowByRow());
+        }
+        try (Statement stmt = connection.createStatement();
+             ResultSet noLobs = stmt.executeQuery("SELECT id, name FROM plan_test")) {
+            assertFalse(ColumnReaderPlan.create(sessionManager, session, noLobs.getMetaData(), DbName.SQL_SERVER,
+                    new HashMap<>(), INPUT_STREAM_TYPES, SPILL_TARGET).isRowByRow());
+        }
+    }
+}
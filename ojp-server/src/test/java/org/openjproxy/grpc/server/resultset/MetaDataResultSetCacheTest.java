@@ -0,0 +1,95 @@
+package org.openjproxy.grpc.server.resultset;
+
+import com.openjproxy.grpc.CallType;
+import com.openjproxy.grpc.OpResult;
+import com.openjproxy.grpc.ResultSetFormat;
+import com.openjproxy.grpc.TargetCall;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetaDataResultSetCacheTest {
+
+    private static final List<OpResult> BLOCKS = List.of(OpResult.newBuilder().setFlag("block").build());
+
+    @Test
+    public void shouldExpireEntriesAfterTheTimeToLive() {
+        AtomicLong now = new AtomicLong(1000);
+        MetaDataResultSetCache cache = new MetaDataResultSetCache(500, 10, now::get);
+        MetaDataResultSetCache.Key key = key("Tables");
+
+        cache.put(key, BLOCKS, cache.generation());
+        assertEquals(BLOCKS, cache.get(new MetaDataResultSetCache.Key(ResultSetFormat.RSF_ROW_BLOCK, call("Tables"),
+                "CAT", "PUBLIC")));
+        assertNull(cache.get(key("Columns")));
+        assertNull(cache.get(new MetaDataResultSetCache.Key(ResultSetFormat.RSF_COLUMNAR, call("Tables"),
+                "CAT", "PUBLIC")));
+        assertNull(cache.get(new MetaDataResultSetCache.Key(ResultSetFormat.RSF_ROW_BLOCK, call("Tables"),
+                "CAT", "OTHER")), "Other current schema");
+        assertNull(cache.get(new MetaDataResultSetCache.Key(ResultSetFormat.RSF_ROW_BLOCK, call("Tables"),
+                null, "PUBLIC")), "Other current catalog");
+
+        now.addAndGet(500);
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    public void shouldNotCacheResultSetsReadBeforeAnInvalidation() {
+        MetaDataResultSetCache cache = new MetaDataResultSetCache(60000, 10);
+        MetaDataResultSetCache.Key key = key("Tables");
+        cache.put(key, BLOCKS, cache.generation());
+
+        long generation = cache.generation();
+        cache.invalidate();
+        assertNull(cache.get(key));
+        cache.put(key, BLOCKS, generation);
+        assertNull(cache.get(key), "Read while DDL was running");
+
+        cache.put(key, BLOCKS, cache.generation());
+        assertEquals(BLOCKS, cache.get(key));
+    }
+
+    @Test
+    public void shouldKeepEntriesNotExpiredWhenFull() {
+        AtomicLong now = new AtomicLong(0);
+        MetaDataResultSetCache cache = new MetaDataResultSetCache(100, 1, now::get);
+        cache.put(key("Tables"), BLOCKS, cache.generation());
+        cache.put(key("Columns"), BLOCKS, cache.generation());
+        assertEquals(BLOCKS, cache.get(key("Tables")));
+        assertNull(cache.get(key("Columns")));
+
+        now.set(50);
+        cache.put(key("Columns"), BLOCKS, cache.generation());
+        assertNull(cache.get(key("Columns")));
+        now.set(100);
+        cache.put(key("Columns"), BLOCKS, cache.generation());
+        assertEquals(BLOCKS, cache.get(key("Columns")));
+        assertFalse(new MetaDataResultSetCache(0, 1).isEnabled());
+    }
+
+    @Test
+    public void shouldDetectDdl() {
+        assertTrue(MetaDataResultSetCache.isDdl("CREATE TABLE t (id INT)"));
+        assertTrue(MetaDataResultSetCache.isDdl("  alter table t add column c int"));
+        assertTrue(MetaDataResultSetCache.isDdl("-- migration\n/* v2 */ DROP INDEX idx"));
+        assertTrue(MetaDataResultSetCache.isDdl("truncate table t"));
+        assertFalse(MetaDataResultSetCache.isDdl("INSERT INTO created (id) VALUES (1)"));
+        assertFalse(MetaDataResultSetCache.isDdl("UPDATE t SET dropped = 1"));
+        assertFalse(MetaDataResultSetCache.isDdl("CREATED"));
+        assertFalse(MetaDataResultSetCache.isDdl(null));
+    }
+
+    private MetaDataResultSetCache.Key key(String resourceName) {
+        return new MetaDataResultSetCache.Key(ResultSetFormat.RSF_ROW_BLOCK, call(resourceName), "CAT", "PUBLIC");
+    }
+
+    private TargetCall call(String resourceName) {
+        return TargetCall.newBuilder().setCallType(CallType.CALL_GET).setResourceName(resourceName).build();
+    }
+}
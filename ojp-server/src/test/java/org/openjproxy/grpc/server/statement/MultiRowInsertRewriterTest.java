@@ -0,0 +1,86 @@
+package org.openjproxy.grpc.server.statement;
+
+import com.openjproxy.grpc.DbName;
+import com.openjproxy.grpc.SessionInfo;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.openjproxy.grpc.dto.Parameter;
+import org.openjproxy.grpc.dto.ParameterType;
+import org.openjproxy.grpc.server.SessionManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MultiRowInsertRewriterTest {
+
+    @Test
+    public void shouldFoldSingleRowInserts() {
+        MultiRowInsertRewriter rewriter = MultiRowInsertRewriter.parse(
+                "INSERT INTO users (id, name, created) VALUES (?, ?, NOW())");
+
+        assertNotNull(rewriter);
+        assertEquals("INSERT INTO users (id, name, created) VALUES (?, ?, NOW()), (?, ?, NOW()), (?, ?, NOW())",
+                rewriter.sql(3));
+        assertNotNull(MultiRowInsertRewriter.parse("insert into users values(?, 'a?b');"));
+    }
+
+    @Test
+    public void shouldNotRewriteOtherStatements() {
+        assertNull(MultiRowInsertRewriter.parse("UPDATE users SET name = ? WHERE id = ?"));
+        assertNull(MultiRowInsertRewriter.parse("INSERT INTO users (id) SELECT id FROM other WHERE id = ?"));
+        assertNull(MultiRowInsertRewriter.parse("INSERT INTO users (id, name) VALUES (?, ?) ON DUPLICATE KEY UPDATE name = ?"));
+        assertNull(MultiRowInsertRewriter.parse("INSERT INTO users (id) VALUES (?) RETURNING id"));
+        assertNull(MultiRowInsertRewriter.parse("INSERT INTO users (id) VALUES (1)"));
+        assertNull(MultiRowInsertRewriter.parse("INSERT INTO users (id) VALUES (?), (?)"));
+    }
+
+    @Test
+    public void shouldOnlySupportDatabasesWithMultiRowInserts() {
+        assertTrue(MultiRowInsertRewriter.supports(DbName.MYSQL));
+        assertTrue(MultiRowInsertRewriter.supports(DbName.MARIADB));
+        assertTrue(MultiRowInsertRewriter.supports(DbName.POSTGRES));
+        assertFalse(MultiRowInsertRewriter.supports(DbName.ORACLE));
+        assertFalse(MultiRowInsertRewriter.supports(DbName.H2));
+    }
+
+    @Test
+    public void shouldExecuteBatchAsMultiRowInserts() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:multiRowInsert", "sa", "")) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE TABLE multi_row_test (id INT PRIMARY KEY, name VARCHAR(20))");
+            }
+            List<List<Parameter>> rows = new ArrayList<>();
+            for (int i = 0; i < 250; i++) {
+                rows.add(Arrays.asList(
+                        Parameter.builder().index(1).type(ParameterType.INT).values(List.of(i)).build(),
+                        Parameter.builder().index(2).type(ParameterType.STRING).values(List.of("name " + i)).build()));
+            }
+            MultiRowInsertRewriter rewriter = MultiRowInsertRewriter.parse(
+                    "INSERT INTO multi_row_test (id, name) VALUES (?, ?)");
+
+            int[] updateCounts = rewriter.executeBatch(Mockito.mock(SessionManager.class),
+                    SessionInfo.newBuilder().build(), connection, rows, 100);
+
+            assertEquals(250, updateCounts.length);
+            for (int updateCount : updateCounts) {
+                assertEquals(1, updateCount);
+            }
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*), MAX(name) FROM multi_row_test WHERE name = 'name ' || id")) {
+                assertTrue(rs.next());
+                assertEquals(250, rs.getInt(1));
+            }
+        }
+    }
+}
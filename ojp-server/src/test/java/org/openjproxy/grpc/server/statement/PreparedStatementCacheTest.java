@@ -0,0 +1,125 @@
+package org.openjproxy.grpc.server.statement;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PreparedStatementCacheTest {
+
+    private static final String INSERT = "INSERT INTO cache_test (id) VALUES (?)";
+    private static final String SELECT = "SELECT id FROM cache_test WHERE id = ?";
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:preparedStatementCache", "sa", "");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE cache_test (id INT)");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE cache_test");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void shouldReuseReleasedStatementWithClearedParameters() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        assertNull(cache.acquire(INSERT, ByteString.EMPTY));
+
+        PreparedStatement ps = connection.prepareStatement(INSERT);
+        ps.setInt(1, 1);
+        ps.executeUpdate();
+        cache.release(INSERT, ByteString.EMPTY, ps, null);
+
+        PreparedStatement cached = cache.acquire(INSERT, ByteString.EMPTY);
+        assertSame(ps, cached);
+        assertThrows(SQLException.class, cached::executeUpdate, "Parameters are cleared before reuse");
+        assertNull(cache.acquire(INSERT, ByteString.EMPTY), "Statements in use are not handed out twice");
+    }
+
+    @Test
+    public void shouldOnlyReuseStatementsForTheExactSqlAndProperties() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        cache.release(INSERT, ByteString.EMPTY, connection.prepareStatement(INSERT), null);
+
+        assertNull(cache.acquire(INSERT.toLowerCase(), ByteString.EMPTY), "Same fingerprint but different SQL");
+        assertNull(cache.acquire(INSERT, ByteString.copyFromUtf8("properties")));
+        assertTrue(cache.acquire(INSERT, ByteString.EMPTY) != null);
+    }
+
+    @Test
+    public void shouldNotReuseStatementWhileItsResultSetIsOpen() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        PreparedStatement ps = connection.prepareStatement(SELECT);
+        ps.setInt(1, 1);
+        ResultSet rs = ps.executeQuery();
+        cache.release(SELECT, ByteString.EMPTY, ps, rs);
+
+        assertNull(cache.acquire(SELECT, ByteString.EMPTY));
+        assertFalse(rs.isClosed());
+
+        rs.close();
+        assertSame(ps, cache.acquire(SELECT, ByteString.EMPTY));
+    }
+
+    @Test
+    public void shouldCloseLeastRecentlyUsedStatementOnEviction() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache(2);
+        PreparedStatement first = connection.prepareStatement(INSERT);
+        PreparedStatement second = connection.prepareStatement(SELECT);
+        PreparedStatement third = connection.prepareStatement("DELETE FROM cache_test WHERE id = ?");
+        cache.release(INSERT, ByteString.EMPTY, first, null);
+        cache.release(SELECT, ByteString.EMPTY, second, null);
+        cache.release("DELETE FROM cache_test WHERE id = ?", ByteString.EMPTY, third, null);
+
+        assertEquals(2, cache.size());
+        assertTrue(first.isClosed());
+        assertFalse(second.isClosed());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertTrue(second.isClosed());
+        assertTrue(third.isClosed());
+    }
+
+    @Test
+    public void shouldCloseReplacedStatementOnceItsResultSetIsClosed() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache(4);
+        PreparedStatement first = connection.prepareStatement(SELECT);
+        first.setInt(1, 1);
+        ResultSet rs = first.executeQuery();
+        cache.release(SELECT, ByteString.EMPTY, first, rs);
+        PreparedStatement second = connection.prepareStatement(SELECT);
+        cache.release(SELECT, ByteString.EMPTY, second, null);
+
+        assertFalse(first.isClosed(), "Its result set is still open");
+        cache.closeRetired();
+        assertFalse(first.isClosed());
+
+        rs.close();
+        cache.closeRetired();
+        assertTrue(first.isClosed());
+        assertFalse(second.isClosed());
+    }
+}
@@ -0,0 +1,92 @@
+package org.openjproxy.grpc.server.statement;
+
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.server.SqlStatementXXHash;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class StatementHandleRegistryTest {
+
+    private static final String SQL = "SELECT id, name FROM   users WHERE id = ?";
+
+    @Test
+    public void shouldKeepSqlWithItsFingerprintUnderHandle() {
+        StatementHandleRegistry registry = new StatementHandleRegistry();
+        long handle = registry.register("client", SQL, 10, false);
+
+        assertNotEquals(0, handle);
+        RegisteredStatement statement = registry.get("client", handle);
+        assertEquals(SQL, statement.getSql());
+        assertEquals("select id, name from users where id = ?", statement.getNormalizedSql());
+        assertEquals(SqlStatementXXHash.hashSqlQuery(SQL), statement.getHash());
+    }
+
+    @Test
+    public void shouldReturnSameHandleForSameSqlOfAClient() {
+        StatementHandleRegistry registry = new StatementHandleRegistry();
+        long handle = registry.register("client", SQL, 10, false);
+
+        assertEquals(handle, registry.register("client", SQL, 10, false));
+        assertNotEquals(handle, registry.register("client", SQL.toLowerCase(), 10, false));
+    }
+
+    @Test
+    public void shouldScopeHandlesToTheClient() {
+        StatementHandleRegistry registry = new StatementHandleRegistry();
+        long handle = registry.register("client", SQL, 10, false);
+
+        assertNull(registry.get("other client", handle));
+        assertNull(registry.get("client", handle + 1));
+    }
+
+    @Test
+    public void shouldNotReuseHandlesAfterARestart() {
+        long handle = new StatementHandleRegistry().register("client", SQL, 10, false);
+        StatementHandleRegistry restarted = new StatementHandleRegistry();
+        restarted.register("client", "SELECT 1", 10, false);
+
+        assertNull(restarted.get("client", handle), "Handles are not a sequence restarting with the server");
+    }
+
+    @Test
+    public void shouldDropHandlesOfIdleClients() throws InterruptedException {
+        StatementHandleRegistry registry = new StatementHandleRegistry();
+        long handle = registry.register("client", SQL, 10, false);
+
+        registry.evictIdleClients(60000);
+        assertEquals(SQL, registry.get("client", handle).getSql());
+
+        Thread.sleep(20);
+        registry.evictIdleClients(10);
+        assertNull(registry.get("client", handle));
+    }
+
+    @Test
+    public void shouldLookForIdleClientsOncePerTenthOfTheIdleTimeout() throws InterruptedException {
+        StatementHandleRegistry registry = new StatementHandleRegistry();
+        registry.evictIdleClientsIfDue(60000);
+        long handle = registry.register("client", SQL, 10, false);
+
+        Thread.sleep(20);
+        registry.evictIdleClientsIfDue(10);
+        assertEquals(SQL, registry.get("client", handle).getSql(), "Looked for idle clients moments ago");
+
+        registry = new StatementHandleRegistry();
+        handle = registry.register("client", SQL, 10, false);
+        Thread.sleep(20);
+        registry.evictIdleClientsIfDue(10);
+        assertNull(registry.get("client", handle));
+    }
+
+    @Test
+    public void shouldNotRegisterBeyondMaxHandlesPerClient() {
+        StatementHandleRegistry registry = new StatementHandleRegistry();
+        registry.register("client", "SELECT 1", 2, false);
+        registry.register("client", "SELECT 2", 2, false);
+
+        assertEquals(0, registry.register("client", "SELECT 3", 2, false));
+        assertNotEquals(0, registry.register("other client", "SELECT 3", 2, false));
+    }
+}
@@ -0,0 +1,39 @@
+package org.openjproxy.grpc.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CallableStatementUtilsTest {
+
+    @Test
+    public void shouldReadPlainOutParametersOnly() throws SQLException {
+        CallableStatement cs = mock(CallableStatement.class);
+        when(cs.getObject(1)).thenReturn(42);
+        when(cs.getObject(2)).thenReturn(new BigDecimal("10.5"));
+        when(cs.getObject(3)).thenReturn(null);
+        when(cs.getObject(4)).thenReturn(mock(Clob.class));
+        when(cs.getObject(5)).thenThrow(new SQLException("Not an out parameter"));
+
+        Map<Integer, Object> values = CallableStatementUtils.readOutParameters(cs, List.of(1, 2, 3, 4, 5));
+
+        assertEquals(42, values.get(1));
+        assertEquals(new BigDecimal("10.5"), values.get(2));
+        assertTrue(values.containsKey(3));
+        assertNull(values.get(3));
+        assertFalse(values.containsKey(4), "Read by the client on demand");
+        assertFalse(values.containsKey(5));
+    }
+}
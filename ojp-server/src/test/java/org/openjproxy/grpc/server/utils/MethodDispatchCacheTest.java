@@ -0,0 +1,83 @@
+package org.openjproxy.grpc.server.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjproxy.grpc.server.utils.MethodDispatchCache.DispatchedMethod;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MethodDispatchCacheTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:methodDispatchCache", "sa", "");
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void shouldResolveMethodOnceByNameAndParameterTypes() {
+        DispatchedMethod getter = MethodDispatchCache.findMethod(Connection.class, "getAutoCommit",
+                Collections.emptyList());
+        assertSame(getter, MethodDispatchCache.findMethod(Connection.class, "getAutoCommit",
+                Collections.emptyList()));
+        assertFalse(getter.hasParameters());
+
+        DispatchedMethod intSetter = MethodDispatchCache.findMethod(Statement.class, "setMaxRows",
+                List.of(10));
+        assertTrue(intSetter.hasParameters());
+        assertNotSame(intSetter, MethodDispatchCache.findMethod(Statement.class, "setFetchSize", List.of(10)));
+    }
+
+    @Test
+    public void shouldInvokeWithPrimitiveParametersAndVoidResults() throws Exception {
+        DispatchedMethod setter = MethodDispatchCache.findMethod(Connection.class, "setAutoCommit", List.of(false));
+        assertNull(setter.invoke(connection, List.of(false)));
+
+        DispatchedMethod getter = MethodDispatchCache.findMethod(Connection.class, "getAutoCommit",
+                Collections.emptyList());
+        assertEquals(Boolean.FALSE, getter.invoke(connection, Collections.emptyList()));
+
+        try (Statement statement = connection.createStatement()) {
+            List<Object> params = Arrays.asList(25);
+            MethodDispatchCache.findMethod(Statement.class, "setMaxRows", params).invoke(statement, params);
+            assertEquals(25, MethodDispatchCache.findMethod(Statement.class, "getMaxRows", Collections.emptyList())
+                    .invoke(statement, Collections.emptyList()));
+        }
+    }
+
+    @Test
+    public void shouldPropagateExceptionsThrownByTheMethod() throws SQLException {
+        Connection closed = DriverManager.getConnection("jdbc:h2:mem:methodDispatchCacheClosed", "sa", "");
+        closed.close();
+        DispatchedMethod getter = MethodDispatchCache.findMethod(Connection.class, "getAutoCommit",
+                Collections.emptyList());
+        assertThrows(SQLException.class, () -> getter.invoke(closed, Collections.emptyList()));
+    }
+
+    @Test
+    public void shouldFailForUnknownMethods() {
+        assertThrows(RuntimeException.class, () -> MethodDispatchCache.findMethod(Connection.class, "getNothing",
+                Collections.emptyList()));
+    }
+}